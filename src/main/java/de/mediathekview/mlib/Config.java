@@ -20,15 +20,14 @@
 package de.mediathekview.mlib;
 
 import de.mediathekview.mlib.Const;
-
-import java.util.concurrent.atomic.AtomicBoolean;
+import de.mediathekview.mlib.tool.CancellationToken;
 
 public class Config {
 
     public static int bandbreite = 0; // maxBandbreite in Byte
     private static String userAgent = null;
     public static boolean debug = false; // Debugmodus
-    private static final AtomicBoolean stop = new AtomicBoolean(false); // damit kannn das Laden gestoppt werden
+    private static volatile CancellationToken lauf = CancellationToken.create("Suchlauf"); // damit kannn das Laden gestoppt werden
 
     public static void setUserAgent(String ua) {
         // Useragent den der Benutzer vorgegeben hat
@@ -46,10 +45,15 @@ public class Config {
     /**
      * Damit kann "stop" gesetzt/rückgesetzt werden.
      *
-     * @param set Bei true wird die Suche abgebrochen.
+     * @param set Bei true wird die Suche abgebrochen, mit allen laufenden Anfragen. Bei false gibt
+     *            es für den nächsten Lauf ein neues {@link CancellationToken}.
      */
-    public static void setStop(boolean set) {
-        stop.set(set);
+    public static synchronized void setStop(boolean set) {
+        if (set) {
+            lauf.cancel("Stop");
+        } else if (lauf.isCancelled()) {
+            lauf = CancellationToken.create("Suchlauf");
+        }
     }
 
     /**
@@ -58,6 +62,13 @@ public class Config {
      * @return true/false
      */
     public static boolean getStop() {
-        return stop.get();
+        return lauf.isCancelled();
+    }
+
+    /**
+     * @return das Token des Suchlaufs, die Sender und Tasks haben eigene Kinder davon
+     */
+    public static CancellationToken getCancellation() {
+        return lauf;
     }
 }
@@ -34,6 +34,7 @@ public class Const {
     public static final int STRING_BUFFER_START_BUFFER = 8 * 1024 * 8; // 8 KiB
     public static final String FORMAT_ZIP = ".zip";
     public static final String FORMAT_XZ = ".xz";
+    public static final String FORMAT_GZ = ".gz";
     public static final String RTMP_PRTOKOLL = "rtmp";
     public static final String RTMP_FLVSTREAMER = "-r ";
     public static final int ALTER_FILMLISTE_SEKUNDEN_FUER_AUTOUPDATE = 3 * 60 * 60; // beim Start des Programms wir die Liste geladen wenn sie älter ist als ..
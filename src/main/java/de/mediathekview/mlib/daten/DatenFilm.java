@@ -113,8 +113,6 @@ public class DatenFilm implements Comparable<DatenFilm> {
   public MSLong dateigroesseL = new MSLong(0); // Dateigröße in MByte
   public int nr;
   private boolean neuerFilm = false;
-  private Hash hashValueIndexAddOld = null;
-  private Hash hashValueUrl = null;
 
   public DatenFilm() {
     dateigroesseL = new MSLong(0); // Dateigröße in MByte
@@ -251,13 +249,22 @@ public class DatenFilm implements Comparable<DatenFilm> {
     String url = getUrl();
 
     // bei ZDF Hosts Sonderlogik mit (n)rodl
-    url = url.replaceFirst("https://nrodl", "https://rodl")
-            .replaceFirst("http://nrodl", "http://rodl");
+    url = replaceFirst(url, "https://nrodl", "https://rodl");
+    url = replaceFirst(url, "http://nrodl", "http://rodl");
 
     // URL beim KiKa und ORF ändern sich laufend!
     return (arr[FILM_SENDER] + arr[FILM_THEMA]).toLowerCase() + url;
   }
 
+  private static String replaceFirst(String s, String target, String replacement) {
+    // wie String.replaceFirst, aber ohne Regex
+    final int pos = s.indexOf(target);
+    if (pos < 0) {
+      return s;
+    }
+    return s.substring(0, pos) + replacement + s.substring(pos + target.length());
+  }
+
   public String getIndexAddOld() {
     // liefert einen eindeutigen Index zum Anhängen einer alten Liste
     return arr[FILM_SENDER] + repl(arr[FILM_THEMA]) + repl(arr[FILM_TITEL]);
@@ -267,20 +274,21 @@ public class DatenFilm implements Comparable<DatenFilm> {
     return s.replace("-", "").replace("_", "").replace(".", "").replace(" ", "").replace(",", "").toLowerCase();
   }
 
-  public Hash getHashValueIndexAddOld() {
-    if (hashValueIndexAddOld == null) {
-      hashValueIndexAddOld = new Hash(getIndexAddOld());
-    }
+  public long getFingerprintIndex() {
+    return Fingerprint.of(getIndex());
+  }
 
-    return hashValueIndexAddOld;
+  public long getFingerprintIndexAddOld() {
+    return Fingerprint.of(getIndexAddOld());
   }
 
-  public Hash getHashValueUrl() {
-    if (hashValueUrl == null) {
-      hashValueUrl = new Hash(getUrl());
-    }
+  public long getFingerprintUrl() {
+    return Fingerprint.of(getUrl());
+  }
 
-    return hashValueUrl;
+  public long getFingerprintDiff() {
+    // Sender, Thema, Titel und URL: ein Film mit denselben Werten ist beim Diff nicht neu
+    return Fingerprint.of(arr[FILM_SENDER], arr[FILM_THEMA], arr[FILM_TITEL], arr[FILM_URL]);
   }
 
   public String getUrl() {
@@ -347,16 +355,8 @@ public class DatenFilm implements Comparable<DatenFilm> {
 
   private void preserveMemory() {
 //================================
-    // Speicher sparen
-    if (arr[DatenFilm.FILM_GROESSE].length() < 3) {
-      arr[DatenFilm.FILM_GROESSE] = arr[DatenFilm.FILM_GROESSE].intern();
-    }
-    if (arr[DatenFilm.FILM_URL_KLEIN].length() < 15) {
-      arr[DatenFilm.FILM_URL_KLEIN] = arr[DatenFilm.FILM_URL_KLEIN].intern();
-    }
-
-    arr[DatenFilm.FILM_DATUM] = arr[DatenFilm.FILM_DATUM].intern();
-    arr[DatenFilm.FILM_ZEIT] = arr[DatenFilm.FILM_ZEIT].intern();
+    // Speicher sparen: Sender, Thema, Datum, Zeit, ... teilen sich die Instanzen mit den anderen Filmen
+    FilmDictionary.compact(this);
   }
 
   private void setFilmdauer() {
@@ -417,12 +417,6 @@ public class DatenFilm implements Comparable<DatenFilm> {
   }
 
   public void init() {
-    preserveMemory();
-
-    //================================
-    // Dateigröße
-    dateigroesseL = new MSLong(this);
-
     //================================
     // Filmdauer
     setFilmdauer();
@@ -430,6 +424,13 @@ public class DatenFilm implements Comparable<DatenFilm> {
     //================================
     // Datum
     setDatum();
+
+    // erst hier, Dauer und Datum-Long werden oben noch neu gesetzt
+    preserveMemory();
+
+    //================================
+    // Dateigröße
+    dateigroesseL = new MSLong(this);
   }
 
   private String getUrlNormalKlein() {
@@ -0,0 +1,89 @@
+/*
+ * MediathekView
+ * Copyright (C) 2008 W. Xaver
+ * W.Xaver[at]googlemail.com
+ * http://zdfmediathk.sourceforge.net/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.mediathekview.mlib.daten;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Dictionary für die Spalten der Filmliste mit wenigen unterschiedlichen Werten.
+ * Gleiche Werte (Sender, Thema, Datum, Zeit, Geo, ...) teilen sich dadurch eine
+ * String-Instanz, auch über mehrere {@link ListeFilme} hinweg.
+ * Nicht mehr verwendete Einträge werden vom GC wieder freigegeben.
+ */
+public final class FilmDictionary {
+
+  /**
+   * Spalten, deren Werte sich viele Filme teilen.
+   */
+  static final int[] DICTIONARY_COLUMNS = {
+    DatenFilm.FILM_SENDER, DatenFilm.FILM_THEMA, DatenFilm.FILM_DATUM, DatenFilm.FILM_ZEIT,
+    DatenFilm.FILM_DAUER, DatenFilm.FILM_GROESSE, DatenFilm.FILM_GEO, DatenFilm.FILM_NEU,
+    DatenFilm.FILM_DATUM_LONG
+  };
+
+  /**
+   * Spalten, die meist leer sind oder nur kurze Verweise enthalten (z.B. "52|..." bei der kleinen URL).
+   */
+  private static final int[] SHORT_VALUE_COLUMNS = {
+    DatenFilm.FILM_URL_KLEIN, DatenFilm.FILM_URL_HD, DatenFilm.FILM_URL_RTMP, DatenFilm.FILM_URL_RTMP_KLEIN,
+    DatenFilm.FILM_URL_RTMP_HD, DatenFilm.FILM_URL_HISTORY, DatenFilm.FILM_URL_SUBTITLE
+  };
+  private static final int SHORT_VALUE_MAX_LENGTH = 15;
+
+  private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
+  private FilmDictionary() {
+  }
+
+  /**
+   * Liefert die gemeinsame Instanz für den Wert.
+   *
+   * @param value der Wert, darf null sein
+   * @return die gemeinsame Instanz oder null
+   */
+  public static String get(final String value) {
+    if (value == null) {
+      return null;
+    }
+    if (value.isEmpty()) {
+      return "";
+    }
+    return INTERNER.intern(value);
+  }
+
+  /**
+   * Ersetzt die Werte der Dictionary-Spalten eines Films durch die gemeinsamen Instanzen.
+   *
+   * @param film der Film
+   */
+  static void compact(final DatenFilm film) {
+    final String[] arr = film.arr;
+    for (int column : DICTIONARY_COLUMNS) {
+      arr[column] = get(arr[column]);
+    }
+    for (int column : SHORT_VALUE_COLUMNS) {
+      final String value = arr[column];
+      if (value != null && value.length() < SHORT_VALUE_MAX_LENGTH) {
+        arr[column] = get(value);
+      }
+    }
+  }
+}
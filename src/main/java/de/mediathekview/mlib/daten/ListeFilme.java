@@ -22,6 +22,7 @@ package de.mediathekview.mlib.daten;
 import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.tool.Duration;
 import de.mediathekview.mlib.tool.FileSize;
+import de.mediathekview.mlib.tool.FingerprintSet;
 import de.mediathekview.mlib.tool.Functions;
 import de.mediathekview.mlib.tool.Log;
 import org.apache.commons.lang3.time.FastDateFormat;
@@ -30,7 +31,9 @@ import java.security.MessageDigest;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @SuppressWarnings("serial")
 public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm> {
@@ -56,12 +59,32 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
     public String[][] themenPerSender = {{""}};
     public boolean neueFilme = false;
 
-    private final Collection<String> indexes;
+    /**
+     * Fingerprints von {@link DatenFilm#getIndex()}, ohne globale Sperre.
+     */
+    private final FingerprintSet indexes;
+    /**
+     * URL in Kleinbuchstaben -> Film, für {@link #getFilmByUrl(String)}.
+     */
+    private final UrlIndex urlIndex = new UrlIndex(film -> Stream.of(
+            film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL].toLowerCase(Locale.ROOT)));
+    /**
+     * URL -> Film, für {@link #getFileSizeUrl(String)}.
+     */
+    private final UrlIndex urlExaktIndex = new UrlIndex(film -> Stream.of(
+            film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL]));
+    /**
+     * URL, URL klein und URL HD -> Film, für {@link #getFilmByUrl_klein_hoch_hd(String)}.
+     */
+    private final UrlIndex urlKleinHdIndex = new UrlIndex(film -> Stream.of(
+            film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL],
+            film.getUrlFuerAufloesung(de.mediathekview.mlib.daten.DatenFilm.AUFLOESUNG_HD),
+            film.getUrlFuerAufloesung(de.mediathekview.mlib.daten.DatenFilm.AUFLOESUNG_KLEIN)));
 
     public ListeFilme()
     {
         super();
-        indexes = new ConcurrentSkipListSet<>();
+        indexes = new FingerprintSet();
     }
 
 
@@ -72,13 +95,50 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
         return addInit(film);
     }
 
-    public synchronized boolean addFilmVomSender(de.mediathekview.mlib.daten.DatenFilm film) {
+    /**
+     * Übernimmt einen Block von Filmen aus einer fertigen Filmliste, die Reihenfolge bleibt erhalten.
+     * Die Filme müssen mit {@link DatenFilm#init()} schon initialisiert sein.
+     *
+     * @param filme die Filme
+     */
+    public synchronized void importFilmliste(List<de.mediathekview.mlib.daten.DatenFilm> filme) {
+        importFilmliste(filme, filme.parallelStream().mapToLong(de.mediathekview.mlib.daten.DatenFilm::getFingerprintIndex).toArray());
+    }
+
+    /**
+     * Wie {@link #importFilmliste(List)}, die Fingerprints von {@link DatenFilm#getIndex()} sind
+     * schon bekannt, z.B. aus dem {@link de.mediathekview.mlib.filmlisten.FilmlisteSnapshot}.
+     *
+     * @param filme        die Filme
+     * @param fingerprints {@link DatenFilm#getFingerprintIndex()} je Film, in der Reihenfolge der Filme
+     */
+    public synchronized void importFilmliste(List<de.mediathekview.mlib.daten.DatenFilm> filme, long[] fingerprints) {
+        if (fingerprints.length != filme.size()) {
+            throw new IllegalArgumentException("Anzahl Fingerprints: " + fingerprints.length + ", Anzahl Filme: " + filme.size());
+        }
+        for (long fingerprint : fingerprints) {
+            indexes.add(fingerprint);
+        }
+        ensureCapacity(size() + filme.size());
+        for (de.mediathekview.mlib.daten.DatenFilm film : filme) {
+            film.nr = nr++;
+            super.add(film);
+        }
+    }
+
+    public boolean addFilmVomSender(de.mediathekview.mlib.daten.DatenFilm film) {
         // Filme die beim Sender gesucht wurden (und nur die) hier eintragen, nur für die MediathekReader!!
         // ist: "Sender-Thema-URL" schon vorhanden, wird sie verworfen
+        // nur das Einfügen in die Liste selbst ist synchronisiert, die Sender-Threads warten nicht aufeinander
 
         Functions.unescape(film);
 
-        return !indexes.contains(film.getIndex()) && addInit(film);
+        if (!indexes.add(film.getFingerprintIndex())) {
+            return false;
+        }
+        film.init();
+        addToList(film);
+        return true;
     }
 
     private void addHash(de.mediathekview.mlib.daten.DatenFilm f, HashSet<String> hash, boolean index) {
@@ -151,8 +211,27 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
     @Override
     public boolean add(de.mediathekview.mlib.daten.DatenFilm aFilm)
     {
-        indexes.add(aFilm.getIndex());
-        return super.add(aFilm);
+        indexes.add(aFilm.getFingerprintIndex());
+        addToList(aFilm);
+        return true;
+    }
+
+    private synchronized void addToList(de.mediathekview.mlib.daten.DatenFilm film) {
+        final int before = modCount;
+        super.add(film);
+        urlIndex.added(film, before);
+        urlExaktIndex.added(film, before);
+        urlKleinHdIndex.added(film, before);
+    }
+
+    @Override
+    public synchronized de.mediathekview.mlib.daten.DatenFilm set(int index, de.mediathekview.mlib.daten.DatenFilm film) {
+        // ändert den modCount nicht, darum die URL-Indizes selbst verwerfen
+        final de.mediathekview.mlib.daten.DatenFilm alt = super.set(index, film);
+        urlIndex.clear();
+        urlExaktIndex.clear();
+        urlKleinHdIndex.clear();
+        return alt;
     }
 
     @Override
@@ -161,6 +240,9 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
         neueFilme = false;
         indexes.clear();
         super.clear();
+        urlIndex.clear();
+        urlExaktIndex.clear();
+        urlKleinHdIndex.clear();
     }
 
     public synchronized void check() {
@@ -211,22 +293,15 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
         // die im Vergleich zur Liste "orgListe"
         // neu sind, also ein Diff mit nur den neuen Filmen in DIESER Liste
         ListeFilme ret = new ListeFilme();
-        final HashSet<String> hashSet = new HashSet<>(orgListe.size() + 1, 1);
-
-        for (de.mediathekview.mlib.daten.DatenFilm film : orgListe) {
-            final String s = film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_SENDER] + film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_THEMA] + film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_TITEL] + film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL];
-            hashSet.add(s);
-        }
+        final FingerprintSet hashSet = new FingerprintSet(orgListe.size());
+        orgListe.parallelStream().forEach(film -> hashSet.add(film.getFingerprintDiff()));
 
         for (de.mediathekview.mlib.daten.DatenFilm film : this) {
-            final String s = film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_SENDER] + film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_THEMA] + film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_TITEL] + film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL];
-            if (!hashSet.contains(s)) {
+            if (!hashSet.contains(film.getFingerprintDiff())) {
                 ret.add(film);
             }
         }
 
-        hashSet.clear();
-
         ret.metaDaten = metaDaten;
         return ret;
     }
@@ -241,8 +316,7 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
         //FIXME bring to DatenFilm and reduce calculation
         String res;
 
-        Optional<de.mediathekview.mlib.daten.DatenFilm> opt = this.parallelStream()
-                .filter(f -> f.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL].equals(url)).findAny();
+        Optional<de.mediathekview.mlib.daten.DatenFilm> opt = Optional.ofNullable(url).map(urlExaktIndex::get);
         if (opt.isPresent()) {
             de.mediathekview.mlib.daten.DatenFilm film = opt.get();
             if (!film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_GROESSE].isEmpty())
@@ -265,9 +339,11 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
     }
 
 
-    public synchronized de.mediathekview.mlib.daten.DatenFilm getFilmByUrl(final String url) {
-        Optional<de.mediathekview.mlib.daten.DatenFilm> opt = this.parallelStream().filter(f -> f.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL].equalsIgnoreCase(url)).findAny();
-        return opt.orElse(null);
+    public de.mediathekview.mlib.daten.DatenFilm getFilmByUrl(final String url) {
+        if (url == null) {
+            return null;
+        }
+        return urlIndex.get(url.toLowerCase(Locale.ROOT));
     }
 
     public synchronized void checkThema(String sender, LinkedList<String> liste, String thema) {
@@ -283,24 +359,10 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
                 .forEach(film -> liste.add(film.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_THEMA]));
     }
 
-    public synchronized de.mediathekview.mlib.daten.DatenFilm getFilmByUrl_klein_hoch_hd(String url) {
+    public de.mediathekview.mlib.daten.DatenFilm getFilmByUrl_klein_hoch_hd(String url) {
         // Problem wegen gleicher URLs
         // wird versucht, einen Film mit einer kleinen/Hoher/HD-URL zu finden
-        de.mediathekview.mlib.daten.DatenFilm ret = null;
-        for (de.mediathekview.mlib.daten.DatenFilm f : this) {
-            if (f.arr[de.mediathekview.mlib.daten.DatenFilm.FILM_URL].equals(url)) {
-                ret = f;
-                break;
-            } else if (f.getUrlFuerAufloesung(de.mediathekview.mlib.daten.DatenFilm.AUFLOESUNG_HD).equals(url)) {
-                ret = f;
-                break;
-            } else if (f.getUrlFuerAufloesung(de.mediathekview.mlib.daten.DatenFilm.AUFLOESUNG_KLEIN).equals(url)) {
-                ret = f;
-                break;
-            }
-        }
-
-        return ret;
+        return urlKleinHdIndex.get(url);
     }
 
     public synchronized String genDate() {
@@ -521,4 +583,87 @@ public class ListeFilme extends ArrayList<de.mediathekview.mlib.daten.DatenFilm>
         }
         Duration.counterStop(THEME_SEARCH_TEXT);
     }
+
+    /**
+     * Index von URLs auf Filme. Er wird erst bei der ersten Suche aufgebaut und danach bei jedem
+     * {@link #add(DatenFilm)} ergänzt; nach anderen Änderungen der Liste (Löschen, Sortieren,
+     * {@link #set(int, DatenFilm)}, ...) wird er bei der nächsten Suche neu aufgebaut. Bei gleichen
+     * URLs gilt der erste Film.
+     * <p>
+     * Die Suche braucht die Sperre der Liste nur zum Aufbauen. Ob der Index noch passt, wird am
+     * modCount der Liste erkannt; eine Suche während einer Änderung in einem anderen Thread kann
+     * deshalb noch den alten Stand liefern. Ändert sich die URL eines Films in der Liste, merkt
+     * der Index das nicht.
+     */
+    private final class UrlIndex {
+        private final Function<de.mediathekview.mlib.daten.DatenFilm, Stream<String>> keys;
+        /**
+         * der Index und der modCount der Liste, zu dem er passt, null: nicht aufgebaut
+         */
+        private volatile Stand stand = null;
+
+        UrlIndex(Function<de.mediathekview.mlib.daten.DatenFilm, Stream<String>> keys) {
+            this.keys = keys;
+        }
+
+        de.mediathekview.mlib.daten.DatenFilm get(String key) {
+            Stand aktuell = stand;
+            if (aktuell == null || aktuell.modCount != modCount) {
+                aktuell = aufbauen();
+            }
+            return aktuell.films.get(key);
+        }
+
+        private Stand aufbauen() {
+            synchronized (ListeFilme.this) {
+                Stand aktuell = stand;
+                if (aktuell == null || aktuell.modCount != modCount) {
+                    final Map<String, de.mediathekview.mlib.daten.DatenFilm> films = new ConcurrentHashMap<>();
+                    ListeFilme.this.forEach(film -> put(films, film));
+                    aktuell = new Stand(films, modCount);
+                    stand = aktuell;
+                }
+                return aktuell;
+            }
+        }
+
+        /**
+         * Wird unter der Sperre der Liste nach dem Einfügen aufgerufen.
+         *
+         * @param film   der eingefügte Film
+         * @param before modCount vor dem Einfügen
+         */
+        void added(de.mediathekview.mlib.daten.DatenFilm film, int before) {
+            final Stand aktuell = stand;
+            if (aktuell != null && aktuell.modCount == before) {
+                put(aktuell.films, film);
+                stand = new Stand(aktuell.films, modCount);
+            }
+        }
+
+        /**
+         * Verwirft den Index, er wird bei der nächsten Suche neu aufgebaut.
+         */
+        void clear() {
+            stand = null;
+        }
+
+        private void put(Map<String, de.mediathekview.mlib.daten.DatenFilm> films, de.mediathekview.mlib.daten.DatenFilm film) {
+            keys.apply(film).forEach(key -> {
+                if (!key.isEmpty()) {
+                    films.putIfAbsent(key, film);
+                }
+            });
+        }
+    }
+
+    private static final class Stand {
+        private final Map<String, de.mediathekview.mlib.daten.DatenFilm> films;
+        private final int modCount;
+
+        Stand(Map<String, de.mediathekview.mlib.daten.DatenFilm> films, int modCount) {
+            this.films = films;
+            this.modCount = modCount;
+        }
+    }
 }
@@ -0,0 +1,221 @@
+/*
+ * MediathekView
+ * Copyright (C) 2008 W. Xaver
+ * W.Xaver[at]googlemail.com
+ * http://zdfmediathk.sourceforge.net/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.mediathekview.mlib.filmlisten;
+
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.daten.ListeFilme;
+import de.mediathekview.mlib.tool.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Sortierte Fingerprints ({@link DatenFilm#getFingerprintDiff()}) der ORG-Filmliste. Damit wird
+ * das Diff erzeugt, ohne die ORG-Liste zu laden: die Datei wird nur einmal gelesen und mit den
+ * sortierten Fingerprints der aktuellen Liste abgeglichen.
+ * <p>
+ * Aufbau (big endian):
+ * <pre>
+ * int     MAGIC, int VERSION
+ * String  Metadaten der Filmliste (ListeFilme.MAX_ELEM, writeUTF)
+ * int     Anzahl Filme, int Anzahl Fingerprints
+ * long[]  Fingerprints, aufsteigend sortiert, ohne Doppelte
+ * </pre>
+ */
+public class FilmlisteFingerprints {
+
+    private static final int MAGIC = 0x4D564650; // "MVFP"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final Path datei;
+    private final ListeFilme metaDaten = new ListeFilme();
+    private int anzahlFilme;
+    private int anzahlFingerprints;
+
+    private FilmlisteFingerprints(Path datei) {
+        this.datei = datei;
+    }
+
+    /**
+     * Schreibt die Fingerprints der Liste, die Datei wird erst am Ende ersetzt.
+     *
+     * @param datei      Pfad der Datei
+     * @param listeFilme die Filmliste
+     */
+    public static void schreiben(String datei, ListeFilme listeFilme) {
+        final Path target = Paths.get(datei);
+        final Path temp = Paths.get(datei + "_temp");
+        Log.sysLog("Fingerprints schreiben (" + listeFilme.size() + " Filme) nach: " + datei);
+        try {
+            final long[] fingerprints = sortedFingerprints(listeFilme);
+            final int anzahl = distinct(fingerprints);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (int i = 0; i < ListeFilme.MAX_ELEM; i++) {
+                    out.writeUTF(listeFilme.metaDaten[i]);
+                }
+                out.writeInt(listeFilme.size());
+                out.writeInt(anzahl);
+                for (int i = 0; i < anzahl; i++) {
+                    out.writeLong(fingerprints[i]);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Log.sysLog("   --> geschrieben!");
+        } catch (Exception ex) {
+            Log.errorLog(912036547, ex, "Fingerprints: " + datei);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Liest nur den Kopf der Datei, die Fingerprints werden erst in {@link #neueFilme(ListeFilme)} gelesen.
+     *
+     * @param datei Pfad der Datei
+     * @return die Fingerprints oder null, wenn die Datei fehlt oder nicht gelesen werden kann
+     */
+    public static FilmlisteFingerprints lesen(String datei) {
+        final FilmlisteFingerprints ret = new FilmlisteFingerprints(Paths.get(datei));
+        if (!Files.isRegularFile(ret.datei)) {
+            return null;
+        }
+        try (DataInputStream in = ret.open()) {
+            return in == null ? null : ret;
+        } catch (Exception ex) {
+            Log.errorLog(912036548, ex, "Fingerprints: " + datei);
+            return null;
+        }
+    }
+
+    /**
+     * @return die Metadaten der Filmliste, aus der die Fingerprints stammen (ohne Filme)
+     */
+    public ListeFilme getMetaDaten() {
+        return metaDaten;
+    }
+
+    /**
+     * @return Anzahl der Filme in der Filmliste, aus der die Fingerprints stammen
+     */
+    public int size() {
+        return anzahlFilme;
+    }
+
+    /**
+     * Liefert wie {@link ListeFilme#neueFilme(ListeFilme)} die Filme aus der Liste, die in der
+     * Filmliste dieser Fingerprints noch nicht enthalten sind.
+     *
+     * @param listeFilme die aktuelle Liste
+     * @return das Diff oder null, wenn die Datei nicht gelesen werden kann
+     */
+    public ListeFilme neueFilme(ListeFilme listeFilme) {
+        final long[] fingerprints = listeFilme.parallelStream().mapToLong(DatenFilm::getFingerprintDiff).toArray();
+        final long[] sorted = fingerprints.clone();
+        Arrays.parallelSort(sorted);
+        final boolean[] vorhanden = new boolean[sorted.length];
+
+        try (DataInputStream in = open()) {
+            if (in == null) {
+                return null;
+            }
+            int pos = 0;
+            for (int i = 0; i < anzahlFingerprints && pos < sorted.length; i++) {
+                final long org = in.readLong();
+                while (pos < sorted.length && sorted[pos] < org) {
+                    pos++;
+                }
+                while (pos < sorted.length && sorted[pos] == org) {
+                    vorhanden[pos++] = true;
+                }
+            }
+        } catch (Exception ex) {
+            Log.errorLog(912036549, ex, "Fingerprints: " + datei);
+            return null;
+        }
+
+        final ListeFilme ret = new ListeFilme();
+        int i = 0;
+        for (DatenFilm film : listeFilme) {
+            if (!vorhanden[Arrays.binarySearch(sorted, fingerprints[i++])]) {
+                ret.add(film);
+            }
+        }
+        ret.metaDaten = listeFilme.metaDaten;
+        return ret;
+    }
+
+    /**
+     * Öffnet die Datei und liest den Kopf.
+     *
+     * @return der Stream, positioniert auf dem ersten Fingerprint, oder null bei falschem Format
+     */
+    private DataInputStream open() throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(datei), BUFFER_SIZE));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                in.close();
+                return null;
+            }
+            for (int i = 0; i < ListeFilme.MAX_ELEM; i++) {
+                metaDaten.metaDaten[i] = in.readUTF();
+            }
+            anzahlFilme = in.readInt();
+            anzahlFingerprints = in.readInt();
+            return in;
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    private static long[] sortedFingerprints(ListeFilme listeFilme) {
+        final long[] fingerprints = listeFilme.parallelStream().mapToLong(DatenFilm::getFingerprintDiff).toArray();
+        Arrays.parallelSort(fingerprints);
+        return fingerprints;
+    }
+
+    /**
+     * Entfernt Doppelte aus dem sortierten Array.
+     *
+     * @return Anzahl der verbleibenden Werte am Anfang des Arrays
+     */
+    private static int distinct(long[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[i] != sorted[n - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n;
+    }
+}
@@ -39,20 +39,39 @@ import org.apache.commons.lang3.time.FastDateFormat;
 import org.tukaani.xz.XZInputStream;
 
 import javax.swing.event.EventListenerList;
+import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipInputStream;
 
 public class FilmlisteLesen {
     private static final int PROGRESS_MAX = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HEADER_MAX = 64 * 1024;
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final byte[] FILM_MARKER = ('"' + DatenFilm.TAG_JSON_LIST + "\":[").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CHUNK_SEPARATOR = (",\"" + DatenFilm.TAG_JSON_LIST + "\":[").getBytes(StandardCharsets.UTF_8);
     private static WorkMode workMode = WorkMode.NORMAL; // die Klasse wird an verschiedenen Stellen benutzt, klappt sonst nicht immer, zB. FilmListe zu alt und neu laden
     private final EventListenerList listeners = new EventListenerList();
+    private final JsonFactory jsonFactory = new JsonFactory();
     private int max = 0;
     private int progress = 0;
     private long milliseconds = 0;
@@ -82,9 +101,70 @@ public class FilmlisteLesen {
         return in;
     }
 
-    private void readData(JsonParser jp, ListeFilme listeFilme) throws IOException {
+    private InputStream openFile(String source) throws Exception {
+        if (source.endsWith(Const.FORMAT_XZ)) {
+            // mehrere Blöcke werden parallel entpackt
+            return ParallelXZInputStream.open(new File(source));
+        }
+        return selectDecompressor(source, new FileInputStream(source));
+    }
+
+    private void readData(InputStream input, ListeFilme listeFilme) throws IOException {
+        final BufferedInputStream in = new BufferedInputStream(input, BUFFER_SIZE);
+        in.mark(HEADER_MAX);
+        final byte[] head = in.readNBytes(HEADER_MAX);
+        in.reset();
+
+        final int headerLength = indexOf(head, head.length, FILM_MARKER, 0);
+        if (headerLength < 0) {
+            // unbekanntes Format oder leere Liste: am Stück lesen
+            try (JsonParser jp = jsonFactory.createParser(in)) {
+                readDataSequential(jp, listeFilme);
+            }
+            return;
+        }
+
+        try (JsonParser jp = jsonFactory.createParser(head, 0, headerLength)) {
+            readMetaData(jp, listeFilme);
+        }
+        in.skipNBytes(headerLength);
+        readFilmsParallel(in, listeFilme);
+    }
+
+    private void readDataSequential(JsonParser jp, ListeFilme listeFilme) throws IOException {
         JsonToken jsonToken;
         String sender = "", thema = "";
+        final List<DatenFilm> filme = new ArrayList<>();
+
+        readMetaData(jp, listeFilme);
+        while (!Config.getStop() && (jsonToken = jp.nextToken()) != null) {
+            if (jsonToken == JsonToken.END_OBJECT) {
+                break;
+            }
+            if (jp.isExpectedStartArrayToken()) {
+                DatenFilm datenFilm = readFilm(jp);
+                if (datenFilm.arr[DatenFilm.FILM_SENDER].isEmpty()) {
+                    datenFilm.arr[DatenFilm.FILM_SENDER] = sender;
+                } else {
+                    sender = datenFilm.arr[DatenFilm.FILM_SENDER];
+                }
+                if (datenFilm.arr[DatenFilm.FILM_THEMA].isEmpty()) {
+                    datenFilm.arr[DatenFilm.FILM_THEMA] = thema;
+                } else {
+                    thema = datenFilm.arr[DatenFilm.FILM_THEMA];
+                }
+
+                datenFilm.init();
+                if (checkDate(datenFilm)) {
+                    filme.add(datenFilm);
+                }
+            }
+        }
+        listeFilme.importFilmliste(filme);
+    }
+
+    private void readMetaData(JsonParser jp, ListeFilme listeFilme) throws IOException {
+        JsonToken jsonToken;
 
         if (jp.nextToken() != JsonToken.START_OBJECT) {
             throw new IllegalStateException("Expected data to start with an Object");
@@ -111,58 +191,208 @@ public class FilmlisteLesen {
                 break;
             }
         }
-        while (!Config.getStop() && (jsonToken = jp.nextToken()) != null) {
-            if (jsonToken == JsonToken.END_OBJECT) {
-                break;
+    }
+
+    /**
+     * Liest die Felder eines Films, der Parser steht auf dem Anfang des Arrays.
+     */
+    private DatenFilm readFilm(JsonParser jp) throws IOException {
+        DatenFilm datenFilm = new DatenFilm();
+        for (int i = 0; i < DatenFilm.JSON_NAMES.length; ++i) {
+            //if we are in FASTAUTO mode, we don´t need film descriptions.
+            //this should speed up loading on low end devices...
+            if (workMode == WorkMode.FASTAUTO) {
+                if (DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_BESCHREIBUNG
+                        || DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_WEBSEITE
+                        || DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_GEO) {
+                    jp.nextToken();
+                    continue;
+                }
             }
-            if (jp.isExpectedStartArrayToken()) {
-                DatenFilm datenFilm = new DatenFilm();
-                for (int i = 0; i < DatenFilm.JSON_NAMES.length; ++i) {
-                    //if we are in FASTAUTO mode, we don´t need film descriptions.
-                    //this should speed up loading on low end devices...
-                    if (workMode == WorkMode.FASTAUTO) {
-                        if (DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_BESCHREIBUNG
-                                || DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_WEBSEITE
-                                || DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_GEO) {
-                            jp.nextToken();
-                            continue;
-                        }
-                    }
-                    if (DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_NEU) {
-                        final String value = jp.nextTextValue();
-                        //This value is unused...
-                        //datenFilm.arr[DatenFilm.FILM_NEU_NR] = value;
-                        datenFilm.setNew(Boolean.parseBoolean(value));
-                    } else {
-                        datenFilm.arr[DatenFilm.JSON_NAMES[i]] = jp.nextTextValue();
+            if (DatenFilm.JSON_NAMES[i] == DatenFilm.FILM_NEU) {
+                final String value = jp.nextTextValue();
+                //This value is unused...
+                //datenFilm.arr[DatenFilm.FILM_NEU_NR] = value;
+                datenFilm.setNew(Boolean.parseBoolean(value));
+            } else {
+                datenFilm.arr[DatenFilm.JSON_NAMES[i]] = jp.nextTextValue();
+            }
+
+            /// für die Entwicklungszeit
+            if (datenFilm.arr[DatenFilm.JSON_NAMES[i]] == null) {
+                datenFilm.arr[DatenFilm.JSON_NAMES[i]] = "";
+            }
+        }
+        return datenFilm;
+    }
+
+    /**
+     * Die Filme werden in Blöcke aufgeteilt, die parallel gelesen werden. Geteilt wird immer vor
+     * ',"X":[', das kann in einem JSON-String nicht vorkommen, da dort '"' maskiert ist.
+     */
+    private void readFilmsParallel(InputStream in, ListeFilme listeFilme) throws IOException {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "FilmlisteLesen");
+            t.setDaemon(true);
+            return t;
+        });
+        final Deque<Future<FilmChunk>> pending = new ArrayDeque<>();
+        FilmChunk previous = new FilmChunk();
+
+        try {
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int filled = 0;
+            boolean eof = false;
+            while (!eof && !Config.getStop()) {
+                final int n = in.read(buffer, filled, buffer.length - filled);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    filled += n;
+                    if (filled < buffer.length) {
+                        continue;
                     }
+                }
 
-                    /// für die Entwicklungszeit
-                    if (datenFilm.arr[DatenFilm.JSON_NAMES[i]] == null) {
-                        datenFilm.arr[DatenFilm.JSON_NAMES[i]] = "";
+                int end = eof ? filled : lastIndexOf(buffer, filled, CHUNK_SEPARATOR);
+                if (end <= 0) {
+                    if (filled > 0 && !eof) {
+                        // ein Film ist größer als der Puffer
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        continue;
                     }
+                    end = filled;
                 }
-                if (datenFilm.arr[DatenFilm.FILM_SENDER].isEmpty()) {
-                    datenFilm.arr[DatenFilm.FILM_SENDER] = sender;
-                } else {
-                    sender = datenFilm.arr[DatenFilm.FILM_SENDER];
+                if (end > 0) {
+                    final byte[] chunk = wrapChunk(buffer, end);
+                    pending.add(executor.submit(() -> parseChunk(chunk)));
                 }
-                if (datenFilm.arr[DatenFilm.FILM_THEMA].isEmpty()) {
-                    datenFilm.arr[DatenFilm.FILM_THEMA] = thema;
-                } else {
-                    thema = datenFilm.arr[DatenFilm.FILM_THEMA];
+
+                // Rest ohne das Komma an den Anfang
+                final int rest = Math.max(0, filled - end - 1);
+                System.arraycopy(buffer, filled - rest, buffer, 0, rest);
+                filled = rest;
+
+                while (pending.size() > threads) {
+                    previous = mergeChunk(pending.removeFirst(), previous, listeFilme);
                 }
+            }
+            while (!pending.isEmpty() && !Config.getStop()) {
+                previous = mergeChunk(pending.removeFirst(), previous, listeFilme);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Macht aus '"X":[...],...,"X":[...]' ein JSON-Objekt, beim letzten Block ist die '}'
+     * schon enthalten, die zweite wird nicht mehr gelesen.
+     */
+    private static byte[] wrapChunk(byte[] buffer, int length) {
+        final byte[] chunk = new byte[length + 2];
+        chunk[0] = '{';
+        System.arraycopy(buffer, 0, chunk, 1, length);
+        chunk[length + 1] = '}';
+        return chunk;
+    }
 
-                listeFilme.importFilmliste(datenFilm);
-                if (milliseconds > 0) {
-                    // muss "rückwärts" laufen, da das Datum sonst 2x gebaut werden muss
-                    // wenns drin bleibt, kann mans noch ändern
-                    if (!checkDate(datenFilm)) {
-                        listeFilme.remove(datenFilm);
+    private FilmChunk parseChunk(byte[] data) throws IOException {
+        final FilmChunk chunk = new FilmChunk();
+        JsonToken jsonToken;
+        String sender = "", thema = "";
+
+        try (JsonParser jp = jsonFactory.createParser(data)) {
+            while ((jsonToken = jp.nextToken()) != null) {
+                if (jsonToken == JsonToken.END_OBJECT) {
+                    break;
+                }
+                if (jp.isExpectedStartArrayToken()) {
+                    DatenFilm datenFilm = readFilm(jp);
+                    if (datenFilm.arr[DatenFilm.FILM_SENDER].isEmpty()) {
+                        datenFilm.arr[DatenFilm.FILM_SENDER] = sender;
+                    } else {
+                        sender = datenFilm.arr[DatenFilm.FILM_SENDER];
+                    }
+                    if (datenFilm.arr[DatenFilm.FILM_THEMA].isEmpty()) {
+                        datenFilm.arr[DatenFilm.FILM_THEMA] = thema;
+                    } else {
+                        thema = datenFilm.arr[DatenFilm.FILM_THEMA];
+                    }
+
+                    datenFilm.init();
+                    if (checkDate(datenFilm)) {
+                        chunk.filme.add(datenFilm);
+                        // Sender/Thema stehen im Block davor
+                        if (sender.isEmpty()) {
+                            chunk.ohneSender++;
+                        }
+                        if (thema.isEmpty()) {
+                            chunk.ohneThema++;
+                        }
                     }
                 }
             }
         }
+        chunk.sender = sender;
+        chunk.thema = thema;
+        return chunk;
+    }
+
+    private FilmChunk mergeChunk(Future<FilmChunk> future, FilmChunk previous, ListeFilme listeFilme) throws IOException {
+        final FilmChunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Lesen der Filmliste unterbrochen");
+        } catch (ExecutionException ex) {
+            throw new IOException("Lesen der Filmliste fehlgeschlagen", ex.getCause());
+        }
+
+        for (int i = 0; i < chunk.ohneSender; i++) {
+            chunk.filme.get(i).arr[DatenFilm.FILM_SENDER] = previous.sender;
+        }
+        for (int i = 0; i < chunk.ohneThema; i++) {
+            chunk.filme.get(i).arr[DatenFilm.FILM_THEMA] = previous.thema;
+        }
+        if (chunk.sender.isEmpty()) {
+            chunk.sender = previous.sender;
+        }
+        if (chunk.thema.isEmpty()) {
+            chunk.thema = previous.thema;
+        }
+
+        listeFilme.importFilmliste(chunk.filme);
+        chunk.filme.clear();
+        return chunk;
+    }
+
+    private static int indexOf(byte[] data, int length, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= length - pattern.length; i++) {
+            for (int k = 0; k < pattern.length; k++) {
+                if (data[i + k] != pattern[k]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] data, int length, byte[] pattern) {
+        outer:
+        for (int i = length - pattern.length; i >= 0; i--) {
+            for (int k = 0; k < pattern.length; k++) {
+                if (data[i + k] != pattern[k]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
     }
 
     /**
@@ -173,9 +403,8 @@ public class FilmlisteLesen {
      */
     private void processFromFile(String source, ListeFilme listeFilme) {
         notifyProgress(source, PROGRESS_MAX);
-        try (InputStream in = selectDecompressor(source, new FileInputStream(source));
-             JsonParser jp = new JsonFactory().createParser(in)) {
-            readData(jp, listeFilme);
+        try (InputStream in = openFile(source)) {
+            readData(in, listeFilme);
         } catch (FileNotFoundException ex) {
             Log.errorLog(894512369, "FilmListe existiert nicht: " + source);
             listeFilme.clear();
@@ -193,6 +422,28 @@ public class FilmlisteLesen {
         }
     }
 
+    /**
+     * Read the film list from its binary snapshot if it is up to date, otherwise from the film list itself.
+     *
+     * @param source     file path of the film list
+     * @param snapshot   file path of the snapshot, see {@link FilmlisteSnapshot}
+     * @param listeFilme the list to read to
+     * @param days       only films of the last days, 0: all
+     */
+    public void readFilmListe(String source, String snapshot, final ListeFilme listeFilme, int days) {
+        if (FilmlisteSnapshot.isUsable(snapshot, source)) {
+            Log.sysLog("Liste Filme lesen von: " + snapshot);
+            listeFilme.clear();
+            this.notifyStart(snapshot, PROGRESS_MAX);
+            checkDays(days);
+            if (new FilmlisteSnapshot().lesen(snapshot, listeFilme, milliseconds)) {
+                notifyFertig(snapshot, listeFilme);
+                return;
+            }
+        }
+        readFilmListe(source, listeFilme, days);
+    }
+
     public void readFilmListe(String source, final ListeFilme listeFilme, int days) {
         try {
             Log.sysLog("Liste Filme lesen von: " + source);
@@ -246,9 +497,8 @@ public class FilmlisteLesen {
              ResponseBody body = response.body()) {
             if (response.isSuccessful()) {
                 try (InputStream input = new ProgressMonitorInputStream(body.byteStream(), body.contentLength(), monitor)) {
-                    try (InputStream is = selectDecompressor(source.toString(), input);
-                         JsonParser jp = new JsonFactory().createParser(is)) {
-                        readData(jp, listeFilme);
+                    try (InputStream is = selectDecompressor(source.toString(), input)) {
+                        readData(is, listeFilme);
                     }
                 }
             }
@@ -299,6 +549,19 @@ public class FilmlisteLesen {
         }
     }
 
+    /**
+     * Ergebnis eines parallel gelesenen Blocks.
+     */
+    private static final class FilmChunk {
+        private final List<DatenFilm> filme = new ArrayList<>();
+        // so viele Filme am Anfang haben Sender/Thema aus dem vorherigen Block
+        private int ohneSender = 0;
+        private int ohneThema = 0;
+        // Sender/Thema am Ende des Blocks
+        private String sender = "";
+        private String thema = "";
+    }
+
     public enum WorkMode {
 
         NORMAL, FASTAUTO
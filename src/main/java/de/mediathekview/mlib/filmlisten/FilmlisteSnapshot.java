@@ -0,0 +1,328 @@
+/*
+ * MediathekView
+ * Copyright (C) 2008 W. Xaver
+ * W.Xaver[at]googlemail.com
+ * http://zdfmediathk.sourceforge.net/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.mediathekview.mlib.filmlisten;
+
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.daten.ListeFilme;
+import de.mediathekview.mlib.tool.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Binärer Snapshot einer Filmliste, der nach jedem Lauf neben die JSON-Liste geschrieben wird.
+ * Er wird nur intern zum schnellen Neuladen benutzt, die JSON-Liste bleibt das Austauschformat.
+ * <p>
+ * Aufbau (big endian):
+ * <pre>
+ * int     MAGIC, int VERSION, int Anzahl Filme
+ * String  Metadaten der Filmliste (ListeFilme.MAX_ELEM)
+ * int     Anzahl Einträge Dictionary, String[] Dictionary
+ * Zeilen  je Film: Dictionary-Spalten als int, andere Spalten als String, byte neu
+ * long[]  Position jeder Zeile
+ * long[]  Fingerprint von {@link DatenFilm#getIndex()}
+ * long    Position der Tabellen
+ * </pre>
+ * String: int Länge in Bytes + UTF-8.
+ */
+public class FilmlisteSnapshot {
+
+    private static final int MAGIC = 0x4D565353; // "MVSS"
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    /**
+     * Spalten, die über das Dictionary gespeichert werden.
+     */
+    private static final int[] DICTIONARY_COLUMNS = {DatenFilm.FILM_SENDER, DatenFilm.FILM_THEMA,
+            DatenFilm.FILM_DATUM, DatenFilm.FILM_ZEIT, DatenFilm.FILM_DAUER, DatenFilm.FILM_GROESSE,
+            DatenFilm.FILM_GEO};
+    private static final boolean[] IS_DICTIONARY_COLUMN = new boolean[DatenFilm.MAX_ELEM];
+
+    static {
+        for (int column : DICTIONARY_COLUMNS) {
+            IS_DICTIONARY_COLUMN[column] = true;
+        }
+    }
+
+    /**
+     * Schreibt den Snapshot, die Datei wird erst am Ende ersetzt.
+     *
+     * @param datei      Pfad des Snapshots
+     * @param listeFilme die Filmliste
+     */
+    public void schreiben(String datei, ListeFilme listeFilme) {
+        schreiben(datei, listeFilme.metaDaten, listeFilme);
+    }
+
+    /**
+     * Schreibt den Snapshot einer Auswahl von Filmen, die Datei wird erst am Ende ersetzt.
+     *
+     * @param datei     Pfad des Snapshots
+     * @param metaDaten die Metadaten der Filmliste
+     * @param filme     die Filme
+     */
+    public void schreiben(String datei, String[] metaDaten, List<DatenFilm> filme) {
+        final Path target = Paths.get(datei);
+        final Path temp = Paths.get(datei + "_temp");
+        Log.sysLog("Snapshot schreiben (" + filme.size() + " Filme) nach: " + datei);
+        try {
+            final Map<String, Integer> dictionary = new HashMap<>();
+            final List<String> dictionaryValues = new ArrayList<>();
+            final long[] offsets = new long[filme.size()];
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+                for (DatenFilm film : filme) {
+                    for (int column : DICTIONARY_COLUMNS) {
+                        dictionary.computeIfAbsent(Objects.requireNonNullElse(film.arr[column], ""), value -> {
+                            dictionaryValues.add(value);
+                            return dictionaryValues.size() - 1;
+                        });
+                    }
+                }
+
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(filme.size());
+                for (int i = 0; i < ListeFilme.MAX_ELEM; i++) {
+                    writeString(out, metaDaten[i]);
+                }
+                out.writeInt(dictionaryValues.size());
+                for (String value : dictionaryValues) {
+                    writeString(out, value);
+                }
+
+                int i = 0;
+                for (DatenFilm film : filme) {
+                    offsets[i++] = out.size();
+                    for (int column : DatenFilm.JSON_NAMES) {
+                        if (column == DatenFilm.FILM_NEU) {
+                            continue;
+                        }
+                        if (IS_DICTIONARY_COLUMN[column]) {
+                            out.writeInt(dictionary.get(Objects.requireNonNullElse(film.arr[column], "")));
+                        } else {
+                            writeString(out, film.arr[column]);
+                        }
+                    }
+                    out.writeBoolean(film.isNew());
+                }
+
+                final long tables = out.size();
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+                final long[] index = filme.parallelStream().mapToLong(DatenFilm::getFingerprintIndex).toArray();
+                for (long hash : index) {
+                    out.writeLong(hash);
+                }
+                out.writeLong(tables);
+                if (out.size() < 0) {
+                    throw new IOException("Snapshot zu groß");
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Log.sysLog("   --> geschrieben!");
+        } catch (Exception ex) {
+            Log.errorLog(912036544, ex, "Snapshot: " + datei);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        final byte[] bytes = Objects.requireNonNullElse(value, "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Prüft, ob der Snapshot benutzt werden kann: er und die Filmliste existieren und er ist nicht
+     * älter als die Filmliste. Ohne Filmliste wird er nicht benutzt, eine gelöschte Liste soll nicht
+     * aus einem alten Snapshot zurückkommen.
+     *
+     * @param datei    Pfad des Snapshots
+     * @param filmList Pfad der Filmliste
+     * @return true wenn der Snapshot aktuell ist
+     */
+    public static boolean isUsable(String datei, String filmList) {
+        try {
+            final Path snapshot = Paths.get(datei);
+            if (!Files.isRegularFile(snapshot)) {
+                return false;
+            }
+            final Path list = Paths.get(filmList);
+            return Files.isRegularFile(list)
+                    && Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(list)) >= 0;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Liest den Snapshot in die Liste.
+     *
+     * @param datei        Pfad des Snapshots
+     * @param listeFilme   die Liste, wird vorher nicht geleert und bleibt unverändert, wenn der
+     *                     Snapshot nicht gelesen werden kann
+     * @param milliseconds Filme vor diesem Zeitpunkt werden nicht übernommen, 0: alle
+     * @return false wenn der Snapshot nicht gelesen werden konnte
+     */
+    public boolean lesen(String datei, ListeFilme listeFilme, long milliseconds) {
+        final String[] metaDaten = new String[ListeFilme.MAX_ELEM];
+        final List<DatenFilm> filme;
+        final long[] fingerprints;
+        try (SnapshotFile snapshot = SnapshotFile.open(Paths.get(datei))) {
+            if (snapshot == null) {
+                return false;
+            }
+            // erst alles lesen, die Liste wird nur mit einem vollständigen Snapshot geändert
+            snapshot.readMetaData(metaDaten);
+            final DatenFilm[] gelesen = new DatenFilm[snapshot.count];
+            IntStream.range(0, snapshot.count).parallel().forEach(row -> gelesen[row] = snapshot.readFilm(row));
+            final int[] rows = IntStream.range(0, snapshot.count)
+                    .filter(row -> milliseconds == 0 || gelesen[row].datumFilm.getTime() == 0 || gelesen[row].datumFilm.getTime() >= milliseconds)
+                    .toArray();
+            filme = Arrays.stream(rows).mapToObj(row -> gelesen[row]).collect(Collectors.toList());
+            // die gespeicherten Fingerprints müssen nicht neu berechnet werden
+            fingerprints = Arrays.stream(rows).mapToLong(snapshot::readFingerprint).toArray();
+        } catch (Exception ex) {
+            Log.errorLog(912036545, ex, "Snapshot: " + datei);
+            return false;
+        }
+        listeFilme.importFilmliste(filme, fingerprints);
+        System.arraycopy(metaDaten, 0, listeFilme.metaDaten, 0, ListeFilme.MAX_ELEM);
+        return true;
+    }
+
+    /**
+     * Der per {@link FileChannel#map} eingeblendete Snapshot. Es wird nur mit absoluten
+     * Positionen gelesen, die Filme können deshalb parallel angelegt werden.
+     */
+    private static final class SnapshotFile implements AutoCloseable {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int count;
+        private final int metaPosition;
+        private final String[] dictionary;
+        private final int tables;
+
+        private SnapshotFile(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.count = buffer.getInt(8);
+            this.metaPosition = 12;
+            int pos = metaPosition;
+            for (int i = 0; i < ListeFilme.MAX_ELEM; i++) {
+                pos += 4 + buffer.getInt(pos);
+            }
+            dictionary = new String[buffer.getInt(pos)];
+            pos += 4;
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(pos);
+                pos += 4 + buffer.getInt(pos);
+            }
+            tables = (int) buffer.getLong(buffer.capacity() - 8);
+        }
+
+        static SnapshotFile open(Path path) throws IOException {
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            final long size = channel.size();
+            if (size < 20 || size > Integer.MAX_VALUE) {
+                channel.close();
+                return null;
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                channel.close();
+                return null;
+            }
+            return new SnapshotFile(channel, buffer);
+        }
+
+        void readMetaData(String[] metaDaten) {
+            int pos = metaPosition;
+            for (int i = 0; i < ListeFilme.MAX_ELEM; i++) {
+                metaDaten[i] = readString(pos);
+                pos += 4 + buffer.getInt(pos);
+            }
+        }
+
+        DatenFilm readFilm(int row) {
+            final DatenFilm film = new DatenFilm();
+            int pos = (int) buffer.getLong(tables + 8 * row);
+            for (int column : DatenFilm.JSON_NAMES) {
+                if (column == DatenFilm.FILM_NEU) {
+                    continue;
+                }
+                if (IS_DICTIONARY_COLUMN[column]) {
+                    film.arr[column] = dictionary[buffer.getInt(pos)];
+                    pos += 4;
+                } else {
+                    film.arr[column] = readString(pos);
+                    pos += 4 + buffer.getInt(pos);
+                }
+            }
+            film.setNew(buffer.get(pos) != 0);
+            film.init();
+            return film;
+        }
+
+        long readFingerprint(int row) {
+            return buffer.getLong(tables + 8 * count + 8 * row);
+        }
+
+        private String readString(int pos) {
+            final int length = buffer.getInt(pos);
+            if (length == 0) {
+                return "";
+            }
+            final byte[] bytes = new byte[length];
+            buffer.get(pos + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
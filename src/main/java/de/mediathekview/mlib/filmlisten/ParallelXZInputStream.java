@@ -0,0 +1,182 @@
+/*
+ * MediathekView
+ * Copyright (C) 2008 W. Xaver
+ * W.Xaver[at]googlemail.com
+ * http://zdfmediathk.sourceforge.net/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.mediathekview.mlib.filmlisten;
+
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+import org.tukaani.xz.XZInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Entpackt eine lokale XZ-Datei mit mehreren Blöcken (z.B. von {@link ParallelXZOutputStream}
+ * oder "xz -T") parallel. Die Blöcke werden in der richtigen Reihenfolge geliefert.
+ */
+public class ParallelXZInputStream extends InputStream {
+
+    /**
+     * Größere Blöcke werden nicht im Speicher entpackt.
+     */
+    private static final long MAX_BLOCK_SIZE = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final int blockCount;
+    private final long[] blockSizes;
+    private final int maxPending;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private int nextBlock = 0;
+    private byte[] current = new byte[0];
+    private int pos = 0;
+
+    private ParallelXZInputStream(File file, long[] blockSizes, int threads) {
+        this.file = file;
+        this.blockSizes = blockSizes;
+        this.blockCount = blockSizes.length;
+        this.maxPending = threads + 1;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ParallelXZ");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Öffnet die Datei zum Entpacken. Hat sie nur einen Block oder sehr große Blöcke
+     * (z.B. von "xz -9"), wird wie bisher sequentiell entpackt.
+     *
+     * @param file die XZ-Datei
+     * @return der Stream mit den entpackten Daten
+     * @throws IOException wenn die Datei nicht gelesen werden kann
+     */
+    public static InputStream open(File file) throws IOException {
+        final long[] sizes;
+        try (SeekableXZInputStream xz = new SeekableXZInputStream(new SeekableFileInputStream(file))) {
+            sizes = new long[xz.getBlockCount()];
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = xz.getBlockSize(i);
+            }
+        }
+
+        final int threads = Runtime.getRuntime().availableProcessors();
+        if (sizes.length < 2 || threads < 2 || !allBlocksFit(sizes)) {
+            return new XZInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+        return new ParallelXZInputStream(file, sizes, threads);
+    }
+
+    private static boolean allBlocksFit(long[] sizes) {
+        for (long size : sizes) {
+            if (size > MAX_BLOCK_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] decompress(int block) throws IOException {
+        try (SeekableXZInputStream xz = new SeekableXZInputStream(new SeekableFileInputStream(file))) {
+            xz.seekToBlock(block);
+            final byte[] data = new byte[(int) blockSizes[block]];
+            int off = 0;
+            while (off < data.length) {
+                final int n = xz.read(data, off, data.length - off);
+                if (n < 0) {
+                    throw new IOException("XZ-Block " + block + " ist zu kurz");
+                }
+                off += n;
+            }
+            return data;
+        }
+    }
+
+    private boolean nextBlock() throws IOException {
+        while (nextBlock < blockCount && pending.size() < maxPending) {
+            final int block = nextBlock++;
+            pending.add(executor.submit(() -> decompress(block)));
+        }
+        if (pending.isEmpty()) {
+            return false;
+        }
+        try {
+            current = pending.removeFirst().get();
+            pos = 0;
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Entpacken unterbrochen");
+        } catch (ExecutionException ex) {
+            throw new IOException("Entpacken fehlgeschlagen", ex.getCause());
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (pos == current.length) {
+            if (!nextBlock()) {
+                return -1;
+            }
+        }
+        return current[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (pos == current.length) {
+            if (!nextBlock()) {
+                return -1;
+            }
+        }
+        final int n = Math.min(len, current.length - pos);
+        System.arraycopy(current, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - pos;
+    }
+
+    @Override
+    public void close() {
+        pending.forEach(f -> f.cancel(true));
+        pending.clear();
+        executor.shutdownNow();
+        current = new byte[0];
+        pos = 0;
+        nextBlock = blockCount;
+    }
+}
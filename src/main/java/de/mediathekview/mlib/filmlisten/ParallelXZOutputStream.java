@@ -0,0 +1,177 @@
+/*
+ * MediathekView
+ * Copyright (C) 2008 W. Xaver
+ * W.Xaver[at]googlemail.com
+ * http://zdfmediathk.sourceforge.net/
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.mediathekview.mlib.filmlisten;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Komprimiert die Daten blockweise parallel mit LZMA2.
+ * Jeder Block wird als eigener, vollständiger XZ-Stream geschrieben. Die Datei besteht damit aus
+ * aneinandergehängten XZ-Streams, die jeder XZ-Decoder (XZInputStream, xz -d) der Reihe nach
+ * entpackt, sie kann also weiterhin gestreamt werden.
+ */
+public class ParallelXZOutputStream extends OutputStream {
+
+    /**
+     * Preset 6 wie bei "xz -T": 8 MiB Wörterbuch, ein Encoder braucht damit ca. 100 MiB.
+     * Preset 9 bräuchte fast 700 MiB pro Thread.
+     */
+    public static final int DEFAULT_PRESET = 6;
+    /**
+     * Blockgröße wie bei "xz -T": das dreifache der Wörterbuchgröße.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 3 * LZMA2Options.DICT_SIZE_DEFAULT;
+
+    private final OutputStream out;
+    private final int preset;
+    private final int maxPending;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] buffer;
+    private int count = 0;
+    private boolean empty = true;
+    private boolean closed = false;
+
+    public ParallelXZOutputStream(OutputStream out) {
+        this(out, DEFAULT_PRESET, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param out       Ziel der komprimierten Daten
+     * @param preset    LZMA2 Preset 0..9
+     * @param blockSize Größe der unabhängig komprimierten Blöcke in Bytes
+     * @param threads   Anzahl der Threads zum Komprimieren
+     */
+    public ParallelXZOutputStream(OutputStream out, int preset, int blockSize, int threads) {
+        this.out = out;
+        this.preset = preset;
+        this.buffer = new byte[blockSize];
+        final int nThreads = Math.max(1, threads);
+        // Blöcke werden der Reihe nach geschrieben, es wird höchstens ein Block mehr als Threads gepuffert
+        this.maxPending = nThreads + 1;
+        this.executor = Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, "ParallelXZ");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            submitBlock();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                submitBlock();
+            }
+            final int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        final byte[] block = buffer;
+        final int length = count;
+        pending.add(executor.submit(() -> compress(block, length)));
+        empty = false;
+        buffer = new byte[block.length];
+        count = 0;
+
+        while (pending.size() > maxPending) {
+            writeNextBlock();
+        }
+    }
+
+    private byte[] compress(byte[] block, int length) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 4);
+        try (XZOutputStream xz = new XZOutputStream(bos, new LZMA2Options(preset))) {
+            xz.write(block, 0, length);
+        }
+        return bos.toByteArray();
+    }
+
+    private void writeNextBlock() throws IOException {
+        try {
+            out.write(pending.removeFirst().get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Komprimieren unterbrochen");
+        } catch (ExecutionException ex) {
+            throw new IOException("Komprimieren fehlgeschlagen", ex.getCause());
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // ein Block lässt sich nicht vorzeitig abschließen, nur die fertigen Blöcke werden geschrieben
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            writeNextBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock();
+            while (!pending.isEmpty()) {
+                writeNextBlock();
+            }
+            if (empty) {
+                // auch eine leere Datei braucht einen gültigen XZ-Stream
+                out.write(compress(new byte[0], 0));
+            }
+            out.flush();
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+            executor.shutdownNow();
+            buffer = null;
+            out.close();
+        }
+    }
+}
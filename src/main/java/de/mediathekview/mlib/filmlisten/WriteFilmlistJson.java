@@ -27,35 +27,22 @@ import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.DatenFilm;
 import de.mediathekview.mlib.daten.ListeFilme;
 import de.mediathekview.mlib.tool.Log;
-import org.tukaani.xz.LZMA2Options;
-import org.tukaani.xz.XZOutputStream;
-
-import java.io.*;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.channels.WritableByteChannel;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class WriteFilmlistJson {
 
-    private void fastChannelCopy(final ReadableByteChannel src, final WritableByteChannel dest) throws IOException {
-        final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
-        while (src.read(buffer) != -1) {
-            buffer.flip();
-            dest.write(buffer);
-            buffer.compact();
-        }
-
-        buffer.flip();
-
-        while (buffer.hasRemaining()) {
-            dest.write(buffer);
-        }
-    }
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     protected JsonGenerator getJsonGenerator(OutputStream os) throws IOException {
         JsonFactory jsonF = new JsonFactory();
@@ -66,125 +53,164 @@ public class WriteFilmlistJson {
     }
 
     /**
-     * Write film data and compress with LZMA2.
+     * Serialisiert die Filmliste nur einmal und schreibt die Daten gleichzeitig in alle Dateien.
+     * Das Format ergibt sich aus der Dateiendung: ".xz" wird parallel mit LZMA2 komprimiert,
+     * ".gz" mit GZIP, alles andere wird als JSON geschrieben.
      *
-     * @param datei      file path
      * @param listeFilme film data
+     * @param dateien    file paths
      */
-    public void filmlisteSchreibenJsonCompressed(String datei, ListeFilme listeFilme) {
-        final String tempFile = datei + "_temp";
-        filmlisteSchreibenJson(tempFile, listeFilme);
-
+    public void filmlisteSchreiben(ListeFilme listeFilme, String... dateien) {
+        if (dateien.length == 0) {
+            return;
+        }
+        final String ziel = String.join(", ", dateien);
         try {
-            Log.sysLog("Komprimiere Datei: " + datei);
-            if (datei.endsWith(Const.FORMAT_XZ)) {
-                final Path xz = testNativeXz();
-                if (xz != null) {
-                    Process p = new ProcessBuilder(xz.toString(), "-9", tempFile).start();
-                    final int exitCode = p.waitFor();
-                    if (exitCode == 0) {
-                        Files.move(Paths.get(tempFile + ".xz"), Paths.get(datei), StandardCopyOption.REPLACE_EXISTING);
-                    }
-                } else
-                    compressFile(tempFile, datei);
+            Log.sysLog("Filme schreiben (" + listeFilme.size() + " Filme) :");
+            for (String datei : dateien) {
+                Log.sysLog("   --> Start Schreiben nach: " + datei);
             }
 
-            Files.deleteIfExists(Paths.get(tempFile));
-        } catch (IOException | InterruptedException ex) {
-            Log.sysLog("Komprimieren fehlgeschlagen");
+            // erst in temporäre Dateien, so sieht niemand (Clients, FTP-Upload) eine halbe Liste
+            try (TeeOutputStream tee = new TeeOutputStream();
+                 JsonGenerator jg = getJsonGenerator(tee)) {
+                for (String datei : dateien) {
+                    tee.add(openOutput(datei));
+                }
+                writeJson(jg, listeFilme);
+            }
+            for (String datei : dateien) {
+                Files.move(Paths.get(tempDatei(datei)), Paths.get(datei), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            Log.sysLog("   --> geschrieben!");
+        } catch (Exception ex) {
+            Log.errorLog(846930145, ex, "nach: " + ziel);
+            for (String datei : dateien) {
+                try {
+                    Files.deleteIfExists(Paths.get(tempDatei(datei)));
+                } catch (IOException ignored) {
+                }
+            }
         }
     }
 
-    public void filmlisteSchreibenJson(String datei, ListeFilme listeFilme) {
-        try {
-            Log.sysLog("Filme schreiben (" + listeFilme.size() + " Filme) :");
+    private static String tempDatei(String datei) {
+        return datei + "_temp";
+    }
 
-            Log.sysLog("   --> Start Schreiben nach: " + datei);
-            String sender = "", thema = "";
+    private OutputStream openOutput(String datei) throws IOException {
+        if (SystemInfo.isMacOSX()) {
+            //Hotfix for OSX 10.12.4 update
+            final Path f = Paths.get(datei);
+            final Path parentDirectory = f.getParent();
+            if (!Files.exists(parentDirectory))
+                Files.createDirectory(parentDirectory);
+        }
 
-            if (SystemInfo.isMacOSX()) {
-                //Hotfix for OSX 10.12.4 update
-                final Path f = Paths.get(datei);
-                final Path parentDirectory = f.getParent();
-                if (!Files.exists(parentDirectory))
-                    Files.createDirectory(parentDirectory);
-            }
+        final OutputStream fos = new BufferedOutputStream(new FileOutputStream(tempDatei(datei)), BUFFER_SIZE);
+        if (datei.endsWith(Const.FORMAT_XZ)) {
+            Log.sysLog("Komprimiere Datei: " + datei);
+            return new ParallelXZOutputStream(fos);
+        } else if (datei.endsWith(Const.FORMAT_GZ)) {
+            return new GZIPOutputStream(fos, BUFFER_SIZE);
+        }
+        return fos;
+    }
 
-            try (FileOutputStream fos = new FileOutputStream(datei);
-                 JsonGenerator jg = getJsonGenerator(fos)) {
+    private void writeJson(JsonGenerator jg, ListeFilme listeFilme) throws IOException {
+        String sender = "", thema = "";
 
-                jg.writeStartObject();
-                // Infos zur Filmliste
-                jg.writeArrayFieldStart(ListeFilme.FILMLISTE);
-                for (int i = 0; i < ListeFilme.MAX_ELEM; ++i) {
-                    jg.writeString(listeFilme.metaDaten[i]);
-                }
-                jg.writeEndArray();
-                // Infos der Felder in der Filmliste
-                jg.writeArrayFieldStart(ListeFilme.FILMLISTE);
-                for (int i = 0; i < DatenFilm.JSON_NAMES.length; ++i) {
-                    jg.writeString(DatenFilm.COLUMN_NAMES[DatenFilm.JSON_NAMES[i]]);
-                }
-                jg.writeEndArray();
-                //Filme schreiben
-                for (DatenFilm datenFilm : listeFilme) {
-                    datenFilm.arr[DatenFilm.FILM_NEU] = Boolean.toString(datenFilm.isNew()); // damit wirs beim nächsten Programmstart noch wissen
-
-                    jg.writeArrayFieldStart(DatenFilm.TAG_JSON_LIST);
-                    for (int i = 0; i < DatenFilm.JSON_NAMES.length; ++i) {
-                        int m = DatenFilm.JSON_NAMES[i];
-                        if (m == DatenFilm.FILM_SENDER) {
-                            if (datenFilm.arr[m].equals(sender)) {
-                                jg.writeString("");
-                            } else {
-                                sender = datenFilm.arr[m];
-                                jg.writeString(datenFilm.arr[m]);
-                            }
-                        } else if (m == DatenFilm.FILM_THEMA) {
-                            if (datenFilm.arr[m].equals(thema)) {
-                                jg.writeString("");
-                            } else {
-                                thema = datenFilm.arr[m];
-                                jg.writeString(datenFilm.arr[m]);
-                            }
-                        } else {
-                            jg.writeString(datenFilm.arr[m]);
-                        }
+        jg.writeStartObject();
+        // Infos zur Filmliste
+        jg.writeArrayFieldStart(ListeFilme.FILMLISTE);
+        for (int i = 0; i < ListeFilme.MAX_ELEM; ++i) {
+            jg.writeString(listeFilme.metaDaten[i]);
+        }
+        jg.writeEndArray();
+        // Infos der Felder in der Filmliste
+        jg.writeArrayFieldStart(ListeFilme.FILMLISTE);
+        for (int i = 0; i < DatenFilm.JSON_NAMES.length; ++i) {
+            jg.writeString(DatenFilm.COLUMN_NAMES[DatenFilm.JSON_NAMES[i]]);
+        }
+        jg.writeEndArray();
+        //Filme schreiben
+        for (DatenFilm datenFilm : listeFilme) {
+            datenFilm.arr[DatenFilm.FILM_NEU] = Boolean.toString(datenFilm.isNew()); // damit wirs beim nächsten Programmstart noch wissen
+
+            jg.writeArrayFieldStart(DatenFilm.TAG_JSON_LIST);
+            for (int i = 0; i < DatenFilm.JSON_NAMES.length; ++i) {
+                int m = DatenFilm.JSON_NAMES[i];
+                if (m == DatenFilm.FILM_SENDER) {
+                    if (datenFilm.arr[m].equals(sender)) {
+                        jg.writeString("");
+                    } else {
+                        sender = datenFilm.arr[m];
+                        jg.writeString(datenFilm.arr[m]);
+                    }
+                } else if (m == DatenFilm.FILM_THEMA) {
+                    if (datenFilm.arr[m].equals(thema)) {
+                        jg.writeString("");
+                    } else {
+                        thema = datenFilm.arr[m];
+                        jg.writeString(datenFilm.arr[m]);
                     }
-                    jg.writeEndArray();
+                } else {
+                    jg.writeString(datenFilm.arr[m]);
                 }
-                jg.writeEndObject();
-                Log.sysLog("   --> geschrieben!");
             }
-        } catch (Exception ex) {
-            Log.errorLog(846930145, ex, "nach: " + datei);
+            jg.writeEndArray();
         }
+        jg.writeEndObject();
     }
 
-    private Path testNativeXz() {
-        final String[] paths = {"/usr/bin/xz", "/opt/local/bin/xz", "/usr/local/bin/xz"};
+    /**
+     * Verteilt die geschriebenen Bytes auf mehrere Ausgaben.
+     */
+    private static class TeeOutputStream extends OutputStream {
+        private final List<OutputStream> outputs = new ArrayList<>();
 
-        Path xz = null;
+        void add(OutputStream out) {
+            outputs.add(out);
+        }
 
-        for (String path : paths) {
-            xz = Paths.get(path);
-            if (Files.isExecutable(xz)) {
-                break;
+        @Override
+        public void write(int b) throws IOException {
+            for (OutputStream out : outputs) {
+                out.write(b);
             }
         }
 
-        return xz;
-    }
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (OutputStream out : outputs) {
+                out.write(b, off, len);
+            }
+        }
 
-    private void compressFile(String inputName, String outputName) throws IOException {
-        try (InputStream input = new FileInputStream(inputName);
-             FileOutputStream fos = new FileOutputStream(outputName);
-             final OutputStream output = new XZOutputStream(fos, new LZMA2Options());
-             final ReadableByteChannel inputChannel = Channels.newChannel(input);
-             final WritableByteChannel outputChannel = Channels.newChannel(output)) {
+        @Override
+        public void flush() throws IOException {
+            for (OutputStream out : outputs) {
+                out.flush();
+            }
+        }
 
-            fastChannelCopy(inputChannel, outputChannel);
-        } catch (IOException ignored) {
+        @Override
+        public void close() throws IOException {
+            IOException first = null;
+            for (OutputStream out : outputs) {
+                try {
+                    out.close();
+                } catch (IOException ex) {
+                    if (first == null) {
+                        first = ex;
+                    }
+                }
+            }
+            outputs.clear();
+            if (first != null) {
+                throw first;
+            }
         }
     }
 }
@@ -0,0 +1,279 @@
+package de.mediathekview.mlib.tool;
+
+import de.mediathekview.mlib.Config;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abbruch und Zeitlimit für einen Suchlauf oder einen Teil davon, z.B. einen Sender.
+ * <p>
+ * Die Tokens bilden einen Baum: der Lauf ({@link Config#getCancellation()}) hat für jeden Sender
+ * ein Kind, das ein eigenes Zeitlimit haben kann. Wird ein Token abgebrochen, durch
+ * {@link #cancel(String)} oder weil sein Zeitlimit abgelaufen ist, sind es auch alle Kinder. Die
+ * HTTP-Anfragen, die gerade für ein Token laufen, werden dabei sofort abgebrochen, dafür hängt
+ * {@link #interceptor()} am {@link MVHttpClient}. Außerdem begrenzt der Interceptor die Timeouts
+ * einer Anfrage auf die Restzeit, niemand wartet also länger als erlaubt auf eine tote Verbindung.
+ * <p>
+ * Welches Token gilt, bestimmt der Thread: mit {@link #bind()} wird es für einen Abschnitt gesetzt,
+ * {@link #current()} liefert es, ohne gebundenes Token das des Laufs. Anfragen, die nicht im
+ * aufrufenden Thread laufen ({@code enqueue}), nehmen es als Tag mit, siehe {@link #tag(Request.Builder)}.
+ */
+public final class CancellationToken {
+
+    private static final ThreadLocal<CancellationToken> current = new ThreadLocal<>();
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "Zeitlimit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final CancellationToken parent;
+    private final long deadline; // System.nanoTime()
+    private final boolean hasDeadline;
+    private final List<CancellationToken> children = new CopyOnWriteArrayList<>();
+    private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+    private volatile String reason = null;
+    private ScheduledFuture<?> timeout = null;
+
+    private CancellationToken(String name, CancellationToken parent, long timeoutMillis) {
+        this.name = name;
+        this.parent = parent;
+        this.hasDeadline = timeoutMillis > 0;
+        this.deadline = hasDeadline ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+    }
+
+    /**
+     * @param name der Name für die Meldungen
+     * @return ein neues Token ohne Zeitlimit, z.B. für einen Suchlauf
+     */
+    public static CancellationToken create(String name) {
+        return new CancellationToken(name, null, 0);
+    }
+
+    /**
+     * Legt ein Kind an, das mit diesem abgebrochen wird. Mit {@link #close()} wird es wieder
+     * abgemeldet.
+     *
+     * @param name          der Name für die Meldungen
+     * @param timeoutMillis das eigene Zeitlimit ab jetzt, 0: nur das dieses Tokens
+     * @return das Kind
+     */
+    public CancellationToken child(String name, long timeoutMillis) {
+        final CancellationToken child = new CancellationToken(name, this, timeoutMillis);
+        children.add(child);
+        if (child.hasDeadline) {
+            synchronized (child) {
+                child.timeout = timer.schedule(() -> child.cancel("Zeitlimit"), timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        // nach add(), sonst könnte ein gleichzeitiges cancel() das Kind verpassen
+        final String grund = reason;
+        if (grund != null) {
+            child.cancel(grund);
+        }
+        return child;
+    }
+
+    /**
+     * @return das Token, das im aktuellen Thread gilt
+     */
+    public static CancellationToken current() {
+        final CancellationToken token = current.get();
+        return token != null ? token : Config.getCancellation();
+    }
+
+    /**
+     * Setzt das Token für den aktuellen Thread, bis der zurückgegebene Abschnitt geschlossen wird.
+     *
+     * @return der Abschnitt, für try-with-resources
+     */
+    public Scope bind() {
+        final CancellationToken previous = current.get();
+        current.set(this);
+        return () -> {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Gibt das aktuelle Token einer Anfrage mit, die in einem anderen Thread ausgeführt wird.
+     *
+     * @param builder die Anfrage
+     * @return der Builder
+     */
+    public static Request.Builder tag(Request.Builder builder) {
+        return builder.tag(CancellationToken.class, current());
+    }
+
+    /**
+     * Ein Abschnitt aus {@link #bind()}.
+     */
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true, wenn dieses Token oder eines darüber abgebrochen wurde oder das Zeitlimit
+     * abgelaufen ist
+     */
+    public boolean isCancelled() {
+        return getReason() != null;
+    }
+
+    /**
+     * @return der Grund des Abbruchs dieses Tokens oder eines darüber, null wenn nicht abgebrochen
+     */
+    public String getReason() {
+        for (CancellationToken token = this; token != null; token = token.parent) {
+            if (token.reason == null && token.hasDeadline && System.nanoTime() - token.deadline >= 0) {
+                // der Timer kann etwas später kommen
+                token.cancel("Zeitlimit");
+            }
+            final String grund = token.reason;
+            if (grund != null) {
+                return grund;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return die Zeit bis zum nächsten Zeitlimit dieses Tokens oder eines darüber,
+     * {@link Long#MAX_VALUE} wenn es keines gibt
+     */
+    public long remainingMillis() {
+        long remaining = Long.MAX_VALUE;
+        for (CancellationToken token = this; token != null; token = token.parent) {
+            if (token.hasDeadline) {
+                remaining = Math.min(remaining, Math.max(0, TimeUnit.NANOSECONDS.toMillis(token.deadline - System.nanoTime())));
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Bricht dieses Token, alle Kinder und deren laufende HTTP-Anfragen ab. Ein zweiter Aufruf ändert
+     * nichts mehr.
+     *
+     * @param grund der Grund für die Meldungen
+     */
+    public void cancel(String grund) {
+        synchronized (this) {
+            if (reason != null) {
+                return;
+            }
+            reason = grund;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+        if (parent != null) {
+            Log.sysLog(name + ": abgebrochen (" + grund + ")");
+        }
+        children.forEach(child -> child.cancel(grund));
+        calls.forEach(Call::cancel);
+    }
+
+    /**
+     * Meldet das Token beim übergeordneten ab, wenn seine Arbeit fertig ist. Es wird dabei nicht
+     * abgebrochen.
+     */
+    public void close() {
+        synchronized (this) {
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+        }
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+    }
+
+    /**
+     * @return Interceptor für OkHttp, der abgebrochene Anfragen nicht mehr sendet, laufende bei
+     * einem Abbruch beendet und die Timeouts auf die Restzeit begrenzt
+     */
+    public static Interceptor interceptor() {
+        return chain -> {
+            final Request request = chain.request();
+            final CancellationToken tagged = request.tag(CancellationToken.class);
+            final CancellationToken token = tagged != null ? tagged : current();
+            final Call call = chain.call();
+            // erst anmelden, dann prüfen: so sieht entweder cancel() die Anfrage oder sie den Abbruch
+            token.calls.add(call);
+            boolean done = true;
+            try {
+                if (token.isCancelled()) {
+                    throw new InterruptedIOException("Abgebrochen (" + token.reason + "): " + request.url());
+                }
+                Interceptor.Chain bounded = chain;
+                final long remaining = token.remainingMillis();
+                if (remaining < Long.MAX_VALUE) {
+                    final int millis = (int) Math.max(1, Math.min(remaining, Integer.MAX_VALUE));
+                    if (millis < chain.connectTimeoutMillis()) {
+                        bounded = bounded.withConnectTimeout(millis, TimeUnit.MILLISECONDS);
+                    }
+                    if (millis < chain.readTimeoutMillis()) {
+                        bounded = bounded.withReadTimeout(millis, TimeUnit.MILLISECONDS);
+                    }
+                    if (millis < chain.writeTimeoutMillis()) {
+                        bounded = bounded.withWriteTimeout(millis, TimeUnit.MILLISECONDS);
+                    }
+                }
+                final Response response = bounded.proceed(request);
+                final ResponseBody body = response.body();
+                if (body == null) {
+                    return response;
+                }
+                // angemeldet bleiben, bis der Body gelesen ist, auch das Lesen wird abgebrochen
+                done = false;
+                return response.newBuilder()
+                        .body(ResponseBody.create(Okio.buffer(new ForwardingSource(body.source()) {
+                            @Override
+                            public void close() throws IOException {
+                                token.calls.remove(call);
+                                super.close();
+                            }
+                        }), body.contentType(), body.contentLength()))
+                        .build();
+            } finally {
+                if (done) {
+                    token.calls.remove(call);
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
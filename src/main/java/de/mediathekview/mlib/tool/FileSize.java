@@ -1,10 +1,5 @@
 package de.mediathekview.mlib.tool;
 
-import okhttp3.Request;
-import okhttp3.Response;
-
-import java.io.IOException;
-
 public class FileSize {
   private FileSize() {}
 
@@ -34,16 +29,8 @@ public class FileSize {
       return -1;
     }
 
-    final Request request = new Request.Builder().url(url).head().build();
-    long respLength = -1;
-    try (Response response
-            = MVHttpClient.getInstance().getReducedTimeOutClient().newCall(request).execute()) {
-      if (response.isSuccessful()) {
-        respLength = Long.parseLong(response.header("Content-Length", "-1"));
-      }
-    } catch (IOException | NumberFormatException ignored) {
-      respLength = -1;
-    }
+    final UrlProbeCache.Probe probe = UrlProbeCache.getInstance().head(url);
+    long respLength = probe.isSuccessful() ? probe.getContentLength() : -1;
 
     if (respLength < 1_000_000) {
       // alles unter 1MB sind Playlisten, ORF: Trailer bei im Ausland gesperrten Filmen, ...
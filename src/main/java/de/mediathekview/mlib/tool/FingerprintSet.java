@@ -0,0 +1,154 @@
+package de.mediathekview.mlib.tool;
+
+/**
+ * Menge von {@link Fingerprint}-Werten ohne Boxing (offene Adressierung, lineares Sondieren).
+ * Die Menge ist in Shards aufgeteilt, die einzeln gesperrt werden; so kann sie aus einem
+ * parallelen Stream gefüllt werden, ohne dass alle Threads auf denselben Monitor warten.
+ */
+public final class FingerprintSet {
+
+    private static final int SHARD_BITS = 6;
+    private static final int SHARDS = 1 << SHARD_BITS;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Shard[] shards = new Shard[SHARDS];
+
+    public FingerprintSet() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize erwartete Anzahl Einträge, damit die Tabellen nicht wachsen müssen
+     */
+    public FingerprintSet(int expectedSize) {
+        final int perShard = expectedSize / SHARDS + 1;
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard(tableSize(perShard));
+        }
+    }
+
+    private static int tableSize(int entries) {
+        // Füllgrad höchstens 50%
+        final int size = Integer.highestOneBit(Math.max(MIN_CAPACITY, entries) * 2 - 1) << 1;
+        return Math.max(MIN_CAPACITY, size);
+    }
+
+    private Shard shard(long fingerprint) {
+        // die oberen Bits wählen den Shard, die unteren den Platz in der Tabelle
+        return shards[(int) (fingerprint >>> (Long.SIZE - SHARD_BITS))];
+    }
+
+    /**
+     * @return true, wenn der Wert noch nicht enthalten war
+     */
+    public boolean add(long fingerprint) {
+        final Shard shard = shard(fingerprint);
+        synchronized (shard) {
+            return shard.add(fingerprint);
+        }
+    }
+
+    public boolean contains(long fingerprint) {
+        final Shard shard = shard(fingerprint);
+        synchronized (shard) {
+            return shard.contains(fingerprint);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+    }
+
+    private static final class Shard {
+
+        /**
+         * 0 markiert einen freien Platz, der Wert 0 selbst wird in {@link #containsZero} gemerkt.
+         */
+        private long[] table;
+        private boolean containsZero = false;
+        private int size = 0;
+
+        Shard(int capacity) {
+            table = new long[capacity];
+        }
+
+        boolean add(long key) {
+            if (key == 0) {
+                if (containsZero) {
+                    return false;
+                }
+                containsZero = true;
+                size++;
+                return true;
+            }
+            if (insert(table, key)) {
+                size++;
+                if (size * 2 > table.length) {
+                    grow();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        boolean contains(long key) {
+            if (key == 0) {
+                return containsZero;
+            }
+            final int mask = table.length - 1;
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                final long k = table[i];
+                if (k == key) {
+                    return true;
+                }
+                if (k == 0) {
+                    return false;
+                }
+            }
+        }
+
+        void clear() {
+            table = new long[MIN_CAPACITY];
+            containsZero = false;
+            size = 0;
+        }
+
+        private void grow() {
+            final long[] neu = new long[table.length * 2];
+            for (long key : table) {
+                if (key != 0) {
+                    insert(neu, key);
+                }
+            }
+            table = neu;
+        }
+
+        private static boolean insert(long[] table, long key) {
+            final int mask = table.length - 1;
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                final long k = table[i];
+                if (k == key) {
+                    return false;
+                }
+                if (k == 0) {
+                    table[i] = key;
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Begrenzt die Anfragen je Host (oder je Host und Pfad) und passt die Rate an die Antworten des
+ * Servers an (AIMD):
+ * <ul>
+ *   <li>solange die Antworten erfolgreich sind und die Antwortzeit nicht deutlich steigt, wird die
+ *   Rate etwa einmal pro Sekunde additiv erhöht, bis höchstens {@link #MAX_FACTOR} mal der Startwert</li>
+ *   <li>bei 429 und 503 wird die Rate halbiert und bis zum Zeitpunkt aus "Retry-After" pausiert</li>
+ *   <li>bei anderen 5xx-Antworten und Verbindungsfehlern wird die Rate verringert</li>
+ * </ul>
+ * Die Crawler holen mit {@link #acquire(String, double)} vor jeder Anfrage eine Erlaubnis; die
+ * Antworten meldet der {@link #interceptor()} des gemeinsamen {@link MVHttpClient}. Für Hosts, für
+ * die nie eine Erlaubnis geholt wurde, wird nichts begrenzt.
+ */
+public final class HostRateController {
+
+    private static final HostRateController ourInstance = new HostRateController();
+
+    static {
+        Metrics.getInstance().register("host-rates", ourInstance::collect);
+    }
+
+    private static final double MAX_FACTOR = 2.0;
+    private static final double MIN_FACTOR = 0.05;
+    private static final double MIN_RATE = 0.01;
+    private static final double INCREASE_FACTOR = 0.1;
+    private static final double BACKOFF_THROTTLED = 0.5;
+    private static final double BACKOFF_ERROR = 0.7;
+    /**
+     * Die Antwortzeit gilt als gesund, solange sie höchstens so viel mal über der besten liegt.
+     */
+    private static final double HEALTHY_LATENCY_FACTOR = 2.0;
+    private static final long DEFAULT_PAUSE_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final long MAX_PAUSE_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    private HostRateController() {
+    }
+
+    public static HostRateController getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * Wartet, bis eine Anfrage an den Host der URL erlaubt ist.
+     *
+     * @param url         die URL der nächsten Anfrage
+     * @param initialRate Anfragen pro Sekunde, mit denen für diesen Host begonnen wird
+     */
+    public void acquire(String url, double initialRate) {
+        acquire(url, "", initialRate);
+    }
+
+    /**
+     * Wie {@link #acquire(String, double)}, aber mit eigener Rate für die Pfade, die mit dem
+     * Präfix beginnen.
+     *
+     * @param url         die URL der nächsten Anfrage
+     * @param pathPrefix  Pfad-Präfix, z.B. "/api/opa/"
+     * @param initialRate Anfragen pro Sekunde, mit denen für diesen Host und Pfad begonnen wird
+     */
+    public void acquire(String url, String pathPrefix, double initialRate) {
+        final HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            return;
+        }
+        final long waitNanos = limits.computeIfAbsent(httpUrl.host() + pathPrefix,
+                k -> new Limit(httpUrl.host(), pathPrefix, initialRate)).reserve(System.nanoTime());
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Meldet eine Antwort.
+     *
+     * @param url           die URL der Anfrage
+     * @param code          der HTTP-Status
+     * @param latencyMillis die Zeit bis zur Antwort
+     * @param retryAfter    der Header "Retry-After" oder null
+     */
+    public void onResponse(String url, int code, long latencyMillis, String retryAfter) {
+        final Limit limit = find(url);
+        if (limit != null) {
+            limit.onResponse(System.nanoTime(), code, latencyMillis, retryAfter);
+        }
+    }
+
+    /**
+     * Meldet eine Anfrage, die ohne Antwort abgebrochen ist (Timeout, Verbindungsfehler).
+     *
+     * @param url die URL der Anfrage
+     */
+    public void onFailure(String url) {
+        final Limit limit = find(url);
+        if (limit != null) {
+            limit.onFailure();
+        }
+    }
+
+    /**
+     * @return Interceptor für OkHttp, der alle Antworten und Fehler meldet
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            final Request request = chain.request();
+            final long start = System.nanoTime();
+            final Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                onFailure(request.url().toString());
+                throw e;
+            }
+            onResponse(request.url().toString(), response.code(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), response.header("Retry-After"));
+            return response;
+        };
+    }
+
+    /**
+     * Fügt die aktuellen Grenzen für die Statistik am Ende des Suchlaufs an.
+     *
+     * @param retArray die Zeilen der Statistik
+     */
+    public void getTextStatistics(List<String> retArray) {
+        final Map<String, Limit> sorted = new TreeMap<>(limits);
+        if (sorted.isEmpty()) {
+            return;
+        }
+        retArray.add(" Host                             Start/s  Rate/s  Anfragen  429/503  Fehler  Antwort[ms]");
+        retArray.add("-------------------------------------------------------------------------------------");
+        for (Limit limit : sorted.values()) {
+            retArray.add(limit.toString());
+        }
+        retArray.add("");
+        retArray.add("");
+    }
+
+    /**
+     * @return die aktuellen Raten je Host (und Pfad)
+     */
+    public Map<String, Double> getRates() {
+        final Map<String, Double> rates = new TreeMap<>();
+        limits.forEach((key, limit) -> rates.put(key, limit.getRate()));
+        return rates;
+    }
+
+    public void clear() {
+        limits.clear();
+    }
+
+    private void collect(Metrics.Output out) {
+        limits.values().forEach(limit -> limit.collect(out));
+    }
+
+    private Limit find(String url) {
+        if (limits.isEmpty()) {
+            return null;
+        }
+        final HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            return null;
+        }
+        // das längste passende Pfad-Präfix gewinnt, es gibt je Host nur wenige
+        Limit ret = null;
+        for (Limit limit : limits.values()) {
+            if (limit.host.equals(httpUrl.host())
+                    && httpUrl.encodedPath().startsWith(limit.pathPrefix)
+                    && (ret == null || limit.pathPrefix.length() > ret.pathPrefix.length())) {
+                ret = limit;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @param retryAfter Sekunden oder ein HTTP-Datum
+     * @return die Pause in ms, {@link #DEFAULT_PAUSE_MS} wenn der Header fehlt oder ungültig ist
+     */
+    static long parseRetryAfter(String retryAfter, long nowMillis) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return DEFAULT_PAUSE_MS;
+        }
+        long pause;
+        try {
+            pause = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException ex) {
+            try {
+                pause = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - nowMillis;
+            } catch (DateTimeParseException ignored) {
+                pause = DEFAULT_PAUSE_MS;
+            }
+        }
+        return Math.max(0, Math.min(MAX_PAUSE_MS, pause));
+    }
+
+    private static final class Limit {
+
+        private final String host;
+        private final String pathPrefix;
+        private final double initialRate;
+        private final double minRate;
+        private final double maxRate;
+        private double rate;
+        private long nextFreeNanos = 0;
+        private long pausedUntilNanos = 0;
+        private long successesSinceIncrease = 0;
+        private double latency = -1;
+        private double bestLatency = Double.MAX_VALUE;
+        private long requests = 0;
+        private long throttled = 0;
+        private long errors = 0;
+
+        Limit(String host, String pathPrefix, double initialRate) {
+            this.host = host;
+            this.pathPrefix = pathPrefix;
+            this.initialRate = initialRate;
+            this.minRate = Math.max(MIN_RATE, initialRate * MIN_FACTOR);
+            this.maxRate = initialRate * MAX_FACTOR;
+            this.rate = initialRate;
+        }
+
+        /**
+         * Reserviert den nächsten freien Zeitpunkt.
+         *
+         * @return die Wartezeit bis dahin in ns
+         */
+        synchronized long reserve(long now) {
+            final long start = Math.max(now, Math.max(nextFreeNanos, pausedUntilNanos));
+            nextFreeNanos = start + (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            return start - now;
+        }
+
+        synchronized void onResponse(long now, int code, long latencyMillis, String retryAfter) {
+            requests++;
+            if (code == 429 || code == 503) {
+                throttled++;
+                decrease(BACKOFF_THROTTLED);
+                final long pause = TimeUnit.MILLISECONDS.toNanos(parseRetryAfter(retryAfter, System.currentTimeMillis()));
+                pausedUntilNanos = Math.max(pausedUntilNanos, now + pause);
+            } else if (code >= 500) {
+                errors++;
+                decrease(BACKOFF_ERROR);
+            } else {
+                latency = latency < 0 ? latencyMillis : latency * 0.8 + latencyMillis * 0.2;
+                bestLatency = Math.min(bestLatency, latency);
+                // etwa eine Sekunde lang gesunde Antworten, dann etwas schneller
+                if (latency <= bestLatency * HEALTHY_LATENCY_FACTOR && ++successesSinceIncrease >= rate) {
+                    rate = Math.min(maxRate, rate + Math.max(MIN_RATE, initialRate * INCREASE_FACTOR));
+                    successesSinceIncrease = 0;
+                }
+            }
+        }
+
+        synchronized void onFailure() {
+            requests++;
+            errors++;
+            decrease(BACKOFF_ERROR);
+        }
+
+        synchronized double getRate() {
+            return rate;
+        }
+
+        synchronized void collect(Metrics.Output out) {
+            out.gauge("host_rate", rate, "host", host, "path", pathPrefix);
+            out.counter("host_throttled_total", throttled, "host", host, "path", pathPrefix);
+        }
+
+        private void decrease(double factor) {
+            rate = Math.max(minRate, rate * factor);
+            successesSinceIncrease = 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format(" %-32s %7.2f %7.2f %9d %8d %7d %11.0f",
+                    host + pathPrefix, initialRate, rate, requests, throttled, errors, Math.max(0, latency));
+        }
+    }
+}
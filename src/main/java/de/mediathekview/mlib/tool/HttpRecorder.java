@@ -0,0 +1,322 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Buffer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Zeichnet die Antworten eines Suchlaufs in einem Archiv auf und leitet die Anfragen beim
+ * Wiedergeben an einen lokalen Server um, der sie aus dem Archiv beantwortet. So kann ein
+ * Suchlauf ohne Netz und immer mit denselben Antworten wiederholt werden.
+ * <p>
+ * Beide Interceptoren hängen am gemeinsamen {@link MVHttpClient} und damit an allen Anfragen der
+ * Crawler (REST, Jsoup, ORF, GetUrl, URL-Prüfung). Aufgezeichnet wird außen, also die Antwort,
+ * die der Aufrufer bekommt: nach Umleitungen und nach dem {@link HttpResponseCache}. Umgeleitet
+ * wird innen, so dass {@link HostRateController} und {@link Metrics} weiter die echten Hosts sehen.
+ * <p>
+ * Das Archiv ist eine mit GZIP komprimierte Folge von Einträgen, siehe {@link Entry}. Antworten
+ * über {@link #MAX_BODY_BYTES} werden nicht aufgezeichnet.
+ */
+public final class HttpRecorder {
+
+    /**
+     * Schlüssel der ursprünglichen Anfrage, siehe {@link #key(Request)}.
+     */
+    public static final String HEADER_REPLAY_KEY = "X-MServer-Replay-Key";
+    /**
+     * Die URL der aufgezeichneten Antwort, wenn sie von der Anfrage abweicht (Umleitung).
+     */
+    public static final String HEADER_REPLAY_URL = "X-MServer-Replay-Url";
+
+    private static final HttpRecorder ourInstance = new HttpRecorder();
+
+    private static final int MAGIC = 0x4D565252; // "MVRR"
+    private static final int VERSION = 1;
+    private static final long MAX_BODY_BYTES = 64L * 1024 * 1024;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile DataOutputStream archive = null;
+    private volatile HttpUrl replayServer = null;
+
+    private HttpRecorder() {
+    }
+
+    public static HttpRecorder getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * Eine aufgezeichnete Antwort.
+     */
+    public static final class Entry {
+
+        private final String key;
+        private final String url;
+        private final int code;
+        private final String message;
+        private final Headers headers;
+        private final byte[] body;
+        private final int dauerMs;
+
+        Entry(String key, String url, int code, String message, Headers headers, byte[] body, int dauerMs) {
+            this.key = key;
+            this.url = url;
+            this.code = code;
+            this.message = message;
+            this.headers = headers;
+            this.body = body;
+            this.dauerMs = dauerMs;
+        }
+
+        /**
+         * @return der Schlüssel der Anfrage, siehe {@link #key(Request)}
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return die URL der Antwort, nach Umleitungen
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Headers getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * @return die Zeit von der Anfrage bis zur Antwort beim Aufzeichnen
+         */
+        public int getDauerMs() {
+            return dauerMs;
+        }
+    }
+
+    /**
+     * Beginnt eine neue Aufzeichnung, eine laufende wird beendet.
+     *
+     * @param datei die Datei des Archivs, wird überschrieben
+     */
+    public synchronized void record(String datei) {
+        stopRecord();
+        try {
+            archive = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(datei))), 65536));
+            archive.writeInt(MAGIC);
+            archive.writeInt(VERSION);
+            recorded.set(0);
+            Log.sysLog("HTTP-Aufzeichnung: " + datei);
+        } catch (IOException ex) {
+            archive = null;
+            Log.errorLog(912036556, ex, "HTTP-Aufzeichnung: " + datei);
+        }
+    }
+
+    /**
+     * Beendet die Aufzeichnung und schließt das Archiv.
+     */
+    public synchronized void stopRecord() {
+        final DataOutputStream out = archive;
+        if (out == null) {
+            return;
+        }
+        archive = null;
+        try {
+            out.close();
+            Log.sysLog("HTTP-Aufzeichnung: " + recorded.get() + " Antworten");
+        } catch (IOException ex) {
+            Log.errorLog(912036557, ex, "HTTP-Aufzeichnung beenden");
+        }
+    }
+
+    /**
+     * Leitet alle Anfragen an den Server zur Wiedergabe um.
+     *
+     * @param server die Basis-URL des Servers, null beendet die Wiedergabe
+     */
+    public void replay(String server) {
+        replayServer = server == null ? null : HttpUrl.get(server);
+    }
+
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    /**
+     * @param request eine Anfrage
+     * @return Methode und URL, bei Anfragen mit Body noch dessen Fingerprint
+     */
+    public static String key(Request request) throws IOException {
+        final String key = request.method() + ' ' + request.url();
+        if (request.body() == null) {
+            return key;
+        }
+        final Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return key + ' ' + Long.toHexString(Fingerprint.of(buffer.readUtf8()));
+    }
+
+    /**
+     * @return Interceptor für OkHttp, der die Antworten aufzeichnet, muss der erste sein
+     */
+    public Interceptor recordInterceptor() {
+        return chain -> {
+            final Request request = chain.request();
+            final Response response = chain.proceed(request);
+            final DataOutputStream out = archive;
+            if (out != null && contentLength(response) <= MAX_BODY_BYTES) {
+                // peekBody liest nur bis zur Grenze und lässt den Body für den Aufrufer unverändert
+                final byte[] body = response.peekBody(MAX_BODY_BYTES + 1).bytes();
+                if (body.length <= MAX_BODY_BYTES) {
+                    write(out, key(request), response, body);
+                }
+            }
+            return response;
+        };
+    }
+
+    /**
+     * @return Interceptor für OkHttp, der beim Wiedergeben die Anfragen umleitet, muss der letzte sein
+     */
+    public Interceptor replayInterceptor() {
+        return chain -> {
+            final Request request = chain.request();
+            final HttpUrl server = replayServer;
+            if (server == null) {
+                return chain.proceed(request);
+            }
+            final HttpUrl url = request.url().newBuilder()
+                    .scheme(server.scheme())
+                    .host(server.host())
+                    .port(server.port())
+                    .build();
+            final Response response = chain.proceed(request.newBuilder()
+                    .url(url)
+                    .header(HEADER_REPLAY_KEY, key(request))
+                    .build());
+            // der Aufrufer sieht die URL der Aufzeichnung, nicht die des lokalen Servers
+            final String recordedUrl = response.header(HEADER_REPLAY_URL);
+            return response.newBuilder()
+                    .request(recordedUrl == null ? request : request.newBuilder().url(recordedUrl).build())
+                    .removeHeader(HEADER_REPLAY_URL)
+                    .build();
+        };
+    }
+
+    /**
+     * Liest alle Einträge eines Archivs, in der Reihenfolge der Aufzeichnung.
+     *
+     * @param datei die Datei des Archivs
+     * @return die Einträge
+     * @throws IOException wenn die Datei fehlt oder kein Archiv ist
+     */
+    public static List<Entry> read(String datei) throws IOException {
+        final List<Entry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(Paths.get(datei)), 65536)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Kein HTTP-Archiv: " + datei);
+            }
+            while (true) {
+                final String key;
+                try {
+                    key = in.readUTF();
+                } catch (EOFException ex) {
+                    return entries;
+                }
+                final String url = in.readUTF();
+                final int code = in.readInt();
+                final String message = in.readUTF();
+                final Headers.Builder headers = new Headers.Builder();
+                final int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    headers.addUnsafeNonAscii(in.readUTF(), in.readUTF());
+                }
+                final byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                entries.add(new Entry(key, url, code, message, headers.build(), body, in.readInt()));
+            }
+        }
+    }
+
+    private void write(DataOutputStream out, String key, Response response, byte[] body) {
+        final Headers headers = response.headers();
+        final List<Integer> kept = new ArrayList<>(headers.size());
+        for (int i = 0; i < headers.size(); i++) {
+            if (!isTransient(headers.name(i))) {
+                kept.add(i);
+            }
+        }
+        synchronized (this) {
+            if (archive != out) {
+                // inzwischen beendet
+                return;
+            }
+            try {
+                out.writeUTF(key);
+                out.writeUTF(response.request().url().toString());
+                out.writeInt(response.code());
+                out.writeUTF(response.message());
+                out.writeInt(kept.size());
+                for (int i : kept) {
+                    out.writeUTF(headers.name(i));
+                    out.writeUTF(headers.value(i));
+                }
+                out.writeInt(body.length);
+                out.write(body);
+                out.writeInt((int) (response.receivedResponseAtMillis() - response.sentRequestAtMillis()));
+                recorded.incrementAndGet();
+            } catch (IOException ex) {
+                Log.errorLog(912036558, ex, "HTTP-Aufzeichnung");
+                stopRecord();
+            }
+        }
+    }
+
+    /**
+     * Header, die nur für diese eine Übertragung gelten oder von diesem Programm stammen.
+     */
+    private static boolean isTransient(String name) {
+        return name.equalsIgnoreCase("Transfer-Encoding")
+                || name.equalsIgnoreCase("Connection")
+                || name.equalsIgnoreCase("Keep-Alive")
+                || name.equalsIgnoreCase(HttpResponseCache.HEADER_CACHE);
+    }
+
+    private static long contentLength(Response response) {
+        try {
+            return Long.parseLong(response.header("Content-Length", "-1"));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+}
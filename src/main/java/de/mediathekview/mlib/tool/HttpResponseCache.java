@@ -0,0 +1,370 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Speichert Antworten auf GET-Anfragen, die ein "ETag" oder "Last-Modified" haben, in einem
+ * Verzeichnis und fragt beim nächsten Mal nur mit "If-None-Match" / "If-Modified-Since" nach.
+ * Antwortet der Server mit 304, bekommt der Aufrufer die gespeicherte Antwort mit Status 200 und
+ * dem Header {@link #HEADER_CACHE} = {@link #REVALIDATED}, der Body muss nicht übertragen werden.
+ * <p>
+ * Der Cache ist ein Interceptor des gemeinsamen {@link MVHttpClient} und damit für alle Anfragen
+ * aktiv, sobald er mit {@link #open(String, long)} ein Verzeichnis hat. Gespeichert werden nur
+ * Antworten bis {@link #MAX_ENTRY_BYTES}; wird das Verzeichnis größer als erlaubt, fallen die am
+ * längsten nicht benutzten Einträge heraus. Der Inhalt bleibt zwischen den Läufen erhalten.
+ */
+public final class HttpResponseCache {
+
+    public static final String HEADER_CACHE = "X-MServer-Cache";
+    public static final String REVALIDATED = "revalidated";
+
+    private static final HttpResponseCache ourInstance = new HttpResponseCache();
+
+    static {
+        Metrics.getInstance().register("http-cache", out -> {
+            out.counter("http_cache_requests_total", ourInstance.getRequests());
+            out.counter("http_cache_revalidated_total", ourInstance.getRevalidated());
+            out.counter("http_cache_saved_bytes_total", ourInstance.getSavedBytes());
+            out.gauge("http_cache_size_bytes", ourInstance.size.get());
+        });
+    }
+
+    private static final int MAGIC = 0x4D564843; // "MVHC"
+    private static final int VERSION = 1;
+    private static final long MAX_ENTRY_BYTES = 4L * 1024 * 1024;
+    private static final String SUFFIX = ".entry";
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+    private volatile Path directory = null;
+    private volatile long maxBytes = 0;
+    private volatile Listener listener = (hit, bytes) -> {
+    };
+
+    private HttpResponseCache() {
+    }
+
+    public static HttpResponseCache getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * Wird für jede Anfrage aufgerufen, die der Cache hätte beantworten können, auf dem Thread
+     * des Aufrufers.
+     */
+    public interface Listener {
+
+        /**
+         * @param hit          true, wenn der Server mit 304 geantwortet hat
+         * @param bytesSaved   die Größe der gespeicherten Antwort, die nicht übertragen wurde
+         */
+        void request(boolean hit, long bytesSaved);
+    }
+
+    /**
+     * Öffnet den Cache in dem Verzeichnis, das auch schon Einträge früherer Läufe enthalten kann.
+     *
+     * @param verzeichnis das Verzeichnis, wird angelegt
+     * @param maxBytes    die maximale Größe aller Einträge, 0 schaltet den Cache ab
+     */
+    public synchronized void open(String verzeichnis, long maxBytes) {
+        directory = null;
+        index.clear();
+        size.set(0);
+        if (maxBytes <= 0) {
+            return;
+        }
+        final Path path = Paths.get(verzeichnis);
+        try {
+            Files.createDirectories(path);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    final String key = file.getFileName().toString().replace(SUFFIX, "");
+                    final long length = Files.size(file);
+                    index.put(key, new Entry(length, Files.getLastModifiedTime(file).toMillis()));
+                    size.addAndGet(length);
+                }
+            }
+            this.maxBytes = maxBytes;
+            directory = path;
+            Log.sysLog("HTTP-Cache: " + index.size() + " Einträge, " + size.get() / 1_000_000 + " MB");
+            trim();
+        } catch (IOException ex) {
+            Log.errorLog(912036552, ex, "HTTP-Cache: " + verzeichnis);
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getRevalidated() {
+        return revalidated.get();
+    }
+
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    public void clearStatistics() {
+        requests.set(0);
+        revalidated.set(0);
+        savedBytes.set(0);
+    }
+
+    /**
+     * @param response eine Antwort
+     * @return true, wenn die Antwort aus dem Cache kommt, weil sie sich nicht geändert hat
+     */
+    public static boolean isRevalidated(Response response) {
+        return REVALIDATED.equals(response.header(HEADER_CACHE));
+    }
+
+    /**
+     * @return Interceptor für OkHttp, der Anfragen aus dem Cache beantwortet
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            final Request request = chain.request();
+            final Path dir = directory;
+            if (dir == null || !isCacheable(request)) {
+                return chain.proceed(request);
+            }
+            requests.incrementAndGet();
+            final String key = key(request);
+            final Stored stored = index.containsKey(key) ? read(dir, key) : null;
+
+            final Request.Builder conditional = request.newBuilder();
+            if (stored != null) {
+                final String etag = stored.headers.get("ETag");
+                final String lastModified = stored.headers.get("Last-Modified");
+                if (etag != null) {
+                    conditional.header("If-None-Match", etag);
+                }
+                if (lastModified != null) {
+                    conditional.header("If-Modified-Since", lastModified);
+                }
+            }
+            final Response response = chain.proceed(conditional.build());
+
+            if (stored != null && response.code() == 304) {
+                response.close();
+                touch(dir, key);
+                revalidated.incrementAndGet();
+                savedBytes.addAndGet(stored.body.length);
+                listener.request(true, stored.body.length);
+                final String contentType = stored.headers.get("Content-Type");
+                return new Response.Builder()
+                        .request(request)
+                        .protocol(response.protocol())
+                        .code(200)
+                        .message("OK")
+                        .headers(stored.headers)
+                        .header(HEADER_CACHE, REVALIDATED)
+                        .body(ResponseBody.create(stored.body, contentType == null ? null : MediaType.parse(contentType)))
+                        .sentRequestAtMillis(response.sentRequestAtMillis())
+                        .receivedResponseAtMillis(response.receivedResponseAtMillis())
+                        .build();
+            }
+
+            listener.request(false, 0);
+            if (response.code() == 200 && hasValidator(response) && !noStore(response.header("Cache-Control"))
+                    && contentLength(response) <= MAX_ENTRY_BYTES) {
+                // peekBody liest nur bis zur Grenze und lässt den Body für den Aufrufer unverändert
+                final byte[] body = response.peekBody(MAX_ENTRY_BYTES + 1).bytes();
+                if (body.length <= MAX_ENTRY_BYTES) {
+                    write(dir, key, response.headers(), body);
+                }
+            } else if (stored != null && response.code() == 200) {
+                remove(dir, key);
+            }
+            return response;
+        };
+    }
+
+    private static boolean isCacheable(Request request) {
+        return "GET".equals(request.method())
+                && request.header("If-None-Match") == null
+                && request.header("If-Modified-Since") == null
+                && request.header("Range") == null
+                && !noStore(request.header("Cache-Control"));
+    }
+
+    private static boolean hasValidator(Response response) {
+        return response.header("ETag") != null || response.header("Last-Modified") != null;
+    }
+
+    private static boolean noStore(String cacheControl) {
+        return cacheControl != null && cacheControl.toLowerCase().contains("no-store");
+    }
+
+    private static long contentLength(Response response) {
+        try {
+            return Long.parseLong(response.header("Content-Length", "-1"));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Dieselbe URL kann je nach Accept-Header anders ausgeliefert werden.
+     */
+    private static String key(Request request) {
+        final String text = request.url() + "\n" + request.header("Accept", "") + "\n" + request.header("Accept-Encoding", "");
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+            return String.format("%040x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private Stored read(Path dir, String key) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dir.resolve(key + SUFFIX))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            final Headers.Builder headers = new Headers.Builder();
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                headers.addUnsafeNonAscii(in.readUTF(), in.readUTF());
+            }
+            final byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Stored(headers.build(), body);
+        } catch (IOException ex) {
+            // z.B. von einem anderen Thread gerade ersetzt oder entfernt
+            return null;
+        }
+    }
+
+    private void write(Path dir, String key, Headers headers, byte[] body) {
+        final Path target = dir.resolve(key + SUFFIX);
+        final Path temp = dir.resolve(key + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(headers.size());
+                for (int i = 0; i < headers.size(); i++) {
+                    out.writeUTF(headers.name(i));
+                    out.writeUTF(headers.value(i));
+                }
+                out.writeInt(body.length);
+                out.write(body);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            final long length = Files.size(target);
+            final Entry old = index.put(key, new Entry(length, System.currentTimeMillis()));
+            size.addAndGet(length - (old == null ? 0 : old.length));
+            if (size.get() > maxBytes) {
+                trim();
+            }
+        } catch (IOException ex) {
+            Log.errorLog(912036553, ex, "HTTP-Cache: " + target);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void touch(Path dir, String key) {
+        final Entry entry = index.get(key);
+        if (entry != null) {
+            entry.lastUsed = System.currentTimeMillis();
+            try {
+                // für die Reihenfolge beim Aufräumen im nächsten Lauf
+                Files.setLastModifiedTime(dir.resolve(key + SUFFIX), FileTime.fromMillis(entry.lastUsed));
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void remove(Path dir, String key) {
+        final Entry entry = index.remove(key);
+        if (entry != null) {
+            size.addAndGet(-entry.length);
+            try {
+                Files.deleteIfExists(dir.resolve(key + SUFFIX));
+            } catch (IOException ex) {
+                Log.errorLog(912036554, ex, "HTTP-Cache: " + key);
+            }
+        }
+    }
+
+    /**
+     * Entfernt die am längsten nicht benutzten Einträge, bis der Cache wieder unter 90 % der
+     * maximalen Größe liegt.
+     */
+    private synchronized void trim() {
+        final Path dir = directory;
+        if (dir == null || size.get() <= maxBytes) {
+            return;
+        }
+        final List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+        for (Map.Entry<String, Entry> entry : entries) {
+            if (size.get() <= maxBytes * 9 / 10) {
+                break;
+            }
+            remove(dir, entry.getKey());
+        }
+    }
+
+    private static final class Entry {
+
+        private final long length;
+        private volatile long lastUsed;
+
+        Entry(long length, long lastUsed) {
+            this.length = length;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final class Stored {
+
+        private final Headers headers;
+        private final byte[] body;
+
+        Stored(Headers headers, byte[] body) {
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -3,21 +3,48 @@ package de.mediathekview.mlib.tool;
 import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Gemeinsamer HTTP-Client für alle Anfragen (Crawler, Filmliste, URL-Prüfung).
+ * <p>
+ * Alle Clients, auch die aus {@link #getClient(int)}, teilen sich einen Connection-Pool,
+ * einen Dispatcher und die TLS-Sessions: Verbindungen bleiben offen und werden je Host
+ * wiederverwendet, HTTP/2 wird genutzt, wenn der Server es anbietet. Antworten und Fehler
+ * werden an den {@link HostRateController} gemeldet und in {@link Metrics} gezählt,
+ * GET-Anfragen gehen über den {@link HttpResponseCache}. Ein Abbruch über das
+ * {@link CancellationToken} beendet auch die laufenden Anfragen. Mit dem {@link HttpRecorder} lässt sich
+ * ein Suchlauf aufzeichnen und ohne Netz wiedergeben.
+ */
 public class MVHttpClient {
     private final static MVHttpClient ourInstance = new MVHttpClient();
+
+    private static final int MAX_IDLE_CONNECTIONS = 200;
+    private static final int KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS = 200;
+    private static final int MAX_REQUESTS_PER_HOST = 50;
+
     private final OkHttpClient httpClient;
     private final OkHttpClient copyClient;
+    private final Map<Integer, OkHttpClient> timeoutClients = new ConcurrentHashMap<>();
 
     private MVHttpClient() {
         httpClient = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
-                .connectionPool(new ConnectionPool(100, 1, TimeUnit.SECONDS))
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .addInterceptor(HttpRecorder.getInstance().recordInterceptor())
+                .addInterceptor(CancellationToken.interceptor())
+                .addInterceptor(HttpResponseCache.getInstance().interceptor())
+                .addInterceptor(HostRateController.getInstance().interceptor())
+                .addInterceptor(Metrics.getInstance().interceptor())
+                .addInterceptor(HttpRecorder.getInstance().replayInterceptor())
                 .build();
-        httpClient.dispatcher().setMaxRequests(100);
+        httpClient.dispatcher().setMaxRequests(MAX_REQUESTS);
+        httpClient.dispatcher().setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
 
         copyClient = httpClient.newBuilder()
                 .connectTimeout(5, TimeUnit.SECONDS)
@@ -36,4 +63,19 @@ public class MVHttpClient {
     public OkHttpClient getReducedTimeOutClient() {
         return copyClient;
     }
+
+    /**
+     * Liefert einen Client mit eigenem Timeout, der Pool und Dispatcher mit den anderen teilt.
+     *
+     * @param timeoutSeconds Timeout für Verbindungsaufbau, Lesen, Schreiben und die ganze Anfrage
+     * @return der Client, für jeden Timeout nur einmal erzeugt
+     */
+    public OkHttpClient getClient(int timeoutSeconds) {
+        return timeoutClients.computeIfAbsent(timeoutSeconds, timeout -> httpClient.newBuilder()
+                .connectTimeout(timeout, TimeUnit.SECONDS)
+                .readTimeout(timeout, TimeUnit.SECONDS)
+                .writeTimeout(timeout, TimeUnit.SECONDS)
+                .callTimeout(timeout, TimeUnit.SECONDS)
+                .build());
+    }
 }
@@ -0,0 +1,294 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt Messwerte des Suchlaufs (Zähler, Histogramme) und gibt sie im Textformat von
+ * Prometheus aus. Zähler und Histogramme werden beim ersten Zugriff angelegt, danach ist jedes
+ * Zählen ohne Sperre. Werte, die es ohnehin schon gibt (Zähler der Sender, Warteschlangen), liefern
+ * {@link Collector}en erst beim Abruf.
+ * <p>
+ * Labels werden als Paare übergeben: {@code counter("requests", "host", "zdf.de", "status", "200")}.
+ */
+public final class Metrics {
+
+    private static final Metrics ourInstance = new Metrics();
+
+    public static final String PREFIX = "mserver_";
+    /**
+     * Grenzen für Antwortzeiten in Sekunden.
+     */
+    public static final double[] SECONDS_BUCKETS = {0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    /**
+     * Grenzen für Größen in Byte.
+     */
+    public static final double[] BYTES_BUCKETS = {1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Collector> collectors = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Metrics getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * Liefert Messwerte erst, wenn sie abgerufen werden.
+     */
+    public interface Collector {
+
+        void collect(Output out);
+    }
+
+    /**
+     * Nimmt die Messwerte eines {@link Collector}s entgegen.
+     */
+    public interface Output {
+
+        void counter(String name, double value, String... labels);
+
+        void gauge(String name, double value, String... labels);
+    }
+
+    /**
+     * @param name   Name ohne {@link #PREFIX}
+     * @param labels Paare aus Name und Wert
+     * @return der Zähler, für Name und Labels nur einmal angelegt
+     */
+    public Counter counter(String name, String... labels) {
+        final String key = key(name, labels);
+        final Counter counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new Counter(name, labels(labels)));
+    }
+
+    /**
+     * @param name    Name ohne {@link #PREFIX}
+     * @param buckets die oberen Grenzen, aufsteigend
+     * @param labels  Paare aus Name und Wert
+     * @return das Histogramm, für Name und Labels nur einmal angelegt
+     */
+    public Histogram histogram(String name, double[] buckets, String... labels) {
+        final String key = key(name, labels);
+        final Histogram histogram = histograms.get(key);
+        return histogram != null ? histogram : histograms.computeIfAbsent(key, k -> new Histogram(name, labels(labels), buckets));
+    }
+
+    /**
+     * Meldet einen {@link Collector} an, ein früherer mit demselben Namen wird ersetzt.
+     *
+     * @param name      der Name des Collectors
+     * @param collector der Collector
+     */
+    public void register(String name, Collector collector) {
+        collectors.put(name, collector);
+    }
+
+    public void clear() {
+        counters.clear();
+        histograms.clear();
+        collectors.clear();
+    }
+
+    /**
+     * @return Interceptor für OkHttp, der Anfragen, Antwortzeiten und Fehler je Host zählt
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            final Request request = chain.request();
+            final String host = request.url().host();
+            final long start = System.nanoTime();
+            final Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                counter("http_failures_total", "host", host, "exception", e.getClass().getSimpleName()).inc();
+                throw e;
+            }
+            counter("http_requests_total", "host", host, "status", String.valueOf(response.code())).inc();
+            histogram("http_request_duration_seconds", SECONDS_BUCKETS, "host", host)
+                    .observe((System.nanoTime() - start) / 1e9);
+            final long length = contentLength(response);
+            if (length >= 0) {
+                histogram("http_response_bytes", BYTES_BUCKETS, "host", host).observe(length);
+            }
+            return response;
+        };
+    }
+
+    /**
+     * @return alle Messwerte im Textformat von Prometheus
+     */
+    public String getText() {
+        // je Name ein Block mit Typ, auch wenn die Werte aus verschiedenen Quellen kommen
+        final Map<String, String> types = new TreeMap<>();
+        final Map<String, List<String>> samples = new TreeMap<>();
+        counters.values().forEach(counter -> add(types, samples, counter.name, "counter",
+                counter.name + counter.labels + ' ' + format(counter.get())));
+        histograms.values().forEach(histogram -> histogram.write(types, samples));
+        final Output out = new Output() {
+            @Override
+            public void counter(String name, double value, String... labels) {
+                add(types, samples, name, "counter", name + labels(labels) + ' ' + format(value));
+            }
+
+            @Override
+            public void gauge(String name, double value, String... labels) {
+                add(types, samples, name, "gauge", name + labels(labels) + ' ' + format(value));
+            }
+        };
+        collectors.forEach((name, collector) -> {
+            try {
+                collector.collect(out);
+            } catch (RuntimeException ex) {
+                Log.errorLog(912036555, ex, "Metrics: " + name);
+            }
+        });
+
+        final StringBuilder sb = new StringBuilder();
+        samples.forEach((name, lines) -> {
+            sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(types.get(name)).append('\n');
+            lines.forEach(line -> sb.append(PREFIX).append(line).append('\n'));
+        });
+        return sb.toString();
+    }
+
+    private static void add(Map<String, String> types, Map<String, List<String>> samples, String name, String type, String line) {
+        types.putIfAbsent(name, type);
+        samples.computeIfAbsent(name, k -> new ArrayList<>()).add(line);
+    }
+
+    private static String key(String name, String... labels) {
+        if (labels.length == 0) {
+            return name;
+        }
+        return name + '\u0000' + String.join("\u0000", labels);
+    }
+
+    /**
+     * @return die Labels im Format von Prometheus, z.B. {host="zdf.de",status="200"}
+     */
+    private static String labels(String... labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    private static long contentLength(Response response) {
+        try {
+            return Long.parseLong(response.header("Content-Length", "-1"));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    public static final class Counter {
+
+        private final String name;
+        private final String labels;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Histogram {
+
+        private final String name;
+        private final String labels;
+        private final double[] buckets;
+        private final LongAdder[] counts;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(String name, String labels, double[] buckets) {
+            this.name = name;
+            this.labels = labels;
+            this.buckets = buckets.clone();
+            counts = new LongAdder[buckets.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double value) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (value <= buckets[i]) {
+                    counts[i].increment();
+                    break;
+                }
+            }
+            count.increment();
+            sum.add(value);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getSum() {
+            return sum.sum();
+        }
+
+        private void write(Map<String, String> types, Map<String, List<String>> samples) {
+            // le kommt zu den übrigen Labels dazu
+            final String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ',';
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += counts[i].sum();
+                add(types, samples, name, "histogram",
+                        name + "_bucket" + prefix + "le=\"" + format(buckets[i]) + "\"} " + cumulative);
+            }
+            final long total = count.sum();
+            add(types, samples, name, "histogram", name + "_bucket" + prefix + "le=\"+Inf\"} " + total);
+            add(types, samples, name, "histogram", name + "_sum" + labels + ' ' + format(sum.sum()));
+            add(types, samples, name, "histogram", name + "_count" + labels + ' ' + total);
+        }
+    }
+}
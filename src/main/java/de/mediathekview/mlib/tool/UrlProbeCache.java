@@ -0,0 +1,387 @@
+package de.mediathekview.mlib.tool;
+
+import de.mediathekview.mlib.daten.FilmDictionary;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merkt sich das Ergebnis von HEAD-Anfragen (Status, Content-Length, Content-Type, URL nach
+ * Redirects) je URL, damit dieselben Dateien nicht bei jedem Lauf erneut geprüft werden.
+ * Erfolgreiche Ergebnisse gelten {@link #TTL_ONLINE_MS}, andere {@link #TTL_OFFLINE_MS}; fehlgeschlagene
+ * Anfragen (Timeout, ...) werden nicht gemerkt. Die ältesten Einträge fallen nach
+ * {@link #MAX_ENTRIES} heraus (LRU). Zwischen zwei Läufen wird der Cache in einer Datei gespeichert.
+ * <p>
+ * Mit {@link #firstSuccessful(List)} werden mehrere Kandidaten gleichzeitig geprüft; diese Anfragen
+ * laufen über einen eigenen Dispatcher mit höchstens {@link #MAX_PROBES_PER_HOST} Anfragen je Host.
+ */
+public final class UrlProbeCache {
+
+    private static final UrlProbeCache ourInstance = new UrlProbeCache();
+
+    private static final int MAGIC = 0x4D565550; // "MVUP"
+    private static final int VERSION = 1;
+    private static final int MAX_ENTRIES = 500_000;
+    private static final long TTL_ONLINE_MS = TimeUnit.HOURS.toMillis(12);
+    private static final long TTL_OFFLINE_MS = TimeUnit.HOURS.toMillis(1);
+    private static final String HEAD = "HEAD";
+    private static final int MAX_PROBES = 64;
+    private static final int MAX_PROBES_PER_HOST = 8;
+
+    private final Map<String, Probe> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Probe> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private volatile OkHttpClient probeClient;
+
+    private UrlProbeCache() {
+    }
+
+    public static UrlProbeCache getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * Liefert das Ergebnis einer HEAD-Anfrage, aus dem Cache oder neu angefragt.
+     *
+     * @param url die URL
+     * @return das Ergebnis, bei einem Fehler der Anfrage ein nicht erfolgreiches Ergebnis
+     */
+    public Probe head(String url) {
+        final Request request;
+        try {
+            request = new Request.Builder().url(url).head().build();
+        } catch (IllegalArgumentException ex) {
+            return Probe.FAILED;
+        }
+        final Optional<Probe> cached = get(request);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        try (Response response = MVHttpClient.getInstance().getReducedTimeOutClient().newCall(request).execute()) {
+            return put(request, response);
+        } catch (IOException ignored) {
+            return Probe.FAILED;
+        }
+    }
+
+    /**
+     * Wie {@link #head(String)}, aber ohne zu warten. Wird das Ergebnis abgebrochen, bevor die
+     * Antwort da ist, wird auch die Anfrage abgebrochen.
+     *
+     * @param url die URL
+     * @return das Ergebnis, bei einem Fehler der Anfrage ein nicht erfolgreiches Ergebnis
+     */
+    public CompletableFuture<Probe> headAsync(String url) {
+        final Request request;
+        try {
+            request = CancellationToken.tag(new Request.Builder()).url(url).head().build();
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.completedFuture(Probe.FAILED);
+        }
+        final Optional<Probe> cached = get(request);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+
+        final CompletableFuture<Probe> result = new CompletableFuture<>();
+        final Call call = getProbeClient().newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                result.complete(Probe.FAILED);
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                try (response) {
+                    result.complete(put(request, response));
+                }
+            }
+        });
+        result.whenComplete((probe, ex) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Prüft alle URLs gleichzeitig und liefert die erste in der gegebenen Reihenfolge, die
+     * erreichbar ist. Das Ergebnis steht fest, sobald alle URLs davor nicht erreichbar sind; die
+     * Anfragen für die URLs danach werden dann abgebrochen.
+     *
+     * @param urls die URLs, die beste zuerst
+     * @return die erste erreichbare URL
+     */
+    public CompletableFuture<Optional<String>> firstSuccessful(List<String> urls) {
+        final List<CompletableFuture<Probe>> probes = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            probes.add(headAsync(url));
+        }
+        return firstSuccessful(urls, probes, 0);
+    }
+
+    private static CompletableFuture<Optional<String>> firstSuccessful(List<String> urls,
+                                                                       List<CompletableFuture<Probe>> probes, int index) {
+        if (index >= probes.size()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return probes.get(index).thenCompose(probe -> {
+            if (probe.isSuccessful()) {
+                for (int i = index + 1; i < probes.size(); i++) {
+                    probes.get(i).cancel(false);
+                }
+                return CompletableFuture.completedFuture(Optional.of(urls.get(index)));
+            }
+            return firstSuccessful(urls, probes, index + 1);
+        });
+    }
+
+    /**
+     * Die Anfragen von {@link #headAsync(String)} haben einen eigenen Dispatcher, damit viele
+     * Kandidaten einen Host nicht überlasten und die übrigen Anfragen nicht verdrängen.
+     */
+    private OkHttpClient getProbeClient() {
+        OkHttpClient client = probeClient;
+        if (client == null) {
+            synchronized (this) {
+                client = probeClient;
+                if (client == null) {
+                    final Dispatcher dispatcher = new Dispatcher();
+                    dispatcher.setMaxRequests(MAX_PROBES);
+                    dispatcher.setMaxRequestsPerHost(MAX_PROBES_PER_HOST);
+                    client = MVHttpClient.getInstance().getReducedTimeOutClient().newBuilder()
+                            .dispatcher(dispatcher)
+                            .build();
+                    probeClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * @param request die Anfrage, HEAD und GET derselben URL werden getrennt gemerkt
+     * @return das gemerkte Ergebnis, wenn es noch gültig ist
+     */
+    public synchronized Optional<Probe> get(Request request) {
+        final String key = key(request);
+        final Probe probe = cache.get(key);
+        if (probe == null) {
+            return Optional.empty();
+        }
+        if (probe.isExpired(System.currentTimeMillis())) {
+            cache.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(probe);
+    }
+
+    /**
+     * Merkt sich das Ergebnis einer Anfrage.
+     *
+     * @param request  die ursprüngliche Anfrage (vor Redirects)
+     * @param response die Antwort
+     * @return das gemerkte Ergebnis
+     */
+    public Probe put(Request request, Response response) {
+        final Probe probe = new Probe(response.code(), contentLength(response),
+                response.header("Content-Type", ""), response.request().url().toString(),
+                System.currentTimeMillis());
+        synchronized (this) {
+            cache.put(key(request), probe);
+        }
+        return probe;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Lädt den Cache eines früheren Laufs, abgelaufene Einträge werden übersprungen.
+     *
+     * @param datei Pfad der Datei
+     */
+    public void load(String datei) {
+        final Path path = Paths.get(datei);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            final long now = System.currentTimeMillis();
+            final int count = in.readInt();
+            int loaded = 0;
+            synchronized (this) {
+                for (int i = 0; i < count; i++) {
+                    final String key = in.readUTF();
+                    final Probe probe = new Probe(in.readInt(), in.readLong(), in.readUTF(), in.readUTF(), in.readLong());
+                    if (!probe.isExpired(now)) {
+                        cache.put(key, probe);
+                        loaded++;
+                    }
+                }
+            }
+            Log.sysLog("URL-Cache geladen: " + loaded + " Einträge");
+        } catch (Exception ex) {
+            Log.errorLog(912036550, ex, "URL-Cache: " + datei);
+        }
+    }
+
+    /**
+     * Speichert die noch gültigen Einträge, die Datei wird erst am Ende ersetzt.
+     *
+     * @param datei Pfad der Datei
+     */
+    public void save(String datei) {
+        final Path target = Paths.get(datei);
+        final Path temp = Paths.get(datei + "_temp");
+        final List<Map.Entry<String, Probe>> entries;
+        final long now = System.currentTimeMillis();
+        synchronized (this) {
+            entries = new ArrayList<>(cache.size());
+            for (Map.Entry<String, Probe> entry : cache.entrySet()) {
+                if (!entry.getValue().isExpired(now)) {
+                    entries.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Probe> entry : entries) {
+                    final Probe probe = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(probe.code);
+                    out.writeLong(probe.contentLength);
+                    out.writeUTF(probe.contentType);
+                    out.writeUTF(probe.finalUrl);
+                    out.writeLong(probe.timestamp);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Log.sysLog("URL-Cache gespeichert: " + entries.size() + " Einträge");
+        } catch (Exception ex) {
+            Log.errorLog(912036551, ex, "URL-Cache: " + datei);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static String key(Request request) {
+        final String url = request.url().toString();
+        return HEAD.equals(request.method()) ? url : request.method() + ' ' + url;
+    }
+
+    private static long contentLength(Response response) {
+        try {
+            return Long.parseLong(response.header("Content-Length", "-1"));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Das Ergebnis einer Anfrage.
+     */
+    public static final class Probe {
+
+        static final Probe FAILED = new Probe(-1, -1, "", "", 0);
+
+        private final int code;
+        private final long contentLength;
+        private final String contentType;
+        private final String finalUrl;
+        private final long timestamp;
+
+        private Probe(int code, long contentLength, String contentType, String finalUrl, long timestamp) {
+            this.code = code;
+            this.contentLength = contentLength;
+            // es gibt nur wenige verschiedene Content-Types
+            this.contentType = FilmDictionary.get(contentType);
+            this.finalUrl = finalUrl;
+            this.timestamp = timestamp;
+        }
+
+        public boolean isSuccessful() {
+            return code >= 200 && code < 300;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * @return die Content-Length in Bytes oder -1
+         */
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * @return die URL nach allen Redirects
+         */
+        public String getFinalUrl() {
+            return finalUrl;
+        }
+
+        /**
+         * @return der Pfad der URL nach allen Redirects, kodiert wie {@link HttpUrl#encodedPath()}
+         */
+        public String getFinalPath() {
+            final HttpUrl url = HttpUrl.parse(finalUrl);
+            return url == null ? "" : url.encodedPath();
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        boolean isExpired(long now) {
+            return now - timestamp > (isSuccessful() ? TTL_ONLINE_MS : TTL_OFFLINE_MS);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import mServer.search.MserverSearch;
 import mServer.tool.MserverDaten;
 import mServer.tool.MserverKonstanten;
 import mServer.tool.MserverLog;
+import mServer.tool.MserverMetrics;
 import mServer.tool.MserverTimer;
 import mServer.tool.MserverXmlLesen;
 import mServer.upload.MserverUpload;
@@ -76,6 +77,7 @@ public class MServer {
 
             // Infos schreiben
             MserverLog.startMeldungen(this.getClass().getName());
+            MserverMetrics.starten();
 
             mvsSearch = new MserverSearch();
             Thread timerThread = new MserverTimer(this);
@@ -164,6 +166,7 @@ public class MServer {
     }
 
     private void undTschuess() {
+        MserverMetrics.beenden();
         MserverLog.printEndeMeldung();
         // we need to interrupt the current thread to know that we should stop for today
         Thread.currentThread().interrupt();
@@ -9,43 +9,46 @@ import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.DatenFilm;
 import de.mediathekview.mlib.daten.ListeFilme;
-import de.mediathekview.mlib.tool.Hash;
+import de.mediathekview.mlib.tool.FingerprintSet;
 import de.mediathekview.mlib.tool.Log;
 import de.mediathekview.mlib.tool.MVHttpClient;
+import de.mediathekview.mlib.tool.UrlProbeCache;
 import mServer.crawler.sender.base.UrlUtils;
 import mServer.crawler.sender.orfon.OrfOnConstants;
 import mServer.tool.MserverDaten;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Request.Builder;
 import okhttp3.Response;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.SocketTimeoutException;
 import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
-
 public class AddToFilmlist {
 
   /**
    * Minimum size of films in MiB to be included in new list.
    */
   private static final int MIN_SIZE_ADD_OLD = 5;
-  private final static int NUMBER_OF_THREADS = 32;//(Runtime.getRuntime().availableProcessors() * Runtime.getRuntime().availableProcessors()) / 2;
+  /**
+   * Maximum number of online checks running at the same time, in total and per host.
+   */
+  private static final int MAX_REQUESTS = 128;
+  private static final int MAX_REQUESTS_PER_HOST = 32;
   private final ListeFilme vonListe;
   private final ListeFilme listeEinsortieren;
   private final BannedFilmFilter bannedFilmFilter;
   /**
-   * List of all locally started import threads.
+   * Films which are still online, filled by the online check.
    */
-  private final ArrayList<ImportOldFilmlistThread> threadList = new ArrayList<>();
-  private AtomicInteger threadCounter = new AtomicInteger(0);
+  private final Queue<DatenFilm> localAddList = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger anzahlTreffer = new AtomicInteger(0);
 
   public AddToFilmlist(ListeFilme vonListe, ListeFilme listeEinsortieren) {
     this.vonListe = vonListe;
@@ -62,21 +65,19 @@ public class AddToFilmlist {
     listeEinsortieren.forEach(vonListe::add);
   }
 
-  private void performTitleSearch(HashSet<Hash> hash, final int size) {
+  void performTitleSearch(FingerprintSet hash, final int size) {
     vonListe.parallelStream().forEach(f -> {
-      synchronized (hash) {
-        // tour de france entries of men and women use the same title
-        // => do not add this entries to hash list to keep all entries
-        // => for details see https://github.com/mediathekview/MServer/issues/908
-        if (!(f.arr[DatenFilm.FILM_SENDER].equals(Const.ARD)
-                && f.arr[DatenFilm.FILM_THEMA].equals("Sportschau")
-                && f.arr[DatenFilm.FILM_TITEL].contains("Etappe"))) {
-          hash.add(f.getHashValueIndexAddOld());
-        }
+      // tour de france entries of men and women use the same title
+      // => do not add this entries to hash list to keep all entries
+      // => for details see https://github.com/mediathekview/MServer/issues/908
+      if (!(f.arr[DatenFilm.FILM_SENDER].equals(Const.ARD)
+              && f.arr[DatenFilm.FILM_THEMA].equals("Sportschau")
+              && f.arr[DatenFilm.FILM_TITEL].contains("Etappe"))) {
+        hash.add(f.getFingerprintIndexAddOld());
       }
     });
 
-    listeEinsortieren.removeIf((f) -> hash.contains(f.getHashValueIndexAddOld()));
+    listeEinsortieren.removeIf((f) -> hash.contains(f.getFingerprintIndexAddOld()));
     hash.clear();
 
     Log.sysLog("===== Liste einsortieren Title =====");
@@ -86,14 +87,10 @@ public class AddToFilmlist {
     Log.sysLog("");
   }
 
-  private void performUrlSearch(HashSet<Hash> hash, final int size) {
-    vonListe.parallelStream().forEach(f -> {
-      synchronized (hash) {
-        hash.add(f.getHashValueUrl());
-      }
-    });
+  void performUrlSearch(FingerprintSet hash, final int size) {
+    vonListe.parallelStream().forEach(f -> hash.add(f.getFingerprintUrl()));
 
-    listeEinsortieren.removeIf((f) -> hash.contains(f.getHashValueUrl()));
+    listeEinsortieren.removeIf((f) -> hash.contains(f.getFingerprintUrl()));
     hash.clear();
 
     Log.sysLog("===== Liste einsortieren URL =====");
@@ -109,7 +106,7 @@ public class AddToFilmlist {
    * remove time from mdr aktuell and orf topics
    * replace topic and title of audio description entries for orf+srf
    */
-  private void performInitialCleanup() {
+  void performInitialCleanup() {
     listeEinsortieren.removeIf(f -> !f.arr[DatenFilm.FILM_URL].toLowerCase().startsWith("http"));
     listeEinsortieren.removeIf(f -> f.arr[DatenFilm.FILM_SENDER].equals(Const.ORF) && f.arr[DatenFilm.FILM_URL]
             .matches(OrfOnConstants.FILTER_JUGENDSCHUTZ));
@@ -200,39 +197,12 @@ public class AddToFilmlist {
     }
   }
 
-  private void startThreads() {
-    final OkHttpClient client = MVHttpClient.getInstance().getReducedTimeOutClient();
-
-    Queue<DatenFilm> syncList = new LinkedBlockingQueue<>(listeEinsortieren);
-    for (int i = 0; i < NUMBER_OF_THREADS; ++i) {
-      ImportOldFilmlistThread t = new ImportOldFilmlistThread(syncList, client);
-      t.setName("ImportOldFilmlistThread Thread-" + i);
-      threadList.add(t);
-      t.start();
-    }
-  }
-
-  private void stopThreads() {
-    if (Config.getStop()) {
-      for (ImportOldFilmlistThread t : threadList) {
-        t.interrupt();
-      }
-      for (ImportOldFilmlistThread t : threadList) {
-        try {
-          t.join();
-        } catch (InterruptedException ignored) {
-        }
-      }
-    }
-  }
-
   /*
    * Diese Methode sortiert eine vorhandene Liste in eine andere Filmliste ein,
    * dabei werden nur nicht vorhandene Filme einsortiert.
    */
   public int addOldList() {
-    threadCounter = new AtomicInteger(0);
-    final HashSet<Hash> hash = new HashSet<>(vonListe.size() + 1);
+    final FingerprintSet hash = new FingerprintSet(vonListe.size());
 
     performInitialCleanup();
 
@@ -244,29 +214,10 @@ public class AddToFilmlist {
     performUrlSearch(hash, size);
 
     size = listeEinsortieren.size();
-    long oldSize = size;
-
-    startThreads();
 
-    int count = 0;
-    while (!Config.getStop() && threadCounter.get() > 0) {
-      try {
-        count++;
-        if (count % 5 == 0) {
-          long curSize = listeEinsortieren.size();
-          System.out.println("Liste: " + curSize);
-          System.out.println("Entfernte Einträge: " + ((oldSize - curSize)));
-          oldSize = curSize;
-        }
-        TimeUnit.SECONDS.sleep(2);
-      } catch (Exception ex) {
-        Log.errorLog(978451205, ex, "Fehler beim Import Old");
-      }
-    }
-
-    stopThreads();
+    performOnlineCheck();
 
-    final int treffer = retrieveThreadResults();
+    final int treffer = retrieveResults();
 
     Log.sysLog("===== Liste einsortieren: Noch online =====");
     Log.sysLog("Liste einsortieren, Anzahl: " + size);
@@ -278,163 +229,184 @@ public class AddToFilmlist {
   }
 
   /**
-   * Add all local thread results to the filmlist.
-   *
-   * @return the total number of entries found.
+   * Checks all remaining films asynchronously whether they are still online.
    */
-  private int retrieveThreadResults() {
-    int treffer = 0;
-    for (ImportOldFilmlistThread t : threadList) {
-      final ArrayList<DatenFilm> localList = t.getLocalAddList();
-      if (MserverDaten.debug) {
-        Log.sysLog("Thread " + t.getName() + " list size: " + localList.size());
+  private void performOnlineCheck() {
+    final long start = System.currentTimeMillis();
+    final int size = listeEinsortieren.size();
+    try (OnlineCheck onlineCheck = new OnlineCheck(MVHttpClient.getInstance().getReducedTimeOutClient(),
+            MAX_REQUESTS, MAX_REQUESTS_PER_HOST)) {
+      try {
+        for (DatenFilm film : listeEinsortieren) {
+          if (Config.getStop()) {
+            break;
+          }
+          checkOnline(onlineCheck, film);
+        }
+        while (!onlineCheck.awaitCompletion(10, TimeUnit.SECONDS)) {
+          if (Config.getStop()) {
+            break;
+          }
+          Log.sysLog("Online-Check: " + onlineCheck.getCompleted() + " von " + size + " geprüft");
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
       }
-      vonListe.addAll(localList);
-      localList.clear();
-      treffer += t.getTreffer();
     }
-    return treffer;
+    final long seconds = Math.max(1, (System.currentTimeMillis() - start) / 1000);
+    Log.sysLog("Online-Check: " + size + " Filme in " + seconds + " s");
   }
 
-  private class ImportOldFilmlistThread extends Thread {
-
-    private final Queue<DatenFilm> listeOld;
-    private final ArrayList<DatenFilm> localAddList = new ArrayList<>(
-            (vonListe.size() / NUMBER_OF_THREADS) + 500);
-    private int treffer = 0;
-    private OkHttpClient client = null;
-
-    public ImportOldFilmlistThread(Queue<DatenFilm> listeOld, OkHttpClient client) {
-      this.listeOld = listeOld;
-      threadCounter.incrementAndGet();
-      this.client = client;
+  /**
+   * @return the size of the film, -1 if it is empty or not a number
+   */
+  private static long parseSize(String size) {
+    if (size.isEmpty()) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(size);
+    } catch (NumberFormatException ex) {
+      // a malformed size only affects this film, it is checked like a film without size
+      return -1;
     }
+  }
 
-    public int getTreffer() {
-      return treffer;
+  private void checkOnline(OnlineCheck onlineCheck, DatenFilm film) throws InterruptedException {
+    final String url = film.arr[DatenFilm.FILM_URL];
+    final long size = parseSize(film.arr[DatenFilm.FILM_GROESSE]);
+    final boolean withoutSize = size < 0;
+    if (!withoutSize && size <= MIN_SIZE_ADD_OLD) {
+      return;
     }
 
-    public ArrayList<DatenFilm> getLocalAddList() {
-      return localAddList;
+    final Request request = createOnlineCheckRequest(url);
+    final Optional<UrlProbeCache.Probe> cached = UrlProbeCache.getInstance().get(request);
+    if (cached.isPresent()) {
+      checkResult(film, withoutSize, cached.get());
+      return;
     }
 
-    private void addOld(DatenFilm film) {
-      if (bannedFilmFilter.isBanned(film)) {
-        Log.sysLog("Blacklist Treffer im import Old (" + film.arr[DatenFilm.FILM_TITEL] + ")");
-        return;
+    onlineCheck.submit(request, new OnlineCheck.Handler() {
+      @Override
+      public void onResponse(Response response) {
+        checkResult(film, withoutSize, UrlProbeCache.getInstance().put(request, response));
       }
 
-      treffer++;
-      film.init();
-
-      localAddList.add(film);
-    }
-
-    @Override
-    public void run() {
-
-      DatenFilm film;
-      while (!isInterrupted() && (film = listeOld.poll()) != null) {
-        final String url = film.arr[DatenFilm.FILM_URL];
-        if (film.arr[DatenFilm.FILM_GROESSE].isEmpty()) {
-          Request request = createOnlineCheckRequest(url);
-          try (Response response = client.newCall(request).execute()) {
-            if (response.isSuccessful()) {
-              long respLength = determineContentLength(response);
-
-              if (isRelevantContentType(response) && !removedVideo(film, response) &&
-                      // ignore file length of m3u8-files because it is always too small
-                      (isM3u8File(url) || respLength > MIN_SIZE_ADD_OLD)) {
-                addOld(film);
-              } else {
-                Log.sysLog("film removed: code: " + response.code() + ": " + url);
-              }
-            } else {
-              Log.sysLog("film removed: code: " + response.code() + ": " + url);
-            }
-          } catch (Exception ex) {
-            Log.errorLog(12834738, ex, "exception online check film: " + url);
-            // add film to list, because online check failed
-            addOld(film);
-          }
-        } else {
-          if (Long.parseLong(film.arr[DatenFilm.FILM_GROESSE]) > MIN_SIZE_ADD_OLD) {
-            Request request = createOnlineCheckRequest(url);
-            try (Response response = client.newCall(request).execute()) {
-              if (response.isSuccessful() && isRelevantContentType(response) && !removedVideo(film, response)) {
-                addOld(film);
-              } else {
-                Log.sysLog("film removed: code: " + response.code() + ": " + url);
-              }
-            } catch (SocketTimeoutException ignored) {
-            } catch (IOException ex) {
-              ex.printStackTrace();
-            }
+      @Override
+      public void onFailure(IOException exception, boolean cancelled) {
+        if (withoutSize) {
+          // a stop cancels all pending checks, that is no error of the film
+          if (!cancelled) {
+            Log.errorLog(12834738, exception, "exception online check film: " + url);
           }
+          // add film to list, because online check failed
+          addOld(film);
+        } else if (!cancelled && !(exception instanceof SocketTimeoutException || exception instanceof InterruptedIOException)) {
+          exception.printStackTrace();
         }
       }
-      threadCounter.decrementAndGet();
+    });
+  }
+
+  private void checkResult(DatenFilm film, boolean withoutSize, UrlProbeCache.Probe probe) {
+    final String url = film.arr[DatenFilm.FILM_URL];
+    boolean online = probe.isSuccessful() && isRelevantContentType(probe) && !removedVideo(film, probe);
+    if (withoutSize) {
+      // ignore file length of m3u8-files because it is always too small
+      online = online && (isM3u8File(url) || determineContentLength(probe) > MIN_SIZE_ADD_OLD);
     }
 
-    private boolean removedVideo(DatenFilm film, Response response) {
-      return orfRemovedVideo(film, response) || arteRemovedVideo(film, response);
+    if (online) {
+      addOld(film);
+    } else {
+      Log.sysLog("film removed: code: " + probe.getCode() + ": " + url);
     }
+  }
 
-    private boolean arteRemovedVideo(DatenFilm film, Response response) {
-      if (film.arr[DatenFilm.FILM_SENDER].equals(Const.ARTE_DE)) {
-        String path = response.request().url().encodedPath();
-        return path.contains("_EXTRAIT_");
-      }
+  /**
+   * Add all films found by the online check to the filmlist.
+   *
+   * @return the total number of entries found.
+   */
+  private int retrieveResults() {
+    if (MserverDaten.debug) {
+      Log.sysLog("Online-Check list size: " + localAddList.size());
+    }
+    vonListe.addAll(localAddList);
+    localAddList.clear();
+    return anzahlTreffer.get();
+  }
 
-      return false;
+  private void addOld(DatenFilm film) {
+    if (bannedFilmFilter.isBanned(film)) {
+      Log.sysLog("Blacklist Treffer im import Old (" + film.arr[DatenFilm.FILM_TITEL] + ")");
+      return;
     }
 
-    private boolean orfRemovedVideo(DatenFilm film, Response response) {
-      if (film.arr[DatenFilm.FILM_SENDER].equals(Const.ORF)) {
-        String path = response.request().url().encodedPath().toLowerCase();
-        return path.contains("/bearbeitung_") || path.contains("/geoprotection");
-      }
+    anzahlTreffer.incrementAndGet();
+    film.init();
 
-      return false;
+    localAddList.add(film);
+  }
+
+  private boolean removedVideo(DatenFilm film, UrlProbeCache.Probe probe) {
+    return orfRemovedVideo(film, probe) || arteRemovedVideo(film, probe);
+  }
+
+  private boolean arteRemovedVideo(DatenFilm film, UrlProbeCache.Probe probe) {
+    if (film.arr[DatenFilm.FILM_SENDER].equals(Const.ARTE_DE)) {
+      String path = probe.getFinalPath();
+      return path.contains("_EXTRAIT_");
     }
 
-    @NotNull
-    private Request createOnlineCheckRequest(String url) {
-      Builder builder = new Builder().url(url);
-      if (isM3u8File(url)) {
-        // head request of m3u8 files always returns 405 => use get instead
-        return builder.get().build();
-      }
+    return false;
+  }
 
-      return builder.head().build();
+  private boolean orfRemovedVideo(DatenFilm film, UrlProbeCache.Probe probe) {
+    if (film.arr[DatenFilm.FILM_SENDER].equals(Const.ORF)) {
+      String path = probe.getFinalPath().toLowerCase();
+      return path.contains("/bearbeitung_") || path.contains("/geoprotection");
     }
 
-    private boolean isM3u8File(String url) {
-      final Optional<String> fileType = UrlUtils.getFileType(url);
-      if (fileType.isPresent() && fileType.get().equalsIgnoreCase("m3u8")) {
-        return true;
-      }
+    return false;
+  }
 
-      return false;
+  @NotNull
+  private Request createOnlineCheckRequest(String url) {
+    Builder builder = new Builder().url(url);
+    if (isM3u8File(url)) {
+      // head request of m3u8 files always returns 405 => use get instead
+      return builder.get().build();
     }
 
-    private boolean isRelevantContentType(Response response) {
-      final String contentType = response.header(CONTENT_TYPE, "");
+    return builder.head().build();
+  }
 
-      // html reponses indicate a redirect
-      // this is used for offline films
-      return !contentType.contains("text/html");
+  private boolean isM3u8File(String url) {
+    final Optional<String> fileType = UrlUtils.getFileType(url);
+    if (fileType.isPresent() && fileType.get().equalsIgnoreCase("m3u8")) {
+      return true;
     }
 
-    private long determineContentLength(Response response) {
-      final String contentLength = response.header("Content-Length", "-1");
-      long respLength = Long.parseLong(contentLength);
-      if (respLength < 1_000_000) {
-        respLength = -1;
-      } else if (respLength > 1_000_000) {
-        respLength /= 1_000_000;
-      }
-      return respLength;
+    return false;
+  }
+
+  private boolean isRelevantContentType(UrlProbeCache.Probe probe) {
+    final String contentType = probe.getContentType();
+
+    // html reponses indicate a redirect
+    // this is used for offline films
+    return !contentType.contains("text/html");
+  }
+
+  private long determineContentLength(UrlProbeCache.Probe probe) {
+    long respLength = probe.getContentLength();
+    if (respLength < 1_000_000) {
+      respLength = -1;
+    } else if (respLength > 1_000_000) {
+      respLength /= 1_000_000;
     }
+    return respLength;
   }
 }
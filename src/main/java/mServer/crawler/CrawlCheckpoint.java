@@ -0,0 +1,190 @@
+package mServer.crawler;
+
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.daten.ListeFilme;
+import de.mediathekview.mlib.filmlisten.FilmlisteSnapshot;
+import de.mediathekview.mlib.tool.Log;
+import mServer.crawler.sender.MediathekReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sichert während des Suchlaufs die Filme jedes Senders in einem Verzeichnis, damit ein
+ * abgebrochener Lauf (Timeout, Absturz) beim nächsten Start nicht wieder bei null beginnt.
+ * <p>
+ * Je Sender gibt es eine Datei im Format des {@link FilmlisteSnapshot}: "*.fertig" wenn der
+ * Sender durchgelaufen ist, sonst "*.teil" mit den bisher gefundenen Filmen, die alle
+ * {@link #INTERVALL_MINUTEN} Minuten neu geschrieben wird. Beim nächsten Lauf werden fertige
+ * Sender, die nicht älter als das erlaubte Alter sind, übernommen und nicht neu gesucht; die Filme
+ * nicht fertiger Sender kommen vorab in die Liste und der Sender sucht neu, schon vorhandene Filme
+ * werden dabei nicht doppelt eingetragen.
+ * <p>
+ * Die Sicherung gilt nur für Läufe derselben Art (kurz, lang, max) und wird nach einem
+ * vollständigen Lauf gelöscht.
+ */
+public class CrawlCheckpoint {
+
+  private static final String FERTIG = ".fertig";
+  private static final String TEIL = ".teil";
+  private static final String LAUF = "lauf.properties";
+  private static final String LAUF_ART = "senderLoadHow";
+  private static final long INTERVALL_MINUTEN = 5;
+
+  private final Path verzeichnis;
+  private final long maxAlterMillis;
+  private ScheduledExecutorService timer = null;
+
+  /**
+   * @param verzeichnis     das Verzeichnis der Sicherung, wird angelegt
+   * @param maxAlterMinuten ältere Sicherungen werden nicht übernommen
+   */
+  public CrawlCheckpoint(String verzeichnis, int maxAlterMinuten) {
+    this.verzeichnis = Paths.get(verzeichnis);
+    this.maxAlterMillis = TimeUnit.MINUTES.toMillis(maxAlterMinuten);
+  }
+
+  /**
+   * Löscht eine Sicherung, die von einer anderen Art Lauf stammt, und vermerkt die Art dieses Laufs.
+   *
+   * @param senderLoadHow die Art des Laufs, {@link CrawlerConfig#senderLoadHow}
+   */
+  public synchronized void beginnen(int senderLoadHow) {
+    try {
+      Files.createDirectories(verzeichnis);
+      final Path lauf = verzeichnis.resolve(LAUF);
+      final Properties properties = new Properties();
+      if (Files.exists(lauf)) {
+        try (InputStream in = Files.newInputStream(lauf)) {
+          properties.load(in);
+        }
+      }
+      if (!String.valueOf(senderLoadHow).equals(properties.getProperty(LAUF_ART))) {
+        loeschen();
+        Files.createDirectories(verzeichnis);
+        properties.setProperty(LAUF_ART, String.valueOf(senderLoadHow));
+        try (OutputStream out = Files.newOutputStream(lauf)) {
+          properties.store(out, null);
+        }
+      }
+    } catch (IOException ex) {
+      Log.errorLog(912036559, ex, "Checkpoint: " + verzeichnis);
+    }
+  }
+
+  /**
+   * Trägt die gesicherten Filme des Senders in die Liste ein.
+   *
+   * @param reader der Sender
+   * @param liste  die neue Filmliste
+   * @return true, wenn der Sender fertig war und nicht neu gesucht werden muss
+   */
+  public boolean uebernehmen(MediathekReader reader, ListeFilme liste) {
+    if (uebernehmen(reader, liste, FERTIG)) {
+      return true;
+    }
+    uebernehmen(reader, liste, TEIL);
+    return false;
+  }
+
+  private boolean uebernehmen(MediathekReader reader, ListeFilme liste, String art) {
+    final Path datei = datei(reader, art);
+    try {
+      if (!Files.isRegularFile(datei)
+              || System.currentTimeMillis() - Files.getLastModifiedTime(datei).toMillis() > maxAlterMillis) {
+        return false;
+      }
+    } catch (IOException ex) {
+      return false;
+    }
+    final ListeFilme gesichert = new ListeFilme();
+    if (!new FilmlisteSnapshot().lesen(datei.toString(), gesichert, 0)) {
+      return false;
+    }
+    final List<DatenFilm> filme = new ArrayList<>(gesichert);
+    liste.importFilmliste(filme);
+    reader.gefundeneFilmeUebernehmen(filme);
+    Log.sysLog(reader.getRunIdentifier() + ": " + filme.size() + " Filme aus dem Checkpoint übernommen ("
+            + (FERTIG.equals(art) ? "fertig" : "wird fortgesetzt") + ")");
+    return true;
+  }
+
+  /**
+   * Sichert die bisher gefundenen Filme des Senders.
+   *
+   * @param reader der Sender
+   * @param fertig true, wenn der Sender durchgelaufen ist
+   */
+  public void sichern(MediathekReader reader, boolean fertig) {
+    new FilmlisteSnapshot().schreiben(datei(reader, fertig ? FERTIG : TEIL).toString(),
+            new String[ListeFilme.MAX_ELEM], reader.getGefundeneFilme());
+    if (fertig) {
+      try {
+        Files.deleteIfExists(datei(reader, TEIL));
+      } catch (IOException ex) {
+        Log.errorLog(912036560, ex, "Checkpoint: " + reader.getRunIdentifier());
+      }
+    }
+  }
+
+  /**
+   * Sichert die laufenden Sender regelmäßig, bis {@link #beenden()}.
+   *
+   * @param laufende liefert die Sender, die gerade suchen
+   */
+  public synchronized void starten(Supplier<Collection<MediathekReader>> laufende) {
+    beenden();
+    timer = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, "Checkpoint");
+      thread.setDaemon(true);
+      return thread;
+    });
+    timer.scheduleWithFixedDelay(() -> {
+      try {
+        laufende.get().forEach(reader -> sichern(reader, false));
+      } catch (RuntimeException ex) {
+        Log.errorLog(912036561, ex, "Checkpoint");
+      }
+    }, INTERVALL_MINUTEN, INTERVALL_MINUTEN, TimeUnit.MINUTES);
+  }
+
+  public synchronized void beenden() {
+    if (timer != null) {
+      timer.shutdownNow();
+      timer = null;
+    }
+  }
+
+  /**
+   * Löscht die ganze Sicherung.
+   */
+  public synchronized void loeschen() {
+    if (!Files.isDirectory(verzeichnis)) {
+      return;
+    }
+    try (DirectoryStream<Path> dateien = Files.newDirectoryStream(verzeichnis)) {
+      for (Path datei : dateien) {
+        Files.deleteIfExists(datei);
+      }
+    } catch (IOException ex) {
+      Log.errorLog(912036562, ex, "Checkpoint: " + verzeichnis);
+    }
+  }
+
+  private Path datei(MediathekReader reader, String art) {
+    return verzeichnis.resolve(reader.getRunIdentifier().replaceAll("[^A-Za-z0-9.-]", "_") + art);
+  }
+}
@@ -0,0 +1,336 @@
+package mServer.crawler;
+
+import de.mediathekview.mlib.tool.Log;
+import de.mediathekview.mlib.tool.Metrics;
+import mServer.tool.MserverDaten;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ein gemeinsamer Thread-Pool für alle Sender statt eines ForkJoinPools je Sender.
+ * <p>
+ * Jeder laufende Sender meldet sich mit einem Gewicht an und bekommt davon abhängig einen Anteil
+ * an den Threads des Pools. Vor jedem Element (Seite, Film) holt ein Task mit {@link Slot#acquire()}
+ * eine Erlaubnis:
+ * <ul>
+ *   <li>solange der Pool nicht ausgelastet ist, bekommt jeder Sender sofort eine, auch über
+ *   seinen Anteil hinaus</li>
+ *   <li>ist der Pool ausgelastet, wartet ein Sender, der seinen Anteil schon nutzt, bis ein Element
+ *   fertig ist, höchstens aber {@link #MAX_WAIT_MILLIS}, damit Tasks, die auf eigene Teil-Tasks
+ *   warten, sich nicht gegenseitig blockieren</li>
+ * </ul>
+ * Gewartet wird über {@link ForkJoinPool#managedBlock}, der Pool arbeitet dann mit einem anderen
+ * Thread an den übrigen Sendern weiter. Aus der Auslastung ({@link #hasCapacity()}) entscheidet
+ * {@link FilmeSuchen}, wann die Sender mit niedriger Priorität starten.
+ */
+public final class CrawlScheduler {
+
+  private static final long MAX_WAIT_MILLIS = 2000;
+  /**
+   * Unter dieser mittleren Auslastung ist Platz für weitere Sender.
+   */
+  private static final double CAPACITY_THRESHOLD = 0.75;
+
+  private static CrawlScheduler instance;
+
+  private final ForkJoinPool pool;
+  private final int parallelism;
+  private final List<Slot> slots = new ArrayList<>();
+  /**
+   * Verschachtelte Elemente auf demselben Thread brauchen keine weitere Erlaubnis.
+   */
+  private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+  /**
+   * Der Sender, für den der Thread gerade ein Element bearbeitet.
+   */
+  private static final ThreadLocal<String> current = new ThreadLocal<>();
+  private int totalWeight = 0;
+  private int active = 0;
+  private long activeIntegral = 0;
+  private long lastChange = System.nanoTime();
+  private long sampleIntegral = 0;
+  private long sampleTime = System.nanoTime();
+
+  CrawlScheduler(final int parallelism) {
+    this.parallelism = parallelism;
+    final ForkJoinPool.ForkJoinWorkerThreadFactory factory = (ForkJoinPool p) -> {
+      final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+      worker.setName("crawler-worker-" + worker.getPoolIndex());
+      return worker;
+    };
+    pool = new ForkJoinPool(parallelism, factory, null, true);
+  }
+
+  /**
+   * @return der Sender, für den der aktuelle Thread gerade ein Element bearbeitet
+   */
+  public static Optional<String> currentSender() {
+    return Optional.ofNullable(current.get());
+  }
+
+  public static synchronized CrawlScheduler getInstance() {
+    if (instance == null) {
+      instance = new CrawlScheduler(MserverDaten.getCrawlerParallelism());
+      Log.sysLog("Crawler: " + instance.parallelism + " Threads für alle Sender");
+      Metrics.getInstance().register("crawler", instance::collect);
+    }
+    return instance;
+  }
+
+  /**
+   * @return der Pool, in dem alle Sender ihre Tasks ausführen
+   */
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Meldet einen Sender an, mit {@link Slot#close()} wieder ab.
+   *
+   * @param name   der Name für die Statistik
+   * @param weight das Gewicht, nach dem die Threads aufgeteilt werden
+   * @return der Slot des Senders
+   */
+  public synchronized Slot register(final String name, final int weight) {
+    final Slot slot = new Slot(name, Math.max(1, weight));
+    slots.add(slot);
+    totalWeight += slot.weight;
+    return slot;
+  }
+
+  /**
+   * Liefert die mittlere Auslastung seit dem letzten Aufruf.
+   *
+   * @return aktive Elemente je Thread, 0 bis 1 (auch etwas darüber)
+   */
+  public synchronized double getUtilization() {
+    final long now = System.nanoTime();
+    updateIntegral(now);
+    final long nanos = now - sampleTime;
+    final double utilization = nanos <= 0 ? 0 : (double) (activeIntegral - sampleIntegral) / nanos / parallelism;
+    sampleIntegral = activeIntegral;
+    sampleTime = now;
+    return utilization;
+  }
+
+  /**
+   * @return true, wenn der Pool seit dem letzten Aufruf im Mittel nicht ausgelastet war
+   */
+  public boolean hasCapacity() {
+    return getUtilization() < CAPACITY_THRESHOLD;
+  }
+
+  /**
+   * @return eine Zeile mit aktiven und wartenden Elementen je laufendem Sender
+   */
+  public synchronized String getStatus() {
+    final StringBuilder status = new StringBuilder();
+    status.append(active).append('/').append(parallelism).append(" aktiv");
+    for (Slot slot : slots) {
+      if (slot.running) {
+        status.append(", ").append(slot.name).append(": ").append(slot.active).append('/').append(slot.share())
+            .append(" aktiv, ").append(slot.waiting).append(" wartend");
+      }
+    }
+    return status.toString();
+  }
+
+  /**
+   * Liefert die Auslastung und die Warteschlangen für {@link Metrics}.
+   *
+   * @param out die Ausgabe
+   */
+  synchronized void collect(final Metrics.Output out) {
+    out.gauge("crawler_threads", parallelism);
+    out.gauge("crawler_active", active);
+    out.gauge("crawler_pool_threads", pool.getPoolSize());
+    out.gauge("crawler_queued_tasks", pool.getQueuedTaskCount());
+    out.gauge("crawler_queued_submissions", pool.getQueuedSubmissionCount());
+    for (Slot slot : slots) {
+      if (slot.running) {
+        out.gauge("crawler_sender_share", slot.share(), "sender", slot.name);
+        out.gauge("crawler_sender_active", slot.active, "sender", slot.name);
+        out.gauge("crawler_sender_waiting", slot.waiting, "sender", slot.name);
+      }
+      out.counter("crawler_sender_processed_total", slot.processed, "sender", slot.name);
+    }
+  }
+
+  /**
+   * Fügt die Auslastung je Sender für die Statistik am Ende des Suchlaufs an.
+   *
+   * @param retArray die Zeilen der Statistik
+   */
+  public synchronized void getTextStatistics(final List<String> retArray) {
+    if (slots.isEmpty()) {
+      return;
+    }
+    final long now = System.nanoTime();
+    retArray.add(" Sender                      Gewicht  Elemente  Ø aktiv  max aktiv  max wartend");
+    retArray.add("-------------------------------------------------------------------------------------");
+    for (Slot slot : slots) {
+      slot.updateIntegral(now);
+      final long nanos = (slot.running ? now : slot.end) - slot.start;
+      retArray.add(String.format(" %-28s %7d %9d %8.1f %10d %12d", slot.name, slot.weight, slot.processed,
+          nanos <= 0 ? 0 : (double) slot.activeIntegral / nanos, slot.maxActive, slot.maxWaiting));
+    }
+    retArray.add("");
+    retArray.add("");
+  }
+
+  /**
+   * Vergisst die Statistik der abgemeldeten Sender, vor einem neuen Suchlauf.
+   */
+  public synchronized void clearStatistics() {
+    slots.removeIf(slot -> !slot.running);
+  }
+
+  private void updateIntegral(final long now) {
+    activeIntegral += active * (now - lastChange);
+    lastChange = now;
+  }
+
+  /**
+   * Der Anteil eines Senders am Pool.
+   */
+  public final class Slot implements AutoCloseable {
+
+    private final String name;
+    private final int weight;
+    private final long start = System.nanoTime();
+    private long end;
+    private boolean running = true;
+    private int active = 0;
+    private int waiting = 0;
+    private int maxActive = 0;
+    private int maxWaiting = 0;
+    private long processed = 0;
+    private long activeIntegral = 0;
+    private long lastChange = start;
+
+    private Slot(final String name, final int weight) {
+      this.name = name;
+      this.weight = weight;
+    }
+
+    /**
+     * Wartet, bis der Sender ein weiteres Element bearbeiten darf. Nach jedem Aufruf muss
+     * {@link #release()} folgen.
+     */
+    public void acquire() {
+      final int[] nested = depth.get();
+      if (nested[0]++ > 0) {
+        return;
+      }
+      current.set(name);
+      try {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override
+          public boolean block() throws InterruptedException {
+            synchronized (CrawlScheduler.this) {
+              final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS);
+              waiting++;
+              maxWaiting = Math.max(maxWaiting, waiting);
+              try {
+                while (!tryAcquire()) {
+                  final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                  if (remaining <= 0) {
+                    grant();
+                    break;
+                  }
+                  CrawlScheduler.this.wait(remaining);
+                }
+              } finally {
+                waiting--;
+              }
+            }
+            return true;
+          }
+
+          @Override
+          public boolean isReleasable() {
+            synchronized (CrawlScheduler.this) {
+              return tryAcquire();
+            }
+          }
+        });
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        synchronized (CrawlScheduler.this) {
+          grant();
+        }
+      }
+    }
+
+    /**
+     * Gibt die Erlaubnis aus {@link #acquire()} zurück.
+     */
+    public void release() {
+      final int[] nested = depth.get();
+      if (--nested[0] > 0) {
+        return;
+      }
+      current.remove();
+      synchronized (CrawlScheduler.this) {
+        final long now = System.nanoTime();
+        updateIntegral(now);
+        CrawlScheduler.this.updateIntegral(now);
+        active--;
+        CrawlScheduler.this.active--;
+        processed++;
+        CrawlScheduler.this.notifyAll();
+      }
+    }
+
+    /**
+     * Meldet den Sender ab, seine Threads gehen an die anderen.
+     */
+    @Override
+    public void close() {
+      synchronized (CrawlScheduler.this) {
+        if (running) {
+          updateIntegral(System.nanoTime());
+          running = false;
+          end = System.nanoTime();
+          totalWeight -= weight;
+          CrawlScheduler.this.notifyAll();
+        }
+      }
+    }
+
+    private int share() {
+      return Math.max(1, parallelism * weight / Math.max(weight, totalWeight));
+    }
+
+    private boolean tryAcquire() {
+      if (CrawlScheduler.this.active < parallelism || active < share()) {
+        grant();
+        return true;
+      }
+      return false;
+    }
+
+    private void grant() {
+      final long now = System.nanoTime();
+      updateIntegral(now);
+      CrawlScheduler.this.updateIntegral(now);
+      active++;
+      CrawlScheduler.this.active++;
+      maxActive = Math.max(maxActive, active);
+    }
+
+    private void updateIntegral(final long now) {
+      activeIntegral += active * (now - lastChange);
+      lastChange = now;
+    }
+  }
+}
@@ -20,24 +20,30 @@
 package mServer.crawler;
 
 import java.nio.file.Paths;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CountDownLatch;
 
 import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.daten.ListeFilme;
 import de.mediathekview.mlib.filmesuchen.ListenerFilmeLaden;
 import de.mediathekview.mlib.filmesuchen.ListenerFilmeLadenEvent;
+import de.mediathekview.mlib.filmlisten.FilmlisteFingerprints;
 import de.mediathekview.mlib.filmlisten.FilmlisteLesen;
+import de.mediathekview.mlib.filmlisten.FilmlisteSnapshot;
 import de.mediathekview.mlib.filmlisten.WriteFilmlistJson;
 import de.mediathekview.mlib.tool.Functions;
+import de.mediathekview.mlib.tool.HttpRecorder;
+import de.mediathekview.mlib.tool.HttpResponseCache;
 import de.mediathekview.mlib.tool.Log;
+import de.mediathekview.mlib.tool.UrlProbeCache;
 import mServer.tool.HashFileWriter;
+import mServer.tool.MserverDaten;
 import mServer.tool.StatsUpload;
 
 public class Crawler implements Runnable {
 
     private ListeFilme listeFilme = new ListeFilme();
     private final FilmeSuchen filmeSuchen;
-    private boolean serverLaufen = false;
+    private volatile CountDownLatch serverLaufen = new CountDownLatch(0); // offen, solange die Sender suchen
 
     public Crawler() {
         filmeSuchen = new FilmeSuchen();
@@ -46,7 +52,7 @@ public class Crawler implements Runnable {
     @Override
     public synchronized void run() {
         // für den MServer
-        serverLaufen = true;
+        serverLaufen = new CountDownLatch(1);
 
         // Statistikexport Suchlauf gestartet
         StatsUpload.getInstance().sendCrawlStart();
@@ -63,11 +69,28 @@ public class Crawler implements Runnable {
         filmeSuchen.addAdListener(new ListenerFilmeLaden() {
             @Override
             public void fertig(ListenerFilmeLadenEvent event) {
-                serverLaufen = false;
+                serverLaufen.countDown();
+            }
+        });
+        // Ergebnisse der URL-Prüfungen vom letzten Lauf
+        UrlProbeCache.getInstance().load(CrawlerTool.getPathUrlProbeCache());
+        // Antworten vom letzten Lauf, unveränderte Seiten werden nicht nochmal übertragen
+        HttpResponseCache.getInstance().open(CrawlerTool.getPathHttpCache(), MserverDaten.getHttpCacheSizeMb() * 1_000_000L);
+        HttpResponseCache.getInstance().setListener((hit, bytesSaved) -> {
+            if (hit) {
+                CrawlScheduler.currentSender().ifPresent(sender -> {
+                    FilmeSuchen.listeSenderLaufen.inc(sender, RunSender.Count.CACHE);
+                    FilmeSuchen.listeSenderLaufen.inc(sender, RunSender.Count.CACHE_GESPART_BYTE, bytesSaved);
+                });
             }
         });
         // alte Filmliste laden
-        new FilmlisteLesen().readFilmListe(CrawlerTool.getPathFilmlist_json_akt(false /*aktDate*/), listeFilme, 0 /*all days*/);
+        new FilmlisteLesen().readFilmListe(CrawlerTool.getPathFilmlist_json_akt(false /*aktDate*/),
+                CrawlerTool.getPathFilmlist_snapshot_akt(), listeFilme, 0 /*all days*/);
+        // nur die Anfragen der Sender aufzeichnen, nicht das Laden der Filmlisten
+        if (!MserverDaten.getHttpRecordFile().isEmpty()) {
+            HttpRecorder.getInstance().record(MserverDaten.getHttpRecordFile());
+        }
         // das eigentliche Suchen der Filme bei den Sendern starten
         if (CrawlerConfig.nurSenderLaden == null) {
             // alle Sender laden
@@ -77,22 +100,32 @@ public class Crawler implements Runnable {
             filmeSuchen.updateSender(CrawlerConfig.nurSenderLaden, listeFilme);
         }
         try {
-            while (serverLaufen) {
-                TimeUnit.SECONDS.timedWait(this, 5);
-            }
-        } catch (Exception ex) {
+            // der letzte Sender meldet fertig, auch nach einem Abbruch
+            serverLaufen.await();
+        } catch (InterruptedException ex) {
+            // hart beendet, die Filme der Sender bleiben im Checkpoint
             Log.errorLog(496378742, "run()");
+            HttpRecorder.getInstance().stopRecord();
+            Thread.currentThread().interrupt();
+            return;
         }
         undTschuess();
     }
 
     public void stop() {
-        if (serverLaufen) {
-            // nur dann wird noch gesucht
+        if (serverLaufen.getCount() > 0) {
+            // nur dann wird noch gesucht, bricht die Sender mit allen laufenden Anfragen ab
             Config.setStop(true);
         }
     }
 
+    /**
+     * Sichert die Filme der laufenden Sender, bevor der Suchlauf hart beendet wird.
+     */
+    public void checkpoint() {
+        filmeSuchen.checkpointSichern();
+    }
+
     public ListeFilme getListeFilme() {
         return listeFilme;
     }
@@ -110,7 +143,6 @@ public class Crawler implements Runnable {
         new AddToFilmlist(listeFilme, tmpListe).addLiveStream();
         Log.sysLog("--> nach Anz. Filme: " + listeFilme.size());
         tmpListe.clear();
-        System.gc();
         listeFilme.sort();
     }
 
@@ -126,7 +158,6 @@ public class Crawler implements Runnable {
         listeFilme.updateListe(tmpListe, false /* nur URL vergleichen */, false /*ersetzen*/);
         Log.sysLog("--> nach Anz. Filme: " + listeFilme.size());
         tmpListe.clear();
-        System.gc();
         listeFilme.sort();
     }
 
@@ -142,7 +173,6 @@ public class Crawler implements Runnable {
         listeFilme.updateListe(tmpListe, false /* nur URL vergleichen */, false /*ersetzen*/);
         Log.sysLog("--> nach Anz. Filme: " + listeFilme.size());
         tmpListe.clear();
-        System.gc();
         listeFilme.sort();
     }
 
@@ -160,12 +190,12 @@ public class Crawler implements Runnable {
         Log.sysLog("    gefunden: " + anz);
         Log.sysLog("--> nach Anz. Filme: " + listeFilme.size());
         tmpListe.clear();
-        System.gc();
         listeFilme.sort();
     }
 
     private void undTschuess() {
         Config.setStop(false); // zurücksetzen!! sonst klappt das Lesen der Importlisten nicht!!!!!
+        HttpRecorder.getInstance().stopRecord();
         listeFilme = filmeSuchen.listeFilmeNeu;
         ListeFilme tmpListe = new ListeFilme();
 
@@ -235,14 +265,21 @@ public class Crawler implements Runnable {
         Log.sysLog("");
         Log.sysLog("   --> und schreiben:");
 
+        final boolean compress = compressList.equalsIgnoreCase("n") || compressList.equals("0");
         final WriteFilmlistJson writer = new WriteFilmlistJson();
-        writer.filmlisteSchreibenJson(CrawlerTool.getPathFilmlist_json_akt(false /*aktDate*/), listeFilme);
-        writer.filmlisteSchreibenJson(CrawlerTool.getPathFilmlist_json_akt(true /*aktDate*/), listeFilme);
-        if(compressList.equalsIgnoreCase("n") || compressList.equals("0")) {
-            writer.filmlisteSchreibenJsonCompressed(CrawlerTool.getPathFilmlist_json_akt_xz(), listeFilme);
+        if (compress) {
+            writer.filmlisteSchreiben(listeFilme,
+                    CrawlerTool.getPathFilmlist_json_akt(false /*aktDate*/),
+                    CrawlerTool.getPathFilmlist_json_akt(true /*aktDate*/),
+                    CrawlerTool.getPathFilmlist_json_akt_xz());
         } else {
+            writer.filmlisteSchreiben(listeFilme,
+                    CrawlerTool.getPathFilmlist_json_akt(false /*aktDate*/),
+                    CrawlerTool.getPathFilmlist_json_akt(true /*aktDate*/));
             Log.sysLog("Führe keine xz Komprimierung für die akt-Liste durch.");
         }
+        // Snapshot zum schnellen Laden beim nächsten Lauf
+        new FilmlisteSnapshot().schreiben(CrawlerTool.getPathFilmlist_snapshot_akt(), listeFilme);
         // Erzeugung von Hash-File für schnelleren Datenabgleich
         new HashFileWriter(CrawlerConfig.dirFilme).writeHash(listeFilme.getId());
         //================================================
@@ -253,12 +290,13 @@ public class Crawler implements Runnable {
             Log.sysLog("");
             Log.sysLog("============================================================================");
             Log.sysLog("Org-Lilste schreiben: " + CrawlerTool.getPathFilmlist_json_org());
-            writer.filmlisteSchreibenJson(CrawlerTool.getPathFilmlist_json_org(), listeFilme);
-            if(compressList.equalsIgnoreCase("n") || compressList.equals("0")) {
-                writer.filmlisteSchreibenJsonCompressed(CrawlerTool.getPathFilmlist_json_org_xz(), listeFilme);
+            if (compress) {
+                writer.filmlisteSchreiben(listeFilme, CrawlerTool.getPathFilmlist_json_org(), CrawlerTool.getPathFilmlist_json_org_xz());
             } else {
+                writer.filmlisteSchreiben(listeFilme, CrawlerTool.getPathFilmlist_json_org());
                 Log.sysLog("Führe keine xz Komprimierung für die org-Liste durch.");
             }
+            FilmlisteFingerprints.schreiben(CrawlerTool.getPathFilmlist_fingerprints_org(), listeFilme);
         }
 
         //====================================================
@@ -268,35 +306,59 @@ public class Crawler implements Runnable {
         Log.sysLog("============================================================================");
         Log.sysLog("Diff erzeugen, von: " + org + " nach: " + CrawlerTool.getPathFilmlist_json_diff());
         tmpListe.clear();
-        ListeFilme diff;
-        new FilmlisteLesen().readFilmListe(org, tmpListe, 0 /*all days*/);
+        ListeFilme diff = null;
+        // die Fingerprints der eigenen Orgliste reichen, die Liste selbst muss dann nicht geladen werden
+        final String orgFingerprintsPfad = CrawlerTool.getPathFilmlist_fingerprints_org();
+        final FilmlisteFingerprints orgFingerprints = CrawlerConfig.orgFilmliste.isEmpty()
+                && FilmlisteSnapshot.isUsable(orgFingerprintsPfad, org)
+                ? FilmlisteFingerprints.lesen(orgFingerprintsPfad) : null;
+        final ListeFilme orgMeta;
+        final int orgSize;
+        if (orgFingerprints != null) {
+            orgMeta = orgFingerprints.getMetaDaten();
+            orgSize = orgFingerprints.size();
+        } else {
+            new FilmlisteLesen().readFilmListe(org, tmpListe, 0 /*all days*/);
+            orgMeta = tmpListe;
+            orgSize = tmpListe.size();
+        }
         // Statistikexport Suchlauf Anzahl Filme in der Org-Liste
-        StatsUpload.getInstance().setData(StatsUpload.Data.CRAWLSTAT_ORGLISTE, tmpListe.size());
+        StatsUpload.getInstance().setData(StatsUpload.Data.CRAWLSTAT_ORGLISTE, orgSize);
         // Statistikexport Suchlauf Alter Org-Liste
-        StatsUpload.getInstance().setData(StatsUpload.Data.CRAWLSTAT_ORGALTER, tmpListe.getAge());
-        if (tmpListe.isEmpty()) {
+        StatsUpload.getInstance().setData(StatsUpload.Data.CRAWLSTAT_ORGALTER, orgMeta.getAge());
+        if (orgSize == 0) {
             // dann ist die komplette Liste das diff
             Log.sysLog("   --> Lesefehler der Orgliste: Diff bleibt leer!");
-            diff = new ListeFilme();
-        } else if (tmpListe.isOlderThan(24 * 60 * 60)) {
+        } else if (orgMeta.isOlderThan(24 * 60 * 60)) {
             // älter als ein Tag, dann stimmt was nicht!
             Log.sysLog("   --> Orgliste zu alt: Diff bleibt leer!");
-            diff = new ListeFilme();
-        } else {
+        } else if (orgFingerprints != null) {
             // nur dann macht die Arbeit sinn
+            diff = orgFingerprints.neueFilme(listeFilme);
+            if (diff == null) {
+                Log.sysLog("   --> Lesefehler der Fingerprints: Diff bleibt leer!");
+            }
+        } else {
             diff = listeFilme.neueFilme(tmpListe);
         }
+        tmpListe.clear();
+        if (diff == null) {
+            diff = new ListeFilme();
+        }
         // Statistikexport Suchlauf Anzahl Diff (neue Filme)
         StatsUpload.getInstance().setData(StatsUpload.Data.CRAWLSTAT_FILMEDIFF, diff.size());
 
         Log.sysLog("   --> und schreiben:");
-        writer.filmlisteSchreibenJson(CrawlerTool.getPathFilmlist_json_diff(), diff);
-        if(compressList.equalsIgnoreCase("n") || compressList.equals("0")) {
-            writer.filmlisteSchreibenJsonCompressed(CrawlerTool.getPathFilmlist_json_diff_xz(), diff);
+        if (compress) {
+            writer.filmlisteSchreiben(diff, CrawlerTool.getPathFilmlist_json_diff(), CrawlerTool.getPathFilmlist_json_diff_xz());
         } else {
+            writer.filmlisteSchreiben(diff, CrawlerTool.getPathFilmlist_json_diff());
             Log.sysLog("Führe keine xz Komprimierung für die diff-Liste durch.");
         }
         Log.sysLog("   --> Anz. Filme Diff: " + diff.size());
+        UrlProbeCache.getInstance().save(CrawlerTool.getPathUrlProbeCache());
+        // die Filmlisten sind geschrieben, ein vollständiger Lauf braucht keinen Checkpoint mehr
+        filmeSuchen.checkpointAbschliessen();
 
         // Statistikexport sende Crawler Statistik
         StatsUpload.getInstance().sendCrawlStat();
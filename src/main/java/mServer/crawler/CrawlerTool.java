@@ -29,6 +29,11 @@ public class CrawlerTool {
   public static final String nameDiffFilmlist_xz = "filme-diff.xz"; // ist ein diff der aktuellen zur ORG Filmliste, xz komprimiert
   public static final String nameOrgFilmlist = "filme-org.json"; // ist die "ORG" Filmliste, typ. die erste am Tag
   public static final String nameAktFilmlist_xz = "filme.xz"; // ist die aktuelle Filmliste, xz komprimiert
+  public static final String nameAktFilmlist_snapshot = "filme.snapshot"; // binärer Snapshot der aktuellen Filmliste, nur intern
+  public static final String nameUrlProbeCache = "url-probe.cache"; // Ergebnisse der HEAD-Anfragen, nur intern
+  public static final String nameHttpCache = "http-cache"; // Verzeichnis mit den Antworten der Sender für bedingte Anfragen, nur intern
+  public static final String nameCheckpoint = "checkpoint"; // Verzeichnis mit den Filmen je Sender für die Fortsetzung eines abgebrochenen Laufs, nur intern
+  public static final String nameOrgFilmlist_fingerprints = "filme-org.fingerprints"; // Fingerprints der ORG Filmliste für das Diff, nur intern
 
   public static synchronized void startMsg() {
     Log.startZeit.setTime(System.currentTimeMillis());
@@ -98,6 +103,26 @@ public class CrawlerTool {
     return Functions.addsPfad(CrawlerConfig.dirFilme, nameOrgFilmlist);
   }
 
+  public static String getPathFilmlist_snapshot_akt() {
+    return Functions.addsPfad(CrawlerConfig.dirFilme, nameAktFilmlist_snapshot);
+  }
+
+  public static String getPathUrlProbeCache() {
+    return Functions.addsPfad(CrawlerConfig.dirFilme, nameUrlProbeCache);
+  }
+
+  public static String getPathHttpCache() {
+    return Functions.addsPfad(CrawlerConfig.dirFilme, nameHttpCache);
+  }
+
+  public static String getPathCheckpoint() {
+    return Functions.addsPfad(CrawlerConfig.dirFilme, nameCheckpoint);
+  }
+
+  public static String getPathFilmlist_fingerprints_org() {
+    return Functions.addsPfad(CrawlerConfig.dirFilme, nameOrgFilmlist_fingerprints);
+  }
+
   public static String getPathFilmlist_json_akt(boolean aktDate) {
     if (aktDate) {
       return Functions.addsPfad(CrawlerConfig.dirFilme, new SimpleDateFormat("yyyy.MM.dd__HH.mm.ss").format(new Date()) + "__" + nameAktFilmlist);
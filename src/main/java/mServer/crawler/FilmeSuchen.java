@@ -24,10 +24,13 @@ import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.ListeFilme;
 import de.mediathekview.mlib.filmesuchen.ListenerFilmeLaden;
 import de.mediathekview.mlib.filmesuchen.ListenerFilmeLadenEvent;
+import de.mediathekview.mlib.tool.HostRateController;
+import de.mediathekview.mlib.tool.HttpResponseCache;
 import de.mediathekview.mlib.tool.Log;
+import de.mediathekview.mlib.tool.Metrics;
 import mServer.crawler.sender.*;
 import mServer.crawler.sender.ard.ArdCrawler;
-import mServer.crawler.sender.arte.*;
+import mServer.crawler.sender.arte.ArteCrawler;
 import mServer.crawler.sender.dreisat.DreiSatCrawler;
 import mServer.crawler.sender.dw.DwCrawler;
 import mServer.crawler.sender.kika.KikaApiCrawler;
@@ -48,8 +51,11 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 /**
@@ -71,9 +77,15 @@ public class FilmeSuchen {
   private Date startZeit = new Date();
   private Date stopZeit = new Date();
   private boolean allStarted = false;
+  private static final int KAPAZITAET_FREI_SEKUNDEN = 30; // so lange muss der Pool frei sein, bevor die nächsten Sender starten
+  private volatile CrawlCheckpoint checkpoint = null; // Sicherung der gefundenen Filme, null: aus
+  private final Set<MediathekReader> uebernommen = new HashSet<>(); // Sender, die fertig aus dem Checkpoint kommen
+  private boolean vollstaendig = false; // alle Sender durchgelaufen, ohne Abbruch
+  private boolean abgebrochen = false; // mindestens ein Sender wurde abgebrochen, z.B. wegen seiner Laufzeit
   private final FastDateFormat sdf = FastDateFormat.getInstance("dd.MM.yyyy HH:mm:ss");
 
   public FilmeSuchen() {
+    Metrics.getInstance().register("sender", listeSenderLaufen::collect);
     // für jeden Sender einen MediathekReader anlegen, mit der Prio ob
     // sofort gestartet oder erst später
     //Reader laden Spaltenweises Laden
@@ -89,12 +101,8 @@ public class FilmeSuchen {
       mediathekListe.add(new ZdfCrawler(this, 0));
     }
     if (crawlerList.contains("ARTE")) {
+      // alle Sprachen von ARTE in einem Crawler
       mediathekListe.add(new ArteCrawler(this, 0));
-      mediathekListe.add(new ArteCrawler_FR(this, 1));
-      mediathekListe.add(new ArteCrawler_EN(this, 1));
-      mediathekListe.add(new ArteCrawler_ES(this, 1));
-      mediathekListe.add(new ArteCrawler_PL(this, 1));
-      mediathekListe.add(new ArteCrawler_IT(this, 1));
     }
     if (crawlerList.contains("DW")) {
       mediathekListe.add(new DwCrawler(this, 0));
@@ -142,18 +150,78 @@ public class FilmeSuchen {
    */
   public synchronized void filmeBeimSenderLaden(ListeFilme listeFilme) {
     initStart(listeFilme);
+    checkpointBeginnen();
     // die mReader nach Prio starten
-    mrStarten(0);
+    final int gestartet = mrStarten(0);
     if (mediathekListe.stream().filter(mr -> mr.getStartPrio() == 1).count() == 0) {
       allStarted = true;
+      if (gestartet == 0) {
+        // alle aus dem Checkpoint übernommen
+        meldenFertig("");
+      }
     } else {
       if (!Config.getStop()) {
-        // waren und wenn Suchlauf noch nicht abgebrochen weiter mit dem Rest
-        mrWarten(4*60);//4*60);
-        mrStarten(1);
+        // warten bis Platz ist und wenn Suchlauf noch nicht abgebrochen weiter mit dem Rest
+        if (gestartet > 0) {
+          mrWartenAufKapazitaet();
+        }
+        final int gestartetPrio1 = mrStarten(1);
         allStarted = true;
+        if (gestartetPrio1 == 0 && listeSenderLaufen.listeFertig()) {
+          // die anderen sind schon fertig und melden sich nicht mehr
+          meldenFertig("");
+        }
+      }
+    }
+  }
+
+  /**
+   * Übernimmt die Filme eines abgebrochenen Laufs und sichert ab jetzt regelmäßig die Sender.
+   */
+  private void checkpointBeginnen() {
+    final int maxAlter = MserverDaten.getCheckpointMaxAgeMinutes();
+    if (maxAlter <= 0) {
+      checkpoint = null;
+      return;
+    }
+    checkpoint = new CrawlCheckpoint(CrawlerTool.getPathCheckpoint(), maxAlter);
+    checkpoint.beginnen(CrawlerConfig.senderLoadHow);
+    for (MediathekReader reader : mediathekListe) {
+      if (checkpoint.uebernehmen(reader, listeFilmeNeu)) {
+        uebernommen.add(reader);
       }
     }
+    checkpoint.starten(this::laufendeSender);
+  }
+
+  /**
+   * Sichert sofort die Filme der Sender, die noch laufen, z.B. bevor der Suchlauf abgebrochen wird.
+   */
+  public void checkpointSichern() {
+    final CrawlCheckpoint aktuell = checkpoint;
+    if (aktuell != null) {
+      laufendeSender().forEach(reader -> aktuell.sichern(reader, false));
+    }
+  }
+
+  /**
+   * Löscht den Checkpoint, wenn alle Sender ohne Abbruch durchgelaufen sind. Erst aufrufen, wenn
+   * die Filmliste geschrieben ist.
+   */
+  public void checkpointAbschliessen() {
+    final CrawlCheckpoint aktuell = checkpoint;
+    if (aktuell != null && vollstaendig) {
+      aktuell.loeschen();
+    }
+  }
+
+  private List<MediathekReader> laufendeSender() {
+    return mediathekListe.stream()
+            .filter(mr -> {
+              final RunSender run = listeSenderLaufen.getSender(mr.getRunIdentifier());
+              return run != null && !run.fertig;
+            })
+            .collect(Collectors.toList());
   }
 
   /**
@@ -169,9 +237,12 @@ public class FilmeSuchen {
     for (MediathekReader reader : mediathekListe) {
       for (String s : nameSender) {
         if (reader.checkNameSenderFilmliste(s)) {
+          // ein Reader für mehrere Sender (Arte) wird nur einmal gestartet und sucht nur die gewünschten
           starten = true;
+          reader.senderAuswaehlen(nameSender);
           new Thread(reader).start();
           //reader.start();
+          break;
         }
       }
     }
@@ -206,6 +277,19 @@ public class FilmeSuchen {
     String zeile;
     RunSender run = listeSenderLaufen.senderFertig(sender);
     if (run != null) {
+      // bei Abbruch oder abgelaufener Laufzeit nur als Teil, der Sender wird beim nächsten Lauf fortgesetzt
+      mediathekListe.stream()
+              .filter(mr -> mr.getRunIdentifier().equals(sender))
+              .forEach(mr -> {
+                final boolean fertig = !mr.isCancelled();
+                if (!fertig) {
+                  abgebrochen = true;
+                  Log.sysLog(sender + ": abgebrochen (" + mr.getCancellation().getReason() + "), die gefundenen Filme bleiben");
+                }
+                if (checkpoint != null) {
+                  checkpoint.sichern(mr, fertig);
+                }
+              });
 
       int sekunden = run.getLaufzeitSekunden();
       long anzahlFilme = listeSenderLaufen.get(sender, RunSender.Count.FILME);
@@ -233,6 +317,10 @@ public class FilmeSuchen {
       // alles fertig
       // wird einmal aufgerufen, wenn alle Sender fertig sind
       Log.progress(""); // zum löschen der Progressbar
+      vollstaendig = !abgebrochen && !Config.getStop();
+      if (checkpoint != null) {
+        checkpoint.beenden();
+      }
       if (Config.getStop()) {
         // Abbruch melden
         Log.sysLog("                                                                                     ");
@@ -285,6 +373,8 @@ public class FilmeSuchen {
     retArray.add("");
     listeSenderLaufen.getTextSum(retArray);
     listeSenderLaufen.getTextCount(retArray);
+    HostRateController.getInstance().getTextStatistics(retArray);
+    CrawlScheduler.getInstance().getTextStatistics(retArray);
 
     // Gesamt ===============================================
     // ======================================================
@@ -304,6 +394,9 @@ public class FilmeSuchen {
 
     retArray.add("   Summe geladen[MB]: " + RunSender.getStringZaehler(listeSenderLaufen.get(RunSender.Count.SUM_DATA_BYTE)));
     retArray.add("        Traffic [MB]: " + RunSender.getStringZaehler(listeSenderLaufen.get(RunSender.Count.SUM_TRAFFIC_BYTE)));
+    final HttpResponseCache cache = HttpResponseCache.getInstance();
+    retArray.add("          HTTP-Cache: " + cache.getRevalidated() + " von " + cache.getRequests() + " Anfragen unverändert, "
+            + RunSender.getStringZaehler(cache.getSavedBytes()) + " MB gespart");
 
     // Durchschnittswerte ausgeben
     double doub = (1.0 * listeSenderLaufen.get(RunSender.Count.SUM_TRAFFIC_BYTE)) / (sekunden == 0 ? 1 : sekunden) / 1000;
@@ -318,24 +411,44 @@ public class FilmeSuchen {
     return retArray;
   }
 
-  private synchronized void mrStarten(int prio) {
-    // die MediathekReader mit "prio" starten
-    mediathekListe.stream().filter(mr -> mr.getStartPrio() == prio).forEach(mr -> new Thread(mr).start());
+  private synchronized int mrStarten(int prio) {
+    // die MediathekReader mit "prio" starten, nicht die fertig aus dem Checkpoint übernommenen
+    final List<MediathekReader> starten = mediathekListe.stream()
+            .filter(mr -> mr.getStartPrio() == prio && !uebernommen.contains(mr))
+            .collect(Collectors.toList());
+    starten.forEach(mr -> new Thread(mr).start());
+    return starten.size();
   }
 
   private synchronized void mrClear() {
     //die MediathekReader aufräumen
-    mediathekListe.forEach(MediathekReader::clear);
+    mediathekListe.forEach(mr -> {
+      mr.clear();
+      mr.gefundeneFilmeLeeren();
+    });
   }
 
-  private synchronized void mrWarten(int seconds) {
-    // 4 Minuten warten, alle 10 Sekunden auf STOP prüfen
+  private synchronized void mrWartenAufKapazitaet() {
+    // warten, bis die gestarteten Sender fertig sind oder den gemeinsamen Pool eine Weile
+    // nicht mehr auslasten, jede Sekunde auf STOP prüfen
+    final CrawlScheduler scheduler = CrawlScheduler.getInstance();
+    scheduler.getUtilization(); // Messung beginnen
+    int sekundenFrei = 0;
     try {
-      for (int i = 0; i < seconds; ++i) {
-        if (Config.getStop()) {
+      for (int i = 1; !Config.getStop(); ++i) {
+        this.wait(1000);
+        if (!listeSenderLaufen.isEmpty() && listeSenderLaufen.listeFertig()) {
+          Log.sysLog("Sender mit Prio 1 starten: alle anderen Sender fertig");
           break;
         }
-        this.wait(1000); // warten, Sender nach der Gesamtlaufzeit starten
+        sekundenFrei = scheduler.hasCapacity() ? sekundenFrei + 1 : 0;
+        if (sekundenFrei >= KAPAZITAET_FREI_SEKUNDEN) {
+          Log.sysLog("Sender mit Prio 1 starten: Pool seit " + sekundenFrei + " s nicht ausgelastet (" + scheduler.getStatus() + ")");
+          break;
+        }
+        if (i % 60 == 0) {
+          Log.sysLog("Warten auf Kapazität: " + scheduler.getStatus());
+        }
       }
     } catch (Exception ex) {
       Log.errorLog(978754213, ex);
@@ -358,6 +471,16 @@ public class FilmeSuchen {
   private void initStart(ListeFilme listeFilme) {
     // das Absuchen der Sender vorbereiten
     listeSenderLaufen.clear();
+    checkpoint = null;
+    uebernommen.clear();
+    vollstaendig = false;
+    abgebrochen = false;
+    mediathekListe.forEach(mr -> {
+      mr.gefundeneFilmeLeeren();
+      mr.senderAuswaehlen(null);
+    });
+    CrawlScheduler.getInstance().clearStatistics();
+    HttpResponseCache.getInstance().clearStatistics();
     allStarted = false;
     listeFilmeAlt = listeFilme;
     Config.setStop(false);
@@ -28,6 +28,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import de.mediathekview.mlib.tool.MSStringBuilder;
 import de.mediathekview.mlib.tool.MVHttpClient;
@@ -110,7 +111,7 @@ public class GetUrl {
             } catch (Exception ex) {
                 Log.errorLog(698963200, ex, sender);
             }
-        } while (!Config.getStop() && aktVer < maxVersuche);
+        } while (!CancellationToken.current().isCancelled() && aktVer < maxVersuche);
         return seite;
     }
 
@@ -128,7 +129,7 @@ public class GetUrl {
             try (InputStreamReader inReader = new InputStreamReader(body.byteStream(), encoding)) {
                 final char[] buffer = new char[16 * 1024];
                 int n;
-                while (!Config.getStop() && (n = inReader.read(buffer)) != -1) {
+                while (!CancellationToken.current().isCancelled() && (n = inReader.read(buffer)) != -1) {
                     // hier wird endlich geladen
                     seite.append(buffer, 0, n);
                     load += n;
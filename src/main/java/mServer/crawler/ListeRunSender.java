@@ -19,17 +19,51 @@
  */
 package mServer.crawler;
 
+import de.mediathekview.mlib.tool.Metrics;
+
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Die Infos aller Sender eines Suchlaufs. Die Liste wird von allen Crawler-Threads gelesen und
+ * gezählt: Sender kommen nur selten dazu, gesucht wird über einen Index statt durch die Liste.
+ */
 @SuppressWarnings("serial")
-public class ListeRunSender extends LinkedList<RunSender> {
+public class ListeRunSender extends CopyOnWriteArrayList<RunSender> {
 
     private final static String TRENNER = " | ";
     private static final String SENDER = " Sender          ";
 
+    private final Map<String, RunSender> index = new ConcurrentHashMap<>();
+
+    /**
+     * Fügt den Sender an, wenn es noch keinen mit dem Namen gibt.
+     *
+     * @param run der Sender
+     * @return true, wenn er angefügt wurde
+     */
+    @Override
+    public boolean add(RunSender run) {
+        synchronized (index) {
+            if (index.putIfAbsent(run.sender, run) != null) {
+                return false;
+            }
+            return super.add(run);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (index) {
+            index.clear();
+            super.clear();
+        }
+    }
+
     public boolean listeFertig() {
         // liefert true wenn alle Sender fertig sind
         for (RunSender run : this) {
@@ -41,23 +75,16 @@ public class ListeRunSender extends LinkedList<RunSender> {
     }
 
     public RunSender getSender(String sender) {
-        for (RunSender run : this) {
-            if (run.sender.equals(sender)) {
-                return run;
-            }
-        }
-        return null;
+        return index.get(sender);
     }
 
     public RunSender senderFertig(String sender) {
-        for (RunSender run : this) {
-            if (run.sender.equals(sender)) {
-                run.fertig = true;
-                run.endZeit = new Date();
-                return run;
-            }
+        final RunSender run = index.get(sender);
+        if (run != null) {
+            run.fertig = true;
+            run.endZeit = new Date();
         }
-        return null;
+        return run;
     }
 
     public String getSenderRun() {
@@ -137,12 +164,13 @@ public class ListeRunSender extends LinkedList<RunSender> {
 
     public ArrayList<String> getTextCount(ArrayList<String> ret) {
         getTextCount_(ret, new RunSender.Count[]{RunSender.Count.ANZAHL, RunSender.Count.FILME, RunSender.Count.FEHLER,
-            RunSender.Count.FEHLVERSUCHE, RunSender.Count.WARTEZEIT_FEHLVERSUCHE, RunSender.Count.PROXY});
+            RunSender.Count.FEHLVERSUCHE, RunSender.Count.WARTEZEIT_FEHLVERSUCHE, RunSender.Count.PROXY, RunSender.Count.CACHE});
         ret.add("");
         ret.add("");
 
         getTextCount_(ret, new RunSender.Count[]{RunSender.Count.SUM_DATA_BYTE, RunSender.Count.SUM_TRAFFIC_BYTE,
-            RunSender.Count.SUM_TRAFFIC_LOADART_NIX, RunSender.Count.GET_SIZE_SUM, RunSender.Count.GET_SIZE_PROXY});
+            RunSender.Count.SUM_TRAFFIC_LOADART_NIX, RunSender.Count.GET_SIZE_SUM, RunSender.Count.GET_SIZE_PROXY,
+            RunSender.Count.CACHE_GESPART_BYTE});
 
         ret.add("");
         ret.add("");
@@ -192,14 +220,27 @@ public class ListeRunSender extends LinkedList<RunSender> {
     }
 
     private RunSender getCounter(String sender) {
+        final RunSender run = index.get(sender);
+        if (run != null) {
+            return run;
+        }
+        add(new RunSender(sender, 0, 0));
+        return index.get(sender);
+    }
+
+    /**
+     * Liefert die Zähler aller Sender für {@link Metrics}.
+     *
+     * @param out die Ausgabe
+     */
+    public void collect(Metrics.Output out) {
         for (RunSender run : this) {
-            if (run.sender.equals(sender)) {
-                return run;
-            }
+            out.gauge("sender_running", run.fertig ? 0 : 1, "sender", run.sender);
+            out.gauge("sender_progress", run.progress, "sender", run.sender);
+            out.gauge("sender_max", run.max, "sender", run.sender);
+            run.counter.forEach((count, value) ->
+                    out.counter("sender_events_total", value.get(), "sender", run.sender, "count", count.name().toLowerCase()));
         }
-        RunSender ret = new RunSender(sender, 0, 0);
-        add(ret);
-        return ret;
     }
 
     private ArrayList<String> getTextCount_(ArrayList<String> ret, RunSender.Count[] spalten) {
@@ -227,7 +268,7 @@ public class ListeRunSender extends LinkedList<RunSender> {
                 for (RunSender.Count sp : spalten) {
                     if (i == sp.ordinal()) {
                         if (i == RunSender.Count.SUM_DATA_BYTE.ordinal() || i == RunSender.Count.SUM_TRAFFIC_BYTE.ordinal()
-                                || i == RunSender.Count.SUM_TRAFFIC_LOADART_NIX.ordinal()) {
+                                || i == RunSender.Count.SUM_TRAFFIC_LOADART_NIX.ordinal() || i == RunSender.Count.CACHE_GESPART_BYTE.ordinal()) {
                             zeile += textLaenge(names[i].length(), String.valueOf(RunSender.getStringZaehler(get(run.sender, RunSender.Count.values()[i])))) + TRENNER;
                         } else if (i == RunSender.Count.WARTEZEIT_FEHLVERSUCHE.ordinal()) {
                             long l = get(run.sender, RunSender.Count.values()[i]); // dann sinds ms
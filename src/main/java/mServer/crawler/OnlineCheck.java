@@ -0,0 +1,173 @@
+package mServer.crawler;
+
+import de.mediathekview.mlib.tool.Log;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks many URLs asynchronously with OkHttp's {@link Call#enqueue(Callback)}.
+ *
+ * <ul>
+ *   <li>the number of requests in total and per host is limited by an own {@link Dispatcher},
+ *   HTTP/2 connections are multiplexed by OkHttp where the server supports it</li>
+ *   <li>{@link #submit(Request, Handler)} blocks while too many requests are pending, so the
+ *   queue of waiting calls stays small</li>
+ *   <li>the call timeout of each request adapts to the response times of its host</li>
+ * </ul>
+ */
+public class OnlineCheck implements AutoCloseable {
+
+  private static final long MIN_TIMEOUT_MS = 3_000;
+  private static final long MAX_TIMEOUT_MS = 15_000;
+  private static final long DEFAULT_TIMEOUT_MS = 10_000;
+  /**
+   * A request may take this many times longer than the average of its host.
+   */
+  private static final int TIMEOUT_FACTOR = 4;
+
+  private final OkHttpClient client;
+  private final ExecutorService executor;
+  private final int maxPending;
+  private final Semaphore pending;
+  /**
+   * Moving average of the response times per host in milliseconds.
+   */
+  private final Map<String, AtomicLong> responseTimes = new ConcurrentHashMap<>();
+  private final AtomicLong completed = new AtomicLong();
+
+  public OnlineCheck(OkHttpClient baseClient, int maxRequests, int maxRequestsPerHost) {
+    executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+      Thread t = new Thread(r, "OnlineCheck");
+      t.setDaemon(true);
+      return t;
+    });
+    final Dispatcher dispatcher = new Dispatcher(executor);
+    dispatcher.setMaxRequests(maxRequests);
+    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+    client = baseClient.newBuilder().dispatcher(dispatcher).build();
+    maxPending = maxRequests * 2;
+    pending = new Semaphore(maxPending);
+  }
+
+  /**
+   * Enqueues the request. The handler is called on a thread of the dispatcher.
+   *
+   * @param request the request
+   * @param handler gets the response or the error
+   * @throws InterruptedException if interrupted while waiting for a free slot
+   */
+  public void submit(Request request, Handler handler) throws InterruptedException {
+    pending.acquire();
+    final String host = request.url().host();
+    final Call call = client.newCall(request);
+    call.timeout().timeout(timeout(host), TimeUnit.MILLISECONDS);
+    call.enqueue(new Callback() {
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) {
+        try (response) {
+          updateResponseTime(host, response);
+          handler.onResponse(response);
+        } catch (Exception ex) {
+          Log.errorLog(978451206, ex, "online check: " + request.url());
+        } finally {
+          done();
+        }
+      }
+
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        try {
+          handler.onFailure(e, call.isCanceled());
+        } catch (Exception ex) {
+          Log.errorLog(978451207, ex, "online check: " + request.url());
+        } finally {
+          done();
+        }
+      }
+    });
+  }
+
+  /**
+   * Waits until all submitted requests are finished.
+   *
+   * @return true if all are finished, false if the timeout elapsed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+    if (pending.tryAcquire(maxPending, timeout, unit)) {
+      pending.release(maxPending);
+      return true;
+    }
+    return false;
+  }
+
+  public long getCompleted() {
+    return completed.get();
+  }
+
+  /**
+   * Cancels all pending requests, their handlers get an {@link IOException}.
+   */
+  public void cancel() {
+    client.dispatcher().cancelAll();
+  }
+
+  /**
+   * Cancels all pending requests and waits shortly until their handlers are called.
+   */
+  @Override
+  public void close() {
+    cancel();
+    try {
+      awaitCompletion(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    executor.shutdown();
+  }
+
+  private void done() {
+    completed.incrementAndGet();
+    pending.release();
+  }
+
+  private long timeout(String host) {
+    final AtomicLong average = responseTimes.get(host);
+    if (average == null) {
+      return DEFAULT_TIMEOUT_MS;
+    }
+    return Math.max(MIN_TIMEOUT_MS, Math.min(MAX_TIMEOUT_MS, average.get() * TIMEOUT_FACTOR));
+  }
+
+  private void updateResponseTime(String host, Response response) {
+    final long millis = response.receivedResponseAtMillis() - response.sentRequestAtMillis();
+    responseTimes.computeIfAbsent(host, h -> new AtomicLong(millis))
+        .accumulateAndGet(millis, (average, value) -> (average * 7 + value) / 8);
+  }
+
+  public interface Handler {
+
+    void onResponse(Response response) throws IOException;
+
+    /**
+     * @param exception the error
+     * @param cancelled true if the request was cancelled by {@link #cancel()} or {@link #close()}
+     */
+    void onFailure(IOException exception, boolean cancelled);
+  }
+}
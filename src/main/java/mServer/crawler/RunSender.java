@@ -99,7 +99,15 @@ public class RunSender {
          */
         SUM_TRAFFIC_BYTE("sumTraffic"),
         SUM_TRAFFIC_LOADART_NIX("trNix"),
-        GET_SIZE_SUM("getSize"), GET_SIZE_PROXY("gS-proxy");
+        GET_SIZE_SUM("getSize"), GET_SIZE_PROXY("gS-proxy"),
+        /**
+         * Anfragen, die der HTTP-Cache unverändert beantwortet hat
+         */
+        CACHE("Cache"),
+        /**
+         * Datenmenge, die wegen des HTTP-Caches nicht übertragen wurde
+         */
+        CACHE_GESPART_BYTE("cacheSaved");
 
         private final String name;
 
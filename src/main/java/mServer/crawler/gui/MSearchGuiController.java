@@ -83,7 +83,7 @@ public class MSearchGuiController implements Initializable {
             Data.listeFilme.clear();
             lblSum.setText(Data.listeFilme.size() + "");
         });
-        btnSave.setOnAction(e -> new WriteFilmlistJson().filmlisteSchreibenJson(txtFilmList.getText(), Data.listeFilme));
+        btnSave.setOnAction(e -> new WriteFilmlistJson().filmlisteSchreiben(Data.listeFilme, txtFilmList.getText()));
         btnSelect.setOnAction(e -> getPath());
     }
 
@@ -1,19 +1,24 @@
 package mServer.crawler.sender;
 
-import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.RecursiveTask;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import mServer.crawler.CrawlScheduler;
 import mServer.crawler.FilmeSuchen;
 import mServer.crawler.RunSender;
+import mServer.tool.MserverDaten;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-// Base class of crawlers using ForkJoinPool
+// Base class of crawlers using the ForkJoinPool shared by all senders, see CrawlScheduler
 public abstract class MediathekCrawler extends MediathekReader {
 
   private static final Logger LOG = LogManager.getLogger(MediathekCrawler.class);
@@ -23,32 +28,32 @@ public abstract class MediathekCrawler extends MediathekReader {
   protected MediathekCrawler(FilmeSuchen aMSearchFilmeSuchen, String aSendername, int aSenderMaxThread, int aSenderWartenSeiteLaden, int aStartPrio) {
     super(aMSearchFilmeSuchen, aSendername, aSenderMaxThread, aSenderWartenSeiteLaden, aStartPrio);
 
-    forkJoinPool = createForkJoinPool(aSendername);
+    forkJoinPool = CrawlScheduler.getInstance().getPool();
   }
 
-  public static ForkJoinPool createForkJoinPool(String aSenderName) {
-    final ForkJoinPool.ForkJoinWorkerThreadFactory factory = (ForkJoinPool pool) -> {
-      final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
-      worker.setName(aSenderName + "-worker-" + worker.getPoolIndex());
-      return worker;
-    };
-
-    return new ForkJoinPool(Runtime.getRuntime().availableProcessors() * 4, factory, null, true);
+  /**
+   * The weight of this crawler when the threads of the shared pool are divided among the
+   * running crawlers; crawlers started first get twice the share of the later ones.
+   *
+   * @return the weight
+   */
+  protected int getSchedulerWeight() {
+    return getStartPrio() == 0 ? 2 : 1;
   }
 
   @Override
   protected void addToList() {
     meldungStart();
 
-    try {
+    try (CrawlScheduler.Slot slot = CrawlScheduler.getInstance().register(getRunIdentifier(), getSchedulerWeight())) {
+      schedulerSlot = slot;
       runCrawler();
 
       Log.sysLog(getSendername() + ": Film einsortieren fertig");
     } catch (Exception e) {
       Log.errorLog(516516521, e);
     } finally {
-      //explicitely shutdown the pool
-      shutdownAndAwaitTermination(60, TimeUnit.SECONDS);
+      schedulerSlot = null;
     }
 
     Log.sysLog(getSendername() + ": fertig");
@@ -65,45 +70,108 @@ public abstract class MediathekCrawler extends MediathekReader {
       LOG.fatal("{}: no films found!", getSendername());
     }
 
+    // auch nach einem Abbruch werden die bis dahin gefundenen Filme eingetragen, nur ohne HEAD-Anfragen
+    final List<DatenFilm> filmsToAdd = new ArrayList<>(films.size());
     films.forEach(film -> {
-      if (!Config.getStop()) {
-        try {
-          prepareFilm(film);
-          addFilm(film);
-        } catch (Exception e) {
-          final String index = film.getIndexAddOld();
-          Log.errorLog(974513456, e, index);
-          LOG.error("{}: Error while processing film: {}: {}", getSendername(), index, e);
-          FilmeSuchen.listeSenderLaufen.inc(getRunIdentifierBase()+"-"+film.arr[DatenFilm.FILM_SENDER], RunSender.Count.FEHLER);
+      try {
+        prepareFilm(film);
+        if (!isBanned(film)) {
+          filmsToAdd.add(film);
         }
+      } catch (Exception e) {
+        handleFilmError(film, e);
       }
     });
-  }
-
-  protected abstract RecursiveTask<Set<DatenFilm>> createCrawlerTask();
 
-  protected void prepareFilm(DatenFilm film) {
+    // die HEAD-Anfragen für Dateigröße und HD-URL parallel, einsortiert wird danach in der ursprünglichen Reihenfolge
+    final boolean[] failed = enrichFilms(filmsToAdd);
+    for (int i = 0; i < filmsToAdd.size(); i++) {
+      if (!failed[i]) {
+        final DatenFilm film = filmsToAdd.get(i);
+        try {
+          insertFilm(film);
+        } catch (Exception e) {
+          handleFilmError(film, e);
+        }
+      }
+    }
+    // die übrigen waren gesperrt, doppelt oder fehlerhaft
+    laufendeFilmeLeeren();
   }
 
-  private void shutdownAndAwaitTermination(long delay, TimeUnit delayUnit) {
-    Log.sysLog(getSendername() + ": shutdown pool...");
+  /**
+   * Ergänzt die Filme im gemeinsamen Pool: höchstens {@link MserverDaten#getFilmEnrichParallelism()}
+   * Teil-Tasks nehmen sich nacheinander die Filme, jeder Film mit einer Erlaubnis des Slots, so gilt
+   * auch hier der Anteil des Senders am Pool.
+   *
+   * @return je Film true, wenn das Ergänzen fehlgeschlagen ist; nach einem Abbruch werden die
+   * übrigen Filme nicht mehr ergänzt, aber auch nicht als fehlerhaft gemeldet
+   */
+  private boolean[] enrichFilms(List<DatenFilm> films) {
+    final boolean[] failed = new boolean[films.size()];
+    final int parallelism = Math.min(MserverDaten.getFilmEnrichParallelism(), films.size());
+    Log.sysLog(getSendername() + ": Filme ergänzen (" + parallelism + " parallel)..." + films.size());
+    if (films.isEmpty()) {
+      return failed;
+    }
 
-    try {
-      try {
-        forkJoinPool.shutdown();
-        if (!forkJoinPool.awaitTermination(delay, delayUnit)) {
-          forkJoinPool.shutdownNow();
-          if (!forkJoinPool.awaitTermination(delay, delayUnit)) {
-            Log.sysLog(getSendername() + ": Pool nicht beendet");
+    final CancellationToken cancellation = getCancellation();
+    final CrawlScheduler.Slot slot = getSchedulerSlot();
+    final AtomicInteger next = new AtomicInteger();
+    final Runnable worker = () -> {
+      // the requests of the crawler are aborted when it is cancelled
+      try (CancellationToken.Scope ignored = cancellation.bind()) {
+        int index;
+        while (!cancellation.isCancelled() && (index = next.getAndIncrement()) < films.size()) {
+          if (slot != null) {
+            slot.acquire();
+          }
+          try {
+            enrichFilm(films.get(index), failed, index, cancellation);
+          } finally {
+            if (slot != null) {
+              slot.release();
+            }
           }
         }
-      } catch (InterruptedException ie) {
-        Log.errorLog(974513454, ie);
-        forkJoinPool.shutdownNow();
-        Thread.currentThread().interrupt();
       }
+    };
+    // join macht die Ergebnisse der Teil-Tasks für diesen Thread sichtbar
+    forkJoinPool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        final List<ForkJoinTask<?>> workers = new ArrayList<>(parallelism - 1);
+        for (int i = 1; i < parallelism; i++) {
+          workers.add(ForkJoinTask.adapt(worker).fork());
+        }
+        worker.run();
+        workers.forEach(ForkJoinTask::join);
+      }
+    });
+    return failed;
+  }
+
+  private void enrichFilm(DatenFilm film, boolean[] failed, int index, CancellationToken cancellation) {
+    try {
+      enrichFilm(film);
     } catch (Exception e) {
-      Log.errorLog(974513455, e);
+      // eine beim Abbruch beendete Anfrage ist kein Fehler des Films
+      if (!cancellation.isCancelled()) {
+        failed[index] = true;
+        handleFilmError(film, e);
+      }
     }
   }
+
+  private void handleFilmError(DatenFilm film, Exception e) {
+    final String index = film.getIndexAddOld();
+    Log.errorLog(974513456, e, index);
+    LOG.error("{}: Error while processing film: {}: {}", getSendername(), index, e);
+    FilmeSuchen.listeSenderLaufen.inc(getRunIdentifierBase()+"-"+film.arr[DatenFilm.FILM_SENDER], RunSender.Count.FEHLER);
+  }
+
+  protected abstract RecursiveTask<Set<DatenFilm>> createCrawlerTask();
+
+  protected void prepareFilm(DatenFilm film) {
+  }
 }
@@ -19,19 +19,26 @@
  */
 package mServer.crawler.sender;
 
+import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.GermanStringSorter;
 import de.mediathekview.mlib.tool.Log;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import mServer.crawler.BannedFilmFilter;
+import mServer.crawler.CrawlScheduler;
 import mServer.crawler.CrawlerTool;
 import mServer.crawler.FilmeSuchen;
 import mServer.crawler.RunSender;
 import mServer.crawler.sender.base.UrlUtils;
 import mServer.crawler.sender.base.GeoLocations;
+import mServer.tool.MserverDaten;
 
 public abstract class MediathekReader extends Thread {
 
@@ -47,6 +54,10 @@ public abstract class MediathekReader extends Thread {
   private int max; // Anz. zu suchender Themen
   private int progress; // Prograss eben
   private final BannedFilmFilter bannedFilmFilter;
+  protected volatile CrawlScheduler.Slot schedulerSlot; // Anteil am gemeinsamen Pool, solange der Sender läuft
+  private final Queue<DatenFilm> gefundeneFilme = new ConcurrentLinkedQueue<>(); // in die Liste eingetragene Filme, für den CrawlCheckpoint
+  private final Set<DatenFilm> laufendeFilme = ConcurrentHashMap.newKeySet(); // von den Tasks gefunden, noch nicht eingetragen, für den CrawlCheckpoint
+  private volatile CancellationToken cancellation = null; // Abbruch und Zeitlimit des Senders, solange er läuft
 
   public MediathekReader(FilmeSuchen aMSearchFilmeSuchen, String aSendername, int aSenderMaxThread, int aSenderWartenSeiteLaden, int aStartPrio) {
     mlibFilmeSuchen = aMSearchFilmeSuchen;
@@ -172,11 +183,39 @@ public abstract class MediathekReader extends Thread {
     return threads;
   }
 
+  public CrawlScheduler.Slot getSchedulerSlot() {
+    return schedulerSlot;
+  }
+
+  /**
+   * @return das Token des Senders, solange er läuft, sonst das des Suchlaufs
+   */
+  public CancellationToken getCancellation() {
+    final CancellationToken token = cancellation;
+    return token != null ? token : Config.getCancellation();
+  }
+
+  /**
+   * @return true, wenn der Suchlauf abgebrochen oder die Laufzeit des Senders abgelaufen ist
+   */
+  public boolean isCancelled() {
+    return getCancellation().isCancelled();
+  }
+
   public boolean checkNameSenderFilmliste(String name) {
     // ist der Name der in der Tabelle Filme angezeigt wird
     return getSendername().equalsIgnoreCase(name);
   }
 
+  /**
+   * Wählt für ein Update einzelner Sender aus, welche gesucht werden, wenn dieser Reader mehrere
+   * Sender hat (siehe {@link #checkNameSenderFilmliste(String)}).
+   *
+   * @param nameSender die gewünschten Sender, null: alle
+   */
+  public void senderAuswaehlen(String[] nameSender) {
+  }
+
 //    public String getNameSender() {
 //        return getSendername();
 //    }
@@ -187,14 +226,76 @@ public abstract class MediathekReader extends Thread {
     //aufräumen
   }
 
+  /**
+   * Die Filme, die dieser Sender bisher gefunden hat: die schon in die Liste eingetragenen und die,
+   * die seine Tasks geliefert haben, die aber noch nicht eingetragen sind (siehe
+   * {@link #filmGefunden(DatenFilm)}). Diese sind noch nicht vorbereitet und ergänzt, ein Film mit
+   * demselben Index wie ein eingetragener wird nicht doppelt geliefert.
+   *
+   * @return die Filme für den CrawlCheckpoint
+   */
+  public List<DatenFilm> getGefundeneFilme() {
+    final List<DatenFilm> filme = new ArrayList<>(gefundeneFilme);
+    if (laufendeFilme.isEmpty()) {
+      return filme;
+    }
+    final Set<Long> indexe = new HashSet<>();
+    filme.forEach(film -> indexe.add(film.getFingerprintIndex()));
+    for (DatenFilm film : laufendeFilme) {
+      if (indexe.add(film.getFingerprintIndex())) {
+        filme.add(film);
+      }
+    }
+    return filme;
+  }
+
+  /**
+   * Merkt einen Film vor, den ein Task gefunden hat, damit er schon vor dem Eintragen in die Liste
+   * gesichert wird. Kann parallel aufgerufen werden.
+   *
+   * @param film der Film
+   */
+  public void filmGefunden(DatenFilm film) {
+    laufendeFilme.add(film);
+  }
+
+  /**
+   * Vergisst die vorgemerkten Filme, die nicht eingetragen wurden, z.B. weil sie gesperrt sind.
+   */
+  protected void laufendeFilmeLeeren() {
+    laufendeFilme.clear();
+  }
+
+  /**
+   * Übernimmt Filme aus einem abgebrochenen Lauf, sie stehen schon in der Liste.
+   *
+   * @param filme die Filme
+   */
+  public void gefundeneFilmeUebernehmen(List<DatenFilm> filme) {
+    laufendeFilme.clear();
+    gefundeneFilme.clear();
+    gefundeneFilme.addAll(filme);
+  }
+
+  public void gefundeneFilmeLeeren() {
+    laufendeFilme.clear();
+    gefundeneFilme.clear();
+  }
+
   @Override
   public void run() {
     //alles laden
-    try {
+    final int maxLaufzeit = MserverDaten.getSenderMaxLaufzeitMinutes();
+    final CancellationToken token = Config.getCancellation().child(getRunIdentifier(), TimeUnit.MINUTES.toMillis(maxLaufzeit));
+    cancellation = token;
+    try (CancellationToken.Scope ignored = token.bind()) {
       threads = 0;
       addToList();
     } catch (Exception ex) {
       Log.errorLog(397543600, ex, getSendername());
+    } finally {
+      cancellation = null;
+      token.close();
     }
   }
 
@@ -218,19 +319,47 @@ public abstract class MediathekReader extends Thread {
    */
   protected void addFilm(DatenFilm film) {
 
+    if (isBanned(film)) {
+      return;
+    }
+
+    enrichFilm(film);
+    insertFilm(film);
+  }
+
+  protected boolean isBanned(DatenFilm film) {
     if (bannedFilmFilter.isBanned(film)) {
       Log.sysLog("Blacklist Treffer im addFilm (" + film.arr[DatenFilm.FILM_TITEL] + ")");
-      return;
+      return true;
     }
+    return false;
+  }
 
+  /**
+   * Ermittelt Dateigröße und HD-URL, dafür sind HEAD-Anfragen nötig. Kann parallel für
+   * mehrere Filme aufgerufen werden.
+   *
+   * @param film der Film
+   */
+  protected void enrichFilm(DatenFilm film) {
     setFileSize(film);
     upgradeUrl(film);
+  }
 
+  /**
+   * Sortiert den fertigen Film in die Liste ein.
+   *
+   * @param film der Film
+   */
+  protected void insertFilm(DatenFilm film) {
     setGeo(film);
     if (mlibFilmeSuchen.listeFilmeNeu.addFilmVomSender(film)) {
       // dann ist er neu
+      gefundeneFilme.add(film);
       FilmeSuchen.listeSenderLaufen.inc(getRunIdentifierBase()+"-"+film.arr[DatenFilm.FILM_SENDER], RunSender.Count.FILME);
     }
+    // erst nach dem Eintragen, so fehlt er in keiner Sicherung
+    laufendeFilme.remove(film);
   }
 
   private void setFileSize(DatenFilm film) {
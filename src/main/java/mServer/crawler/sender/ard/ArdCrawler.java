@@ -8,15 +8,15 @@ import mServer.crawler.FilmeSuchen;
 import mServer.crawler.sender.MediathekCrawler;
 import mServer.crawler.sender.ard.tasks.*;
 import mServer.crawler.sender.base.CrawlerUrlDTO;
+import mServer.crawler.sender.base.StagePipeline;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 public class ArdCrawler extends MediathekCrawler {
 
@@ -24,6 +24,10 @@ public class ArdCrawler extends MediathekCrawler {
   private static final int MAX_DAYS_PAST = 7;
   private static final int MAX_DAYS_FUTURE = 7;
   private static final int MAX_DAYS_PAST_AVAILABLE = 7;
+  // Anzahl paralleler Anfragen je Stufe
+  private static final int TOPICS_WORKERS = 2;
+  private static final int PAGE_WORKERS = 8;
+  private static final int DETAIL_WORKERS = 16;
   private static final DateTimeFormatter DAY_PAGE_DATE_FORMATTER
           = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
@@ -102,88 +106,107 @@ public class ArdCrawler extends MediathekCrawler {
 
   @Override
   protected RecursiveTask<Set<DatenFilm>> createCrawlerTask() {
-
-    final ConcurrentLinkedQueue<ArdFilmInfoDto> shows = new ConcurrentLinkedQueue<>();
-    try {
-
-      if (CrawlerTool.loadLongMax()) {
-        shows.addAll(getTopicsEntries());
+    return new RecursiveTask<Set<DatenFilm>>() {
+      @Override
+      protected Set<DatenFilm> compute() {
+        return crawl();
       }
-      Log.sysLog("ARD Anzahl topics: " + shows.size());
-      getDaysEntries().forEach(show -> {
-        if (!shows.contains(show)) {
-          shows.add(show);
+    };
+  }
+
+  /**
+   * Crawls with a pipeline: the films of a day or topic page are loaded as soon as the page is
+   * read, not only after all pages are done.
+   */
+  private Set<DatenFilm> crawl() {
+    final Set<DatenFilm> films = ConcurrentHashMap.newKeySet();
+
+    try (StagePipeline pipeline = new StagePipeline(SENDERNAME, getCancellation())) {
+      final StagePipeline.Stage<ArdFilmInfoDto, DatenFilm> details = pipeline.addStage("details",
+              DETAIL_WORKERS, 10,
+              StagePipeline.inPool(forkJoinPool, batch -> new ArdFilmDetailTask(this, new ConcurrentLinkedQueue<>(batch))));
+      details.then(films::add);
+      final Consumer<ArdFilmInfoDto> toDetails = filmInfo -> {
+        if (details.submit(filmInfo)) {
+          meldungAddMax(1);
+        }
+      };
+
+      final StagePipeline.Stage<ArdFilmInfoDto, ArdFilmInfoDto> compilations = pipeline.addStage("compilations",
+              PAGE_WORKERS, 5,
+              StagePipeline.inPool(forkJoinPool, batch -> new ArdTopicCompilationTask(this, new ConcurrentLinkedQueue<>(batch))));
+      compilations.then(filmInfo -> {
+        if (!filmInfo.isCompilation()) {
+          toDetails.accept(filmInfo);
         }
       });
 
-    } catch (InterruptedException | ExecutionException exception) {
-      Log.errorLog(56146546, exception);
-    }
-    Log.sysLog("ARD Anzahl: " + shows.size());
-
-    meldungAddMax(shows.size());
-
-    return new ArdFilmDetailTask(this, shows);
-  }
-
-  private Set<ArdFilmInfoDto> getDaysEntries() throws InterruptedException, ExecutionException {
-    final ArdDayPageTask dayTask = new ArdDayPageTask(this, createDayUrlsToCrawl());
-    final Set<ArdFilmInfoDto> shows = forkJoinPool.submit(dayTask).get();
-    return shows;
-  }
+      final StagePipeline.Stage<CrawlerUrlDTO, ArdFilmInfoDto> topicPages = pipeline.addStage("topic-pages",
+              PAGE_WORKERS, 5,
+              StagePipeline.inPool(forkJoinPool, batch -> new ArdTopicPageTask(this, new ConcurrentLinkedQueue<>(batch))));
+      topicPages.then(filmInfo -> {
+        if (filmInfo.isCompilation()) {
+          compilations.submit(filmInfo);
+        } else {
+          toDetails.accept(filmInfo);
+        }
+      });
 
-  private Set<ArdFilmInfoDto> getTopicsEntries() throws ExecutionException, InterruptedException {
-    final Set<ArdFilmInfoDto> shows = new HashSet<>();
-    Set<CrawlerUrlDTO> topics = new HashSet<>();
-    topics.addAll(getTopicEntriesBySender(ArdConstants.DEFAULT_CLIENT));
-    for (String client : ArdConstants.CLIENTS) {
-      topics.addAll(getTopicEntriesBySender(client));
-    }
+      final StagePipeline.Stage<CrawlerUrlDTO, CrawlerUrlDTO> topicGroups = pipeline.addStage("topic-groups",
+              PAGE_WORKERS, 10,
+              StagePipeline.inPool(forkJoinPool, batch -> new ArdTopicGroupsTask(this, new ConcurrentLinkedQueue<>(batch))));
+      topicGroups.then(topicPages::submit);
 
-    Log.sysLog("ard mediathek topics: " + topics.size());
+      // one client per batch, the tasks need the client
+      final StagePipeline.Stage<String, CrawlerUrlDTO> topics = pipeline.addStage("topics",
+              TOPICS_WORKERS, 1, batch -> getTopicEntriesBySender(batch.get(0)));
+      topics.then(topicGroups::submit);
 
-    final ArdTopicGroupsTask groupsToAsset = new ArdTopicGroupsTask(this, new ConcurrentLinkedQueue<>(topics));
-    final Set<CrawlerUrlDTO> assitUrls = new HashSet<>();
-    assitUrls.addAll(forkJoinPool.submit(groupsToAsset).get());
-    Log.sysLog("ard sender group assit tasks: " + assitUrls.size());
-    addAdditionalTopics(assitUrls);
-    Log.sysLog("ard mediathek assit tasks with additional: " + assitUrls.size());
+      final StagePipeline.Stage<CrawlerUrlDTO, ArdFilmInfoDto> dayPages = pipeline.addStage("day-pages",
+              PAGE_WORKERS, 1,
+              StagePipeline.inPool(forkJoinPool, batch -> new ArdDayPageTask(this, new ConcurrentLinkedQueue<>(batch))));
+      dayPages.then(toDetails);
 
-    ConcurrentLinkedQueue<CrawlerUrlDTO> topicUrls = new ConcurrentLinkedQueue<>(assitUrls);
+      pipeline.start();
 
-    final ArdTopicPageTask topicTask = new ArdTopicPageTask(this, topicUrls);
-    final Set<ArdFilmInfoDto> ardFilmInfosWithCompilations = forkJoinPool.submit(topicTask).get();
+      if (CrawlerTool.loadLongMax()) {
+        topics.submit(ArdConstants.DEFAULT_CLIENT);
+        for (String client : ArdConstants.CLIENTS) {
+          topics.submit(client);
+        }
+        addAdditionalTopics(topicPages);
+      }
+      createDayUrlsToCrawl().forEach(dayPages::submit);
 
-    // add filmInfos without compilation
-    shows.addAll(ardFilmInfosWithCompilations.stream().filter(filmInfo -> !filmInfo.isCompilation()).toList());
+      pipeline.awaitCompletion();
 
-    // search compilations
-    final List<ArdFilmInfoDto> compilations = ardFilmInfosWithCompilations.stream().filter(ArdFilmInfoDto::isCompilation).toList();
-    final ArdTopicCompilationTask compilationTask = new ArdTopicCompilationTask(this, new ConcurrentLinkedQueue<>(compilations));
-    final Set<ArdFilmInfoDto> ardCompilationEntries = forkJoinPool.submit(compilationTask).get();
+      Log.sysLog("ard mediathek topics: " + topicGroups.getSubmitted());
+      Log.sysLog("ard mediathek assit tasks with additional: " + topicPages.getSubmitted());
+      Log.sysLog("ard shows by topics compilation: " + compilations.getSubmitted());
+      Log.sysLog("ARD Anzahl: " + details.getSubmitted());
+    } catch (InterruptedException exception) {
+      Log.errorLog(56146546, exception);
+      Thread.currentThread().interrupt();
+    }
 
-    final int sizeBefore = shows.size();
-    shows.addAll(ardCompilationEntries.stream().filter(filmInfo -> !filmInfo.isCompilation()).toList());
-    Log.sysLog("ard shows by topics compilation: " + (shows.size() - sizeBefore));
-    Log.sysLog("ard shows by topics: " + shows.size());
-    return shows;
+    return films;
   }
 
   // temporary workaround for missing topics
-  private void addAdditionalTopics(Set<CrawlerUrlDTO> topics) {
+  private void addAdditionalTopics(StagePipeline.Stage<CrawlerUrlDTO, ?> topicPages) {
     for (String topicId : MISSING_TOPIC_IDS) {
-      topics.add(new CrawlerUrlDTO(String.format(ArdConstants.TOPIC_URL, topicId, ArdConstants.TOPIC_PAGE_SIZE)));
+      topicPages.submit(new CrawlerUrlDTO(String.format(ArdConstants.TOPIC_URL, topicId, ArdConstants.TOPIC_PAGE_SIZE)));
     }
   }
 
-  private Set<CrawlerUrlDTO> getTopicEntriesBySender(final String sender) throws ExecutionException, InterruptedException {
+  private Set<CrawlerUrlDTO> getTopicEntriesBySender(final String sender) {
     ArdTopicsTask topicsTask
             = new ArdTopicsTask(this, sender, createTopicsOverviewUrl(sender));
 
-    ConcurrentLinkedQueue<CrawlerUrlDTO> queue = new ConcurrentLinkedQueue<>(forkJoinPool.submit(topicsTask).get());
+    ConcurrentLinkedQueue<CrawlerUrlDTO> queue = new ConcurrentLinkedQueue<>(forkJoinPool.invoke(topicsTask));
     Log.sysLog(sender + " topics task entries: " + queue.size());
 
-    final Set<CrawlerUrlDTO> topicUrls = forkJoinPool.submit(new ArdTopicsLetterTask(this, sender, queue)).get();
+    final Set<CrawlerUrlDTO> topicUrls = forkJoinPool.invoke(new ArdTopicsLetterTask(this, sender, queue));
     Log.sysLog(sender + " topics: " + topicUrls.size());
     return topicUrls;
   }
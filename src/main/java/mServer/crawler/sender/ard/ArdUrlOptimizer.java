@@ -2,7 +2,9 @@ package mServer.crawler.sender.ard;
 
 import mServer.crawler.sender.base.UrlUtils;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -32,25 +34,32 @@ public class ArdUrlOptimizer {
     HD_OPTIMIZE.put(SWR_URL_1280, new String[] {SWR_URL_1920});
   }
 
+  /**
+   * tries to find a full hd url for the url. all candidates are checked at the same time, the
+   * first existing one wins.
+   *
+   * @param url the hd url
+   * @return the full hd url or the url
+   */
   public String optimizeHdUrl(final String url) {
-    String fullHdUrl = "";
+    final List<String> candidates = new ArrayList<>();
     if (url.contains("wdrmedien")) {
-      fullHdUrl = determineWdrFullHdUrl(url);
+      candidates.add(determineWdrFullHdUrl(url));
     } else {
       for (Map.Entry<String, String[]> entry : HD_OPTIMIZE.entrySet()) {
         if (url.contains(entry.getKey())) {
           for (String optimizeFragment : entry.getValue()) {
-            fullHdUrl = url.replace(entry.getKey(), optimizeFragment);
+            candidates.add(url.replace(entry.getKey(), optimizeFragment));
           }
         }
       }
     }
+    candidates.remove(url);
 
-    if (!fullHdUrl.isEmpty() && UrlUtils.existsUrl(fullHdUrl)) {
-      return fullHdUrl;
+    if (candidates.isEmpty()) {
+      return url;
     }
-
-    return url;
+    return UrlUtils.findFirstExistingUrl(candidates).join().orElse(url);
   }
 
   /**
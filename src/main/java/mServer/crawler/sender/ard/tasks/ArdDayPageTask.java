@@ -1,7 +1,7 @@
 package mServer.crawler.sender.ard.tasks;
 
 import com.google.gson.reflect.TypeToken;
-import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.tool.CancellationToken;
 import java.lang.reflect.Type;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -26,7 +26,7 @@ public class ArdDayPageTask extends ArdTaskBase<ArdFilmInfoDto, CrawlerUrlDTO> {
 
   @Override
   protected void processRestTarget(CrawlerUrlDTO aDTO, WebTarget aTarget) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
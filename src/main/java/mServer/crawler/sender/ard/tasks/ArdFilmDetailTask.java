@@ -1,8 +1,8 @@
 package mServer.crawler.sender.ard.tasks;
 
 import com.google.gson.reflect.TypeToken;
-import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import java.lang.reflect.Type;
 import java.util.List;
@@ -33,7 +33,7 @@ public class ArdFilmDetailTask extends ArdTaskBase<DatenFilm, ArdFilmInfoDto> {
 
   @Override
   protected void processRestTarget(ArdFilmInfoDto aDTO, WebTarget aTarget) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
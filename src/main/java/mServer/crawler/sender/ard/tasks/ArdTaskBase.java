@@ -2,6 +2,9 @@ package mServer.crawler.sender.ard.tasks;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import de.mediathekview.mlib.tool.Log;
 import jakarta.ws.rs.ProcessingException;
@@ -11,6 +14,8 @@ import org.apache.logging.log4j.Logger;
 import jakarta.ws.rs.client.Invocation.Builder;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -31,6 +36,7 @@ public abstract class ArdTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
           }.getType();
 
   private final GsonBuilder gsonBuilder;
+  private Gson gson;
 
   public ArdTaskBase(
           final MediathekReader aCrawler, final ConcurrentLinkedQueue<D> aUrlToCrawlDtos) {
@@ -39,8 +45,16 @@ public abstract class ArdTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
     registerJsonDeserializer(OPTIONAL_ERROR_DTO, new ArdErrorDeserializer());
   }
 
-  protected void registerJsonDeserializer(final Type aType, final Object aDeserializer) {
+  protected synchronized void registerJsonDeserializer(final Type aType, final Object aDeserializer) {
     gsonBuilder.registerTypeAdapter(aType, aDeserializer);
+    gson = null;
+  }
+
+  private synchronized Gson getGson() {
+    if (gson == null) {
+      gson = gsonBuilder.create();
+    }
+    return gson;
   }
 
   protected <A> Optional<A> deserializeOptional(final WebTarget target, final Type type) {
@@ -49,13 +63,14 @@ public abstract class ArdTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
 
   private <A> Optional<A> deserializeUnsafe(final WebTarget target, final Type type) {
     try {
-      final Gson gson = gsonBuilder.create();
       final Response response = executeRequest(target);
       traceRequest(response.getLength());
       if (response.getStatus() == 200) {
-        final String jsonOutput = response.readEntity(String.class);
-        if (isSuccessResponse(jsonOutput, gson, target.getUri().toString())) {
-          return Optional.of(gson.fromJson(jsonOutput, type));
+        // the body is parsed once, the error check and the deserializer use the same tree
+        final JsonElement json = readJson(response);
+        final Gson gson = getGson();
+        if (isSuccessResponse(json, gson, target.getUri().toString())) {
+          return Optional.ofNullable(gson.fromJson(json, type));
         }
       } else {
         final String logText = "ArdTaskBase: request of url "
@@ -64,6 +79,7 @@ public abstract class ArdTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
                 + response.getStatus();
         Log.logHttpError(target.getUri().toString(), response.getStatus());
         LOG.warn(logText);
+        response.close();
       }
     } catch (ProcessingException e) {
       final String logText = "ArdTaskBase: timeout accessing "
@@ -74,13 +90,21 @@ public abstract class ArdTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
     return Optional.empty();
   }
 
+  private static JsonElement readJson(final Response response) {
+    try (Reader reader = openEntityReader(response)) {
+      return JsonParser.parseReader(reader);
+    } catch (IOException e) {
+      throw new JsonParseException(e);
+    }
+  }
+
   protected <A> A deserialize(final WebTarget target, final Type type) {
     return this.<A>deserializeUnsafe(target, type).orElse(null);
   }
 
   private boolean isSuccessResponse(
-          final String jsonOutput, final Gson gson, final String targetUrl) {
-    final Optional<ArdErrorInfoDto> error = gson.fromJson(jsonOutput, OPTIONAL_ERROR_DTO);
+          final JsonElement json, final Gson gson, final String targetUrl) {
+    final Optional<ArdErrorInfoDto> error = gson.fromJson(json, OPTIONAL_ERROR_DTO);
     error.ifPresent(
             ardErrorInfoDto
             -> {
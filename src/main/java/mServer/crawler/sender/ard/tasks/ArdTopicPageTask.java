@@ -1,7 +1,7 @@
 package mServer.crawler.sender.ard.tasks;
 
 import com.google.gson.reflect.TypeToken;
-import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import jakarta.ws.rs.client.WebTarget;
 import mServer.crawler.sender.MediathekReader;
@@ -60,7 +60,7 @@ public class ArdTopicPageTask extends ArdTaskBase<ArdFilmInfoDto, CrawlerUrlDTO>
 
   @Override
   protected void processRestTarget(CrawlerUrlDTO aDTO, WebTarget aTarget) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
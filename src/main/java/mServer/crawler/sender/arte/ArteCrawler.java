@@ -1,6 +1,5 @@
 package mServer.crawler.sender.arte;
 
-import com.google.gson.JsonElement;
 import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.DatenFilm;
 import de.mediathekview.mlib.tool.Log;
@@ -11,111 +10,119 @@ import mServer.crawler.sender.arte.json.ArteVideoInfoDto;
 import mServer.crawler.sender.arte.tasks.ArteDtoVideo2FilmTask;
 import mServer.crawler.sender.arte.tasks.ArteVideoInfoTask;
 import mServer.crawler.sender.arte.tasks.ArteVideoLinkTask;
-import mServer.crawler.sender.base.JsonUtils;
-import mServer.crawler.sender.base.JsoupConnection;
 import mServer.crawler.sender.base.TopicUrlDTO;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.IOException;
-import java.util.Map;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.RecursiveTask;
 
+/**
+ * Crawls all arte languages in one run. The languages are crawled at the same time and share the
+ * rate limit of the arte api, the films get the sender of their language (ARTE.DE, ARTE.FR, ...).
+ * An update of single arte senders only crawls their languages.
+ */
 public class ArteCrawler extends MediathekCrawler {
   private static final Logger LOG = LogManager.getLogger(ArteCrawler.class);
-  private final JsoupConnection jsoupConnection;
 
   public ArteCrawler(FilmeSuchen ssearch, int startPrio) {
-    this(ssearch, startPrio, Const.ARTE_DE);
+    super(ssearch, Const.ARTE_DE,/* threads */ 1, /* urlWarten */ 200, startPrio);
   }
 
-  protected ArteCrawler(FilmeSuchen ssearch, int startPrio, String sender) {
-    super(ssearch, sender,/* threads */ 1, /* urlWarten */ 200, startPrio);
-    this.jsoupConnection = new JsoupConnection(60, 4);
+  private volatile ArteLanguage[] languages = ArteLanguage.values();
+
+  protected ArteLanguage[] getLanguages() {
+    return languages;
   }
 
-  protected ArteLanguage getLanguage() {
-    return ArteLanguage.DE;
+  @Override
+  public boolean checkNameSenderFilmliste(String name) {
+    return findLanguage(name) != null;
   }
 
   @Override
-  protected RecursiveTask<Set<DatenFilm>> createCrawlerTask() {
+  public void senderAuswaehlen(String[] nameSender) {
+    if (nameSender == null) {
+      languages = ArteLanguage.values();
+      return;
+    }
+    final Set<ArteLanguage> selected = EnumSet.noneOf(ArteLanguage.class);
+    for (String name : nameSender) {
+      final ArteLanguage language = findLanguage(name);
+      if (language != null) {
+        selected.add(language);
+      }
+    }
+    languages = selected.toArray(new ArteLanguage[0]);
+  }
 
-    try {
-      final ConcurrentLinkedQueue<TopicUrlDTO> videoUrls = new ConcurrentLinkedQueue<>();
-      videoUrls.addAll(createVideosQueue(getLanguage().toString().toLowerCase()));
-
-      final ArteVideoInfoTask aArteRestVideoInfoTask;
-      // DO NOT overload - maximumUrlsPerTask used to reduce threads to 4
-      aArteRestVideoInfoTask = new ArteVideoInfoTask(this, videoUrls, getMaxPagesForOverview(getLanguage().toString().toLowerCase()));
-      final ConcurrentLinkedQueue<ArteVideoInfoDto> videos = new ConcurrentLinkedQueue<>();
-      videos.addAll(aArteRestVideoInfoTask.fork().join());
-      //
-      Log.sysLog(getSendername() + " Anzahl video info: " + videos.size());
-      //
-      final ConcurrentLinkedQueue<ArteVideoInfoDto> videosWithLink = new ConcurrentLinkedQueue<>();
-      final ArteVideoLinkTask aArteRestVideosTask = new ArteVideoLinkTask(this, videos);
-      videosWithLink.addAll(aArteRestVideosTask.fork().join());
-      //
-      Log.sysLog(getSendername() + " Anzahl video links: " + videosWithLink.size());
-      //
-      return new ArteDtoVideo2FilmTask(this, new ConcurrentLinkedQueue<>(videosWithLink), getSendername());
-
-    } catch (final Exception ex) {
-      LOG.fatal("Exception in {} crawler.", getSendername(), ex);
+  private static ArteLanguage findLanguage(String name) {
+    for (ArteLanguage language : ArteLanguage.values()) {
+      if (language.getSender().equalsIgnoreCase(name)) {
+        return language;
+      }
     }
     return null;
   }
 
-  private ConcurrentLinkedQueue<TopicUrlDTO> createVideosQueue(String language) {
-    final ConcurrentLinkedQueue<TopicUrlDTO> root = new ConcurrentLinkedQueue<>();
-    String rootUrl = String.format(ArteConstants.VIDEOS_URL, 1, language);
-    root.add(new TopicUrlDTO("all videos sorted up", rootUrl));
-    return root;
-  }
+  @Override
+  protected RecursiveTask<Set<DatenFilm>> createCrawlerTask() {
+    return new RecursiveTask<>() {
+      @Override
+      protected Set<DatenFilm> compute() {
+        final List<RecursiveTask<Set<DatenFilm>>> languageTasks = new ArrayList<>();
+        for (ArteLanguage language : getLanguages()) {
+          languageTasks.add(createLanguageTask(language));
+        }
+        invokeAll(languageTasks);
 
-  private int getMaxPagesForOverview(String lang) {
-    final int maxAvailablePages = getNumberOfAvailablePages(lang);
-    final int configuredMaxPages = getMaximumSubpages();
-    if (configuredMaxPages > maxAvailablePages) {
-      return Math.min(ArteConstants.MAX_POSSIBLE_SUBPAGES, maxAvailablePages);
-    } else {
-      return Math.min(ArteConstants.MAX_POSSIBLE_SUBPAGES, configuredMaxPages);
-    }
+        final Set<DatenFilm> films = new HashSet<>();
+        languageTasks.forEach(task -> films.addAll(task.join()));
+        return films;
+      }
+    };
   }
 
-  private int getNumberOfAvailablePages(String lang) {
-    try {
-      String rootUrl = String.format(ArteConstants.VIDEOS_URL, 1, lang);
-      String[] path= {"meta", "videos", "pages"};
-      final Map<String, String> headers = Map.of(
-              "Accept", "application/json",
-              "Content-Type", "application/json",
-              "Authorization", ArteConstants.API_TOKEN
-      );
-      JsonElement element = jsoupConnection.requestBodyAsJsonElement(rootUrl, headers);
-      Optional<Integer> pages = JsonUtils.getElementValueAsInteger(element, path);
-      if (pages.isPresent()) {
-        Log.sysLog("ARTE."+ lang + ": number of pages: " + pages.get());
-        return pages.get();
+  private RecursiveTask<Set<DatenFilm>> createLanguageTask(final ArteLanguage language) {
+    return new RecursiveTask<>() {
+      @Override
+      protected Set<DatenFilm> compute() {
+        try {
+          return crawl(language);
+        } catch (final Exception ex) {
+          LOG.fatal("Exception in {} crawler.", language.getSender(), ex);
+          return new HashSet<>();
+        }
       }
-    } catch (IOException e) {
-      Log.errorLog(45983790, e);
-      LOG.error("getMaxPagesForOverview", e);
-    }
-    return ArteConstants.MAX_POSSIBLE_SUBPAGES;
+    };
   }
 
-  protected int getMaximumSubpages() {
-    if (CrawlerTool.loadLongMax()) {
-      return 10;
-    } else {
-      return 5;
-    }
+  private Set<DatenFilm> crawl(final ArteLanguage language) {
+    final String sender = language.getSender();
+
+    // the overview stops at its last page, so the number of pages need not be requested before
+    final ConcurrentLinkedQueue<TopicUrlDTO> videoUrls = createVideosQueue(language.getLanguageCode().toLowerCase());
+    final int maxSubpages = Math.min(ArteConstants.MAX_POSSIBLE_SUBPAGES, language.getMaximumSubpages(CrawlerTool.loadLongMax()));
+    final ConcurrentLinkedQueue<ArteVideoInfoDto> videos = new ConcurrentLinkedQueue<>(
+            new ArteVideoInfoTask(this, videoUrls, maxSubpages).invoke());
+    Log.sysLog(sender + " Anzahl video info: " + videos.size());
+
+    final ConcurrentLinkedQueue<ArteVideoInfoDto> videosWithLink = new ConcurrentLinkedQueue<>(
+            new ArteVideoLinkTask(this, videos).invoke());
+    Log.sysLog(sender + " Anzahl video links: " + videosWithLink.size());
+
+    return new ArteDtoVideo2FilmTask(this, videosWithLink, sender).invoke();
   }
-}
 
-  
\ No newline at end of file
+  private ConcurrentLinkedQueue<TopicUrlDTO> createVideosQueue(String language) {
+    final ConcurrentLinkedQueue<TopicUrlDTO> root = new ConcurrentLinkedQueue<>();
+    String rootUrl = String.format(ArteConstants.VIDEOS_URL, 1, language);
+    root.add(new TopicUrlDTO("all videos sorted up", rootUrl));
+    return root;
+  }
+}
@@ -1,21 +1,42 @@
 package mServer.crawler.sender.arte;
 
+import de.mediathekview.mlib.Const;
+
 /** The supported arte languages. */
 public enum ArteLanguage {
-  DE("DE"),
-  FR("FR"),
-  EN("EN"),
-  ES("ES"),
-  PL("PL"),
-  IT("IT");
+  DE("DE", Const.ARTE_DE, 5, 10),
+  FR("FR", Const.ARTE_FR, 4, 10),
+  EN("EN", Const.ARTE_EN, 2, 6),
+  ES("ES", Const.ARTE_ES, 2, 6),
+  PL("PL", Const.ARTE_PL, 2, 6),
+  IT("IT", Const.ARTE_IT, 2, 6);
 
   private final String languageCode;
+  private final String sender;
+  private final int maximumSubpagesUpdate;
+  private final int maximumSubpagesFull;
 
-  ArteLanguage(final String aLanguageCode) {
+  ArteLanguage(final String aLanguageCode, final String aSender, final int aMaximumSubpagesUpdate, final int aMaximumSubpagesFull) {
     languageCode = aLanguageCode;
+    sender = aSender;
+    maximumSubpagesUpdate = aMaximumSubpagesUpdate;
+    maximumSubpagesFull = aMaximumSubpagesFull;
   }
 
   public String getLanguageCode() {
     return languageCode;
   }
+
+  /** @return the sender of the films in this language. */
+  public String getSender() {
+    return sender;
+  }
+
+  /**
+   * @param aFull true for a complete crawl, false for an update.
+   * @return the number of overview pages to load.
+   */
+  public int getMaximumSubpages(final boolean aFull) {
+    return aFull ? maximumSubpagesFull : maximumSubpagesUpdate;
+  }
 }
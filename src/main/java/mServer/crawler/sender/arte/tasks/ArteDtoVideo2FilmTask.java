@@ -1,7 +1,7 @@
 package mServer.crawler.sender.arte.tasks;
 
-import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import mServer.crawler.CrawlerTool;
 import mServer.crawler.FilmeSuchen;
@@ -48,14 +48,9 @@ public class ArteDtoVideo2FilmTask extends AbstractRecursivConverterTask<DatenFi
     return new ArteDtoVideo2FilmTask(crawler, aElementsToProcess, sender);
   }
 
-  @Override
-  protected Integer getMaxElementsToProcess() {
-    return 50;
-  }
-
   @Override
   protected void processElement(ArteVideoInfoDto aElement) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
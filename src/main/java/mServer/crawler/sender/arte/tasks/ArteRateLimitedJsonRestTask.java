@@ -1,8 +1,7 @@
 package mServer.crawler.sender.arte.tasks;
 
-import com.google.common.util.concurrent.RateLimiter;
-import com.google.gson.Gson;
-import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.tool.CancellationToken;
+import de.mediathekview.mlib.tool.HostRateController;
 import de.mediathekview.mlib.tool.Log;
 import jakarta.ws.rs.client.Invocation.Builder;
 import jakarta.ws.rs.client.WebTarget;
@@ -16,12 +15,11 @@ import mServer.tool.MserverDaten;
 
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.TimeUnit;
 
 public abstract class ArteRateLimitedJsonRestTask<T, R, D extends CrawlerUrlDTO> extends AbstractJsonRestTask<T, R, D> {
   private static final long serialVersionUID = 1L;
-  private static final RateLimiter rateLimiter = RateLimiter.create(MserverDaten.getArteRateLimit());
-  private static final RateLimiter opaApirateLimiter = RateLimiter.create(0.2);
+  private static final String OPA_API_PATH = "/api/opa/";
+  private static final double OPA_API_RATE_LIMIT = 0.2;
 
   protected ArteRateLimitedJsonRestTask(MediathekReader aCrawler, ConcurrentLinkedQueue<D> urlToCrawlDTOs, Optional<String> authKey) {
     super(aCrawler, urlToCrawlDTOs, authKey);
@@ -33,12 +31,14 @@ public abstract class ArteRateLimitedJsonRestTask<T, R, D extends CrawlerUrlDTO>
     int maxRetries = 3;
     boolean stop = false;
 
-    while (!stop && !Config.getStop()) {
-      // Apply rate limiting before each request (including retries)
-      if (aTarget.getUri().toString().contains("api.arte.tv/api/opa/")) {
-        opaApirateLimiter.acquire();
+    while (!stop && !CancellationToken.current().isCancelled()) {
+      // Apply rate limiting before each request (including retries); after a 429 this waits as
+      // long as the server asked for in Retry-After
+      final String url = aTarget.getUri().toString();
+      if (url.contains("api.arte.tv" + OPA_API_PATH)) {
+        HostRateController.getInstance().acquire(url, OPA_API_PATH, OPA_API_RATE_LIMIT);
       } else {
-        rateLimiter.acquire();
+        HostRateController.getInstance().acquire(url, MserverDaten.getArteRateLimit());
       }
 
       Builder request = aTarget.request();
@@ -51,21 +51,13 @@ public abstract class ArteRateLimitedJsonRestTask<T, R, D extends CrawlerUrlDTO>
         traceRequest(response.getLength());
 
         if (response.getStatus() == 200) {
-          gsonBuilder.registerTypeAdapter(getType(), getParser(aDTO));
-          final Gson gson = gsonBuilder.create();
-          final String jsonOutput = response.readEntity(String.class);
-          final R responseObj = gson.fromJson(jsonOutput, getType());
-          postProcessing(responseObj, aDTO);
+          postProcessing(deserialize(response, aDTO), aDTO);
           stop = true;
           // Check if we got a 429 and have retries left
         } else if (response.getStatus() == 429 && retryCount < maxRetries) {
           String retryAfter = response.getHeaderString("Retry-After");
           Log.sysLog("429: " + aDTO.getUrl() + " - retry after: " + retryAfter);
           retryCount++;
-          try {
-            TimeUnit.MILLISECONDS.sleep(60000);
-          } catch (InterruptedException ignored) {
-          }
         } else {
           FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLER);
           FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLVERSUCHE);
@@ -28,7 +28,6 @@ public class ArteVideoInfoTask
     extends ArteRateLimitedJsonRestTask<ArteVideoInfoDto, PagedElementListDTO<ArteVideoInfoDto>, TopicUrlDTO> {
   private static final long serialVersionUID = 1L;
   protected final transient Logger log = LogManager.getLogger(this.getClass());
-  protected transient Optional<AbstractRecursivConverterTask<ArteVideoInfoDto, TopicUrlDTO>> nextPageTask = Optional.empty();
   protected int maxSubpages;
   
   public ArteVideoInfoTask(MediathekReader crawler, ConcurrentLinkedQueue<TopicUrlDTO> urlToCrawlDTOs, int maxSubpages) {
@@ -46,19 +45,21 @@ public class ArteVideoInfoTask
     return new TypeToken<PagedElementListDTO<ArteVideoInfoDto>>() {}.getType();
   }
 
-  protected void postProcessingNextPage(PagedElementListDTO<ArteVideoInfoDto> aResponseObj) {
+  protected Optional<AbstractRecursivConverterTask<ArteVideoInfoDto, TopicUrlDTO>> postProcessingNextPage(PagedElementListDTO<ArteVideoInfoDto> aResponseObj) {
     if (aResponseObj.getNextPage().isEmpty()) {
-      return;
+      return Optional.empty();
     }
     if (aResponseObj.getNextPage().get().contains("age="+maxSubpages)) {
       log.debug("stop at page url {} due to limit {}", aResponseObj.getNextPage().get(), maxSubpages);
-      return;
+      return Optional.empty();
     }
     
     final ConcurrentLinkedQueue<TopicUrlDTO> nextPageLinks = new ConcurrentLinkedQueue<>();
     nextPageLinks.add(new TopicUrlDTO(aResponseObj.getNextPage().get(), aResponseObj.getNextPage().get()));
-    nextPageTask = Optional.of(createNewOwnInstance(nextPageLinks));
-    nextPageTask.get().fork();
+    // local, the elements of this task may be processed concurrently
+    final AbstractRecursivConverterTask<ArteVideoInfoDto, TopicUrlDTO> nextPageTask = createNewOwnInstance(nextPageLinks);
+    nextPageTask.fork();
+    return Optional.of(nextPageTask);
   }
 
   protected void postProcessingElements(Set<ArteVideoInfoDto> elements) {
@@ -69,7 +70,7 @@ public class ArteVideoInfoTask
   
   @Override
   protected void postProcessing(PagedElementListDTO<ArteVideoInfoDto> aResponseObj, TopicUrlDTO aDTO) {
-    postProcessingNextPage(aResponseObj);
+    final Optional<AbstractRecursivConverterTask<ArteVideoInfoDto, TopicUrlDTO>> nextPageTask = postProcessingNextPage(aResponseObj);
     postProcessingElements(aResponseObj.getElements());
     nextPageTask.ifPresent(paginationResults -> postProcessingElements(paginationResults.join()));
 
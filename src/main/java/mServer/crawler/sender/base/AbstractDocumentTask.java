@@ -1,6 +1,6 @@
 package mServer.crawler.sender.base;
 
-import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
@@ -53,16 +53,15 @@ public abstract class AbstractDocumentTask<T, D extends CrawlerUrlDTO>
 
   @Override
   protected void processElement(final D aUrlDTO) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
     try {
-      // maxBodySize(0)=unlimited
-      // necessary for ORF documents which are larger than the default size
-      final Document document = jsoupConnection.getConnection(aUrlDTO.getUrl())
-              .timeout((int) TimeUnit.SECONDS.toMillis(60))
-              .maxBodySize(0).get();
+      // the body size is not limited
+      // necessary for ORF documents which are larger than the default size of JSOUP
+      final Document document = jsoupConnection.getDocumentTimeoutAfter(aUrlDTO.getUrl(),
+              (int) TimeUnit.SECONDS.toMillis(60));
       traceRequest();
       processDocument(aUrlDTO, document);
     } catch (final HttpStatusException httpStatusError) {
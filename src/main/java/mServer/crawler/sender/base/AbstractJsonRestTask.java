@@ -2,6 +2,9 @@ package mServer.crawler.sender.base;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParser;
 import jakarta.ws.rs.client.Invocation.Builder;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Response;
@@ -9,6 +12,8 @@ import mServer.crawler.FilmeSuchen;
 import mServer.crawler.RunSender;
 import mServer.crawler.sender.MediathekReader;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -26,6 +31,7 @@ public abstract class AbstractJsonRestTask<T, R, D extends CrawlerUrlDTO>
   protected static final String ENCODING_GZIP = "gzip";
   private static final long serialVersionUID = -1090560363478964885L;
   protected final transient GsonBuilder gsonBuilder;
+  private transient Gson gson;
 
   protected AbstractJsonRestTask(
           final MediathekReader aCrawler,
@@ -35,6 +41,9 @@ public abstract class AbstractJsonRestTask<T, R, D extends CrawlerUrlDTO>
     gsonBuilder = new GsonBuilder();
   }
 
+  /**
+   * The parser for {@link #getType()}. It is requested once per task instance, for the first DTO.
+   */
   protected abstract Object getParser(D aDTO);
 
   protected abstract Type getType();
@@ -45,8 +54,22 @@ public abstract class AbstractJsonRestTask<T, R, D extends CrawlerUrlDTO>
 
   @Override
   protected void processRestTarget(final D aDTO, final WebTarget aTarget) {
-    gsonBuilder.registerTypeAdapter(getType(), getParser(aDTO));
-    final Gson gson = gsonBuilder.create();
+    final Response response = executeRequest(aDTO, aTarget);
+    if (response.getStatus() == 200) {
+      postProcessing(deserialize(response, aDTO), aDTO);
+    } else {
+      onHttpError(aDTO, aTarget, response);
+    }
+  }
+
+  /**
+   * Sends the request with the auth key and counts it.
+   *
+   * @param aDTO the DTO of the request.
+   * @param aTarget the target of the request.
+   * @return the response, not yet read.
+   */
+  protected Response executeRequest(final D aDTO, final WebTarget aTarget) {
     Builder request = aTarget.request();
     final Optional<String> authKey = getAuthKey();
     if (authKey.isPresent()) {
@@ -55,15 +78,58 @@ public abstract class AbstractJsonRestTask<T, R, D extends CrawlerUrlDTO>
 
     final Response response = createResponse(request, aDTO);
     traceRequest(response.getLength());
-    if (response.getStatus() == 200) {
-      final String jsonOutput = response.readEntity(String.class);
-      final R responseObj = gson.fromJson(jsonOutput, getType());
-      postProcessing(responseObj, aDTO);
-    } else {
-      FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLER);
-      FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLVERSUCHE);
+    return response;
+  }
+
+  /**
+   * Counts a response which is not successful, passes it to {@link #handleHttpError} and closes it.
+   */
+  protected void onHttpError(final D aDTO, final WebTarget aTarget, final Response response) {
+    FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLER);
+    FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLVERSUCHE);
+    try {
       handleHttpError(aDTO, aTarget.getUri(), response);
+    } finally {
+      response.close();
+    }
+  }
+
+  /**
+   * Deserializes the body of the response directly from the stream and closes the response.
+   *
+   * @param response the successful response.
+   * @param aDTO the DTO of the request.
+   * @return the deserialized object, null for an empty body.
+   */
+  protected R deserialize(final Response response, final D aDTO) {
+    // an unchanged response from the HTTP cache does not need to be parsed again, the parser
+    // still creates new objects from the cached tree, so the tasks never share them
+    final Optional<String> key = ParsedResponseCache.key(getClass(), aDTO.getUrl(), response);
+    if (key.isPresent() && ParsedResponseCache.isRevalidated(response)) {
+      final Optional<JsonElement> parsed = ParsedResponseCache.getInstance().get(key.get());
+      if (parsed.isPresent()) {
+        response.close();
+        return getGson(aDTO).fromJson(parsed.get(), getType());
+      }
+    }
+    final JsonElement json;
+    try (Reader reader = openEntityReader(response)) {
+      json = JsonParser.parseReader(reader);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+    if (key.isPresent() && !json.isJsonNull()) {
+      ParsedResponseCache.getInstance().put(key.get(), json);
+    }
+    return getGson(aDTO).fromJson(json, getType());
+  }
+
+  private synchronized Gson getGson(final D aDTO) {
+    if (gson == null) {
+      gsonBuilder.registerTypeAdapter(getType(), getParser(aDTO));
+      gson = gsonBuilder.create();
     }
+    return gson;
   }
 
   protected Response createResponse(final Builder request, final D dto) {
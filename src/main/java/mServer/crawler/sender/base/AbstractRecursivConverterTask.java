@@ -1,16 +1,40 @@
 package mServer.crawler.sender.base;
 
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.CancellationToken;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.RecursiveTask;
+import mServer.crawler.CrawlScheduler;
 import mServer.crawler.sender.MediathekReader;
 
 /**
  * This task is based on {@link RecursiveTask} and takes a
- * {@link ConcurrentLinkedQueue} of {@link D}. It splits the elements to process
- * on instances of it self based on the crawler configuration and calls the
+ * {@link ConcurrentLinkedQueue} of {@link D} and calls the
  * {@link this#processElement(Object))} for each.
+ * <p>
+ * The queue is the frontier of the task: instead of splitting it into copies, the task forks
+ * workers which take one element after another from it, at most one worker per thread of the pool
+ * and per element. A free thread steals a worker and so picks up the next single element, a slow
+ * element only holds up its own worker. How many elements of a crawler are in flight at once is
+ * bounded by its {@link CrawlScheduler.Slot}. As the workers share this instance,
+ * {@link #processElement(Object)} may be called concurrently and must only keep state in local
+ * variables or in thread-safe fields like {@link #taskResults}.
+ * <p>
+ * The elements are processed with the {@link CancellationToken} of the crawler bound to the
+ * thread, so its HTTP requests are aborted when the crawler is cancelled. A cancelled task stops
+ * processing, the results found so far are still returned.
+ * <p>
+ * Films added to {@link #taskResults} are reported to the crawler at once
+ * ({@link MediathekReader#filmGefunden(DatenFilm)}), so the checkpoint of a running crawler already
+ * contains them before the task tree has finished.
  *
  * @author Nicklas Wiegandt (Nicklas2751)<br>
  * <b>Mail:</b> nicklas@wiegandt.eu<br>
@@ -40,40 +64,111 @@ public abstract class AbstractRecursivConverterTask<T, D> extends RecursiveTask<
           final ConcurrentLinkedQueue<D> aUrlToCrawlDTOs) {
     crawler = aCrawler;
     elementsToProcess = aUrlToCrawlDTOs;
-    taskResults = ConcurrentHashMap.newKeySet();
+    taskResults = aCrawler == null ? ConcurrentHashMap.newKeySet() : new FoundFilms<>(aCrawler);
   }
 
-  private ConcurrentLinkedQueue<D> createSubSet(final ConcurrentLinkedQueue<D> aBaseQueue) {
-    final int halfSize = aBaseQueue.size() / 2;
-    final ConcurrentLinkedQueue<D> elementsToCompute = new ConcurrentLinkedQueue<>();
-    for (int i = 0; i < halfSize; i++) {
-      elementsToCompute.offer(aBaseQueue.poll());
-    }
-    return elementsToCompute;
+  private CancellationToken getCancellation() {
+    return crawler == null ? CancellationToken.current() : crawler.getCancellation();
   }
 
-  private void processElements(final ConcurrentLinkedQueue<D> aElementsToProcess) {
-    D elementToProcess;
-    while ((elementToProcess = aElementsToProcess.poll()) != null) {
-      processElement(elementToProcess);
+  private void processElements() {
+    // the share of the crawler in the shared pool, not set for crawlers outside of a crawl run
+    final CrawlScheduler.Slot slot = crawler == null ? null : crawler.getSchedulerSlot();
+    final CancellationToken cancellation = getCancellation();
+    try (CancellationToken.Scope ignored = cancellation.bind()) {
+      D elementToProcess;
+      while (!cancellation.isCancelled() && (elementToProcess = elementsToProcess.poll()) != null) {
+        if (slot == null) {
+          processElement(elementToProcess);
+          continue;
+        }
+        slot.acquire();
+        try {
+          processElement(elementToProcess);
+        } finally {
+          slot.release();
+        }
+      }
     }
   }
 
   @Override
   protected Set<T> compute() {
-    if (elementsToProcess.size() <= getMaxElementsToProcess()) {
-      processElements(elementsToProcess);
-    } else {
-      final AbstractRecursivConverterTask<T, D> rightTask
-              = createNewOwnInstance(createSubSet(elementsToProcess));
-      final AbstractRecursivConverterTask<T, D> leftTask = createNewOwnInstance(elementsToProcess);
-      leftTask.fork();
-      taskResults.addAll(rightTask.compute());
-      taskResults.addAll(leftTask.join());
+    if (getCancellation().isCancelled()) {
+      return taskResults;
+    }
+    final ForkJoinPool pool = getPool();
+    final int parallelism = pool == null ? ForkJoinPool.getCommonPoolParallelism() : pool.getParallelism();
+    final int workerCount = Math.min(elementsToProcess.size(), parallelism) - 1;
+    final List<Worker> workers = new ArrayList<>(Math.max(0, workerCount));
+    for (int i = 0; i < workerCount; i++) {
+      final Worker worker = new Worker();
+      worker.fork();
+      workers.add(worker);
     }
+    processElements();
+    // a worker which was not stolen yet finds the frontier empty and returns at once
+    workers.forEach(Worker::join);
     return taskResults;
   }
 
+  /**
+   * Takes elements from the frontier of the task until it is empty.
+   */
+  private final class Worker extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void compute() {
+      processElements();
+    }
+  }
+
+  /**
+   * The results of a task, every film added is reported to the crawler.
+   */
+  private static final class FoundFilms<T> extends AbstractSet<T> {
+
+    private final Set<T> results = ConcurrentHashMap.newKeySet();
+    private final MediathekReader crawler;
+
+    private FoundFilms(final MediathekReader aCrawler) {
+      crawler = aCrawler;
+    }
+
+    @Override
+    public boolean add(final T aElement) {
+      if (!results.add(aElement)) {
+        return false;
+      }
+      if (aElement instanceof DatenFilm) {
+        crawler.filmGefunden((DatenFilm) aElement);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean contains(final Object aElement) {
+      return results.contains(aElement);
+    }
+
+    @Override
+    public boolean remove(final Object aElement) {
+      return results.remove(aElement);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return results.iterator();
+    }
+
+    @Override
+    public int size() {
+      return results.size();
+    }
+  }
+
   /**
    * In this method you just have to create a new instance of yourself.
    *
@@ -84,8 +179,6 @@ public abstract class AbstractRecursivConverterTask<T, D> extends RecursiveTask<
   protected abstract AbstractRecursivConverterTask<T, D> createNewOwnInstance(
           ConcurrentLinkedQueue<D> aElementsToProcess);
 
-  protected abstract Integer getMaxElementsToProcess();
-
   /**
    * In this method you have to use the element {@link D} to create a object of
    * the return type {@link T}. Add the results to {@link #taskResults}.
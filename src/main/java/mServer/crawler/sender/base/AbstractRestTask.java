@@ -1,14 +1,25 @@
 package mServer.crawler.sender.base;
 
-import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
+import de.mediathekview.mlib.tool.MVHttpClient;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import mServer.crawler.sender.MediathekReader;
+import okhttp3.OkHttpClient;
+import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.filter.EncodingFilter;
 import org.glassfish.jersey.message.DeflateEncoder;
 import org.glassfish.jersey.message.GZipEncoder;
@@ -16,7 +27,8 @@ import org.glassfish.jersey.message.GZipEncoder;
 /**
  * This task is based on {@link AbstractUrlTask} which takes a
  * {@link ConcurrentLinkedQueue} of {@link D} and loads the URL with REST as
- * {@link WebTarget}.
+ * {@link WebTarget}. All tasks share one {@link Client} which sends the
+ * requests with the pooled {@link MVHttpClient}.
  *
  * @param <T> The type of objects which will be created from this task.
  * @param <D> A sub type of {@link CrawlerUrlDTO} which this task will use to
@@ -32,20 +44,30 @@ public abstract class AbstractRestTask<T, D extends CrawlerUrlDTO> extends Abstr
   protected static final String HEADER_CONTENT_TYPE = "Content-Type";
   protected static final String APPLICATION_JSON = "application/json";
   protected static final String AUTHORIZATION_BEARER = "Bearer ";
+  private static final int TIMEOUT_SECONDS = 60;
+
+  private static final Client CLIENT = createClient();
 
   protected final transient Optional<String> authKey;
-  private final transient Client client;
 
   protected AbstractRestTask(final MediathekReader aCrawler,
           final ConcurrentLinkedQueue<D> aUrlToCrawlDTOs, final Optional<String> aAuthKey) {
     super(aCrawler, aUrlToCrawlDTOs);
     authKey = aAuthKey;
+  }
 
-    client = ClientBuilder.newBuilder()
-            .readTimeout(60, TimeUnit.SECONDS).build();
+  private static Client createClient() {
+    // like the former Jersey connector only the single reads are limited, not the whole call with the body
+    final OkHttpClient httpClient = MVHttpClient.getInstance().getClient(TIMEOUT_SECONDS).newBuilder()
+            .callTimeout(0, TimeUnit.SECONDS)
+            .build();
+    final ClientConfig config = new ClientConfig()
+            .connectorProvider(new OkHttpConnectorProvider(httpClient));
+    final Client client = ClientBuilder.newClient(config);
     client.register(EncodingFilter.class);
     client.register(GZipEncoder.class);
     client.register(DeflateEncoder.class);
+    return client;
   }
 
   /**
@@ -60,7 +82,7 @@ public abstract class AbstractRestTask<T, D extends CrawlerUrlDTO> extends Abstr
 
   @Override
   protected void processElement(final D aDTO) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
@@ -79,7 +101,31 @@ public abstract class AbstractRestTask<T, D extends CrawlerUrlDTO> extends Abstr
    * @return the {@link WebTarget} to access the url.
    */
   protected WebTarget createWebTarget(final String aUrl) {
-    return client.target(aUrl);
+    return CLIENT.target(aUrl);
+  }
+
+  /**
+   * Opens the body of the response as {@link Reader} to deserialize it without
+   * reading it into a String first. Closing the reader closes the response.
+   *
+   * @param aResponse the response.
+   * @return the reader with the charset of the response, UTF-8 if none is given.
+   */
+  protected static Reader openEntityReader(final Response aResponse) {
+    return new InputStreamReader(aResponse.readEntity(InputStream.class), getCharset(aResponse));
+  }
+
+  private static Charset getCharset(final Response aResponse) {
+    try {
+      final MediaType mediaType = aResponse.getMediaType();
+      final String charset = mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+      if (charset != null && Charset.isSupported(charset)) {
+        return Charset.forName(charset);
+      }
+    } catch (ProcessingException e) {
+      // invalid or several Content-Type headers
+    }
+    return StandardCharsets.UTF_8;
   }
 
   protected Optional<String> getAuthKey() {
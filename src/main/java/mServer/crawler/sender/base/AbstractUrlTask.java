@@ -31,11 +31,6 @@ public abstract class AbstractUrlTask<T, D extends CrawlerUrlDTO>
     super(aCrawler, aUrlToCrawlDTOs);
   }
 
-  @Override
-  protected Integer getMaxElementsToProcess() {
-    return 100;
-  }
-
   @Deprecated
   protected void processElement(final D aDTO) {
     processElement(aDTO);
@@ -2,50 +2,97 @@ package mServer.crawler.sender.base;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import de.mediathekview.mlib.tool.MVHttpClient;
 import okhttp3.*;
 import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
+import org.jsoup.helper.HttpConnection;
 import org.jsoup.nodes.Document;
 import org.jsoup.parser.Parser;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Helper Class to get rid of static method call for better testability
+ * Helper Class to get rid of static method call for better testability. The documents are loaded
+ * with the pooled {@link MVHttpClient} and parsed with JSOUP.
  */
 public class JsoupConnection {
 
+  private static final int DEFAULT_TIMEOUT = 60;
+  private static final Gson GSON = new Gson();
+
   private final OkHttpClient client;
 
-  @Deprecated
-  public JsoupConnection() { client = null; }
+  public JsoupConnection() {
+    this(DEFAULT_TIMEOUT);
+  }
 
+  /**
+   * @param timeout the timeout in seconds
+   * @param threadPoolSize not used anymore, all connections share one pool
+   */
   public JsoupConnection(final int timeout, final int threadPoolSize) {
-    client =
-            new OkHttpClient.Builder()
-                    .connectTimeout(timeout, TimeUnit.SECONDS)
-                    .readTimeout(timeout, TimeUnit.SECONDS)
-                    .callTimeout(timeout, TimeUnit.SECONDS)
-                    .connectionPool(new ConnectionPool(threadPoolSize, 5L, TimeUnit.MINUTES))
-                    .build();
+    this(timeout);
   }
 
+  public JsoupConnection(final int timeout) {
+    client = MVHttpClient.getInstance().getClient(timeout);
+  }
+
+  /**
+   * A JSOUP connection for special cases; it does not use the shared connection pool, prefer the
+   * other methods.
+   */
   public Connection getConnection(String url) {
     return Jsoup.connect(url);
   }
 
   public Document getDocument(String url) throws IOException {
-    return getConnection(url).get();
+    return requestDocument(url, 0, Parser.htmlParser());
   }
 
   public Document getDocumentTimeoutAfter(String url, int timeoutInMilliseconds) throws IOException {
-    return getConnection(url).timeout(timeoutInMilliseconds).get();
+    return requestDocument(url, timeoutInMilliseconds, Parser.htmlParser());
   }
 
   public Document getDocumentTimeoutAfterAlternativeDocumentType(String url, int timeoutInMilliseconds, Parser parser) throws IOException {
-    return getConnection(url).timeout(timeoutInMilliseconds).parser(parser).get();
+    return requestDocument(url, timeoutInMilliseconds, parser);
+  }
+
+  /**
+   * Request an url and parse the body as JSOUP Document. The size of the body is not limited.
+   *
+   * @param url The url to request.
+   * @param timeoutInMilliseconds the timeout of the whole request, 0 for the timeout of this connection
+   * @param parser the parser for the body
+   * @return the document, its base uri is the url after redirects
+   * @throws HttpStatusException If the response is not successful.
+   * @throws IOException If no connection to the url could be opened.
+   */
+  private Document requestDocument(final String url, final int timeoutInMilliseconds, final Parser parser) throws IOException {
+    // the same user agent as JSOUP, some pages deliver other content to unknown clients
+    final Call call = client.newCall(new Request.Builder().url(url).header("User-Agent", HttpConnection.DEFAULT_UA).build());
+    if (timeoutInMilliseconds > 0) {
+      call.timeout().timeout(timeoutInMilliseconds, TimeUnit.MILLISECONDS);
+    }
+    try (final Response response = call.execute()) {
+      if (!response.isSuccessful()) {
+        throw new HttpStatusException("HTTP error fetching URL", response.code(), url);
+      }
+      final ResponseBody body = response.body();
+      if (body == null) {
+        return Document.createShell(url);
+      }
+      final MediaType contentType = body.contentType();
+      final Charset charset = contentType == null ? null : contentType.charset();
+      // without a charset in the header JSOUP detects it from the document
+      return Jsoup.parse(body.byteStream(), charset == null ? null : charset.name(),
+              response.request().url().toString(), parser);
+    }
   }
 
   /**
@@ -94,6 +141,6 @@ public class JsoupConnection {
    * @throws IOException If no connection to the url could be opened.
    */
   public JsonElement requestBodyAsJsonElement(final String url, final Map<String, String> headerMap) throws IOException {
-    return new Gson().fromJson(requestBodyAsString(url, headerMap), JsonElement.class);
+    return GSON.fromJson(requestBodyAsString(url, headerMap), JsonElement.class);
   }
 }
@@ -0,0 +1,154 @@
+package mServer.crawler.sender.base;
+
+import de.mediathekview.mlib.tool.CancellationToken;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.HttpHeaders;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+import org.glassfish.jersey.message.internal.Statuses;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Lets a Jersey {@link Client} send its requests with an {@link OkHttpClient}, so the REST tasks
+ * use the same connection pool, keep-alive connections and TLS sessions as all other requests.
+ * The connector does not own the OkHttp client, closing the Jersey client leaves it open.
+ */
+public class OkHttpConnectorProvider implements ConnectorProvider {
+
+  private final OkHttpClient client;
+
+  public OkHttpConnectorProvider(final OkHttpClient client) {
+    this.client = client;
+  }
+
+  @Override
+  public Connector getConnector(final Client jaxrsClient, final Configuration runtimeConfig) {
+    return new OkHttpConnector(client);
+  }
+
+  private static class OkHttpConnector implements Connector {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final OkHttpClient client;
+
+    OkHttpConnector(final OkHttpClient client) {
+      this.client = client;
+    }
+
+    @Override
+    public ClientResponse apply(final ClientRequest request) {
+      try {
+        return toClientResponse(request, client.newCall(toRequest(request)).execute());
+      } catch (IOException e) {
+        throw new ProcessingException(e);
+      }
+    }
+
+    @Override
+    public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+      final CompletableFuture<ClientResponse> future = new CompletableFuture<>();
+      final Call call;
+      try {
+        call = client.newCall(toRequest(request));
+      } catch (IOException e) {
+        callback.failure(e);
+        future.completeExceptionally(e);
+        return future;
+      }
+      call.enqueue(new Callback() {
+        @Override
+        public void onResponse(@NotNull Call call, @NotNull Response response) {
+          final ClientResponse clientResponse = toClientResponse(request, response);
+          callback.response(clientResponse);
+          future.complete(clientResponse);
+        }
+
+        @Override
+        public void onFailure(@NotNull Call call, @NotNull IOException e) {
+          callback.failure(e);
+          future.completeExceptionally(e);
+        }
+      });
+      return future;
+    }
+
+    @Override
+    public String getName() {
+      return "OkHttp";
+    }
+
+    @Override
+    public void close() {
+      // the client is shared
+    }
+
+    private static Request toRequest(final ClientRequest request) throws IOException {
+      final RequestBody body;
+      if (request.hasEntity()) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        request.setStreamProvider(contentLength -> out);
+        request.writeEntity();
+        final String contentType = request.getHeaderString(HttpHeaders.CONTENT_TYPE);
+        body = RequestBody.create(out.toByteArray(), contentType == null ? null : MediaType.parse(contentType));
+      } else if (requiresBody(request.getMethod())) {
+        body = RequestBody.create(EMPTY, null);
+      } else {
+        body = null;
+      }
+
+      // the token of the calling task, asynchronous requests are executed on other threads
+      final Request.Builder builder = CancellationToken.tag(new Request.Builder())
+          .url(request.getUri().toString())
+          .method(request.getMethod(), body);
+      for (Map.Entry<String, List<String>> header : request.getStringHeaders().entrySet()) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+          for (String value : header.getValue()) {
+            builder.addHeader(header.getKey(), value);
+          }
+        }
+      }
+      return builder.build();
+    }
+
+    private static boolean requiresBody(final String method) {
+      return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method);
+    }
+
+    private static ClientResponse toClientResponse(final ClientRequest request, final Response response) {
+      final ClientResponse clientResponse
+          = new ClientResponse(Statuses.from(response.code(), response.message()), request);
+      clientResponse.setResolvedRequestUri(response.request().url().uri());
+      for (String name : response.headers().names()) {
+        for (String value : response.headers(name)) {
+          clientResponse.getHeaders().add(name, value);
+        }
+      }
+      // the connection goes back to the pool when Jersey has read or closed the stream
+      final ResponseBody body = response.body();
+      clientResponse.setEntityStream(body == null ? InputStream.nullInputStream() : body.byteStream());
+      return clientResponse;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package mServer.crawler.sender.base;
+
+import com.google.gson.JsonElement;
+import de.mediathekview.mlib.tool.HttpResponseCache;
+import jakarta.ws.rs.core.Response;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the parsed JSON trees of responses with an ETag or Last-Modified header, so a task can
+ * reuse them when the {@link HttpResponseCache} answers the next request for the same URL with the
+ * unchanged response, instead of parsing the same JSON again. Only the trees are shared, the tasks
+ * deserialize their own objects from them and must not change the trees. They are kept by soft
+ * references.
+ */
+public final class ParsedResponseCache {
+
+  private static final ParsedResponseCache ourInstance = new ParsedResponseCache();
+
+  private static final int MAX_ENTRIES = 20_000;
+
+  private final Map<String, SoftReference<JsonElement>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, SoftReference<JsonElement>> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  private ParsedResponseCache() {
+  }
+
+  public static ParsedResponseCache getInstance() {
+    return ourInstance;
+  }
+
+  /**
+   * @param parser the class which parses the response, e.g. the task
+   * @param url the url of the request
+   * @param response the response
+   * @return the key of the response, empty without ETag and Last-Modified
+   */
+  public static Optional<String> key(final Class<?> parser, final String url, final Response response) {
+    String validator = response.getHeaderString("ETag");
+    if (validator == null) {
+      validator = response.getHeaderString("Last-Modified");
+    }
+    return validator == null ? Optional.empty() : Optional.of(parser.getName() + ' ' + url + ' ' + validator);
+  }
+
+  /**
+   * @param response the response
+   * @return true, if the response has not changed since it was stored in the {@link HttpResponseCache}
+   */
+  public static boolean isRevalidated(final Response response) {
+    return HttpResponseCache.REVALIDATED.equals(response.getHeaderString(HttpResponseCache.HEADER_CACHE));
+  }
+
+  public synchronized Optional<JsonElement> get(final String key) {
+    final SoftReference<JsonElement> reference = cache.get(key);
+    return reference == null ? Optional.empty() : Optional.ofNullable(reference.get());
+  }
+
+  public synchronized void put(final String key, final JsonElement parsed) {
+    cache.put(key, new SoftReference<>(parsed));
+  }
+
+  public synchronized void clear() {
+    cache.clear();
+  }
+}
@@ -0,0 +1,288 @@
+package mServer.crawler.sender.base;
+
+import de.mediathekview.mlib.tool.CancellationToken;
+import de.mediathekview.mlib.tool.Log;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the steps of a crawl as a pipeline of stages instead of one step after the other. Each
+ * stage has a bounded queue and a fixed number of workers; as soon as a worker has processed a
+ * batch, its results are handed to the next stages, so e.g. film details are loaded while topic
+ * pages are still being read.
+ *
+ * <ul>
+ *   <li>each stage accepts an element only once ({@link Stage#submit(Object)}), so elements found
+ *   by several stages are processed once</li>
+ *   <li>the number of workers limits the concurrent requests of a stage</li>
+ *   <li>a worker waits while the queue of the next stage is full</li>
+ * </ul>
+ * The stages must not form a cycle. {@link #awaitCompletion()} returns early when the pipeline is
+ * closed, its {@link CancellationToken} is cancelled or all workers have died.
+ */
+public class StagePipeline implements AutoCloseable {
+
+  private static final int QUEUE_CAPACITY = 10_000;
+  private static final long POLL_MILLIS = 100;
+
+  private final String name;
+  private final List<Stage<?, ?>> stages = new ArrayList<>();
+  private final List<Thread> workers = new ArrayList<>();
+  /**
+   * Elements accepted by any stage and not yet completely processed.
+   */
+  private final AtomicInteger pending = new AtomicInteger();
+  /**
+   * Workers which are started and have not yet ended.
+   */
+  private final AtomicInteger running = new AtomicInteger();
+  private final Object completion = new Object();
+  private final CancellationToken cancellation;
+  private volatile boolean closed = false;
+
+  /**
+   * @param name         the name, used for the worker threads and the log
+   * @param cancellation the token of the crawl, {@link #awaitCompletion()} stops waiting when it is cancelled
+   */
+  public StagePipeline(final String name, final CancellationToken cancellation) {
+    this.name = name;
+    this.cancellation = cancellation;
+  }
+
+  public StagePipeline(final String name) {
+    this(name, CancellationToken.current());
+  }
+
+  /**
+   * Adds a stage. The results of a batch go to the consumer set with {@link Stage#then(Consumer)}.
+   *
+   * @param stageName   the name, used for the worker threads and the log
+   * @param concurrency the number of workers
+   * @param batchSize   the maximum number of elements a worker processes at once
+   * @param processor   processes a batch on the thread of the worker and returns the results
+   * @return the stage
+   */
+  public <I, O> Stage<I, O> addStage(final String stageName, final int concurrency, final int batchSize,
+          final Function<List<I>, Collection<O>> processor) {
+    final Stage<I, O> stage = new Stage<>(stageName, concurrency, batchSize, processor);
+    stages.add(stage);
+    return stage;
+  }
+
+  /**
+   * Creates a processor which runs the task created for each batch in the pool.
+   *
+   * @param pool        the pool
+   * @param taskFactory creates the task for a batch
+   * @return the processor for {@link #addStage(String, int, int, Function)}
+   */
+  public static <I, O> Function<List<I>, Collection<O>> inPool(final ForkJoinPool pool,
+          final Function<List<I>, ? extends AbstractRecursivConverterTask<O, ?>> taskFactory) {
+    return batch -> {
+      final Set<O> results = pool.invoke(taskFactory.apply(batch));
+      return results == null ? List.of() : results;
+    };
+  }
+
+  /**
+   * Starts the workers of all stages.
+   */
+  public void start() {
+    for (Stage<?, ?> stage : stages) {
+      for (int i = 0; i < stage.concurrency; i++) {
+        final Thread worker = new Thread(stage::run, name + "-" + stage.name + "-" + i);
+        worker.setDaemon(true);
+        workers.add(worker);
+        running.incrementAndGet();
+        worker.start();
+      }
+    }
+  }
+
+  /**
+   * Waits until all submitted elements and the elements derived from them are processed.
+   * Blocks in a way the {@link ForkJoinPool} can compensate for, if called from one of its workers.
+   * Returns early if the pipeline is closed, the crawl is cancelled or no worker is left.
+   *
+   * @return true if all elements are processed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitCompletion() throws InterruptedException {
+    ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+      @Override
+      public boolean block() throws InterruptedException {
+        synchronized (completion) {
+          while (!isReleasable()) {
+            // the token has no callback, so it is checked regularly
+            completion.wait(POLL_MILLIS);
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public boolean isReleasable() {
+        return pending.get() == 0 || isStopped();
+      }
+    });
+    if (pending.get() == 0) {
+      return true;
+    }
+    if (!closed && running.get() == 0) {
+      Log.errorLog(965423188, name + ": all workers have ended, " + pending.get() + " elements are not processed");
+    }
+    return false;
+  }
+
+  private boolean isStopped() {
+    return closed || running.get() == 0 || cancellation.isCancelled();
+  }
+
+  /**
+   * Stops the workers, elements still in the queues are dropped.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    workers.forEach(Thread::interrupt);
+    notifyCompletion();
+  }
+
+  private void notifyCompletion() {
+    synchronized (completion) {
+      completion.notifyAll();
+    }
+  }
+
+  private void done(final int count) {
+    if (pending.addAndGet(-count) == 0) {
+      notifyCompletion();
+    }
+  }
+
+  /**
+   * A stage of the pipeline.
+   *
+   * @param <I> the type of the elements of the stage
+   * @param <O> the type of the results
+   */
+  public final class Stage<I, O> {
+
+    private final String name;
+    private final int concurrency;
+    private final int batchSize;
+    private final Function<List<I>, Collection<O>> processor;
+    private final BlockingQueue<I> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Set<I> submitted = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger processed = new AtomicInteger();
+    private volatile Consumer<O> consumer = result -> {
+    };
+
+    private Stage(final String name, final int concurrency, final int batchSize,
+            final Function<List<I>, Collection<O>> processor) {
+      this.name = name;
+      this.concurrency = concurrency;
+      this.batchSize = batchSize;
+      this.processor = processor;
+    }
+
+    /**
+     * @param next gets each result of this stage, e.g. {@link Stage#submit(Object)} of the next stage
+     * @return this stage
+     */
+    public Stage<I, O> then(final Consumer<O> next) {
+      consumer = next;
+      return this;
+    }
+
+    /**
+     * Adds an element to the queue, waits while the queue is full.
+     *
+     * @param element the element
+     * @return false if the element was submitted to this stage before
+     */
+    public boolean submit(final I element) {
+      if (closed || !submitted.add(element)) {
+        return false;
+      }
+      pending.incrementAndGet();
+      try {
+        queue.put(element);
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        done(1);
+        return false;
+      }
+    }
+
+    /**
+     * @return the number of different elements submitted to this stage
+     */
+    public int getSubmitted() {
+      return submitted.size();
+    }
+
+    /**
+     * @return the number of processed elements
+     */
+    public int getProcessed() {
+      return processed.get();
+    }
+
+    private void run() {
+      try {
+        work();
+      } finally {
+        // also if an Error ends the worker, so awaitCompletion does not wait for it
+        if (running.decrementAndGet() == 0) {
+          notifyCompletion();
+        }
+      }
+    }
+
+    private void work() {
+      final List<I> batch = new ArrayList<>(batchSize);
+      while (!closed) {
+        try {
+          final I first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+          queue.drainTo(batch, batchSize - 1);
+          process(batch);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } finally {
+          if (!batch.isEmpty()) {
+            processed.addAndGet(batch.size());
+            done(batch.size());
+            batch.clear();
+          }
+        }
+      }
+    }
+
+    private void process(final List<I> batch) {
+      try {
+        // the results are passed on before the batch counts as done, so the pipeline never looks finished too early
+        processor.apply(new ArrayList<>(batch)).forEach(consumer);
+      } catch (Exception e) {
+        Log.errorLog(965423187, e, StagePipeline.this.name + " " + name);
+      }
+    }
+  }
+}
@@ -1,12 +1,11 @@
 package mServer.crawler.sender.base;
 
-import de.mediathekview.mlib.tool.MVHttpClient;
-import java.io.IOException;
+import de.mediathekview.mlib.tool.UrlProbeCache;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import okhttp3.Request;
-import okhttp3.Response;
+import java.util.concurrent.CompletableFuture;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -103,23 +102,25 @@ public final class UrlUtils {
   }
 
   /**
-   * checks whether an url exists. uses head request to check.
+   * checks whether an url exists. uses head request to check, the result is cached by
+   * {@link UrlProbeCache}.
    *
    * @param aUrl the url to check
    * @return true if url exists else false.
    */
   public static boolean existsUrl(@NotNull final String aUrl) {
-    boolean result = false;
-
-    Request request = new Request.Builder().head().url(aUrl).build();
-    try (Response response = MVHttpClient.getInstance().getReducedTimeOutClient().newCall(request).execute()) {
-      if (response.isSuccessful()) {
-        result = true;
-      }
-    } catch (IOException ignored) {
-    }
+    return UrlProbeCache.getInstance().head(aUrl).isSuccessful();
+  }
 
-    return result;
+  /**
+   * checks the urls concurrently and returns the first one of the list which exists. The result
+   * is known as soon as all urls before it do not exist, the remaining checks are cancelled then.
+   *
+   * @param aUrls the urls to check, the best one first
+   * @return the first existing url or Optional.empty.
+   */
+  public static CompletableFuture<Optional<String>> findFirstExistingUrl(@NotNull final List<String> aUrls) {
+    return UrlProbeCache.getInstance().firstSuccessful(aUrls);
   }
 
   /**
@@ -1,8 +1,8 @@
 package mServer.crawler.sender.dw;
 
-import com.google.common.util.concurrent.RateLimiter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import de.mediathekview.mlib.tool.HostRateController;
 
 import mServer.crawler.sender.MediathekReader;
 import mServer.crawler.sender.base.AbstractRestTask;
@@ -24,8 +24,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 public abstract class DWTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRestTask<T, D> {
   private static final Logger LOG = LogManager.getLogger(DWTaskBase.class);
 
-  private static final RateLimiter limiter =
-      RateLimiter.create(10.0);
+  private static final double RATE_LIMIT = 10.0;
 
   private final transient GsonBuilder gsonBuilder;
 
@@ -51,6 +50,7 @@ public abstract class DWTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRes
     } else {
       LOG.error(
           "request of url {} failed: {}", aTarget.getUri(), response.getStatus());
+      response.close();
     }
 
     return Optional.empty();
@@ -66,6 +66,7 @@ public abstract class DWTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRes
     } else {
       LOG.error(
           "request of url {} failed: {}", aTarget.getUri(), response.getStatus());
+      response.close();
     }
 
     return null;
@@ -79,7 +80,7 @@ public abstract class DWTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRes
           request.header(
               ZdfConstants.HEADER_AUTHENTIFICATION, AUTHORIZATION_BEARER + authKey.get());
     }
-    limiter.acquire();
+    HostRateController.getInstance().acquire(aTarget.getUri().toString(), RATE_LIMIT);
     return request.header(HEADER_ACCEPT_ENCODING, ENCODING_GZIP).get();
   }
 }
@@ -1,11 +1,12 @@
 package mServer.crawler.sender.kika.tasks;
 
-import com.google.common.util.concurrent.RateLimiter;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.reflect.TypeToken;
 import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.HostRateController;
 import de.mediathekview.mlib.tool.Log;
+import jakarta.ws.rs.client.Invocation.Builder;
 import jakarta.ws.rs.core.Response;
 import mServer.crawler.CrawlerTool;
 import mServer.crawler.sender.MediathekReader;
@@ -37,7 +38,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 public class KikaApiFilmTask extends AbstractJsonRestTask<DatenFilm, KikaApiVideoInfoDto, KikaApiFilmDto> {
   private static final long serialVersionUID = 1L;
   private static final Logger LOG = LogManager.getLogger(KikaApiFilmTask.class);
-  private static final RateLimiter LIMITER = RateLimiter.create(15);
+  private static final double RATE_LIMIT = 15;
   private transient ArdUrlOptimizer ardUrlOptimizer;
   private transient ZdfVideoUrlOptimizer zdfVideoUrlOptimizer;
 
@@ -69,10 +70,14 @@ public class KikaApiFilmTask extends AbstractJsonRestTask<DatenFilm, KikaApiVide
             url));
   }
 
+  @Override
+  protected Response createResponse(final Builder request, final KikaApiFilmDto aDTO) {
+    HostRateController.getInstance().acquire(aDTO.getUrl(), RATE_LIMIT);
+    return super.createResponse(request, aDTO);
+  }
+
   @Override
   protected void postProcessing(KikaApiVideoInfoDto aResponseObj, KikaApiFilmDto aDTO) {
-    //
-    LIMITER.acquire();
     //
     if (aResponseObj.getErrorCode().isPresent()) {
       LOG.error("Error {} : {} for target {} ", aResponseObj.getErrorCode().get(), aResponseObj.getErrorMesssage().orElse(""), aDTO.getUrl());
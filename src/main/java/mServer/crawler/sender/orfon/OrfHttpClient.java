@@ -2,29 +2,26 @@ package mServer.crawler.sender.orfon;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import de.mediathekview.mlib.tool.MVHttpClient;
 import okhttp3.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
+/**
+ * Requests of the ORF crawler, sent with the pooled {@link MVHttpClient}.
+ */
 public class OrfHttpClient {
   private static final Logger LOG = LogManager.getLogger(OrfHttpClient.class);
-  private static final int THREAD_POOL_SIZE = 1;
   private static final int TIMEOUT = 60;
+  private static final Gson GSON = new Gson();
 
   protected OkHttpClient client;
 
   public OrfHttpClient() {
-    client =
-            new OkHttpClient.Builder()
-                    .connectTimeout(TIMEOUT, TimeUnit.SECONDS)
-                    .readTimeout(TIMEOUT, TimeUnit.SECONDS)
-                    .callTimeout(TIMEOUT, TimeUnit.SECONDS)
-                    .connectionPool(new ConnectionPool(THREAD_POOL_SIZE, 5L, TimeUnit.MINUTES))
-                    .build();
+    client = MVHttpClient.getInstance().getClient(TIMEOUT);
   }
 
   /**
@@ -74,6 +71,6 @@ public class OrfHttpClient {
    * @throws IOException If no connection to the url could be opened.
    */
   public JsonElement requestBodyAsJsonElement(final String url, final Map<String, String> headerMap) throws IOException {
-    return new Gson().fromJson(requestBodyAsString(url, headerMap), JsonElement.class);
+    return GSON.fromJson(requestBodyAsString(url, headerMap), JsonElement.class);
   }
 }
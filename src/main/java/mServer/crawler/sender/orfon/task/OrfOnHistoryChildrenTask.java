@@ -9,6 +9,8 @@ import mServer.crawler.sender.orfon.OrfOnBreadCrumsUrlDTO;
 import mServer.crawler.sender.orfon.json.OrfOnHistoryChildrenDeserializer;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -33,21 +35,26 @@ public class OrfOnHistoryChildrenTask extends OrfOnPagedTask {
 
   @Override
   protected void postProcessingElements(Set<OrfOnBreadCrumsUrlDTO> elements, OrfOnBreadCrumsUrlDTO originalDTO) {
+    // first fork all children, so they are requested in parallel, then collect them
+    final List<AbstractRecursivConverterTask<OrfOnBreadCrumsUrlDTO, OrfOnBreadCrumsUrlDTO>> children = new ArrayList<>();
     for (OrfOnBreadCrumsUrlDTO element : elements)  {
       if (element.getUrl().contains("/children")) {
         final ConcurrentLinkedQueue<OrfOnBreadCrumsUrlDTO> moreContentOnNewPage = new ConcurrentLinkedQueue<>();
         moreContentOnNewPage.add(element);
         AbstractRecursivConverterTask<OrfOnBreadCrumsUrlDTO, OrfOnBreadCrumsUrlDTO> resolveChildren = createNewOwnInstance(moreContentOnNewPage);
         resolveChildren.fork();
-        for(OrfOnBreadCrumsUrlDTO moreElements : resolveChildren.join()) {
-          moreElements.setBreadCrumsPath(originalDTO.getBreadCrums());
-          taskResults.add(moreElements);
-        }
+        children.add(resolveChildren);
       } else {
         element.setBreadCrumsPath(originalDTO.getBreadCrums());
         taskResults.add(element);
       }
     }
+    for (AbstractRecursivConverterTask<OrfOnBreadCrumsUrlDTO, OrfOnBreadCrumsUrlDTO> resolveChildren : children) {
+      for(OrfOnBreadCrumsUrlDTO moreElements : resolveChildren.join()) {
+        moreElements.setBreadCrumsPath(originalDTO.getBreadCrums());
+        taskResults.add(moreElements);
+      }
+    }
   }
   
   @Override
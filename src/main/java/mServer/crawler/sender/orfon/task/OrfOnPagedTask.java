@@ -1,46 +1,96 @@
 package mServer.crawler.sender.orfon.task;
 
+import de.mediathekview.mlib.tool.CancellationToken;
+import de.mediathekview.mlib.tool.HostRateController;
 import de.mediathekview.mlib.tool.Log;
+import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.Response;
+import mServer.crawler.CrawlScheduler;
 import mServer.crawler.sender.MediathekReader;
 import mServer.crawler.sender.base.AbstractJsonRestTask;
-import mServer.crawler.sender.base.AbstractRecursivConverterTask;
 import mServer.crawler.sender.base.PagedElementListDTO;
 import mServer.crawler.sender.orfon.OrfOnBreadCrumsUrlDTO;
 import mServer.crawler.sender.orfon.OrfOnConstants;
+import mServer.tool.MserverDaten;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.net.URI;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
 
 // <T, R, D extends CrawlerUrlDTO> extends AbstractRestTask<T, D>
 // return T Class from this task, desirialisation of class R , D , Reasearch in this url
+/**
+ * Walks the pages of an ORF resource in a loop: while the elements of a page are processed, the
+ * next page is already requested in the pool. Every start url (breadcrumb branch) gets its own
+ * task, so the branches are requested in parallel. All requests go through the
+ * {@link HostRateController} with the configured ORF rate.
+ */
 public abstract class OrfOnPagedTask extends AbstractJsonRestTask<OrfOnBreadCrumsUrlDTO, PagedElementListDTO<OrfOnBreadCrumsUrlDTO>, OrfOnBreadCrumsUrlDTO> {
   private static final long serialVersionUID = 1L;
   protected final transient Logger log = LogManager.getLogger(this.getClass());
-  protected transient Optional<AbstractRecursivConverterTask<OrfOnBreadCrumsUrlDTO, OrfOnBreadCrumsUrlDTO>> nextPageTask = Optional.empty();
 
   protected OrfOnPagedTask(MediathekReader crawler, ConcurrentLinkedQueue<OrfOnBreadCrumsUrlDTO> urlToCrawlDTOs) {
     super(crawler, urlToCrawlDTOs, Optional.of(OrfOnConstants.AUTH));
   }
-  
-  protected void postProcessingNextPage(PagedElementListDTO<OrfOnBreadCrumsUrlDTO> aResponseObj, OrfOnBreadCrumsUrlDTO aDTO) {
-    if (aResponseObj.getNextPage().isEmpty()) {
-      return;
+
+  @Override
+  protected void processRestTarget(final OrfOnBreadCrumsUrlDTO aDTO, final WebTarget aTarget) {
+    final Set<String> visited = new HashSet<>();
+    visited.add(aDTO.getUrl());
+    PagedElementListDTO<OrfOnBreadCrumsUrlDTO> page = loadPage(aDTO, aTarget);
+    while (page != null) {
+      ForkJoinTask<PagedElementListDTO<OrfOnBreadCrumsUrlDTO>> nextPageTask = null;
+      final Optional<String> nextPage = page.getNextPage();
+      if (nextPage.isPresent() && visited.add(nextPage.get()) && !crawler.isCancelled()) {
+        final OrfOnBreadCrumsUrlDTO nextPageDTO = new OrfOnBreadCrumsUrlDTO(aDTO.getBreadCrums(), nextPage.get());
+        nextPageTask = ForkJoinTask.adapt(() -> loadPageInPool(nextPageDTO)).fork();
+        log.debug("started paging to url {} for {}", nextPage.get(), aDTO.getUrl());
+      }
+      postProcessingElements(page.getElements(), aDTO);
+      page = nextPageTask == null ? null : nextPageTask.join();
+    }
+  }
+
+  /**
+   * Loads a prefetched page on a worker of the pool, with the share and the cancellation of the
+   * crawler like the elements of the task.
+   */
+  private PagedElementListDTO<OrfOnBreadCrumsUrlDTO> loadPageInPool(final OrfOnBreadCrumsUrlDTO aDTO) {
+    final CrawlScheduler.Slot slot = crawler.getSchedulerSlot();
+    try (CancellationToken.Scope ignored = crawler.getCancellation().bind()) {
+      if (slot == null) {
+        return loadPage(aDTO, createWebTarget(aDTO.getUrl()));
+      }
+      slot.acquire();
+      try {
+        return loadPage(aDTO, createWebTarget(aDTO.getUrl()));
+      } finally {
+        slot.release();
+      }
     }
-    final ConcurrentLinkedQueue<OrfOnBreadCrumsUrlDTO> nextPageLinks = new ConcurrentLinkedQueue<>();
-    final Optional<String> nextPage = aResponseObj.getNextPage();
-    if (nextPage.isPresent()) {
-      nextPageLinks.add(new OrfOnBreadCrumsUrlDTO(aDTO.getBreadCrums(), nextPage.get()));
-      nextPageTask = Optional.of(createNewOwnInstance(nextPageLinks));
-      nextPageTask.get().fork();
-      log.debug("started paging to url {} for {}", nextPage.get(), aDTO.getUrl());
+  }
+
+  /**
+   * @return the page, null for an HTTP error or an empty body
+   */
+  private PagedElementListDTO<OrfOnBreadCrumsUrlDTO> loadPage(final OrfOnBreadCrumsUrlDTO aDTO, final WebTarget aTarget) {
+    if (crawler.isCancelled()) {
+      return null;
+    }
+    HostRateController.getInstance().acquire(aDTO.getUrl(), MserverDaten.getOrfRateLimit());
+    final Response response = executeRequest(aDTO, aTarget);
+    if (response.getStatus() == 200) {
+      return deserialize(response, aDTO);
     }
+    onHttpError(aDTO, aTarget, response);
+    return null;
   }
-  
+
   protected void postProcessingElements(Set<OrfOnBreadCrumsUrlDTO> elements, OrfOnBreadCrumsUrlDTO originalDTO) {
     for (OrfOnBreadCrumsUrlDTO element : elements)  {
       element.setBreadCrumsPath(originalDTO.getBreadCrums());
@@ -50,11 +100,10 @@ public abstract class OrfOnPagedTask extends AbstractJsonRestTask<OrfOnBreadCrum
 
   @Override
   protected void postProcessing(PagedElementListDTO<OrfOnBreadCrumsUrlDTO> aResponseObj, OrfOnBreadCrumsUrlDTO aDTO) {
-    postProcessingNextPage(aResponseObj, aDTO);
+    // the pages are walked in processRestTarget
     postProcessingElements(aResponseObj.getElements(), aDTO);
-    nextPageTask.ifPresent(paginationResults -> postProcessingElements(paginationResults.join(), aDTO));
   }
-  
+
   @Override
   protected void handleHttpError(OrfOnBreadCrumsUrlDTO dto, URI url, Response response) {
     Log.errorLog(874764622, "ORF: http error " + response.getStatus() + ", " + url);
@@ -1,6 +1,6 @@
 package mServer.crawler.sender.sr.tasks;
 
-import com.google.common.util.concurrent.RateLimiter;
+import de.mediathekview.mlib.tool.HostRateController;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import mServer.crawler.sender.MediathekReader;
 import mServer.crawler.sender.base.AbstractDocumentTask;
@@ -11,15 +11,13 @@ public abstract class SrRateLimitedDocumentTask<T, D extends CrawlerUrlDTO> exte
 
   private static final long serialVersionUID = -4077182368484515410L;
 
-  private static final RateLimiter LIMITER = RateLimiter.create(MserverDaten.getSrRateLimit());
-
   public SrRateLimitedDocumentTask(MediathekReader aCrawler, ConcurrentLinkedQueue<D> aUrlToCrawlDTOs) {
     super(aCrawler, aUrlToCrawlDTOs);
   }
 
   @Override
   protected void processElement(D aUrlDTO) {
-    LIMITER.acquire();
+    HostRateController.getInstance().acquire(aUrlDTO.getUrl(), MserverDaten.getSrRateLimit());
     super.processElement(aUrlDTO);
   }
 }
@@ -45,6 +45,7 @@ public class SrfFilmDetailTask extends AbstractRestTask<DatenFilm, CrawlerUrlDTO
       default:
         LOG.error("SrfFilmDetailTask: Error reading url " + aTarget.getUri().toString() + ": " + response.getStatus());
     }
+    response.close();
   }
 
   @Override
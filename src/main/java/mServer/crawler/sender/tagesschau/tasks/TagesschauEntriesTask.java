@@ -1,6 +1,6 @@
 package mServer.crawler.sender.tagesschau.tasks;
 
-import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import mServer.crawler.sender.MediathekReader;
 import mServer.crawler.sender.base.AbstractDocumentTask;
@@ -34,7 +34,7 @@ public class TagesschauEntriesTask extends AbstractDocumentTask<EntryUrlDto, Cra
 
   @Override
   protected void processDocument(CrawlerUrlDTO aUrlDTO, Document aDocument) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
@@ -3,8 +3,8 @@ package mServer.crawler.sender.tagesschau.tasks;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
-import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import mServer.crawler.sender.MediathekReader;
 import mServer.crawler.sender.base.AbstractDocumentTask;
@@ -31,7 +31,7 @@ public class TagesschauVideoTask extends AbstractDocumentTask<DatenFilm, Crawler
 
   @Override
   protected void processDocument(CrawlerUrlDTO aUrlDTO, Document aDocument) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
@@ -2,8 +2,10 @@ package mServer.crawler.sender.zdf;
 
 import mServer.crawler.sender.base.Qualities;
 
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class DownloadDtoFilmConverter {
 
@@ -14,18 +16,19 @@ public class DownloadDtoFilmConverter {
     final Map<Qualities, String> downloadUrls,
     final Optional<ZdfVideoUrlOptimizer> aUrlOptimizer) {
 
+    // the candidates of normal and hd are checked at the same time
+    final Map<Qualities, CompletableFuture<String>> optimizedUrls = new EnumMap<>(Qualities.class);
     for (final Map.Entry<Qualities, String> qualitiesEntry : downloadUrls.entrySet()) {
-      String url = qualitiesEntry.getValue();
+      final String url = qualitiesEntry.getValue();
 
       if (qualitiesEntry.getKey() == Qualities.NORMAL && aUrlOptimizer.isPresent()) {
-        url = aUrlOptimizer.get().getOptimizedUrlNormal(url);
-        qualitiesEntry.setValue(url);
+        optimizedUrls.put(Qualities.NORMAL, aUrlOptimizer.get().getOptimizedUrlNormalAsync(url));
       }
       if (qualitiesEntry.getKey() == Qualities.HD && aUrlOptimizer.isPresent()) {
-        url = aUrlOptimizer.get().getOptimizedUrlHd(url);
-        qualitiesEntry.setValue(url);
+        optimizedUrls.put(Qualities.HD, aUrlOptimizer.get().getOptimizedUrlHdAsync(url));
       }
     }
+    optimizedUrls.forEach((quality, url) -> downloadUrls.put(quality, url.join()));
 
     if (!downloadUrls.containsKey(Qualities.HD) && aUrlOptimizer.isPresent()) {
       final Optional<String> hdUrl
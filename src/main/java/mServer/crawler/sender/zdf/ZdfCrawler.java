@@ -1,6 +1,5 @@
 package mServer.crawler.sender.zdf;
 
-import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.DatenFilm;
 import de.mediathekview.mlib.tool.Log;
@@ -91,7 +90,7 @@ public class ZdfCrawler extends MediathekCrawler {
 
     Log.sysLog("ZDF: letter topics: " + topicUrls.size());
 
-    if (Config.getStop()) {
+    if (isCancelled()) {
       return shows;
     }
 
@@ -100,7 +99,7 @@ public class ZdfCrawler extends MediathekCrawler {
 
     Log.sysLog("ZDF: Pubform urls: " + pubFormUrls.size());
 
-    if (Config.getStop()) {
+    if (isCancelled()) {
       return shows;
     }
 
@@ -112,7 +111,7 @@ public class ZdfCrawler extends MediathekCrawler {
 
     Log.sysLog("ZDF: Pubform topics: " + pubFormUrls.size());
 
-    if (Config.getStop()) {
+    if (isCancelled()) {
       return shows;
     }
 
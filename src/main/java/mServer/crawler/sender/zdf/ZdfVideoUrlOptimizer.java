@@ -1,13 +1,17 @@
 package mServer.crawler.sender.zdf;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import mServer.crawler.sender.base.UrlUtils;
 
 /**
  * tries to find better video qualities than the used ones. checks whether video
- * files with better qualities exists.
+ * files with better qualities exists. All candidates of an url are checked at the
+ * same time, the first existing one in the order of the maps wins.
  */
 public class ZdfVideoUrlOptimizer {
 
@@ -85,6 +89,16 @@ public class ZdfVideoUrlOptimizer {
    * @return the optimized url.
    */
   public String getOptimizedUrlNormal(final String aUrl) {
+    return getOptimizedUrlNormalAsync(aUrl).join();
+  }
+
+  /**
+   * optimizes the normal url without waiting for the checks.
+   *
+   * @param aUrl the normal url.
+   * @return the optimized url.
+   */
+  public CompletableFuture<String> getOptimizedUrlNormalAsync(final String aUrl) {
     return optimize(aUrl, NORMAL_OPTIMIZE);
   }
 
@@ -94,6 +108,15 @@ public class ZdfVideoUrlOptimizer {
    * @return the optimized hd url
    */
   public String getOptimizedUrlHd(final String aUrl) {
+    return getOptimizedUrlHdAsync(aUrl).join();
+  }
+
+  /**
+   * optimizes the hd url without waiting for the checks.
+   * @param aUrl the hd url
+   * @return the optimized hd url
+   */
+  public CompletableFuture<String> getOptimizedUrlHdAsync(final String aUrl) {
     return optimize(aUrl, HD_OPTIMIZE);
   }
 
@@ -104,17 +127,26 @@ public class ZdfVideoUrlOptimizer {
    * @return the hd url or Optional.empty.
    */
   public Optional<String> determineUrlHd(final String aNormalUrl) {
-    final String url = optimize(aNormalUrl, NORMAL_TO_HD);
+    final String url = optimize(aNormalUrl, NORMAL_TO_HD).join();
     if (url == null || url.equalsIgnoreCase(aNormalUrl)) {
       return Optional.empty();
     }
     return Optional.of(url);
   }
 
-  private String optimize(final String aUrl, Map<String, String[]> aOptimizerMap) {
+  private CompletableFuture<String> optimize(final String aUrl, Map<String, String[]> aOptimizerMap) {
+    final List<String> candidates = getCandidates(aUrl, aOptimizerMap);
+    if (candidates.isEmpty()) {
+      return CompletableFuture.completedFuture(aUrl);
+    }
+    return UrlUtils.findFirstExistingUrl(candidates).thenApply(url -> url.orElse(aUrl));
+  }
+
+  private static List<String> getCandidates(final String aUrl, Map<String, String[]> aOptimizerMap) {
+    final List<String> candidates = new ArrayList<>();
     final Optional<String> fileNameOptional = UrlUtils.getFileName(aUrl);
     if (!fileNameOptional.isPresent()) {
-      return aUrl;
+      return candidates;
     }
 
     final String fileName = fileNameOptional.get();
@@ -125,15 +157,11 @@ public class ZdfVideoUrlOptimizer {
         final String baseUrl = aUrl.substring(0, aUrl.indexOf(fileName));
 
         for (String optimizedFileName : entry.getValue()) {
-          String optimizedUrl = baseUrl + fileName.replace(entry.getKey(), optimizedFileName);
-
-          if (UrlUtils.existsUrl(optimizedUrl)) {
-            return optimizedUrl;
-          }
+          candidates.add(baseUrl + fileName.replace(entry.getKey(), optimizedFileName));
         }
       }
     }
 
-    return aUrl;
+    return candidates;
   }
 }
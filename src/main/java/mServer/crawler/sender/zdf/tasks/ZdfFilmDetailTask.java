@@ -1,8 +1,8 @@
 package mServer.crawler.sender.zdf.tasks;
 
 import com.google.gson.reflect.TypeToken;
-import de.mediathekview.mlib.Config;
 import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.tool.CancellationToken;
 import de.mediathekview.mlib.tool.Log;
 import jakarta.ws.rs.client.WebTarget;
 import mServer.crawler.CrawlerTool;
@@ -89,7 +89,7 @@ public class ZdfFilmDetailTask extends ZdfTaskBase<DatenFilm, CrawlerUrlDTO> {
 
   @Override
   protected void processRestTarget(final CrawlerUrlDTO aDto, final WebTarget aTarget) {
-    if (Config.getStop()) {
+    if (CancellationToken.current().isCancelled()) {
       return;
     }
 
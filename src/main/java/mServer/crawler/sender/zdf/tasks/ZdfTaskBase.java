@@ -1,8 +1,9 @@
 package mServer.crawler.sender.zdf.tasks;
 
-import com.google.common.util.concurrent.RateLimiter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import de.mediathekview.mlib.tool.HostRateController;
 import de.mediathekview.mlib.tool.Log;
 import jakarta.ws.rs.client.Invocation.Builder;
 import jakarta.ws.rs.client.WebTarget;
@@ -16,6 +17,8 @@ import mServer.crawler.sender.zdf.ZdfConstants;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -24,9 +27,10 @@ public abstract class ZdfTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
 
   private static final Logger LOG = LogManager.getLogger(ZdfTaskBase.class);
 
-  private static final RateLimiter LIMITER = RateLimiter.create(10);
+  private static final double RATE_LIMIT = 10;
 
   private final transient GsonBuilder gsonBuilder;
+  private transient Gson gson;
 
   public ZdfTaskBase(
           final MediathekReader aCrawler,
@@ -36,18 +40,32 @@ public abstract class ZdfTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
     gsonBuilder = new GsonBuilder();
   }
 
-  protected void registerJsonDeserializer(final Type aType, final Object aDeserializer) {
+  protected synchronized void registerJsonDeserializer(final Type aType, final Object aDeserializer) {
     gsonBuilder.registerTypeAdapter(aType, aDeserializer);
+    gson = null;
+  }
+
+  private synchronized Gson getGson() {
+    if (gson == null) {
+      gson = gsonBuilder.create();
+    }
+    return gson;
+  }
+
+  private <T> T fromJson(final Response response, final Type aType) {
+    try (Reader reader = openEntityReader(response)) {
+      return getGson().fromJson(reader, aType);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
   }
 
   protected <T> Optional<T> deserializeOptional(final WebTarget aTarget, final Type aType) {
 
-    final Gson gson = gsonBuilder.create();
     final Response response = executeRequest(aTarget);
     traceRequest(response.getLength());
     if (response.getStatus() == 200) {
-      final String jsonOutput = response.readEntity(String.class);
-      return gson.fromJson(jsonOutput, aType);
+      return fromJson(response, aType);
     } else {
       FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLER);
       FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLVERSUCHE);
@@ -56,6 +74,7 @@ public abstract class ZdfTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
               aTarget.getUri(),
               response.getStatus());
       Log.sysLog(response.getStatus() + " - " + aTarget.getUri().toString());
+      response.close();
     }
 
     return Optional.empty();
@@ -63,12 +82,10 @@ public abstract class ZdfTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
 
   protected <T> T deserialize(final WebTarget aTarget, final Type aType) {
 
-    final Gson gson = gsonBuilder.create();
     final Response response = executeRequest(aTarget);
     traceRequest(response.getLength());
     if (response.getStatus() == 200) {
-      final String jsonOutput = response.readEntity(String.class);
-      return gson.fromJson(jsonOutput, aType);
+      return fromJson(response, aType);
     } else {
       FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLER);
       FilmeSuchen.listeSenderLaufen.inc(crawler.getRunIdentifier(), RunSender.Count.FEHLVERSUCHE);
@@ -77,6 +94,7 @@ public abstract class ZdfTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
               aTarget.getUri(),
               response.getStatus());
       Log.sysLog(response.getStatus() + " - " + aTarget.getUri().toString());
+      response.close();
     }
 
     return null;
@@ -90,7 +108,7 @@ public abstract class ZdfTaskBase<T, D extends CrawlerUrlDTO> extends AbstractRe
                       ZdfConstants.HEADER_AUTHENTIFICATION, AUTHORIZATION_BEARER + authKey.get());
     }
 
-    LIMITER.acquire();
+    HostRateController.getInstance().acquire(aTarget.getUri().toString(), RATE_LIMIT);
     // todo funktioniert short noch? 3sat noch?
     return request.header(HEADER_ACCEPT_ENCODING, ENCODING_GZIP).header("zdf-app-id", "ffw-mt-web-6b266f6f").header("Content-Type", "application/json").get();
   }
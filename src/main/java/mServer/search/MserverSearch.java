@@ -39,6 +39,8 @@ import mServer.tool.MserverLog;
 
 public class MserverSearch {
 
+    private static final int WARTEN_INTERRUPT_SEKUNDEN = 30;
+
     Crawler crawler;
     int wartenLang = 30; //30;
     int wartenkurz = 20; //20;
@@ -49,7 +51,6 @@ public class MserverSearch {
         CrawlerConfig.dirFilme = MserverDaten.getVerzeichnisFilme();
     }
 
-    @SuppressWarnings("deprecation")
     public boolean filmeSuchen(MserverSearchTask aktSearchTask) {
         boolean ret = true;
         try {
@@ -88,6 +89,7 @@ public class MserverSearch {
 
             Thread t = new Thread(crawler);
             t.setName("Crawler");
+            t.setDaemon(true); // ein hängender Suchlauf hält das Programm nicht auf
             t.start();
             MserverLog.systemMeldung("Filme suchen gestartet");
             // ===========================================
@@ -130,15 +132,25 @@ public class MserverSearch {
                         MserverLog.systemMeldung("");
                         MserverLog.systemMeldung("================================");
                         MserverLog.systemMeldung("================================");
-                        MserverLog.systemMeldung("und noch gekillt");
+                        MserverLog.systemMeldung("läuft noch, wird unterbrochen");
                         MserverLog.systemMeldung("Zeit: " + FastDateFormat.getInstance("dd.MM.yyyy HH:mm:ss").format(new Date()));
                         MserverLog.systemMeldung("================================");
                         MserverLog.systemMeldung("================================");
                         MserverLog.systemMeldung("");
                         ret = false;
                     }
-                    //jetzt ist Schicht im Schacht
-                    t.stop();
+                    //jetzt ist Schicht im Schacht, die Filme der hängenden Sender bleiben für den nächsten Lauf
+                    if (crawler != null) {
+                        crawler.checkpoint();
+                    }
+                    if (t.isAlive()) {
+                        // die Anfragen sind schon abgebrochen, hier hängt nur noch das Warten oder Schreiben
+                        t.interrupt();
+                        TimeUnit.SECONDS.timedJoin(t, WARTEN_INTERRUPT_SEKUNDEN);
+                        if (t.isAlive()) {
+                            MserverLog.fehlerMeldung(915147624, MserverSearch.class.getName(), "Der Suchlauf beendet sich nicht");
+                        }
+                    }
                 }
             }
         } catch (Exception ex) {
@@ -93,6 +93,122 @@ public class MserverDaten {
     }
   }
 
+  public static double getOrfRateLimit() {
+    String rateLimitValue = system[MserverKonstanten.SYSTEM_ORF_RATELIMIT_NR];
+    if (rateLimitValue == null || rateLimitValue.trim().equals("")) {
+      return 10.0;
+    }
+
+    try {
+      return Double.parseDouble(rateLimitValue.trim());
+    } catch (NumberFormatException ignored) {
+      MserverLog.fehlerMeldung(963487227, MserverDaten.class.getName(), new String[]{"ORF rate limit falsch: ", rateLimitValue});
+      return 10.0;
+    }
+  }
+
+  public static int getFilmEnrichParallelism() {
+    String value = system[MserverKonstanten.SYSTEM_FILM_ENRICH_PARALLELISM_NR];
+    if (value == null || value.trim().equals("")) {
+      return 16;
+    }
+
+    try {
+      return Math.max(1, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ignored) {
+      MserverLog.fehlerMeldung(963487220, MserverDaten.class.getName(), new String[]{"Film enrich parallelism falsch: ", value});
+      return 16;
+    }
+  }
+
+  public static int getCrawlerParallelism() {
+    final int defaultParallelism = Math.max(32, Runtime.getRuntime().availableProcessors() * 8);
+    String value = system[MserverKonstanten.SYSTEM_CRAWLER_PARALLELISM_NR];
+    if (value == null || value.trim().equals("")) {
+      return defaultParallelism;
+    }
+
+    try {
+      return Math.max(1, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ignored) {
+      MserverLog.fehlerMeldung(963487221, MserverDaten.class.getName(), new String[]{"Crawler parallelism falsch: ", value});
+      return defaultParallelism;
+    }
+  }
+
+  public static int getHttpCacheSizeMb() {
+    final int defaultSize = 512;
+    String value = system[MserverKonstanten.SYSTEM_HTTP_CACHE_SIZE_NR];
+    if (value == null || value.trim().equals("")) {
+      return defaultSize;
+    }
+
+    try {
+      return Math.max(0, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ignored) {
+      MserverLog.fehlerMeldung(963487222, MserverDaten.class.getName(), new String[]{"HTTP-Cache Größe falsch: ", value});
+      return defaultSize;
+    }
+  }
+
+  /**
+   * @return der Port für die Messwerte, 0 wenn sie nicht abrufbar sein sollen
+   */
+  public static int getMetricsPort() {
+    String value = system[MserverKonstanten.SYSTEM_METRICS_PORT_NR];
+    if (value == null || value.trim().equals("")) {
+      return 0;
+    }
+
+    try {
+      return Math.max(0, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ignored) {
+      MserverLog.fehlerMeldung(963487223, MserverDaten.class.getName(), new String[]{"Metrics Port falsch: ", value});
+      return 0;
+    }
+  }
+
+  /**
+   * @return das maximale Alter eines Checkpoints in Minuten, 0 wenn keine Checkpoints geschrieben werden
+   */
+  public static int getCheckpointMaxAgeMinutes() {
+    final int defaultAge = 360;
+    String value = system[MserverKonstanten.SYSTEM_CHECKPOINT_MAX_AGE_NR];
+    if (value == null || value.trim().equals("")) {
+      return defaultAge;
+    }
+
+    try {
+      return Math.max(0, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ignored) {
+      MserverLog.fehlerMeldung(963487225, MserverDaten.class.getName(), new String[]{"Checkpoint Alter falsch: ", value});
+      return defaultAge;
+    }
+  }
+
+  public static int getSenderMaxLaufzeitMinutes() {
+    final int defaultLaufzeit = 0;
+    String value = system[MserverKonstanten.SYSTEM_SENDER_MAX_LAUFZEIT_NR];
+    if (value == null || value.trim().equals("")) {
+      return defaultLaufzeit;
+    }
+
+    try {
+      return Math.max(0, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ignored) {
+      MserverLog.fehlerMeldung(963487226, MserverDaten.class.getName(), new String[]{"Sender Laufzeit falsch: ", value});
+      return defaultLaufzeit;
+    }
+  }
+
+  /**
+   * @return die Datei für die Aufzeichnung der HTTP-Antworten, leer wenn nicht aufgezeichnet wird
+   */
+  public static String getHttpRecordFile() {
+    String value = system[MserverKonstanten.SYSTEM_HTTP_RECORD_NR];
+    return value == null ? "" : value.trim();
+  }
+
   public static void setBasisVerzeichnis(String b) {
     if (b.isEmpty()) {
       basisverzeichnis = getBasisVerzeichnis(b, true);
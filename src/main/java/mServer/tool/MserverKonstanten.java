@@ -96,11 +96,32 @@ public class MserverKonstanten {
   public static final String SYSTEM_CRAWLER_LIST = "system-crawler-list";
   public static final int SYSTEM_CRAWLER_LIST_NR = 18;
 
+  public static final String SYSTEM_FILM_ENRICH_PARALLELISM = "film-enrich-parallelism"; // Anzahl paralleler HEAD-Anfragen für Dateigröße und HD-URL
+  public static final int SYSTEM_FILM_ENRICH_PARALLELISM_NR = 19;
+
+  public static final String SYSTEM_CRAWLER_PARALLELISM = "crawler-parallelism"; // Anzahl Threads, die sich alle Sender teilen
+  public static final int SYSTEM_CRAWLER_PARALLELISM_NR = 20;
+  public static final String SYSTEM_HTTP_CACHE_SIZE = "http-cache-size-mb"; // maximale Größe des HTTP-Caches in MB, 0 schaltet ihn ab
+  public static final int SYSTEM_HTTP_CACHE_SIZE_NR = 21;
+  public static final String SYSTEM_METRICS_PORT = "metrics-port"; // Port für die Messwerte im Format von Prometheus, nur localhost, leer: aus
+  public static final int SYSTEM_METRICS_PORT_NR = 22;
+  public static final String SYSTEM_HTTP_RECORD = "http-record"; // Datei, in der alle Antworten des Suchlaufs für die Wiedergabe ohne Netz aufgezeichnet werden, leer: aus
+  public static final int SYSTEM_HTTP_RECORD_NR = 23;
+  public static final String SYSTEM_CHECKPOINT_MAX_AGE = "checkpoint-max-age-min"; // so alt darf der Checkpoint eines abgebrochenen Laufs sein, um ihn fortzusetzen, 0: keine Checkpoints
+  public static final int SYSTEM_CHECKPOINT_MAX_AGE_NR = 24;
+  public static final String SYSTEM_SENDER_MAX_LAUFZEIT = "sender-max-laufzeit-min"; // danach wird ein Sender abgebrochen, seine Filme bleiben, 0: kein Limit
+  public static final int SYSTEM_SENDER_MAX_LAUFZEIT_NR = 25;
+  public static final String SYSTEM_ORF_RATELIMIT = "orf-rate-limit"; // Anfragen pro Sekunde an die ORF-API, Startwert des HostRateController
+  public static final int SYSTEM_ORF_RATELIMIT_NR = 26;
+
   public static final String[] SYSTEM_COLUMN_NAMES = {
     SYSTEM_USER_AGENT, SYSTEM_IMPORT_URL_1, SYSTEM_IMPORT_URL_2, SYSTEM_IMPORT_OLD,
     SYSTEM_IMPORT_AKT, SYSTEM_EXPORT_AKT, SYSTEM_IMPORT_LIVE,
     SYSTEM_EXPORT_FILMLISTE_AKT, SYSTEM_EXPORT_FILMLISTE_ORG, SYSTEM_EXPORT_FILMLISTE_DIFF, SYSTEM_FILMLISTE_ORG,
-    SYSTEM_PROXY_URL, SYSTEM_PROXY_PORT, SYSTEM_DEBUG, SYSTEM_RESTART_AFTER_RUN, SYSTEM_SR_RATELIMIT_RUN, SYSTEM_ARTE_RATELIMIT_RUN, SYSTEM_BANNEDFILMLIST, SYSTEM_CRAWLER_LIST
+    SYSTEM_PROXY_URL, SYSTEM_PROXY_PORT, SYSTEM_DEBUG, SYSTEM_RESTART_AFTER_RUN, SYSTEM_SR_RATELIMIT_RUN, SYSTEM_ARTE_RATELIMIT_RUN, SYSTEM_BANNEDFILMLIST, SYSTEM_CRAWLER_LIST,
+    SYSTEM_FILM_ENRICH_PARALLELISM, SYSTEM_CRAWLER_PARALLELISM, SYSTEM_HTTP_CACHE_SIZE,
+    SYSTEM_METRICS_PORT, SYSTEM_HTTP_RECORD, SYSTEM_CHECKPOINT_MAX_AGE,
+    SYSTEM_SENDER_MAX_LAUFZEIT, SYSTEM_ORF_RATELIMIT
   };
 
   public static final int SYSTEM_MAX_ELEM = SYSTEM_COLUMN_NAMES.length;
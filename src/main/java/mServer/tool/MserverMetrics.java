@@ -0,0 +1,70 @@
+package mServer.tool;
+
+import com.sun.net.httpserver.HttpServer;
+import de.mediathekview.mlib.tool.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Stellt die {@link Metrics} während des Laufs unter http://localhost:port/metrics im Textformat
+ * von Prometheus bereit, damit ein Suchlauf live beobachtet werden kann.
+ */
+public class MserverMetrics {
+
+    private static final String PFAD = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static HttpServer server = null;
+
+    private MserverMetrics() {
+    }
+
+    /**
+     * Startet den Server, wenn ein Port eingestellt ist.
+     */
+    public static synchronized void starten() {
+        final int port = MserverDaten.getMetricsPort();
+        if (port <= 0 || server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext(PFAD, exchange -> {
+                try (exchange) {
+                    if (!"GET".equals(exchange.getRequestMethod())) {
+                        exchange.sendResponseHeaders(405, -1);
+                        return;
+                    }
+                    final byte[] body = Metrics.getInstance().getText().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            });
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                final Thread thread = new Thread(r, "MServerMetrics");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            MserverLog.systemMeldung("Metrics: http://localhost:" + port + PFAD);
+        } catch (IOException ex) {
+            server = null;
+            MserverLog.fehlerMeldung(963487224, MserverMetrics.class.getName(), "Metrics Server auf Port " + port, ex);
+        }
+    }
+
+    public static synchronized void beenden() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+}
@@ -39,8 +39,9 @@ public class MserverFtp {
     private static String server, strPort, username, password, srcPathFile, destFileName;
     private static MserverDatenUpload datenUpload;
     private static boolean retFtp = false;
+    private static volatile FTPClient laufend = null; // der Client des laufenden Uploads, zum Abbrechen
+    private static final int WARTEN_ABBRUCH_SEKUNDEN = 30;
 
-    @SuppressWarnings("deprecation")
     public static boolean uploadFtp(String srcPathFile_, String destFileName_, MserverDatenUpload datenUpload_) {
         try {
             srcPathFile = srcPathFile_;
@@ -66,8 +67,13 @@ public class MserverFtp {
             if (t != null) {
                 if (t.isAlive()) {
                     MserverLog.fehlerMeldung(396958702, MserverFtp.class.getName(), "Der letzte FtpUpload läuft noch");
-                    MserverLog.systemMeldung("und wird gekillt");
-                    t.stop();
+                    MserverLog.systemMeldung("und wird abgebrochen");
+                    abbrechen();
+                    t.interrupt();
+                    t.join(1000L * WARTEN_ABBRUCH_SEKUNDEN);
+                    if (t.isAlive()) {
+                        MserverLog.fehlerMeldung(396958703, MserverFtp.class.getName(), "Der FtpUpload beendet sich nicht");
+                    }
                     retFtp = false;
                 }
             }
@@ -77,12 +83,27 @@ public class MserverFtp {
         return retFtp;
     }
 
+    /**
+     * Schließt die Verbindung des laufenden Uploads, ein blockierendes Lesen oder Schreiben endet
+     * dann mit einer Exception.
+     */
+    private static void abbrechen() {
+        final FTPClient ftp = laufend;
+        if (ftp != null && ftp.isConnected()) {
+            try {
+                ftp.disconnect();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
     private static class Ftp implements Runnable {
 
         @Override
         public synchronized void run() {
             int port = 0;
             final FTPClient ftp = new FTPClient();
+            laufend = ftp;
 
             try {
                 if (!strPort.equals("")) {
@@ -169,6 +190,7 @@ public class MserverFtp {
                         // do nothing
                     }
                 }
+                laufend = null;
             }
         }
     }
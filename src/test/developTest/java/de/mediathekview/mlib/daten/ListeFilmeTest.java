@@ -3,7 +3,14 @@ package de.mediathekview.mlib.daten;
 import de.mediathekview.mlib.Const;
 import org.junit.jupiter.api.Test;
 
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ListeFilmeTest {
 
@@ -34,6 +41,67 @@ public class ListeFilmeTest {
     assertEquals(2, list.size());
   }
 
+  @Test
+  public void testAddFilmVomSenderParallel() {
+    ListeFilme list = new ListeFilme();
+    IntStream.range(0, 20_000).parallel().forEach(i ->
+            list.addFilmVomSender(createTestFilm(Const.ARD, "Thema", "Titel " + (i % 10_000), "https://example.org/" + (i % 10_000) + ".mp4")));
+
+    assertEquals(10_000, list.size());
+    assertFalse(list.addFilmVomSender(createTestFilm(Const.ARD, "Thema", "anderer Titel", "https://example.org/1.mp4")));
+  }
+
+  @Test
+  public void testGetFilmByUrlAfterChanges() {
+    ListeFilme list = new ListeFilme();
+    DatenFilm first = createTestFilm(Const.ZDF, "Thema", "B", "https://example.org/B.mp4");
+    DatenFilm second = createTestFilm(Const.ZDF, "Thema", "A", "https://example.org/A.mp4");
+    list.add(first);
+    assertSame(first, list.getFilmByUrl("https://EXAMPLE.org/b.mp4"));
+
+    list.add(second);
+    assertSame(second, list.getFilmByUrl("https://example.org/A.mp4"));
+    assertSame(second, list.getFilmByUrl_klein_hoch_hd("https://example.org/A.mp4"));
+
+    list.sort(Comparator.comparing(f -> f.arr[DatenFilm.FILM_TITEL]));
+    list.removeIf(f -> f == first);
+    assertNull(list.getFilmByUrl("https://example.org/B.mp4"));
+    assertNull(list.getFilmByUrl_klein_hoch_hd("https://example.org/B.mp4"));
+    assertSame(second, list.getFilmByUrl("https://example.org/a.mp4"));
+
+    list.clear();
+    assertNull(list.getFilmByUrl("https://example.org/a.mp4"));
+    assertTrue(list.addFilmVomSender(second));
+    assertSame(second, list.getFilmByUrl("https://example.org/a.mp4"));
+  }
+
+  @Test
+  public void testGetFilmByUrlAfterSet() {
+    ListeFilme list = new ListeFilme();
+    DatenFilm first = createTestFilm(Const.ZDF, "Thema", "A", "https://example.org/A.mp4");
+    DatenFilm replacement = createTestFilm(Const.ZDF, "Thema", "B", "https://example.org/B.mp4");
+    list.add(first);
+    assertSame(first, list.getFilmByUrl("https://example.org/A.mp4"));
+
+    list.set(0, replacement);
+    assertNull(list.getFilmByUrl("https://example.org/A.mp4"));
+    assertSame(replacement, list.getFilmByUrl("https://example.org/B.mp4"));
+    assertSame(replacement, list.getFilmByUrl_klein_hoch_hd("https://example.org/B.mp4"));
+  }
+
+  @Test
+  public void testGetFileSizeUrlUsesExactUrl() {
+    ListeFilme list = new ListeFilme();
+    list.add(createTestFilm(Const.ZDF, "Thema", "klein", "https://example.org/film.mp4"));
+    DatenFilm upper = createTestFilm(Const.ZDF, "Thema", "groß", "https://example.org/FILM.mp4");
+    upper.arr[DatenFilm.FILM_GROESSE] = "20";
+    list.add(upper);
+
+    assertEquals("20", list.getFileSizeUrl("https://example.org/FILM.mp4"));
+    assertEquals("10", list.getFileSizeUrl("https://example.org/film.mp4"));
+    assertNull(list.getFilmByUrl(null));
+  }
+
   private static DatenFilm createTestFilm(String sender, String topic, String title,
                                           String filmUrl) {
     DatenFilm film = new DatenFilm(sender, topic, "url", title, filmUrl, "", "", "", 12,
@@ -0,0 +1,67 @@
+package de.mediathekview.mlib.filmlisten;
+
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.daten.ListeFilme;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class FilmlisteFingerprintsTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void testNeueFilmeLikeListeFilme() {
+    final ListeFilme org = new ListeFilme();
+    org.writeMetaData();
+    for (int i = 0; i < 1_000; i++) {
+      org.add(createFilm(i, "Titel " + i));
+    }
+    // doppelte Einträge in der Orgliste
+    org.add(createFilm(5, "Titel 5"));
+
+    final ListeFilme aktuell = new ListeFilme();
+    aktuell.writeMetaData();
+    for (int i = 500; i < 1_500; i++) {
+      aktuell.add(createFilm(i, "Titel " + i));
+    }
+    // gleiche URL, anderer Titel => neu
+    aktuell.add(createFilm(7, "Titel neu"));
+    aktuell.add(createFilm(1_400, "Titel 1400"));
+
+    final String datei = tempDir.resolve("filme-org.fingerprints").toString();
+    FilmlisteFingerprints.schreiben(datei, org);
+    final FilmlisteFingerprints fingerprints = FilmlisteFingerprints.lesen(datei);
+    assertNotNull(fingerprints);
+    assertEquals(org.size(), fingerprints.size());
+    assertEquals(org.getId(), fingerprints.getMetaDaten().getId());
+
+    final ListeFilme expected = aktuell.neueFilme(org);
+    final ListeFilme diff = fingerprints.neueFilme(aktuell);
+    assertEquals(502, diff.size());
+    assertEquals(expected.size(), diff.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).arr[DatenFilm.FILM_TITEL], diff.get(i).arr[DatenFilm.FILM_TITEL]);
+    }
+  }
+
+  @Test
+  public void testMissingFile() {
+    assertNull(FilmlisteFingerprints.lesen(tempDir.resolve("fehlt.fingerprints").toString()));
+  }
+
+  private static DatenFilm createFilm(int i, String titel) {
+    final DatenFilm film = new DatenFilm();
+    film.arr[DatenFilm.FILM_SENDER] = "Sender " + (i % 7);
+    film.arr[DatenFilm.FILM_THEMA] = "Thema " + (i % 50);
+    film.arr[DatenFilm.FILM_TITEL] = titel;
+    film.arr[DatenFilm.FILM_URL] = "https://example.org/video/" + i + ".mp4";
+    return film;
+  }
+}
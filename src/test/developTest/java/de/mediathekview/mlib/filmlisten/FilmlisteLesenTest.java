@@ -0,0 +1,138 @@
+package de.mediathekview.mlib.filmlisten;
+
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.daten.ListeFilme;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FilmlisteLesenTest {
+
+  private static final int FILM_COUNT = 40_000;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void testReadWrittenListKeepsOrderAndSenderThema() {
+    final ListeFilme liste = createList();
+    final String json = tempDir.resolve("filme.json").toString();
+    final String xz = tempDir.resolve("filme.xz").toString();
+    new WriteFilmlistJson().filmlisteSchreiben(liste, json, xz);
+
+    assertSameFilms(liste, read(json));
+    assertSameFilms(liste, read(xz));
+  }
+
+  @Test
+  public void testReadSnapshot() {
+    final ListeFilme liste = createList();
+    final String json = tempDir.resolve("filme.json").toString();
+    final String snapshot = tempDir.resolve("filme.snapshot").toString();
+    new WriteFilmlistJson().filmlisteSchreiben(liste, json);
+    new FilmlisteSnapshot().schreiben(snapshot, liste);
+
+    final ListeFilme gelesen = new ListeFilme();
+    new FilmlisteLesen().readFilmListe(json, snapshot, gelesen, 0);
+    assertSameFilms(liste, gelesen);
+
+    // die Fingerprints aus dem Snapshot sind im Index
+    final DatenFilm doppelt = new DatenFilm();
+    System.arraycopy(liste.get(FILM_COUNT - 1).arr, 0, doppelt.arr, 0, DatenFilm.MAX_ELEM);
+    assertFalse(gelesen.addFilmVomSender(doppelt));
+  }
+
+  @Test
+  public void testSnapshotWithoutListIsNotUsed() throws Exception {
+    final ListeFilme liste = createList();
+    final String json = tempDir.resolve("filme.json").toString();
+    final String snapshot = tempDir.resolve("filme.snapshot").toString();
+    new WriteFilmlistJson().filmlisteSchreiben(liste, json);
+    new FilmlisteSnapshot().schreiben(snapshot, liste);
+    assertTrue(FilmlisteSnapshot.isUsable(snapshot, json));
+
+    Files.delete(Paths.get(json));
+
+    assertFalse(FilmlisteSnapshot.isUsable(snapshot, json));
+    final ListeFilme gelesen = new ListeFilme();
+    new FilmlisteLesen().readFilmListe(json, snapshot, gelesen, 0);
+    assertEquals(0, gelesen.size());
+  }
+
+  @Test
+  public void testDamagedSnapshotKeepsList() throws Exception {
+    final ListeFilme liste = createList();
+    final Path snapshot = tempDir.resolve("filme.snapshot");
+    new FilmlisteSnapshot().schreiben(snapshot.toString(), liste);
+    // die Position der Tabellen zeigt hinter das Ende der Datei
+    final byte[] bytes = Files.readAllBytes(snapshot);
+    Arrays.fill(bytes, bytes.length - 4, bytes.length, (byte) 0x7F);
+    Files.write(snapshot, bytes);
+
+    final ListeFilme vorhanden = new ListeFilme();
+    vorhanden.writeMetaData();
+    vorhanden.importFilmliste(liste.get(0));
+    final String id = vorhanden.getId();
+
+    assertFalse(new FilmlisteSnapshot().lesen(snapshot.toString(), vorhanden, 0));
+    assertEquals(1, vorhanden.size());
+    assertEquals(id, vorhanden.getId());
+  }
+
+  @Test
+  public void testReadEmptyList() {
+    final ListeFilme liste = new ListeFilme();
+    liste.writeMetaData();
+    final String json = tempDir.resolve("leer.json").toString();
+    new WriteFilmlistJson().filmlisteSchreiben(liste, json);
+
+    final ListeFilme gelesen = read(json);
+    assertEquals(0, gelesen.size());
+    assertEquals(liste.getId(), gelesen.getId());
+  }
+
+  private static ListeFilme read(String datei) {
+    final ListeFilme liste = new ListeFilme();
+    new FilmlisteLesen().readFilmListe(datei, liste, 0);
+    return liste;
+  }
+
+  private static void assertSameFilms(ListeFilme expected, ListeFilme actual) {
+    assertEquals(expected.size(), actual.size());
+    assertEquals(expected.getId(), actual.getId());
+    for (int i = 0; i < expected.size(); i++) {
+      for (int column : DatenFilm.JSON_NAMES) {
+        if (column != DatenFilm.FILM_NEU) {
+          assertEquals(expected.get(i).arr[column], actual.get(i).arr[column], "Film " + i + ", Feld " + column);
+        }
+      }
+    }
+  }
+
+  private static ListeFilme createList() {
+    final ListeFilme liste = new ListeFilme();
+    liste.writeMetaData();
+    for (int i = 0; i < FILM_COUNT; i++) {
+      final DatenFilm film = new DatenFilm();
+      // Sender und Thema wiederholen sich, damit sie beim Schreiben weggelassen werden
+      film.arr[DatenFilm.FILM_SENDER] = "Sender " + (i / 5_000);
+      film.arr[DatenFilm.FILM_THEMA] = "Thema " + (i / 300);
+      film.arr[DatenFilm.FILM_TITEL] = "Titel \"" + i + "\",\"X\":[";
+      film.arr[DatenFilm.FILM_DATUM] = "01.02.2025";
+      film.arr[DatenFilm.FILM_ZEIT] = "20:15:00";
+      film.arr[DatenFilm.FILM_DAUER] = "00:30:00";
+      film.arr[DatenFilm.FILM_BESCHREIBUNG] = "Beschreibung " + i;
+      film.arr[DatenFilm.FILM_URL] = "https://example.org/video/" + i + ".mp4";
+      liste.importFilmliste(film);
+    }
+    return liste;
+  }
+}
@@ -0,0 +1,47 @@
+package de.mediathekview.mlib.filmlisten;
+
+import org.junit.jupiter.api.Test;
+import org.tukaani.xz.XZInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class ParallelXZOutputStreamTest {
+
+  @Test
+  public void testMultipleBlocksCanBeReadAsOneStream() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20_000; i++) {
+      sb.append("[\"ARD\",\"Tagesschau\",\"Tagesschau 20:00 Uhr\",").append(i).append("],");
+    }
+    final byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (ParallelXZOutputStream out = new ParallelXZOutputStream(compressed, 1, 64 * 1024, 4)) {
+      out.write(data, 0, 1000);
+      out.write(data[1000]);
+      out.write(data, 1001, data.length - 1001);
+    }
+
+    assertArrayEquals(data, decompress(compressed.toByteArray()));
+  }
+
+  @Test
+  public void testEmptyStream() throws IOException {
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    new ParallelXZOutputStream(compressed, 1, 1024, 2).close();
+
+    assertArrayEquals(new byte[0], decompress(compressed.toByteArray()));
+  }
+
+  private static byte[] decompress(byte[] data) throws IOException {
+    try (InputStream in = new XZInputStream(new ByteArrayInputStream(data))) {
+      return in.readAllBytes();
+    }
+  }
+}
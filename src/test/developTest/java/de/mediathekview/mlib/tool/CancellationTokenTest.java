@@ -0,0 +1,149 @@
+package de.mediathekview.mlib.tool;
+
+import de.mediathekview.mlib.Config;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CancellationTokenTest {
+
+  private final OkHttpClient client = new OkHttpClient.Builder()
+      .addInterceptor(CancellationToken.interceptor())
+      .readTimeout(30, TimeUnit.SECONDS)
+      .build();
+
+  @AfterEach
+  public void tearDown() {
+    Config.setStop(false);
+  }
+
+  @Test
+  public void testCancelPropagatesToChildren() {
+    final CancellationToken lauf = CancellationToken.create("Lauf");
+    final CancellationToken sender = lauf.child("ARD", 0);
+    final CancellationToken anderer = lauf.child("ZDF", 0);
+    anderer.close();
+
+    sender.cancel("Test");
+
+    assertTrue(sender.isCancelled());
+    assertFalse(lauf.isCancelled());
+    assertFalse(anderer.isCancelled());
+    assertEquals("Test", sender.getReason());
+
+    lauf.cancel("Stop");
+    assertTrue(lauf.child("ARTE", 0).isCancelled());
+    assertEquals("Test", sender.getReason());
+  }
+
+  @Test
+  public void testDeadlineCancelsChild() throws Exception {
+    final CancellationToken lauf = CancellationToken.create("Lauf");
+    final CancellationToken sender = lauf.child("ARD", 100);
+
+    assertTrue(sender.remainingMillis() <= 100);
+    assertEquals(Long.MAX_VALUE, lauf.remainingMillis());
+    for (int i = 0; i < 50 && !sender.isCancelled(); i++) {
+      Thread.sleep(100);
+    }
+    assertEquals("Zeitlimit", sender.getReason());
+    assertFalse(lauf.isCancelled());
+  }
+
+  @Test
+  public void testParentDeadlineCancelsChildWithoutTimer() throws Exception {
+    final CancellationToken sender = CancellationToken.create("Lauf").child("ARD", 50);
+    final CancellationToken film = sender.child("Film", 0);
+    // abgemeldet, der Abbruch des Senders erreicht es nur über parent
+    film.close();
+
+    Thread.sleep(100);
+
+    assertTrue(film.isCancelled());
+    assertEquals("Zeitlimit", film.getReason());
+  }
+
+  @Test
+  public void testBindAndConfig() {
+    assertSame(Config.getCancellation(), CancellationToken.current());
+    final CancellationToken sender = Config.getCancellation().child("ARD", 0);
+    try (CancellationToken.Scope ignored = sender.bind()) {
+      assertSame(sender, CancellationToken.current());
+      Config.setStop(true);
+      assertTrue(CancellationToken.current().isCancelled());
+    }
+    assertSame(Config.getCancellation(), CancellationToken.current());
+    assertTrue(Config.getStop());
+
+    Config.setStop(false);
+    assertFalse(Config.getStop());
+    assertNull(Config.getCancellation().getReason());
+  }
+
+  @Test
+  public void testCancelAbortsRunningRequest() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+      final CancellationToken sender = CancellationToken.create("ARD");
+
+      final CompletableFuture<Long> dauer = CompletableFuture.supplyAsync(() -> {
+        final long start = System.nanoTime();
+        try (CancellationToken.Scope ignored = sender.bind();
+             Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+          response.body().string();
+        } catch (IOException expected) {
+          return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        return -1L;
+      });
+      server.takeRequest(5, TimeUnit.SECONDS);
+      sender.cancel("Test");
+
+      final long millis = dauer.get(10, TimeUnit.SECONDS);
+      assertTrue(millis >= 0 && millis < 10_000, "abgebrochen nach " + millis + " ms");
+    }
+  }
+
+  @Test
+  public void testCancelledTokenSendsNoRequest() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setBody("x"));
+      final CancellationToken sender = CancellationToken.create("ARD");
+      sender.cancel("Test");
+
+      final Request request = new Request.Builder().url(server.url("/")).tag(CancellationToken.class, sender).build();
+      assertThrows(IOException.class, () -> client.newCall(request).execute());
+      assertEquals(0, server.getRequestCount());
+    }
+  }
+
+  @Test
+  public void testDeadlineBoundsReadTimeout() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setBody("x").setHeadersDelay(20, TimeUnit.SECONDS));
+      final CancellationToken sender = CancellationToken.create("Lauf").child("ARD", 500);
+
+      final long start = System.nanoTime();
+      try (CancellationToken.Scope ignored = sender.bind()) {
+        assertThrows(IOException.class, () -> client.newCall(new Request.Builder().url(server.url("/")).build()).execute());
+      }
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package de.mediathekview.mlib.tool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FingerprintSetTest {
+
+  @Test
+  public void testAddContains() {
+    final FingerprintSet set = new FingerprintSet();
+    final Set<Long> expected = new HashSet<>();
+    final Random random = new Random(4711);
+    for (int i = 0; i < 100_000; i++) {
+      final long value = random.nextInt(50_000) * 0x9E3779B97F4A7C15L;
+      assertEquals(expected.add(value), set.add(value));
+    }
+    assertEquals(expected.size(), set.size());
+    expected.forEach(value -> assertTrue(set.contains(value)));
+    assertFalse(set.contains(1L));
+  }
+
+  @Test
+  public void testZero() {
+    final FingerprintSet set = new FingerprintSet(10);
+    assertFalse(set.contains(0L));
+    assertTrue(set.add(0L));
+    assertFalse(set.add(0L));
+    assertTrue(set.contains(0L));
+    assertEquals(1, set.size());
+
+    set.clear();
+    assertFalse(set.contains(0L));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testParallelAdd() {
+    final FingerprintSet set = new FingerprintSet(1_000);
+    IntStream.range(0, 200_000).parallel().forEach(i -> set.add(Fingerprint.of("film " + (i % 150_000))));
+    assertEquals(150_000, set.size());
+    assertTrue(set.contains(Fingerprint.of("film 149999")));
+    assertFalse(set.contains(Fingerprint.of("film 150000")));
+  }
+}
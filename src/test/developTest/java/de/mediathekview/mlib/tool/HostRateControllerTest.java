@@ -0,0 +1,102 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HostRateControllerTest {
+
+  private static final String URL = "https://api.example.org/page/1";
+  private static final double RATE = 10;
+
+  private final HostRateController controller = HostRateController.getInstance();
+
+  @BeforeEach
+  public void setUp() {
+    controller.clear();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    controller.clear();
+  }
+
+  @Test
+  public void testRateIncreasesWhileHealthy() {
+    controller.acquire(URL, RATE);
+    for (int i = 0; i < 1_000; i++) {
+      controller.onResponse(URL, 200, 50, null);
+    }
+    assertEquals(2 * RATE, controller.getRates().get("api.example.org"), 0.001);
+  }
+
+  @Test
+  public void testRateDecreasesOnErrors() {
+    controller.acquire(URL, RATE);
+    controller.onResponse(URL, 500, 50, null);
+    assertEquals(RATE * 0.7, controller.getRates().get("api.example.org"), 0.001);
+    controller.onFailure(URL);
+    assertEquals(RATE * 0.49, controller.getRates().get("api.example.org"), 0.001);
+    for (int i = 0; i < 100; i++) {
+      controller.onResponse(URL, 502, 50, null);
+    }
+    assertEquals(RATE * 0.05, controller.getRates().get("api.example.org"), 0.001);
+  }
+
+  @Test
+  public void testRetryAfterPausesHost() {
+    controller.acquire(URL, 1000);
+    controller.onResponse(URL, 429, 50, "1");
+    assertEquals(500, controller.getRates().get("api.example.org"), 0.001);
+
+    final long start = System.nanoTime();
+    controller.acquire(URL, 1000);
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+  }
+
+  @Test
+  public void testPathPrefixHasOwnLimit() {
+    controller.acquire("https://api.example.org/api/opa/1", "/api/opa/", 0.2);
+    controller.acquire(URL, RATE);
+    controller.onResponse("https://api.example.org/api/opa/2", 429, 50, "0");
+
+    assertEquals(0.1, controller.getRates().get("api.example.org/api/opa/"), 0.001);
+    assertEquals(RATE, controller.getRates().get("api.example.org"), 0.001);
+  }
+
+  @Test
+  public void testParseRetryAfter() {
+    final long now = System.currentTimeMillis();
+    assertEquals(120_000, HostRateController.parseRetryAfter("120", now));
+    assertEquals(10_000, HostRateController.parseRetryAfter(null, now));
+    assertEquals(10_000, HostRateController.parseRetryAfter("bald", now));
+    assertEquals(300_000, HostRateController.parseRetryAfter("86400", now));
+    assertEquals(0, HostRateController.parseRetryAfter("Thu, 01 Jan 1970 00:00:00 GMT", now));
+  }
+
+  @Test
+  public void testInterceptorReportsResponses() throws IOException {
+    try (MockWebServer mockServer = new MockWebServer()) {
+      mockServer.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "0"));
+      mockServer.start();
+      final String url = mockServer.url("/film").toString();
+      controller.acquire(url, RATE);
+
+      final Request request = new Request.Builder().url(url).build();
+      try (Response response = MVHttpClient.getInstance().getHttpClient().newCall(request).execute()) {
+        assertEquals(503, response.code());
+      }
+      assertEquals(RATE / 2, controller.getRates().get(mockServer.getHostName()), 0.001);
+    }
+  }
+}
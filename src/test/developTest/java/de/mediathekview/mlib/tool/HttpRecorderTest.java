@@ -0,0 +1,88 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class HttpRecorderTest {
+
+  private static final String BODY = "{\"page\":1}";
+
+  private final HttpRecorder recorder = HttpRecorder.getInstance();
+  private final MockWebServer server = new MockWebServer();
+  private final OkHttpClient client = new OkHttpClient.Builder()
+      .addInterceptor(recorder.recordInterceptor())
+      .addInterceptor(recorder.replayInterceptor())
+      .build();
+
+  @TempDir
+  Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    recorder.stopRecord();
+    recorder.replay(null);
+    server.shutdown();
+  }
+
+  @Test
+  public void testRecordAfterRedirect() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", server.url("/api/page/1")));
+    server.enqueue(new MockResponse().setBody(BODY).setHeader("Content-Type", "application/json"));
+    final String archive = directory.resolve("crawl.rec").toString();
+
+    recorder.record(archive);
+    try (Response response = get(server.url("/api/page").toString())) {
+      assertEquals(BODY, response.body().string());
+    }
+    recorder.stopRecord();
+
+    final List<HttpRecorder.Entry> entries = HttpRecorder.read(archive);
+    assertEquals(1, entries.size());
+    final HttpRecorder.Entry entry = entries.get(0);
+    assertEquals("GET " + server.url("/api/page"), entry.getKey());
+    assertEquals(server.url("/api/page/1").toString(), entry.getUrl());
+    assertEquals(200, entry.getCode());
+    assertEquals("application/json", entry.getHeaders().get("Content-Type"));
+    assertEquals(BODY, new String(entry.getBody()));
+  }
+
+  @Test
+  public void testReplayRedirectsToServer() throws Exception {
+    server.enqueue(new MockResponse().setBody(BODY).setHeader(HttpRecorder.HEADER_REPLAY_URL, "https://api.example.org/page/1"));
+
+    recorder.replay(server.url("/").toString());
+    try (Response response = get("https://api.example.org/page?id=1")) {
+      assertEquals(BODY, response.body().string());
+      assertEquals("https://api.example.org/page/1", response.request().url().toString());
+      assertNull(response.header(HttpRecorder.HEADER_REPLAY_URL));
+    }
+
+    final RecordedRequest request = server.takeRequest();
+    assertEquals("/page?id=1", request.getPath());
+    assertEquals("GET https://api.example.org/page?id=1", request.getHeader(HttpRecorder.HEADER_REPLAY_KEY));
+  }
+
+  private Response get(final String url) throws IOException {
+    return client.newCall(new Request.Builder().url(url).build()).execute();
+  }
+}
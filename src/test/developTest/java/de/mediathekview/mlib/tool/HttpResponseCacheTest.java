@@ -0,0 +1,117 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpResponseCacheTest {
+
+  private static final String BODY = "{\"page\":1}";
+
+  private final HttpResponseCache cache = HttpResponseCache.getInstance();
+  private final MockWebServer server = new MockWebServer();
+  private OkHttpClient client;
+
+  @TempDir
+  Path directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    server.start();
+    cache.open(directory.toString(), 1_000_000);
+    cache.clearStatistics();
+    client = new OkHttpClient.Builder().addInterceptor(cache.interceptor()).build();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    cache.open(directory.toString(), 0);
+    server.shutdown();
+  }
+
+  @Test
+  public void testUnchangedResponseComesFromCache() throws Exception {
+    server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+    server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+    try (Response response = get()) {
+      assertEquals(BODY, response.body().string());
+      assertFalse(HttpResponseCache.isRevalidated(response));
+    }
+    assertNull(server.takeRequest().getHeader("If-None-Match"));
+
+    try (Response response = get()) {
+      assertEquals(200, response.code());
+      assertEquals(BODY, response.body().string());
+      assertTrue(HttpResponseCache.isRevalidated(response));
+    }
+    assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+    assertEquals(2, cache.getRequests());
+    assertEquals(1, cache.getRevalidated());
+    assertEquals(BODY.length(), cache.getSavedBytes());
+  }
+
+  @Test
+  public void testChangedResponseReplacesEntry() throws Exception {
+    server.enqueue(new MockResponse().setBody(BODY).setHeader("Last-Modified", "Mon, 05 Oct 2026 10:00:00 GMT"));
+    server.enqueue(new MockResponse().setBody("{\"page\":2}").setHeader("Last-Modified", "Tue, 06 Oct 2026 10:00:00 GMT"));
+    server.enqueue(new MockResponse().setResponseCode(304));
+
+    get().close();
+    server.takeRequest();
+    try (Response response = get()) {
+      assertEquals("{\"page\":2}", response.body().string());
+    }
+    assertEquals("Mon, 05 Oct 2026 10:00:00 GMT", server.takeRequest().getHeader("If-Modified-Since"));
+    try (Response response = get()) {
+      assertEquals("{\"page\":2}", response.body().string());
+    }
+    assertEquals("Tue, 06 Oct 2026 10:00:00 GMT", server.takeRequest().getHeader("If-Modified-Since"));
+  }
+
+  @Test
+  public void testResponseWithoutValidatorIsNotStored() throws Exception {
+    server.enqueue(new MockResponse().setBody(BODY));
+    server.enqueue(new MockResponse().setBody(BODY));
+
+    get().close();
+    get().close();
+    server.takeRequest();
+    final RecordedRequest second = server.takeRequest();
+    assertNull(second.getHeader("If-None-Match"));
+    assertNull(second.getHeader("If-Modified-Since"));
+  }
+
+  @Test
+  public void testEntriesSurviveReopen() throws Exception {
+    server.enqueue(new MockResponse().setBody(BODY).setHeader("ETag", "\"v1\""));
+    server.enqueue(new MockResponse().setResponseCode(304));
+    get().close();
+    server.takeRequest();
+
+    cache.open(directory.toString(), 1_000_000);
+    try (Response response = get()) {
+      assertEquals(BODY, response.body().string());
+    }
+    assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+  }
+
+  private Response get() throws IOException {
+    return client.newCall(new Request.Builder().url(server.url("/api/page")).build()).execute();
+  }
+}
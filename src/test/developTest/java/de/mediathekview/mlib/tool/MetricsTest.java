@@ -0,0 +1,100 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+
+  private final Metrics metrics = Metrics.getInstance();
+
+  @BeforeEach
+  public void setUp() {
+    metrics.clear();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    metrics.clear();
+  }
+
+  @Test
+  public void testCounterIsCreatedOnce() throws Exception {
+    assertSame(metrics.counter("requests_total", "host", "zdf.de"), metrics.counter("requests_total", "host", "zdf.de"));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          metrics.counter("requests_total", "host", "zdf.de").inc();
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    assertEquals(80_000, metrics.counter("requests_total", "host", "zdf.de").get());
+    assertTrue(metrics.getText().contains("mserver_requests_total{host=\"zdf.de\"} 80000\n"));
+  }
+
+  @Test
+  public void testHistogramIsCumulative() {
+    final Metrics.Histogram histogram = metrics.histogram("duration_seconds", new double[]{0.1, 1}, "host", "ard.de");
+    histogram.observe(0.05);
+    histogram.observe(0.5);
+    histogram.observe(5);
+
+    final String text = metrics.getText();
+    assertTrue(text.contains("# TYPE mserver_duration_seconds histogram\n"));
+    assertTrue(text.contains("mserver_duration_seconds_bucket{host=\"ard.de\",le=\"0.1\"} 1\n"));
+    assertTrue(text.contains("mserver_duration_seconds_bucket{host=\"ard.de\",le=\"1\"} 2\n"));
+    assertTrue(text.contains("mserver_duration_seconds_bucket{host=\"ard.de\",le=\"+Inf\"} 3\n"));
+    assertTrue(text.contains("mserver_duration_seconds_sum{host=\"ard.de\"} 5.55\n"));
+    assertTrue(text.contains("mserver_duration_seconds_count{host=\"ard.de\"} 3\n"));
+  }
+
+  @Test
+  public void testCollectorAndEscaping() {
+    metrics.register("test", out -> out.gauge("queue_depth", 7, "sender", "ARTE \"DE\""));
+
+    assertTrue(metrics.getText().contains("# TYPE mserver_queue_depth gauge\nmserver_queue_depth{sender=\"ARTE \\\"DE\\\"\"} 7\n"));
+  }
+
+  @Test
+  public void testInterceptorCountsRequests() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setBody("12345"));
+      server.enqueue(new MockResponse().setResponseCode(404));
+      final OkHttpClient client = new OkHttpClient.Builder().addInterceptor(metrics.interceptor()).build();
+      for (int i = 0; i < 2; i++) {
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+          response.body().string();
+        }
+      }
+
+      final String host = server.url("/").host();
+      assertEquals(1, metrics.counter("http_requests_total", "host", host, "status", "200").get());
+      assertEquals(1, metrics.counter("http_requests_total", "host", host, "status", "404").get());
+      assertEquals(2, metrics.histogram("http_request_duration_seconds", Metrics.SECONDS_BUCKETS, "host", host).getCount());
+      assertEquals(5, metrics.histogram("http_response_bytes", Metrics.BYTES_BUCKETS, "host", host).getSum(), 0.001);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package de.mediathekview.mlib.tool;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UrlProbeCacheTest {
+
+  @TempDir
+  Path tempDir;
+
+  private MockWebServer mockServer;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    UrlProbeCache.getInstance().clear();
+    mockServer = new MockWebServer();
+    mockServer.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    mockServer.close();
+    UrlProbeCache.getInstance().clear();
+  }
+
+  @Test
+  public void testHeadIsCached() {
+    mockServer.enqueue(new MockResponse().setResponseCode(200)
+        .addHeader("Content-Length", "12345678")
+        .addHeader("Content-Type", "video/mp4"));
+    final String url = mockServer.url("/film.mp4").toString();
+
+    final UrlProbeCache.Probe first = UrlProbeCache.getInstance().head(url);
+    final UrlProbeCache.Probe second = UrlProbeCache.getInstance().head(url);
+
+    assertEquals(1, mockServer.getRequestCount());
+    assertTrue(first.isSuccessful());
+    assertEquals(12345678, second.getContentLength());
+    assertEquals("video/mp4", second.getContentType());
+    assertEquals("/film.mp4", second.getFinalPath());
+  }
+
+  @Test
+  public void testSaveAndLoad() {
+    mockServer.enqueue(new MockResponse().setResponseCode(404));
+    final String url = mockServer.url("/offline.mp4").toString();
+    assertFalse(UrlProbeCache.getInstance().head(url).isSuccessful());
+
+    final String datei = tempDir.resolve("url-probe.cache").toString();
+    UrlProbeCache.getInstance().save(datei);
+    UrlProbeCache.getInstance().clear();
+    UrlProbeCache.getInstance().load(datei);
+
+    assertEquals(1, UrlProbeCache.getInstance().size());
+    assertEquals(404, UrlProbeCache.getInstance().head(url).getCode());
+    assertEquals(1, mockServer.getRequestCount());
+  }
+
+  @Test
+  public void testFirstSuccessfulKeepsOrder() throws Exception {
+    mockServer.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        switch (request.getPath()) {
+          case "/1080.mp4":
+            return new MockResponse().setResponseCode(404);
+          case "/720.mp4":
+            // antwortet später als der schlechtere Kandidat, gewinnt aber trotzdem
+            return new MockResponse().setResponseCode(200).setHeadersDelay(300, TimeUnit.MILLISECONDS);
+          default:
+            return new MockResponse().setResponseCode(200);
+        }
+      }
+    });
+    final List<String> urls = List.of(mockServer.url("/1080.mp4").toString(),
+        mockServer.url("/720.mp4").toString(), mockServer.url("/480.mp4").toString());
+
+    final Optional<String> url = UrlProbeCache.getInstance().firstSuccessful(urls).get(5, TimeUnit.SECONDS);
+
+    assertEquals(Optional.of(urls.get(1)), url);
+  }
+
+  @Test
+  public void testFirstSuccessfulWithoutExistingUrl() throws Exception {
+    mockServer.enqueue(new MockResponse().setResponseCode(404));
+    mockServer.enqueue(new MockResponse().setResponseCode(404));
+    final List<String> urls = List.of(mockServer.url("/a.mp4").toString(), mockServer.url("/b.mp4").toString());
+
+    assertEquals(Optional.empty(), UrlProbeCache.getInstance().firstSuccessful(urls).get(5, TimeUnit.SECONDS));
+    assertEquals(2, mockServer.getRequestCount());
+  }
+}
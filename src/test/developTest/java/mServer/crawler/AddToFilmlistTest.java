@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import de.mediathekview.mlib.Const;
 import de.mediathekview.mlib.daten.DatenFilm;
 import de.mediathekview.mlib.daten.ListeFilme;
+import de.mediathekview.mlib.tool.UrlProbeCache;
 import java.io.IOException;
 import java.util.Optional;
 
@@ -109,6 +110,7 @@ public class AddToFilmlistTest {
   @BeforeEach
   public void setUp() {
     MserverDaten.system[MserverKonstanten.SYSTEM_BANNEDFILMLIST_NR] = "file:dist/bannedFilmList.txt";
+    UrlProbeCache.getInstance().clear();
     listToAdd = new ListeFilme();
     list = new ListeFilme();
     list.add(createTestFilm(Const.BR, FILM_TOPIC1, FILM_TITLE1, "film1.mp4"));
@@ -0,0 +1,114 @@
+package mServer.crawler;
+
+import de.mediathekview.mlib.Const;
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.daten.ListeFilme;
+import mServer.crawler.sender.MediathekReader;
+import mServer.tool.MserverDaten;
+import mServer.tool.MserverKonstanten;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CrawlCheckpointTest {
+
+  @TempDir
+  Path directory;
+
+  @BeforeAll
+  public static void setUpClass() {
+    MserverDaten.system[MserverKonstanten.SYSTEM_BANNEDFILMLIST_NR] = "";
+  }
+
+  @Test
+  public void testFinishedSenderIsReused() {
+    final CrawlCheckpoint checkpoint = new CrawlCheckpoint(directory.toString(), 60);
+    checkpoint.beginnen(CrawlerConfig.LOAD_LONG);
+    final MediathekReader reader = createReader();
+    reader.gefundeneFilmeUebernehmen(createFilms(3));
+    checkpoint.sichern(reader, true);
+
+    final MediathekReader restarted = createReader();
+    final ListeFilme liste = new ListeFilme();
+    assertTrue(checkpoint.uebernehmen(restarted, liste));
+    assertEquals(3, liste.size());
+    assertEquals(3, restarted.getGefundeneFilme().size());
+    assertEquals("Titel 2", liste.get(2).arr[DatenFilm.FILM_TITEL]);
+  }
+
+  @Test
+  public void testUnfinishedSenderIsContinued() {
+    final CrawlCheckpoint checkpoint = new CrawlCheckpoint(directory.toString(), 60);
+    checkpoint.beginnen(CrawlerConfig.LOAD_LONG);
+    final MediathekReader reader = createReader();
+    reader.gefundeneFilmeUebernehmen(createFilms(2));
+    checkpoint.sichern(reader, false);
+
+    final ListeFilme liste = new ListeFilme();
+    assertFalse(checkpoint.uebernehmen(createReader(), liste));
+    assertEquals(2, liste.size());
+  }
+
+  @Test
+  public void testOtherRunTypeDiscardsCheckpoint() {
+    final CrawlCheckpoint checkpoint = new CrawlCheckpoint(directory.toString(), 60);
+    checkpoint.beginnen(CrawlerConfig.LOAD_LONG);
+    final MediathekReader reader = createReader();
+    reader.gefundeneFilmeUebernehmen(createFilms(2));
+    checkpoint.sichern(reader, true);
+
+    checkpoint.beginnen(CrawlerConfig.LOAD_SHORT);
+    final ListeFilme liste = new ListeFilme();
+    assertFalse(checkpoint.uebernehmen(createReader(), liste));
+    assertTrue(liste.isEmpty());
+  }
+
+  @Test
+  public void testOldCheckpointIsIgnored() throws IOException {
+    final CrawlCheckpoint checkpoint = new CrawlCheckpoint(directory.toString(), 60);
+    checkpoint.beginnen(CrawlerConfig.LOAD_LONG);
+    final MediathekReader reader = createReader();
+    reader.gefundeneFilmeUebernehmen(createFilms(2));
+    checkpoint.sichern(reader, true);
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.collect(Collectors.toList())) {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+      }
+    }
+
+    assertFalse(checkpoint.uebernehmen(createReader(), new ListeFilme()));
+  }
+
+  private static MediathekReader createReader() {
+    return new MediathekReader(null, Const.ARD, 1, 0, 0) {
+      @Override
+      protected void addToList() {
+      }
+    };
+  }
+
+  private static List<DatenFilm> createFilms(final int count) {
+    final List<DatenFilm> films = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final DatenFilm film = new DatenFilm(Const.ARD, "Thema", "https://www.ardmediathek.de/video/" + i, "Titel " + i,
+          "https://media.example.org/video/" + i + ".mp4", "", "01.10.2026", "20:15:00", 1800, "Beschreibung");
+      film.init();
+      films.add(film);
+    }
+    return films;
+  }
+}
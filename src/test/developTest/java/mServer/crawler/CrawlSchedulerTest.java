@@ -0,0 +1,121 @@
+package mServer.crawler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CrawlSchedulerTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final List<CountDownLatch> holders = new ArrayList<>();
+
+  @AfterEach
+  public void tearDown() {
+    holders.forEach(CountDownLatch::countDown);
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSenderGetsWholePoolWhileAlone() throws Exception {
+    final CrawlScheduler scheduler = new CrawlScheduler(4);
+    final CrawlScheduler.Slot ard = scheduler.register("ARD", 2);
+
+    for (int i = 0; i < 4; i++) {
+      hold(ard).get(1, TimeUnit.SECONDS);
+    }
+    assertTrue(scheduler.getStatus().startsWith("4/4 aktiv"));
+  }
+
+  @Test
+  public void testSenderBelowShareStartsImmediately() throws Exception {
+    final CrawlScheduler scheduler = new CrawlScheduler(4);
+    final CrawlScheduler.Slot ard = scheduler.register("ARD", 1);
+    final CrawlScheduler.Slot sr = scheduler.register("SR", 1);
+    for (int i = 0; i < 4; i++) {
+      hold(ard).get(1, TimeUnit.SECONDS);
+    }
+
+    // Pool voll, aber SR nutzt seinen Anteil von 2 noch nicht
+    hold(sr).get(1, TimeUnit.SECONDS);
+    // ARD liegt über seinem Anteil und wartet
+    final Future<?> waiting = hold(ard);
+    TimeUnit.MILLISECONDS.sleep(300);
+    assertFalse(waiting.isDone());
+    assertTrue(scheduler.getStatus().contains("ARD: 4/2 aktiv, 1 wartend"));
+
+    // spätestens nach der maximalen Wartezeit geht es weiter
+    waiting.get(3, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testClosedSenderFreesShare() throws Exception {
+    final CrawlScheduler scheduler = new CrawlScheduler(2);
+    final CrawlScheduler.Slot ard = scheduler.register("ARD", 1);
+    final CrawlScheduler.Slot sr = scheduler.register("SR", 1);
+    hold(sr).get(1, TimeUnit.SECONDS);
+    hold(ard).get(1, TimeUnit.SECONDS);
+    sr.close();
+
+    // ARD hat jetzt den ganzen Pool als Anteil
+    hold(ard).get(1, TimeUnit.SECONDS);
+    assertTrue(scheduler.getStatus().contains("ARD: 2/2 aktiv"));
+  }
+
+  @Test
+  public void testNestedAcquireOnSameThread() {
+    final CrawlScheduler scheduler = new CrawlScheduler(1);
+    final CrawlScheduler.Slot ard = scheduler.register("ARD", 1);
+
+    ard.acquire();
+    ard.acquire();
+    assertTrue(scheduler.getStatus().startsWith("1/1 aktiv"));
+    ard.release();
+    ard.release();
+    assertTrue(scheduler.getStatus().startsWith("0/1 aktiv"));
+
+    final List<String> statistics = new ArrayList<>();
+    ard.close();
+    scheduler.getTextStatistics(statistics);
+    assertTrue(statistics.get(2).startsWith(" ARD"));
+    scheduler.clearStatistics();
+    statistics.clear();
+    scheduler.getTextStatistics(statistics);
+    assertEquals(0, statistics.size());
+  }
+
+  /**
+   * Holt auf einem eigenen Thread eine Erlaubnis und hält sie bis zum Ende des Tests.
+   *
+   * @return erledigt, sobald die Erlaubnis da ist
+   */
+  private Future<?> hold(final CrawlScheduler.Slot slot) {
+    final CountDownLatch release = new CountDownLatch(1);
+    holders.add(release);
+    final CountDownLatch acquired = new CountDownLatch(1);
+    executor.submit(() -> {
+      slot.acquire();
+      acquired.countDown();
+      try {
+        release.await();
+      } finally {
+        slot.release();
+      }
+      return null;
+    });
+    return executor.submit(() -> {
+      acquired.await();
+      return null;
+    });
+  }
+}
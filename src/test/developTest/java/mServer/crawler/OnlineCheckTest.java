@@ -0,0 +1,160 @@
+package mServer.crawler;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(30)
+public class OnlineCheckTest {
+
+  private final OkHttpClient client = new OkHttpClient();
+  private MockWebServer mockServer;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    mockServer = new MockWebServer();
+    mockServer.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    mockServer.close();
+  }
+
+  @Test
+  public void testResponsesReachHandler() throws Exception {
+    mockServer.setDispatcher(new Dispatcher() {
+      @NotNull
+      @Override
+      public MockResponse dispatch(@NotNull RecordedRequest request) {
+        return new MockResponse().setResponseCode(request.getPath().endsWith("offline.mp4") ? 404 : 200);
+      }
+    });
+    final RecordingHandler handler = new RecordingHandler();
+
+    try (OnlineCheck onlineCheck = new OnlineCheck(client, 4, 2)) {
+      onlineCheck.submit(request("/film1.mp4"), handler);
+      onlineCheck.submit(request("/film2.mp4"), handler);
+      onlineCheck.submit(request("/offline.mp4"), handler);
+
+      assertTrue(onlineCheck.awaitCompletion(10, TimeUnit.SECONDS));
+      assertEquals(3, onlineCheck.getCompleted());
+    }
+    assertEquals(3, handler.codes.size());
+    assertTrue(handler.codes.containsAll(List.of(200, 200, 404)));
+    assertTrue(handler.failures.isEmpty());
+  }
+
+  @Test
+  public void testFailureReachesHandler() throws Exception {
+    mockServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+    final RecordingHandler handler = new RecordingHandler();
+
+    // without a retry, the disconnect is the failure of the request
+    try (OnlineCheck onlineCheck = new OnlineCheck(client.newBuilder().retryOnConnectionFailure(false).build(), 4, 2)) {
+      onlineCheck.submit(request("/film.mp4"), handler);
+      assertTrue(onlineCheck.awaitCompletion(10, TimeUnit.SECONDS));
+    }
+    assertTrue(handler.codes.isEmpty());
+    assertEquals(List.of(false), handler.failures);
+  }
+
+  @Test
+  public void testRequestsPerHostAreLimited() throws Exception {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    mockServer.setDispatcher(new Dispatcher() {
+      @NotNull
+      @Override
+      public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        TimeUnit.MILLISECONDS.sleep(50);
+        running.decrementAndGet();
+        return new MockResponse().setResponseCode(200);
+      }
+    });
+    final RecordingHandler handler = new RecordingHandler();
+
+    try (OnlineCheck onlineCheck = new OnlineCheck(client, 10, 2)) {
+      for (int i = 0; i < 12; i++) {
+        onlineCheck.submit(request("/film" + i + ".mp4"), handler);
+      }
+      assertTrue(onlineCheck.awaitCompletion(10, TimeUnit.SECONDS));
+    }
+    assertEquals(12, handler.codes.size());
+    // asynchronous, but never more than two at once
+    assertEquals(2, maxRunning.get());
+  }
+
+  @Test
+  public void testCloseCancelsPendingRequests() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch received = new CountDownLatch(1);
+    mockServer.setDispatcher(new Dispatcher() {
+      @NotNull
+      @Override
+      public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+        received.countDown();
+        release.await(20, TimeUnit.SECONDS);
+        return new MockResponse().setResponseCode(200);
+      }
+    });
+    final RecordingHandler handler = new RecordingHandler();
+
+    try {
+      final OnlineCheck onlineCheck = new OnlineCheck(client, 4, 1);
+      for (int i = 0; i < 3; i++) {
+        onlineCheck.submit(request("/film" + i + ".mp4"), handler);
+      }
+      assertTrue(received.await(10, TimeUnit.SECONDS));
+
+      onlineCheck.close();
+
+      assertEquals(3, onlineCheck.getCompleted());
+      assertTrue(handler.codes.isEmpty());
+      assertEquals(List.of(true, true, true), handler.failures);
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private Request request(final String path) {
+    return new Request.Builder().url(mockServer.url(path)).head().build();
+  }
+
+  private static class RecordingHandler implements OnlineCheck.Handler {
+
+    private final List<Integer> codes = new CopyOnWriteArrayList<>();
+    private final List<Boolean> failures = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onResponse(final Response response) {
+      codes.add(response.code());
+    }
+
+    @Override
+    public void onFailure(final IOException exception, final boolean cancelled) {
+      failures.add(cancelled);
+    }
+  }
+}
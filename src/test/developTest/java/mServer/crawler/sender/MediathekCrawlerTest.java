@@ -0,0 +1,121 @@
+package mServer.crawler.sender;
+
+import de.mediathekview.mlib.Config;
+import de.mediathekview.mlib.Const;
+import de.mediathekview.mlib.daten.DatenFilm;
+import de.mediathekview.mlib.daten.ListeFilme;
+import mServer.crawler.FilmeSuchen;
+import mServer.crawler.sender.base.AbstractRecursivConverterTask;
+import mServer.tool.MserverDaten;
+import mServer.tool.MserverKonstanten;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class MediathekCrawlerTest {
+
+  @BeforeAll
+  public static void setUpClass() {
+    MserverDaten.system[MserverKonstanten.SYSTEM_BANNEDFILMLIST_NR] = "";
+  }
+
+  @AfterEach
+  public void tearDown() {
+    Config.setStop(false);
+  }
+
+  @Test
+  public void testCancelledSenderKeepsFoundFilms() {
+    final FilmeSuchen filmeSuchen = mock(FilmeSuchen.class);
+    filmeSuchen.listeFilmeNeu = new ListeFilme();
+    final MediathekCrawler crawler = new TestCrawler(filmeSuchen) {
+      @Override
+      protected RecursiveTask<Set<DatenFilm>> createCrawlerTask() {
+        return new RecursiveTask<Set<DatenFilm>>() {
+          @Override
+          protected Set<DatenFilm> compute() {
+            // der Sender wird abgebrochen, nachdem die Tasks drei Filme gefunden haben
+            Config.setStop(true);
+            final Set<DatenFilm> films = new HashSet<>();
+            for (int i = 0; i < 3; i++) {
+              films.add(createFilm(i));
+            }
+            return films;
+          }
+        };
+      }
+    };
+
+    crawler.runCrawler();
+
+    assertTrue(crawler.isCancelled());
+    assertEquals(3, filmeSuchen.listeFilmeNeu.size());
+    assertEquals(3, crawler.getGefundeneFilme().size());
+  }
+
+  @Test
+  public void testFilmsOfTasksAreFoundBeforeInsert() {
+    final FilmeSuchen filmeSuchen = mock(FilmeSuchen.class);
+    filmeSuchen.listeFilmeNeu = new ListeFilme();
+    final MediathekCrawler crawler = new TestCrawler(filmeSuchen);
+    final ConcurrentLinkedQueue<Integer> ids = new ConcurrentLinkedQueue<>(Set.of(0, 1, 2));
+
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      pool.invoke(new FilmTask(crawler, ids));
+    } finally {
+      pool.shutdownNow();
+    }
+
+    // noch nicht eingetragen, aber schon für den Checkpoint da
+    assertTrue(filmeSuchen.listeFilmeNeu.isEmpty());
+    assertEquals(3, crawler.getGefundeneFilme().size());
+  }
+
+  private static DatenFilm createFilm(final int i) {
+    return new DatenFilm(Const.ARD, "Thema", "https://www.ardmediathek.de/video/" + i, "Titel " + i,
+        "https://media.example.org/video/" + i + ".mp4", "", "01.10.2026", "20:15:00", 1800, "Beschreibung");
+  }
+
+  private static class TestCrawler extends MediathekCrawler {
+
+    TestCrawler(final FilmeSuchen filmeSuchen) {
+      super(filmeSuchen, Const.ARD, 1, 0, 0);
+    }
+
+    @Override
+    protected RecursiveTask<Set<DatenFilm>> createCrawlerTask() {
+      return new FilmTask(this, new ConcurrentLinkedQueue<>());
+    }
+  }
+
+  private static class FilmTask extends AbstractRecursivConverterTask<DatenFilm, Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    FilmTask(final MediathekReader aCrawler, final ConcurrentLinkedQueue<Integer> aIds) {
+      super(aCrawler, aIds);
+    }
+
+    @Override
+    protected AbstractRecursivConverterTask<DatenFilm, Integer> createNewOwnInstance(
+        final ConcurrentLinkedQueue<Integer> aElementsToProcess) {
+      return new FilmTask(crawler, aElementsToProcess);
+    }
+
+    @Override
+    protected void processElement(final Integer aElement) {
+      taskResults.add(createFilm(aElement));
+    }
+  }
+}
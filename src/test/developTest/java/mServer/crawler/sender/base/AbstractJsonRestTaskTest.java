@@ -0,0 +1,116 @@
+package mServer.crawler.sender.base;
+
+import com.google.gson.JsonDeserializer;
+import de.mediathekview.mlib.tool.HttpResponseCache;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbstractJsonRestTaskTest {
+
+  private static final String URL = "https://api.example.org/sendungen";
+  private static final String BODY = "{\"titel\":\"Tatort\",\"themen\":[\"Krimi\"]}";
+
+  @AfterEach
+  public void tearDown() {
+    ParsedResponseCache.getInstance().clear();
+  }
+
+  @Test
+  public void testRevalidatedResponseIsNotParsedAgain() {
+    final CrawlerUrlDTO dto = new CrawlerUrlDTO(URL);
+    final TestTask first = new TestTask();
+    final TestTask second = new TestTask();
+
+    final Sendung loaded = first.deserialize(response(false), dto);
+    final Response revalidated = response(true);
+    final Sendung cached = second.deserialize(revalidated, dto);
+    final Sendung cachedAgain = first.deserialize(response(true), dto);
+
+    // the body of the 304 served as 200 is never read, the tree of the first response is used
+    verify(revalidated, never()).readEntity(InputStream.class);
+    verify(revalidated).close();
+    assertEquals("Tatort", cached.titel);
+    assertEquals(List.of("Krimi"), cached.themen);
+    // every task gets its own objects from the shared tree
+    assertNotSame(loaded, cached);
+    assertNotSame(cached, cachedAgain);
+    assertNotSame(loaded.themen, cached.themen);
+    cached.themen.add("geändert");
+    assertEquals(List.of("Krimi"), cachedAgain.themen);
+  }
+
+  private static Response response(final boolean revalidated) {
+    final Response response = mock(Response.class);
+    when(response.getStatus()).thenReturn(200);
+    when(response.getHeaderString("ETag")).thenReturn("\"v1\"");
+    when(response.getHeaderString(HttpResponseCache.HEADER_CACHE))
+        .thenReturn(revalidated ? HttpResponseCache.REVALIDATED : null);
+    when(response.readEntity(InputStream.class))
+        .thenReturn(new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+    return response;
+  }
+
+  private static class Sendung {
+
+    private String titel;
+    private List<String> themen;
+  }
+
+  private static class TestTask extends AbstractJsonRestTask<Sendung, Sendung, CrawlerUrlDTO> {
+
+    private static final long serialVersionUID = 1L;
+
+    TestTask() {
+      super(null, new ConcurrentLinkedQueue<>(), Optional.empty());
+    }
+
+    @Override
+    protected Object getParser(final CrawlerUrlDTO aDTO) {
+      return (JsonDeserializer<Sendung>) (json, type, context) -> {
+        final Sendung sendung = new Sendung();
+        sendung.titel = json.getAsJsonObject().get("titel").getAsString();
+        sendung.themen = new ArrayList<>();
+        json.getAsJsonObject().getAsJsonArray("themen").forEach(thema -> sendung.themen.add(thema.getAsString()));
+        return sendung;
+      };
+    }
+
+    @Override
+    protected Type getType() {
+      return Sendung.class;
+    }
+
+    @Override
+    protected void handleHttpError(final CrawlerUrlDTO dto, final URI url, final Response response) {
+    }
+
+    @Override
+    protected void postProcessing(final Sendung aResponseObj, final CrawlerUrlDTO aDTO) {
+      taskResults.add(aResponseObj);
+    }
+
+    @Override
+    protected AbstractRecursivConverterTask<Sendung, CrawlerUrlDTO> createNewOwnInstance(
+        final ConcurrentLinkedQueue<CrawlerUrlDTO> aElementsToProcess) {
+      return new TestTask();
+    }
+  }
+}
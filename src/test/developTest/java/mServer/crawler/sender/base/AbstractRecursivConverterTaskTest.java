@@ -0,0 +1,101 @@
+package mServer.crawler.sender.base;
+
+import de.mediathekview.mlib.Config;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AbstractRecursivConverterTaskTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  @AfterEach
+  public void tearDown() {
+    Config.setStop(false);
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testEveryElementIsProcessedOnce() {
+    final AtomicInteger calls = new AtomicInteger();
+    final Set<Integer> results = pool.invoke(new TestTask(queue(1000), i -> calls.incrementAndGet()));
+
+    assertEquals(1000, calls.get());
+    assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toSet()), results);
+  }
+
+  @Test
+  public void testSlowElementDoesNotHoldUpOthers() {
+    final List<Integer> done = new CopyOnWriteArrayList<>();
+    final long start = System.nanoTime();
+    pool.invoke(new TestTask(queue(40), i -> {
+      sleep(i == 0 ? 1000 : 10);
+      done.add(i);
+    }));
+    final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // die übrigen 39 Elemente laufen auf den anderen drei Threads, während das langsame lädt
+    assertEquals(0, done.get(done.size() - 1));
+    assertTrue(millis < 2000, "Dauer " + millis + " ms");
+  }
+
+  @Test
+  public void testCancelStopsProcessing() {
+    final AtomicInteger calls = new AtomicInteger();
+    final Set<Integer> results = pool.invoke(new TestTask(queue(100), i -> {
+      calls.incrementAndGet();
+      Config.setStop(true);
+    }));
+
+    assertTrue(calls.get() <= 4, calls.get() + " Elemente nach dem Abbruch");
+    assertEquals(calls.get(), results.size());
+  }
+
+  private static ConcurrentLinkedQueue<Integer> queue(final int size) {
+    return IntStream.range(0, size).boxed().collect(Collectors.toCollection(ConcurrentLinkedQueue::new));
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class TestTask extends AbstractRecursivConverterTask<Integer, Integer> {
+
+    private static final long serialVersionUID = 1L;
+    private final transient IntConsumer action;
+
+    TestTask(final ConcurrentLinkedQueue<Integer> aElements, final IntConsumer aAction) {
+      super(null, aElements);
+      action = aAction;
+    }
+
+    @Override
+    protected AbstractRecursivConverterTask<Integer, Integer> createNewOwnInstance(
+        final ConcurrentLinkedQueue<Integer> aElementsToProcess) {
+      return new TestTask(aElementsToProcess, action);
+    }
+
+    @Override
+    protected void processElement(final Integer aElement) {
+      action.accept(aElement);
+      taskResults.add(aElement);
+    }
+  }
+}
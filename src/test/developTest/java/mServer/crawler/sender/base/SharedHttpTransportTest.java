@@ -0,0 +1,122 @@
+package mServer.crawler.sender.base;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.glassfish.jersey.client.ClientConfig;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many small tasks, each loading a few pages like an ARD crawl, reuse the connections of the
+ * shared client instead of opening new ones.
+ */
+public class SharedHttpTransportTest {
+
+  private static final int TASK_COUNT = 200;
+  private static final int URLS_PER_TASK = 5;
+  private static final int THREADS = 4;
+  private static final String JSON = "{\"id\":\"%d\",\"title\":\"Titel\",\"teasers\":[]}";
+
+  private MockWebServer mockServer;
+  private final AtomicInteger connections = new AtomicInteger();
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    mockServer = new MockWebServer();
+    mockServer.setDispatcher(new Dispatcher() {
+      @NotNull
+      @Override
+      public MockResponse dispatch(@NotNull RecordedRequest request) {
+        // the first request on each connection has the sequence number 0
+        if (request.getSequenceNumber() == 0) {
+          connections.incrementAndGet();
+        }
+        return new MockResponse()
+            .setResponseCode(200)
+            .addHeader("Content-Type", "application/json; charset=utf-8")
+            .setBody(String.format(JSON, request.getSequenceNumber()));
+      }
+    });
+    mockServer.start();
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    mockServer.close();
+  }
+
+  @Test
+  public void testRestTasksShareConnections() throws Exception {
+    final Client shared = ClientBuilder.newClient(new ClientConfig()
+        .connectorProvider(new OkHttpConnectorProvider(new OkHttpClient())));
+    try {
+      crawl(() -> {
+        for (int i = 0; i < URLS_PER_TASK; i++) {
+          final String json = shared.target(mockServer.url("/page/" + i).uri())
+              .request()
+              .header("Accept", "application/json")
+              .get(String.class);
+          assertTrue(json.startsWith("{"));
+        }
+      });
+    } finally {
+      shared.close();
+    }
+
+    assertTrue(connections.get() <= THREADS, connections.get() + " Verbindungen");
+  }
+
+  @Test
+  public void testDocumentsShareConnections() throws Exception {
+    final JsoupConnection jsoupConnection = new JsoupConnection(60);
+    crawl(() -> {
+      for (int i = 0; i < URLS_PER_TASK; i++) {
+        jsoupConnection.getDocument(mockServer.url("/page/" + i).toString());
+      }
+    });
+
+    assertTrue(connections.get() <= THREADS, connections.get() + " Verbindungen");
+  }
+
+  private void crawl(final Task task) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final List<Future<?>> futures = new ArrayList<>(TASK_COUNT);
+      for (int i = 0; i < TASK_COUNT; i++) {
+        futures.add(executor.submit(() -> {
+          task.run();
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(TASK_COUNT * URLS_PER_TASK, mockServer.getRequestCount());
+  }
+
+  private interface Task {
+
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,173 @@
+package mServer.crawler.sender.base;
+
+import de.mediathekview.mlib.tool.CancellationToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(10)
+public class StagePipelineTest {
+
+  private final CancellationToken cancellation = CancellationToken.create("test");
+
+  @Test
+  public void testSubmitAcceptsElementOnce() throws InterruptedException {
+    final Set<Integer> results = ConcurrentHashMap.newKeySet();
+    try (StagePipeline pipeline = new StagePipeline("test", cancellation)) {
+      final StagePipeline.Stage<Integer, Integer> stage = pipeline.addStage("stage", 2, 5, batch -> batch);
+      stage.then(results::add);
+      pipeline.start();
+
+      assertTrue(stage.submit(1));
+      assertFalse(stage.submit(1));
+      assertTrue(stage.submit(2));
+      assertTrue(pipeline.awaitCompletion());
+
+      assertFalse(stage.submit(2));
+      assertEquals(2, stage.getSubmitted());
+      assertEquals(2, stage.getProcessed());
+    }
+    assertEquals(Set.of(1, 2), results);
+  }
+
+  @Test
+  public void testCompletionWaitsForDerivedElements() throws InterruptedException {
+    final Set<String> films = ConcurrentHashMap.newKeySet();
+    try (StagePipeline pipeline = new StagePipeline("test", cancellation)) {
+      final StagePipeline.Stage<Integer, String> details = pipeline.addStage("details", 3, 2, batch -> {
+        sleep(5);
+        return batch.stream().map(film -> "Film " + film).collect(Collectors.toList());
+      });
+      details.then(films::add);
+      // two neighbouring pages share half of their films
+      final StagePipeline.Stage<Integer, Integer> pages = pipeline.addStage("pages", 2, 1,
+          batch -> IntStream.range(batch.get(0) * 5, batch.get(0) * 5 + 10).boxed().collect(Collectors.toList()));
+      pages.then(details::submit);
+      pipeline.start();
+
+      IntStream.range(0, 20).forEach(pages::submit);
+      assertTrue(pipeline.awaitCompletion());
+
+      assertEquals(105, details.getSubmitted());
+      assertEquals(105, details.getProcessed());
+    }
+    assertEquals(105, films.size());
+  }
+
+  @Test
+  public void testStagesOverlap() throws InterruptedException {
+    final AtomicLong firstDetail = new AtomicLong(Long.MAX_VALUE);
+    final AtomicLong lastPage = new AtomicLong();
+    try (StagePipeline pipeline = new StagePipeline("test", cancellation)) {
+      final StagePipeline.Stage<Integer, Integer> details = pipeline.addStage("details", 1, 1, batch -> {
+        firstDetail.accumulateAndGet(System.nanoTime(), Math::min);
+        return batch;
+      });
+      final StagePipeline.Stage<Integer, Integer> pages = pipeline.addStage("pages", 1, 1, batch -> {
+        sleep(20);
+        lastPage.accumulateAndGet(System.nanoTime(), Math::max);
+        return batch;
+      });
+      pages.then(details::submit);
+      pipeline.start();
+
+      IntStream.range(0, 10).forEach(pages::submit);
+      assertTrue(pipeline.awaitCompletion());
+    }
+    // the details of the first page are loaded while the other pages are still read
+    assertTrue(firstDetail.get() < lastPage.get());
+  }
+
+  @Test
+  public void testCloseDropsQueuedElements() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch never = new CountDownLatch(1);
+    final StagePipeline pipeline = new StagePipeline("test", cancellation);
+    final StagePipeline.Stage<Integer, Integer> stage = pipeline.addStage("stage", 1, 1, batch -> {
+      started.countDown();
+      try {
+        never.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return batch;
+    });
+    pipeline.start();
+    IntStream.range(0, 5).forEach(stage::submit);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    pipeline.close();
+
+    assertFalse(pipeline.awaitCompletion());
+    assertFalse(stage.submit(10));
+    assertTrue(stage.getProcessed() <= 1);
+  }
+
+  @Test
+  public void testExceptionInBatchDoesNotStopStage() throws InterruptedException {
+    final Set<Integer> results = ConcurrentHashMap.newKeySet();
+    try (StagePipeline pipeline = new StagePipeline("test", cancellation)) {
+      final StagePipeline.Stage<Integer, Integer> stage = pipeline.addStage("stage", 1, 1, batch -> {
+        if (batch.get(0) == 3) {
+          throw new IllegalStateException("Element 3");
+        }
+        return batch;
+      });
+      stage.then(results::add);
+      pipeline.start();
+
+      IntStream.range(0, 6).forEach(stage::submit);
+      assertTrue(pipeline.awaitCompletion());
+      assertEquals(6, stage.getProcessed());
+    }
+    assertEquals(Set.of(0, 1, 2, 4, 5), results);
+  }
+
+  @Test
+  public void testErrorInAllWorkersEndsWaiting() throws InterruptedException {
+    try (StagePipeline pipeline = new StagePipeline("test", cancellation)) {
+      final StagePipeline.Stage<Integer, Integer> stage = pipeline.addStage("stage", 2, 1, batch -> {
+        throw new AssertionError("Element " + batch.get(0));
+      });
+      pipeline.start();
+
+      IntStream.range(0, 10).forEach(stage::submit);
+      assertFalse(pipeline.awaitCompletion());
+    }
+  }
+
+  @Test
+  public void testCancellationEndsWaiting() throws InterruptedException {
+    try (StagePipeline pipeline = new StagePipeline("test", cancellation)) {
+      final StagePipeline.Stage<Integer, Integer> stage = pipeline.addStage("stage", 1, 1, batch -> {
+        cancellation.cancel("test");
+        sleep(60_000);
+        return List.of();
+      });
+      pipeline.start();
+
+      stage.submit(1);
+      assertFalse(pipeline.awaitCompletion());
+    }
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package de.mediathekview.mlib.daten;
+
+import de.mediathekview.mlib.filmlisten.FilmlisteLesen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Liefert die Filme für die Benchmarks: synthetische Filme oder, mit -Dfilmliste=..., die Filme
+ * einer gespeicherten Filmliste. Beides geht ohne Netz.
+ */
+public final class BenchmarkFilme {
+
+  private static final String FILMLISTE = System.getProperty("filmliste");
+  private static final String[] SENDER = {"ARD", "ZDF", "3Sat", "ARTE.DE", "BR", "HR", "KiKA", "MDR", "NDR", "ORF", "SRF", "SWR", "WDR"};
+
+  private static List<DatenFilm> gelesen;
+
+  private BenchmarkFilme() {
+  }
+
+  /**
+   * @param anzahl die Anzahl der Filme, bei einer gespeicherten Filmliste höchstens deren Größe
+   * @param seed   gleicher Seed, gleiche Filme
+   * @return neue Filme, noch ohne {@link DatenFilm#init()}
+   */
+  public static List<DatenFilm> erzeugen(final int anzahl, final long seed) {
+    if (FILMLISTE != null) {
+      return kopieren(lesen(), anzahl);
+    }
+    final Random random = new Random(seed);
+    final List<DatenFilm> films = new ArrayList<>(anzahl);
+    for (int i = 0; i < anzahl; i++) {
+      films.add(createFilm(random, i));
+    }
+    return films;
+  }
+
+  /**
+   * @return eine Liste mit den Filmen, wie nach dem Lesen der Filmliste
+   */
+  public static ListeFilme liste(final int anzahl, final long seed) {
+    final List<DatenFilm> films = erzeugen(anzahl, seed);
+    films.forEach(DatenFilm::init);
+    final ListeFilme liste = new ListeFilme();
+    liste.importFilmliste(films);
+    return liste;
+  }
+
+  private static synchronized List<DatenFilm> lesen() {
+    if (gelesen == null) {
+      final ListeFilme liste = new ListeFilme();
+      new FilmlisteLesen().readFilmListe(FILMLISTE, liste, 0);
+      gelesen = new ArrayList<>(liste);
+    }
+    return gelesen;
+  }
+
+  private static List<DatenFilm> kopieren(final List<DatenFilm> quelle, final int anzahl) {
+    // die Benchmarks ändern die Filme, darum immer neue Instanzen
+    final List<DatenFilm> films = new ArrayList<>(Math.min(anzahl, quelle.size()));
+    for (int i = 0; i < anzahl && i < quelle.size(); i++) {
+      final DatenFilm film = new DatenFilm();
+      System.arraycopy(quelle.get(i).arr, 0, film.arr, 0, film.arr.length);
+      films.add(film);
+    }
+    return films;
+  }
+
+  private static DatenFilm createFilm(final Random random, final int i) {
+    // jeder Wert ist eine eigene Instanz, so wie beim Lesen der Filmliste
+    final DatenFilm film = new DatenFilm();
+    final int day = 1 + random.nextInt(28);
+    film.arr[DatenFilm.FILM_SENDER] = new String(SENDER[random.nextInt(SENDER.length)]);
+    film.arr[DatenFilm.FILM_THEMA] = "Thema " + random.nextInt(3_000);
+    // jeder vierte Titel kommt doppelt vor und enthält Zeichen, die unescape umwandelt
+    film.arr[DatenFilm.FILM_TITEL] = i % 4 == 0 ? "Titel &amp; Folge " + i / 8 : "Titel - " + i;
+    film.arr[DatenFilm.FILM_DATUM] = String.format("%02d.%02d.2025", day, 1 + random.nextInt(12));
+    film.arr[DatenFilm.FILM_ZEIT] = String.format("%02d:%02d:00", random.nextInt(24), random.nextInt(4) * 15);
+    film.arr[DatenFilm.FILM_DAUER] = String.format("00:%02d:00", random.nextInt(60));
+    film.arr[DatenFilm.FILM_GROESSE] = String.valueOf(random.nextInt(1_500));
+    film.arr[DatenFilm.FILM_BESCHREIBUNG] = "<p>Beschreibung &quot;" + i + "&quot;</p>" + " ".repeat(random.nextInt(200));
+    film.arr[DatenFilm.FILM_URL] = "https://media.example.org/video/" + i + "/film_3360k_p36v17.mp4";
+    film.arr[DatenFilm.FILM_WEBSEITE] = "https://www.example.org/video/" + i;
+    film.arr[DatenFilm.FILM_URL_KLEIN] = "36|1496k_p13v17.mp4";
+    film.arr[DatenFilm.FILM_URL_HD] = "36|6660k_p37v17.mp4";
+    film.arr[DatenFilm.FILM_GEO] = random.nextBoolean() ? new String(DatenFilm.GEO_DE) : "";
+    film.arr[DatenFilm.FILM_NEU] = Boolean.toString(random.nextBoolean());
+    return film;
+  }
+}
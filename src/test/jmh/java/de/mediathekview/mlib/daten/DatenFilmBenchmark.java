@@ -0,0 +1,64 @@
+package de.mediathekview.mlib.daten;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Die Schlüssel eines Films, mit denen beim Einsortieren und Abgleichen der Listen verglichen
+ * wird. Eine Operation ist ein Film.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatenFilmBenchmark {
+
+  private static final int FILME = 10_000;
+
+  private List<DatenFilm> films;
+
+  @Setup
+  public void setUp() {
+    films = BenchmarkFilme.erzeugen(FILME, 1);
+    films.forEach(DatenFilm::init);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILME)
+  public void getIndex(final Blackhole blackhole) {
+    for (DatenFilm film : films) {
+      blackhole.consume(film.getIndex());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILME)
+  public void getIndexAddOld(final Blackhole blackhole) {
+    for (DatenFilm film : films) {
+      blackhole.consume(film.getIndexAddOld());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILME)
+  public void getUrl(final Blackhole blackhole) {
+    for (DatenFilm film : films) {
+      blackhole.consume(film.getUrl());
+    }
+  }
+}
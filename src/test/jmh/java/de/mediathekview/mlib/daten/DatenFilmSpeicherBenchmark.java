@@ -0,0 +1,56 @@
+package de.mediathekview.mlib.daten;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speicher der Filme mit und ohne die über {@link FilmDictionary} zusammengelegten Spalten von
+ * {@link DatenFilm#init()}. Die Filme bleiben bis zum Ende der Iteration im Heap, die Differenz
+ * von peak.heap (PeakHeapProfiler) zwischen {@code init=false} und {@code init=true}, geteilt
+ * durch {@link #films}, ist die Ersparnis pro Film.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DatenFilmSpeicherBenchmark {
+
+  @Param({"200000"})
+  public int films;
+
+  @Param({"false", "true"})
+  public boolean init;
+
+  private List<DatenFilm> gehalten;
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    gehalten = null;
+    System.gc();
+  }
+
+  @Benchmark
+  public List<DatenFilm> filmeAnlegen() {
+    final List<DatenFilm> ret = BenchmarkFilme.erzeugen(films, 42);
+    if (init) {
+      ret.forEach(DatenFilm::init);
+    }
+    gehalten = ret;
+    return ret;
+  }
+}
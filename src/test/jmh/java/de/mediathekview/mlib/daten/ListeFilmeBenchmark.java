@@ -0,0 +1,76 @@
+package de.mediathekview.mlib.daten;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aufbauen, Einsortieren, Abgleichen und Sortieren der Filmliste. Eine Operation ist die ganze
+ * Liste mit {@link #films} Filmen, die Listen werden vor jeder Operation neu angelegt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListeFilmeBenchmark {
+
+  @Param({"100000"})
+  public int films;
+
+  private List<DatenFilm> neu;
+  private ListeFilme liste;
+  private ListeFilme alt;
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    neu = BenchmarkFilme.erzeugen(films, 1);
+    liste = BenchmarkFilme.liste(films, 1);
+    // die Hälfte der alten Liste ist auch in der neuen
+    alt = BenchmarkFilme.liste(films, 2);
+    BenchmarkFilme.liste(films / 2, 1).forEach(alt::add);
+  }
+
+  @Benchmark
+  public ListeFilme addFilmVomSender() {
+    final ListeFilme ret = new ListeFilme();
+    neu.forEach(ret::addFilmVomSender);
+    return ret;
+  }
+
+  @Benchmark
+  public ListeFilme updateListeIndex() {
+    liste.updateListe(alt, true, false);
+    return liste;
+  }
+
+  @Benchmark
+  public ListeFilme updateListeUrlErsetzen() {
+    liste.updateListe(alt, false, true);
+    return liste;
+  }
+
+  @Benchmark
+  public ListeFilme neueFilme() {
+    return liste.neueFilme(alt);
+  }
+
+  @Benchmark
+  public ListeFilme sort() {
+    liste.sort();
+    return liste;
+  }
+}
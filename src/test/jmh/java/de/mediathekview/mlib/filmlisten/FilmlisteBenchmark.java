@@ -0,0 +1,71 @@
+package de.mediathekview.mlib.filmlisten;
+
+import de.mediathekview.mlib.daten.BenchmarkFilme;
+import de.mediathekview.mlib.daten.ListeFilme;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schreiben und Lesen der Filmliste als JSON und mit XZ komprimiert, in ein temporäres
+ * Verzeichnis. Eine Operation ist die ganze Liste mit {@link #films} Filmen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilmlisteBenchmark {
+
+  @Param({"100000"})
+  public int films;
+
+  @Param({"json", "xz"})
+  public String format;
+
+  private Path directory;
+  private String datei;
+  private ListeFilme liste;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("jmh-filmliste");
+    datei = directory.resolve("filme." + format).toString();
+    liste = BenchmarkFilme.liste(films, 1);
+    new WriteFilmlistJson().filmlisteSchreiben(liste, datei);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(Path.of(datei));
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public ListeFilme lesen() {
+    final ListeFilme ret = new ListeFilme();
+    new FilmlisteLesen().readFilmListe(datei, ret, 0);
+    return ret;
+  }
+
+  @Benchmark
+  public String schreiben() {
+    new WriteFilmlistJson().filmlisteSchreiben(liste, datei);
+    return datei;
+  }
+}
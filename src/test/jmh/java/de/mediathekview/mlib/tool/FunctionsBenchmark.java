@@ -0,0 +1,49 @@
+package de.mediathekview.mlib.tool;
+
+import de.mediathekview.mlib.daten.BenchmarkFilme;
+import de.mediathekview.mlib.daten.DatenFilm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Functions#unescape(DatenFilm)}, das jeder Film beim Eintragen durchläuft. Eine Operation
+ * ist ein Film.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FunctionsBenchmark {
+
+  private static final int FILME = 10_000;
+
+  private List<DatenFilm> films;
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    // unescape ändert die Filme, darum vor jedem Durchlauf neue
+    films = BenchmarkFilme.erzeugen(FILME, 1);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILME)
+  public List<DatenFilm> unescape() {
+    films.forEach(Functions::unescape);
+    return films;
+  }
+}
@@ -0,0 +1,47 @@
+package de.mediathekview.mlib.tool;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Profiler für JMH, der je Iteration den höchsten Heap-Verbrauch meldet: die Summe der
+ * Spitzenwerte aller Heap-Bereiche, also eine obere Grenze. Aufruf mit
+ * {@code -prof de.mediathekview.mlib.tool.PeakHeapProfiler}.
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+
+  @Override
+  public String getDescription() {
+    return "Peak heap usage";
+  }
+
+  @Override
+  public void beforeIteration(final BenchmarkParams benchmarkParams, final IterationParams iterationParams) {
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  @Override
+  public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams,
+                                                     final IterationParams iterationParams,
+                                                     final IterationResult result) {
+    final long peak = heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    return Collections.singletonList(new ScalarResult("peak.heap", peak / 1_000_000.0, "MB", AggregationPolicy.MAX));
+  }
+
+  private static Collection<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+  }
+}
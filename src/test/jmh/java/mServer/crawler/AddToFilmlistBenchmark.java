@@ -0,0 +1,74 @@
+package mServer.crawler;
+
+import de.mediathekview.mlib.daten.BenchmarkFilme;
+import de.mediathekview.mlib.daten.ListeFilme;
+import de.mediathekview.mlib.tool.FingerprintSet;
+import mServer.tool.MserverDaten;
+import mServer.tool.MserverKonstanten;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Die Schritte von {@link AddToFilmlist#addOldList()} vor dem Online-Check: Aufräumen der alten
+ * Liste und der Abgleich über Titel und URL. Eine Operation ist die ganze alte Liste, die
+ * Listen werden vor jeder Operation neu angelegt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AddToFilmlistBenchmark {
+
+  @Param({"100000"})
+  public int films;
+
+  private ListeFilme liste;
+  private AddToFilmlist addToFilmlist;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    // keine Liste gesperrter Filme laden, der Benchmark läuft ohne Netz
+    MserverDaten.system[MserverKonstanten.SYSTEM_BANNEDFILMLIST_NR] = "";
+    liste = BenchmarkFilme.liste(films, 1);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    // die Hälfte der alten Liste ist auch in der neuen
+    final ListeFilme alt = BenchmarkFilme.liste(films, 2);
+    BenchmarkFilme.liste(films / 2, 1).forEach(alt::add);
+    addToFilmlist = new AddToFilmlist(liste, alt);
+  }
+
+  @Benchmark
+  public AddToFilmlist performInitialCleanup() {
+    addToFilmlist.performInitialCleanup();
+    return addToFilmlist;
+  }
+
+  @Benchmark
+  public AddToFilmlist performTitleSearch() {
+    addToFilmlist.performTitleSearch(new FingerprintSet(films), films);
+    return addToFilmlist;
+  }
+
+  @Benchmark
+  public AddToFilmlist performUrlSearch() {
+    addToFilmlist.performUrlSearch(new FingerprintSet(films), films);
+    return addToFilmlist;
+  }
+}
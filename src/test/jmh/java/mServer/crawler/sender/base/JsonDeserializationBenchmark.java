@@ -0,0 +1,130 @@
+package mServer.crawler.sender.base;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import mServer.crawler.sender.ard.ArdTopicInfoDto;
+import mServer.crawler.sender.ard.json.ArdErrorDeserializer;
+import mServer.crawler.sender.ard.json.ArdErrorInfoDto;
+import mServer.crawler.sender.ard.json.ArdTopicPageDeserializer;
+import mServer.crawler.sender.zdf.json.ZdfDayPageDeserializer;
+import mServer.crawler.sender.zdf.json.ZdfDayPageDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialisieren einer ARD-Themenseite und einer ZDF-Tagesseite so wie in ArdTaskBase und
+ * ZdfTaskBase: direkt aus dem Stream, mit einem Gson je Task, bei der ARD einmal als Baum für die
+ * Fehlerprüfung und das Ergebnis. Eine Operation ist eine Seite mit {@link #entries} Einträgen,
+ * die Bytes je Seite stehen in gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDeserializationBenchmark {
+
+  private static final Type OPTIONAL_ERROR_DTO = new TypeToken<Optional<ArdErrorInfoDto>>() {
+  }.getType();
+  private static final String ZDF_API = "https://api.zdf.de";
+
+  @Param({"50"})
+  public int entries;
+
+  private byte[] ardTopicPage;
+  private byte[] zdfDayPage;
+  private Gson ardGson;
+  private Gson zdfGson;
+
+  @Setup
+  public void setUp() {
+    ardTopicPage = createArdTopicPage().getBytes(StandardCharsets.UTF_8);
+    zdfDayPage = createZdfDayPage().getBytes(StandardCharsets.UTF_8);
+    ardGson = new GsonBuilder()
+        .registerTypeAdapter(OPTIONAL_ERROR_DTO, new ArdErrorDeserializer())
+        .registerTypeAdapter(ArdTopicInfoDto.class, new ArdTopicPageDeserializer())
+        .create();
+    zdfGson = new GsonBuilder()
+        .registerTypeAdapter(ZdfDayPageDto.class, new ZdfDayPageDeserializer(ZDF_API))
+        .create();
+  }
+
+  @Benchmark
+  public ArdTopicInfoDto ardTopicPage() throws IOException {
+    try (Reader reader = reader(ardTopicPage)) {
+      final JsonElement tree = JsonParser.parseReader(reader);
+      final Optional<ArdErrorInfoDto> error = ardGson.fromJson(tree, OPTIONAL_ERROR_DTO);
+      if (error.isPresent()) {
+        throw new IllegalStateException("Fehlerseite");
+      }
+      return ardGson.fromJson(tree, ArdTopicInfoDto.class);
+    }
+  }
+
+  @Benchmark
+  public ZdfDayPageDto zdfDayPage() throws IOException {
+    try (Reader reader = reader(zdfDayPage)) {
+      return zdfGson.fromJson(reader, ZdfDayPageDto.class);
+    }
+  }
+
+  private static Reader reader(final byte[] json) {
+    return new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8);
+  }
+
+  private String createArdTopicPage() {
+    final StringBuilder json = new StringBuilder("{\"id\":\"Y3JpZDovL2Rhc2Vyc3RlLmRlL3RhZ2Vzc2NoYXU\",\"teasers\":[");
+    for (int i = 0; i < entries; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"id\":\"").append(i).append("\",\"type\":\"ondemand\",\"shortTitle\":\"Folge ").append(i)
+          .append("\",\"duration\":1800,\"broadcastedOn\":\"2025-01-01T20:15:00Z\",")
+          .append("\"images\":{\"aspect16x9\":{\"src\":\"https://api.ardmediathek.de/image-service/images/urn:ard:image:")
+          .append(i).append("?w={width}\"}},\"links\":{\"target\":{\"id\":\"Y3JpZDovL2Rhc2Vyc3RlLmRlL")
+          .append(i).append("\",\"href\":\"https://api.ardmediathek.de/page-gateway/pages/ard/item/")
+          .append(i).append("\"}}}");
+    }
+    json.append("],\"pagination\":{\"pageNumber\":0,\"pageSize\":").append(entries)
+        .append(",\"totalElements\":").append(entries).append("}}");
+    return json.toString();
+  }
+
+  private String createZdfDayPage() {
+    final StringBuilder json = new StringBuilder("{\"http://zdf.de/rels/search/results\":[");
+    for (int i = 0; i < entries; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"http://zdf.de/rels/target\":{\"canonical\":\"/content/documents/zdf/film-").append(i)
+          .append(".json\",\"title\":\"Film ").append(i).append("\",\"teasertext\":\"Beschreibung ").append(i)
+          .append("\",\"mainVideoContent\":{\"http://zdf.de/rels/target\":{\"duration\":1800,")
+          .append("\"http://zdf.de/rels/streams/ptmd-template\":\"/tmd/2/{playerId}/vod/ptmd/mediathek/")
+          .append(i).append("\"}}}}");
+    }
+    json.append("],\"next\":\"/search/documents?q=*&types=page-video&page=2\"}");
+    return json.toString();
+  }
+}
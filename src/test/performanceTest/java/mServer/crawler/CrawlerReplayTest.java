@@ -0,0 +1,93 @@
+package mServer.crawler;
+
+import de.mediathekview.mlib.daten.ListeFilme;
+import de.mediathekview.mlib.filmesuchen.ListenerFilmeLaden;
+import de.mediathekview.mlib.filmesuchen.ListenerFilmeLadenEvent;
+import de.mediathekview.mlib.tool.HttpRecorder;
+import mServer.tool.MserverDaten;
+import mServer.tool.MserverKonstanten;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs complete crawlers against an archive recorded with the config entry "http-record" and
+ * prints films per second, requests per second and the peak heap, without the archive itself.
+ * Skipped without -Darchive=...
+ * <p>
+ * The crawlers can be set with -Dsender=ARD,ZDF,... the replay server with -DlatencyMs=... (-1 for
+ * the recorded delays), -DbytesPerSecond=... and -DerrorRate=0.01
+ */
+public class CrawlerReplayTest {
+
+  private static final String ARCHIVE = System.getProperty("archive");
+  private static final String SENDER = System.getProperty("sender", "ARD,ZDF,ARTE,DW,KIKA,3SAT,SR,SRF,ORF,PHONIX");
+  private static final int LATENCY_MS = Integer.getInteger("latencyMs", 0);
+  private static final long BYTES_PER_SECOND = Long.getLong("bytesPerSecond", 0);
+  private static final double ERROR_RATE = Double.parseDouble(System.getProperty("errorRate", "0"));
+
+  @Test
+  public void testReplay() throws Exception {
+    assumeTrue(ARCHIVE != null, "no archive, -Darchive=...");
+    final ReplayDispatcher dispatcher = new ReplayDispatcher(HttpRecorder.read(ARCHIVE), LATENCY_MS, BYTES_PER_SECOND, ERROR_RATE);
+
+    MserverDaten.init();
+    MserverDaten.system[MserverKonstanten.SYSTEM_CRAWLER_LIST_NR] = SENDER;
+    MserverDaten.system[MserverKonstanten.SYSTEM_BANNEDFILMLIST_NR] = "";
+    try (MockWebServer server = new MockWebServer()) {
+      server.setDispatcher(dispatcher);
+      server.start();
+      HttpRecorder.getInstance().replay(server.url("/").toString());
+
+      final FilmeSuchen filmeSuchen = new FilmeSuchen();
+      final CountDownLatch fertig = new CountDownLatch(1);
+      filmeSuchen.addAdListener(new ListenerFilmeLaden() {
+        @Override
+        public void fertig(ListenerFilmeLadenEvent event) {
+          fertig.countDown();
+        }
+      });
+
+      final long heapBefore = usedHeap();
+      heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+      final long start = System.nanoTime();
+      filmeSuchen.filmeBeimSenderLaden(new ListeFilme());
+      fertig.await();
+      final double seconds = (System.nanoTime() - start) / 1e9;
+      final long peakHeap = heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() - heapBefore;
+
+      final int films = filmeSuchen.listeFilmeNeu.size();
+      System.out.printf("Sender: %s%n", SENDER);
+      System.out.printf("Dauer: %.1f s%n", seconds);
+      System.out.printf("Filme: %d, %.0f Filme/s%n", films, films / seconds);
+      System.out.printf("Anfragen: %d, %.0f Anfragen/s, nicht im Archiv: %d, Fehler: %d%n", dispatcher.getRequests(),
+          dispatcher.getRequests() / seconds, dispatcher.getMissing(), dispatcher.getErrors());
+      System.out.printf("Heap max: %d MB%n", peakHeap / 1_000_000);
+      assertTrue(films > 0);
+    } finally {
+      HttpRecorder.getInstance().replay(null);
+    }
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .toList();
+  }
+
+  private static long usedHeap() {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,96 @@
+package mServer.crawler;
+
+import de.mediathekview.mlib.tool.HttpRecorder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers the requests redirected by {@link HttpRecorder#replayInterceptor()} from a recorded
+ * archive. A request recorded several times gets the recorded responses in order, the last one
+ * repeated. Requests missing in the archive get a 404.
+ */
+public class ReplayDispatcher extends Dispatcher {
+
+  private final Map<String, List<HttpRecorder.Entry>> entries = new HashMap<>();
+  private final Map<String, AtomicInteger> positions = new ConcurrentHashMap<>();
+  private final int latencyMs;
+  private final long bytesPerSecond;
+  private final double errorRate;
+  private final Random random = new Random(1);
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger missing = new AtomicInteger();
+  private final AtomicInteger errors = new AtomicInteger();
+
+  /**
+   * @param recorded       the entries of the archive
+   * @param latencyMs      the delay before each response, -1 for the delay measured when recording
+   * @param bytesPerSecond the bandwidth of each response, 0 for unlimited
+   * @param errorRate      the share of requests answered with 503 or a closed connection
+   */
+  public ReplayDispatcher(final List<HttpRecorder.Entry> recorded, final int latencyMs,
+      final long bytesPerSecond, final double errorRate) {
+    recorded.forEach(entry -> entries.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(entry));
+    this.latencyMs = latencyMs;
+    this.bytesPerSecond = bytesPerSecond;
+    this.errorRate = errorRate;
+  }
+
+  @NotNull
+  @Override
+  public MockResponse dispatch(@NotNull final RecordedRequest request) {
+    requests.incrementAndGet();
+    final String key = request.getHeader(HttpRecorder.HEADER_REPLAY_KEY);
+    final List<HttpRecorder.Entry> list = key == null ? null : entries.get(key);
+    if (list == null) {
+      missing.incrementAndGet();
+      return new MockResponse().setResponseCode(404);
+    }
+    if (errorRate > 0 && random.nextDouble() < errorRate) {
+      errors.incrementAndGet();
+      return random.nextBoolean()
+          ? new MockResponse().setResponseCode(503)
+          : new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+    }
+
+    final int position = positions.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+    final HttpRecorder.Entry entry = list.get(Math.min(position, list.size() - 1));
+    final MockResponse response = new MockResponse()
+        .setStatus("HTTP/1.1 " + entry.getCode() + ' ' + entry.getMessage())
+        .setHeaders(entry.getHeaders())
+        .addHeader(HttpRecorder.HEADER_REPLAY_URL, entry.getUrl())
+        .setHeadersDelay(latencyMs < 0 ? entry.getDauerMs() : latencyMs, TimeUnit.MILLISECONDS);
+    if (!"HEAD".equals(request.getMethod())) {
+      // also sets Content-Length, HEAD keeps the recorded one
+      response.setBody(new Buffer().write(entry.getBody()));
+    }
+    if (bytesPerSecond > 0) {
+      response.throttleBody(Math.max(1, bytesPerSecond / 10), 100, TimeUnit.MILLISECONDS);
+    }
+    return response;
+  }
+
+  public int getRequests() {
+    return requests.get();
+  }
+
+  public int getMissing() {
+    return missing.get();
+  }
+
+  public int getErrors() {
+    return errors.get();
+  }
+}